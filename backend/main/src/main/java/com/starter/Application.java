@@ -4,7 +4,9 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.retry.annotation.EnableRetry;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 import com.starter.core.config.EmailConfig;
 
@@ -12,6 +14,8 @@ import com.starter.core.config.EmailConfig;
 @EnableConfigurationProperties(EmailConfig.class)
 @EnableAsync
 @EnableCaching
+@EnableRetry
+@EnableScheduling
 public class Application {
 
     public static void main(String[] args) {
@@ -2,11 +2,13 @@ package com.starter.core.admin;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.starter.core.admin.dto.AdminUserDto;
 import com.starter.core.exception.AdminOperationException;
+import com.starter.core.security.TokenEpochRepository;
 import com.starter.core.user.User;
 import com.starter.core.user.UserRepository;
 
@@ -19,6 +21,11 @@ import java.util.List;
 public class AdminService {
 
     private final UserRepository userRepository;
+    private final TokenEpochRepository tokenEpochRepository;
+
+    // Optional dependency - only available if files feature is implemented
+    @Autowired(required = false)
+    private com.starter.feature.files.FileService fileService;
 
     /** Get all users as DTOs. */
     public List<AdminUserDto> getAllUsers() {
@@ -58,6 +65,8 @@ public class AdminService {
         }
 
         userRepository.updateRole(userId, newRole);
+        // Tokens carry the role; the user signs in again to get one with the new role
+        tokenEpochRepository.increment(userId);
         log.info("Successfully changed role of user {} to {}", userId, newRole);
 
         // Return updated user
@@ -85,6 +94,11 @@ public class AdminService {
             throw new AdminOperationException("Admin accounts cannot be deleted through UI");
         }
 
+        // ON DELETE CASCADE removes file rows but not their S3 content - enqueue it in this transaction
+        if (fileService != null) {
+            fileService.enqueueAllContentDeletion(userId);
+        }
+
         userRepository.deleteById(userId);
         log.info("Successfully deleted user {}", userId);
     }
@@ -2,7 +2,6 @@ package com.starter.core.auth;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -15,15 +14,23 @@ import com.starter.core.config.SecurityTokenConfig;
 import com.starter.core.email.EmailService;
 import com.starter.core.exception.InvalidCredentialsException;
 import com.starter.core.exception.InvalidTokenException;
+import com.starter.core.exception.PasswordHashingOverloadedException;
 import com.starter.core.security.JwtUtil;
+import com.starter.core.security.PasswordHasher;
+import com.starter.core.security.PasswordHasher.Lane;
+import com.starter.core.security.TokenEpochRepository;
 import com.starter.core.user.User;
 import com.starter.core.user.UserRepository;
 import com.starter.core.user.UserService;
 import com.starter.shared.util.TokenGenerator;
 
+import jakarta.annotation.PreDestroy;
+
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /** Service for authentication operations. */
 @Slf4j
@@ -33,13 +40,24 @@ public class AuthService {
 
     private final UserService userService;
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
     private final JwtUtil jwtUtil;
     private final EmailVerificationService emailVerificationService;
     private final EmailService emailService;
     private final TokenGenerator tokenGenerator;
     private final SecurityTokenConfig securityTokenConfig;
     private final LoginHistoryService loginHistoryService;
+    private final LoginThrottle loginThrottle;
+    private final TokenEpochRepository tokenEpochRepository;
+    // Rehash writes wait on the database, so they run here instead of on the CPU-bound hashing pool
+    private final ExecutorService rehashWriteExecutor = Executors.newThreadPerTaskExecutor(
+        Thread.ofVirtual().name("password-rehash-write-", 0).factory()
+    );
+
+    @PreDestroy
+    void shutdown() {
+        rehashWriteExecutor.shutdown();
+    }
 
     /** Register a new user and send verification email. Auto-reactivates archived users. */
     @Transactional
@@ -54,14 +72,14 @@ public class AuthService {
         if (existingUser != null && existingUser.getArchivedAt() != null) {
             // Auto-reactivate archived user
             log.info("Auto-reactivating archived user: {}", normalizedEmail);
-            String hashedPassword = passwordEncoder.encode(request.getPassword());
+            String hashedPassword = passwordHasher.encode(request.getPassword(), Lane.STANDARD);
             userRepository.reactivateUser(existingUser.getId());
             userRepository.updatePassword(existingUser.getId(), hashedPassword);
             user = userRepository.findById(existingUser.getId())
                 .orElseThrow(() -> new RuntimeException("Failed to reactivate user"));
         } else {
             // Create new user
-            String hashedPassword = passwordEncoder.encode(request.getPassword());
+            String hashedPassword = passwordHasher.encode(request.getPassword(), Lane.STANDARD);
             user = userService.createUser(normalizedEmail, hashedPassword, User.Role.USER);
         }
 
@@ -91,6 +109,9 @@ public class AuthService {
         String normalizedEmail = normalizeEmail(request.getEmail());
         log.info("Login attempt for email: {}", normalizedEmail);
 
+        // Before any lookup or hashing, so brute force costs neither
+        loginThrottle.acquire(normalizedEmail, ipAddress);
+
         // Extract GPS coordinates if provided
         BigDecimal gpsLat = null;
         BigDecimal gpsLng = null;
@@ -110,8 +131,17 @@ public class AuthService {
             throw new InvalidCredentialsException();
         }
 
+        boolean passwordMatches;
+        try {
+            passwordMatches = passwordHasher.matches(request.getPassword(), user.getPassword(), Lane.STANDARD);
+        } catch (PasswordHashingOverloadedException e) {
+            // Shed with 503 before the password was checked: retries must not use up the throttle budget
+            loginThrottle.release(normalizedEmail, ipAddress);
+            throw e;
+        }
+
         // Invalid password
-        if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
+        if (!passwordMatches) {
             log.warn("Login failed: invalid password for email {}", normalizedEmail);
             loginHistoryService.recordFailedLogin(
                 normalizedEmail, user.getId(), ipAddress, userAgent, LoginHistory.FailureReason.INVALID_PASSWORD
@@ -119,7 +149,12 @@ public class AuthService {
             throw new InvalidCredentialsException();
         }
 
+        if (passwordHasher.needsRehash(user.getPassword())) {
+            rehashPassword(user, request.getPassword());
+        }
+
         // Success - record login history
+        loginThrottle.release(normalizedEmail, ipAddress);
         loginHistoryService.recordSuccessfulLogin(user.getId(), ipAddress, userAgent, gpsLat, gpsLng);
 
         String token = jwtUtil.generateToken(user);
@@ -177,8 +212,10 @@ public class AuthService {
             throw new InvalidTokenException("Reset token has expired");
         }
 
-        String hashedPassword = passwordEncoder.encode(newPassword);
+        String hashedPassword = passwordHasher.encode(newPassword, Lane.STANDARD);
         userRepository.updatePassword(user.getId(), hashedPassword);
+        // Sessions possibly opened with the old password end
+        tokenEpochRepository.increment(user.getId());
         log.info("Password reset successful for user: {}", user.getEmail());
     }
 
@@ -205,17 +242,17 @@ public class AuthService {
                     }
                 );
 
-        if (!passwordEncoder.matches(currentPassword, user.getPassword())) {
+        if (!passwordHasher.matches(currentPassword, user.getPassword(), Lane.PRIORITY)) {
             log.warn("Password change failed: incorrect current password for user {}", user.getEmail());
             throw new InvalidCredentialsException("Current password is incorrect");
         }
 
-        if (passwordEncoder.matches(newPassword, user.getPassword())) {
+        if (passwordHasher.matches(newPassword, user.getPassword(), Lane.PRIORITY)) {
             log.warn("Password change failed: new password same as current for user {}", user.getEmail());
             throw new IllegalArgumentException("New password must be different from current password");
         }
 
-        String hashedPassword = passwordEncoder.encode(newPassword);
+        String hashedPassword = passwordHasher.encode(newPassword, Lane.PRIORITY);
         userRepository.updatePassword(userId, hashedPassword);
         log.info("Password changed successfully for user: {}", user.getEmail());
     }
@@ -258,6 +295,27 @@ public class AuthService {
         log.info("Email changed successfully for user ID: {} to {}", user.getId(), user.getPendingEmail());
     }
 
+    /**
+     * Store a hash with the current algorithm and parameters in the background; the login does not wait.
+     * Skipped when hashing is busy; the next login tries again.
+     */
+    private void rehashPassword(User user, String rawPassword) {
+        try {
+            passwordHasher.encodeAsync(rawPassword, Lane.BACKGROUND)
+                .thenAcceptAsync(newHash -> {
+                    if (userRepository.replacePasswordHash(user.getId(), user.getPassword(), newHash)) {
+                        log.info("Rehashed password of user ID {} with current parameters", user.getId());
+                    }
+                }, rehashWriteExecutor)
+                .exceptionally(e -> {
+                    log.warn("Password rehash failed for user ID {}: {}", user.getId(), e.getMessage());
+                    return null;
+                });
+        } catch (PasswordHashingOverloadedException e) {
+            log.debug("Password rehash skipped for user ID {}: hashing busy", user.getId());
+        }
+    }
+
     /** Normalize email to lowercase for consistent storage and lookup. */
     private String normalizeEmail(String email) {
         return email.toLowerCase(java.util.Locale.ROOT).trim();
@@ -0,0 +1,232 @@
+package com.starter.core.auth;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.starter.core.exception.LoginThrottledException;
+
+import java.time.Clock;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * In-memory login throttling per email and per client IP, checked before any database lookup or hashing.
+ *
+ * Each key has a sliding-window counter (the current and previous fixed window, the previous one weighted by
+ * how much of it still overlaps the sliding window). An attempt is counted when it starts and refunded when it
+ * succeeds or is shed before the password is checked, so the limits apply to failed guesses without a window in
+ * which concurrent guesses go uncounted.
+ * Keys are spread over lock stripes, each a bounded LRU map, so memory stays at max-keys entries; keys evicted
+ * under a flood of distinct emails or IPs start again from zero. Per instance, not shared across instances.
+ */
+@Slf4j
+@Component
+public class LoginThrottle {
+    private static final int STRIPES = 64;
+
+    private final Clock clock;
+    private final boolean enabled;
+    private final long windowMillis;
+    private final int maxAttemptsPerEmail;
+    private final int maxAttemptsPerIp;
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final Counter throttledByEmail;
+    private final Counter throttledByIp;
+
+    public LoginThrottle(
+        MeterRegistry meterRegistry,
+        @Value("${app.security.login-throttle.enabled:true}") boolean enabled,
+        @Value("${app.security.login-throttle.window-seconds:900}") long windowSeconds,
+        @Value("${app.security.login-throttle.max-attempts-per-email:5}") int maxAttemptsPerEmail,
+        @Value("${app.security.login-throttle.max-attempts-per-ip:50}") int maxAttemptsPerIp,
+        @Value("${app.security.login-throttle.max-keys:100000}") int maxKeys
+    ) {
+        this(meterRegistry, enabled, windowSeconds, maxAttemptsPerEmail, maxAttemptsPerIp, maxKeys, Clock.systemUTC());
+    }
+
+    LoginThrottle(
+        MeterRegistry meterRegistry,
+        boolean enabled,
+        long windowSeconds,
+        int maxAttemptsPerEmail,
+        int maxAttemptsPerIp,
+        int maxKeys,
+        Clock clock
+    ) {
+        if (maxAttemptsPerEmail < 1 || maxAttemptsPerIp < 1) {
+            throw new IllegalArgumentException("Login throttle limits must be at least 1");
+        }
+        this.clock = clock;
+        this.enabled = enabled;
+        this.windowMillis = windowSeconds * 1000;
+        this.maxAttemptsPerEmail = maxAttemptsPerEmail;
+        this.maxAttemptsPerIp = maxAttemptsPerIp;
+        int keysPerStripe = Math.max(maxKeys / STRIPES, 1);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(keysPerStripe);
+        }
+        this.throttledByEmail = Counter.builder("auth.login.throttled")
+            .tag("key", "email")
+            .description("Login attempts rejected because the email had too many recent failures")
+            .register(meterRegistry);
+        this.throttledByIp = Counter.builder("auth.login.throttled")
+            .tag("key", "ip")
+            .description("Login attempts rejected because the client IP had too many recent failures")
+            .register(meterRegistry);
+        Gauge.builder("auth.login.throttle.keys", stripes, LoginThrottle::size)
+            .description("Emails and IPs with a tracked login window")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Count a login attempt for the email and IP.
+     *
+     * @param email     normalized email
+     * @param ipAddress client IP, or null if unknown
+     * @throws LoginThrottledException if either is over its limit; the attempt is then not counted
+     */
+    public void acquire(String email, String ipAddress) {
+        if (!enabled) {
+            return;
+        }
+        long now = clock.millis();
+        String emailKey = "email:" + email;
+        long emailWait = stripe(emailKey).tryAcquire(emailKey, maxAttemptsPerEmail, now, windowMillis);
+        if (emailWait > 0) {
+            throttledByEmail.increment();
+            log.warn("Login throttled for email {}", email);
+            throw new LoginThrottledException(toSeconds(emailWait));
+        }
+        if (ipAddress == null) {
+            return;
+        }
+        String ipKey = "ip:" + ipAddress;
+        long ipWait = stripe(ipKey).tryAcquire(ipKey, maxAttemptsPerIp, now, windowMillis);
+        if (ipWait > 0) {
+            stripe(emailKey).release(emailKey, now, windowMillis);
+            throttledByIp.increment();
+            log.warn("Login throttled for IP {}", ipAddress);
+            throw new LoginThrottledException(toSeconds(ipWait));
+        }
+    }
+
+    /**
+     * Refund the attempt counted by {@link #acquire}: after a successful login, or when the attempt ended without
+     * checking a password (hashing overloaded).
+     */
+    public void release(String email, String ipAddress) {
+        if (!enabled) {
+            return;
+        }
+        long now = clock.millis();
+        String emailKey = "email:" + email;
+        stripe(emailKey).release(emailKey, now, windowMillis);
+        if (ipAddress != null) {
+            String ipKey = "ip:" + ipAddress;
+            stripe(ipKey).release(ipKey, now, windowMillis);
+        }
+    }
+
+    int size() {
+        return size(stripes);
+    }
+
+    private static int size(Stripe[] stripes) {
+        return Arrays.stream(stripes).mapToInt(Stripe::size).sum();
+    }
+
+    private Stripe stripe(String key) {
+        int hash = key.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+    }
+
+    private static long toSeconds(long millis) {
+        return Math.max((millis + 999) / 1000, 1);
+    }
+
+    /** LRU map of windows guarded by its own lock. */
+    private static final class Stripe {
+        private final Map<String, Window> windows;
+
+        Stripe(int maxEntries) {
+            this.windows = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Window> eldest) {
+                    return size() > maxEntries;
+                }
+            };
+        }
+
+        /**
+         * @return 0 if the attempt was counted, otherwise milliseconds until one would be allowed
+         */
+        synchronized long tryAcquire(String key, int limit, long now, long windowMillis) {
+            Window window = windows.computeIfAbsent(key, k -> new Window(now));
+            window.roll(now, windowMillis);
+            if (window.count(now, windowMillis) + 1 > limit) {
+                return Math.max(window.millisUntilBelow(limit - 1, now, windowMillis), 1);
+            }
+            window.current++;
+            return 0;
+        }
+
+        synchronized void release(String key, long now, long windowMillis) {
+            Window window = windows.get(key);
+            if (window == null) {
+                return;
+            }
+            window.roll(now, windowMillis);
+            if (window.current > 0) {
+                window.current--;
+            }
+        }
+
+        synchronized int size() {
+            return windows.size();
+        }
+    }
+
+    /** Attempts in the current fixed window and the one before it. */
+    private static final class Window {
+        private long start;
+        private int previous;
+        private int current;
+
+        Window(long start) {
+            this.start = start;
+        }
+
+        void roll(long now, long windowMillis) {
+            long elapsedWindows = (now - start) / windowMillis;
+            if (elapsedWindows == 1) {
+                previous = current;
+                current = 0;
+            } else if (elapsedWindows > 1) {
+                previous = 0;
+                current = 0;
+            }
+            start += elapsedWindows * windowMillis;
+        }
+
+        double count(long now, long windowMillis) {
+            double overlap = 1 - (double) (now - start) / windowMillis;
+            return previous * overlap + current;
+        }
+
+        /** Time until the sliding count drops to at most allowed, assuming no further attempts. */
+        long millisUntilBelow(int allowed, long now, long windowMillis) {
+            long elapsed = now - start;
+            if (current <= allowed) {
+                // The previous window's weight has to fade far enough
+                return Math.ceilDiv(windowMillis * (previous - allowed + current), previous) - elapsed;
+            }
+            // Wait for the next window, then for this window's weight to fade
+            return windowMillis - elapsed + Math.ceilDiv(windowMillis * (current - allowed), current);
+        }
+    }
+}
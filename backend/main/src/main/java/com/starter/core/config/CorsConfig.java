@@ -23,8 +23,10 @@ public class CorsConfig {
         List<String> origins = Arrays.asList(allowedOrigins.split(","));
         config.setAllowedOrigins(origins);
 
-        config.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "PATCH", "OPTIONS"));
+        config.setAllowedMethods(Arrays.asList("GET", "HEAD", "POST", "PUT", "DELETE", "PATCH", "OPTIONS"));
         config.setAllowedHeaders(Arrays.asList("*"));
+        // Resumable upload state is returned in headers
+        config.setExposedHeaders(Arrays.asList("Upload-Offset", "Upload-Length"));
         config.setAllowCredentials(true);
         config.setMaxAge(3600L);
 
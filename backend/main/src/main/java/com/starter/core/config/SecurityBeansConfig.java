@@ -1,16 +1,28 @@
 package com.starter.core.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import com.starter.core.security.PasswordEncoderCalibrator;
+
+import java.time.Duration;
+
 /** Common security beans used across all profiles. */
 @Configuration
 public class SecurityBeansConfig {
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(
+        @Value("${app.security.password-hashing.algorithm:bcrypt}") String algorithm,
+        @Value("${app.security.password-hashing.target-millis:200}") long targetMillis,
+        @Value("${app.security.password-hashing.bcrypt-cost:0}") int bcryptCost,
+        @Value("${app.security.password-hashing.argon2-memory-kb:19456}") int argon2MemoryKb,
+        @Value("${app.security.password-hashing.argon2-iterations:0}") int argon2Iterations
+    ) {
+        return PasswordEncoderCalibrator.create(
+            algorithm, Duration.ofMillis(targetMillis), bcryptCost, argon2MemoryKb, argon2Iterations
+        );
     }
 }
@@ -30,7 +30,7 @@ public class SecurityConfigurer {
             .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
     }
 
-    /** Apply authorization rules for public endpoints (auth, actuator). */
+    /** Apply authorization rules for public endpoints (auth, actuator, signed storage URLs). */
     public void applyPublicEndpointRules(HttpSecurity http) throws Exception {
         http.authorizeHttpRequests(
             auth -> auth.requestMatchers(
@@ -44,6 +44,9 @@ public class SecurityConfigurer {
                 .permitAll()
                 .requestMatchers("/actuator/**")
                 .permitAll()
+                // Signed URLs of the local blob store carry their own authorization
+                .requestMatchers("/api/storage/objects")
+                .permitAll()
         );
     }
 
@@ -1,7 +1,9 @@
 package com.starter.core.exception;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -80,6 +82,28 @@ public class GlobalExceptionHandler {
             .build();
     }
 
+    @ExceptionHandler(LoginThrottledException.class)
+    public ResponseEntity<ErrorResponse> handleLoginThrottled(LoginThrottledException ex) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+            .body(ErrorResponse.builder()
+                .error("TOO_MANY_LOGIN_ATTEMPTS")
+                .message(ex.getMessage())
+                .build());
+    }
+
+    @ExceptionHandler(PasswordHashingOverloadedException.class)
+    public ResponseEntity<ErrorResponse> handlePasswordHashingOverloaded(PasswordHashingOverloadedException ex) {
+        log.warn("Password hashing overloaded, request shed");
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+            .body(ErrorResponse.builder()
+                .error("PASSWORD_HASHING_OVERLOADED")
+                .message(ex.getMessage())
+                .build());
+    }
+
     @ExceptionHandler(AdminOperationException.class)
     @ResponseStatus(HttpStatus.FORBIDDEN)
     public ErrorResponse handleAdminOperationException(AdminOperationException ex) {
@@ -136,6 +160,18 @@ public class GlobalExceptionHandler {
             .build();
     }
 
+    @ExceptionHandler(com.starter.feature.files.exception.UploadOffsetMismatchException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ErrorResponse handleUploadOffsetMismatch(
+        com.starter.feature.files.exception.UploadOffsetMismatchException ex
+    ) {
+        log.warn("Upload offset mismatch: {}", ex.getMessage());
+        return ErrorResponse.builder()
+            .error("UPLOAD_OFFSET_MISMATCH")
+            .message(ex.getMessage())
+            .build();
+    }
+
     @ExceptionHandler(AccessDeniedException.class)
     @ResponseStatus(HttpStatus.FORBIDDEN)
     public ErrorResponse handleAccessDeniedException(AccessDeniedException ex) {
@@ -0,0 +1,16 @@
+package com.starter.core.exception;
+
+/** Exception thrown when a login is rejected because of too many recent attempts for the email or IP. */
+public class LoginThrottledException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public LoginThrottledException(long retryAfterSeconds) {
+        super("Too many login attempts. Please try again later.");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -27,8 +27,11 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private static final String AUTHORIZATION_HEADER = "Authorization";
     private static final String BEARER_PREFIX = "Bearer ";
+    private static final WebAuthenticationDetailsSource DETAILS_SOURCE = new WebAuthenticationDetailsSource();
 
     private final JwtUtil jwtUtil;
+    private final VerifiedTokenCache tokenCache;
+    private final TokenEpochs tokenEpochs;
 
     @Override
     protected void doFilterInternal(
@@ -47,18 +50,32 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         String token = authHeader.substring(BEARER_PREFIX.length());
 
-        // Validate token and get claims in one call (no double parsing)
-        Claims claims = jwtUtil.validateToken(token);
-        if (claims == null) {
-            log.debug("Invalid JWT token");
-            filterChain.doFilter(request, response);
-            return;
+        // Tokens verified before skip the signature check and claims parse
+        UserPrincipal principal = tokenCache.get(token);
+        if (principal == null) {
+            // Validate token and get claims in one call (no double parsing)
+            Claims claims = jwtUtil.validateToken(token);
+            if (claims == null) {
+                log.debug("Invalid JWT token");
+                filterChain.doFilter(request, response);
+                return;
+            }
+
+            // Create UserPrincipal directly from token claims (no DB query!)
+            principal = createPrincipalFromClaims(claims);
+            if (principal == null) {
+                log.debug("Could not create principal from token claims");
+                filterChain.doFilter(request, response);
+                return;
+            }
+            if (claims.getExpiration() != null) {
+                tokenCache.put(token, principal, claims.getExpiration().toInstant());
+            }
         }
 
-        // Create UserPrincipal directly from token claims (no DB query!)
-        UserPrincipal principal = createPrincipalFromClaims(claims);
-        if (principal == null) {
-            log.debug("Could not create principal from token claims");
+        // After the cache, so revocation also applies to cached tokens
+        if (!tokenEpochs.isCurrent(principal.getId(), principal.getTokenEpoch())) {
+            log.debug("Revoked JWT token for user {}", principal.getId());
             filterChain.doFilter(request, response);
             return;
         }
@@ -66,7 +83,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         // Set up security context
         UsernamePasswordAuthenticationToken authentication =
             new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
-        authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        authentication.setDetails(DETAILS_SOURCE.buildDetails(request));
 
         SecurityContextHolder.getContext().setAuthentication(authentication);
         log.debug("Authenticated user: {} with role: {}", principal.getEmail(), principal.getRole());
@@ -81,6 +98,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             String email = claims.get("email", String.class);
             String roleStr = claims.get("role", String.class);
             Boolean emailVerified = claims.get("emailVerified", Boolean.class);
+            Integer tokenEpoch = claims.get("epoch", Integer.class);
 
             if (email == null || roleStr == null) {
                 return null;
@@ -92,6 +110,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 .email(email)
                 .role(role)
                 .emailVerified(emailVerified != null && emailVerified)
+                .tokenEpoch(tokenEpoch != null ? tokenEpoch : 0)
                 .build();
         } catch (IllegalArgumentException e) {
             log.debug("Failed to parse token claims: {}", e.getMessage());
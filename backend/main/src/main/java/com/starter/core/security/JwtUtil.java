@@ -2,6 +2,7 @@ package com.starter.core.security;
 
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
@@ -19,6 +20,7 @@ import javax.crypto.SecretKey;
 public class JwtUtil {
 
     private final SecretKey secretKey;
+    private final JwtParser parser;
     private final long expirationMs;
 
     public JwtUtil(
@@ -31,6 +33,8 @@ public class JwtUtil {
             throw new IllegalArgumentException("JWT secret must be at least 32 characters");
         }
         this.secretKey = Keys.hmacShaKeyFor(keyBytes);
+        // Immutable and thread-safe: built once instead of per request
+        this.parser = Jwts.parser().verifyWith(secretKey).build();
         this.expirationMs = expirationMs;
     }
 
@@ -44,6 +48,7 @@ public class JwtUtil {
             .claim("email", user.getEmail())
             .claim("role", user.getRole().name())
             .claim("emailVerified", user.isEmailVerified())
+            .claim("epoch", user.getTokenEpoch())
             .issuedAt(Date.from(now))
             .expiration(Date.from(expiration))
             .signWith(secretKey)
@@ -53,11 +58,7 @@ public class JwtUtil {
     /** Validate token and return claims. Returns null if invalid. */
     public Claims validateToken(String token) {
         try {
-            return Jwts.parser()
-                .verifyWith(secretKey)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+            return parser.parseSignedClaims(token).getPayload();
         } catch (JwtException | IllegalArgumentException e) {
             return null;
         }
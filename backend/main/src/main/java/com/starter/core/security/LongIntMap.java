@@ -0,0 +1,123 @@
+package com.starter.core.security;
+
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Thread-safe map from positive long keys to int values that only grow, without boxing.
+ *
+ * Open addressing with linear probing in two parallel arrays (key 0 marks a free slot), kept at most half full so
+ * every probe ends at a free slot. Reads are lock-free in the common case (optimistic StampedLock read, retried
+ * under the read lock if a write intervened); writes are rare and exclusive.
+ */
+final class LongIntMap {
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final StampedLock lock = new StampedLock();
+    private Table table = new Table(INITIAL_CAPACITY);
+    private int size;
+
+    /**
+     * @return the value for the key, or 0 if absent
+     */
+    int get(long key) {
+        long stamp = lock.tryOptimisticRead();
+        int value = table.get(key);
+        if (lock.validate(stamp)) {
+            return value;
+        }
+        stamp = lock.readLock();
+        try {
+            return table.get(key);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Set the key's value to max(current, value).
+     *
+     * @return true if the value increased
+     */
+    boolean raise(long key, int value) {
+        if (key <= 0) {
+            throw new IllegalArgumentException("Keys must be positive: " + key);
+        }
+        long stamp = lock.writeLock();
+        try {
+            if ((size + 1) * 2 > table.keys.length) {
+                table = table.resized(table.keys.length * 2);
+            }
+            int slot = table.slot(key);
+            if (table.keys[slot] == 0) {
+                table.keys[slot] = key;
+                table.values[slot] = value;
+                size++;
+                return true;
+            }
+            if (table.values[slot] < value) {
+                table.values[slot] = value;
+                return true;
+            }
+            return false;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    int size() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /** One generation of the arrays; replaced as a whole on resize so a reader never mixes two. */
+    private static final class Table {
+        private final long[] keys;
+        private final int[] values;
+
+        Table(int capacity) {
+            this.keys = new long[capacity];
+            this.values = new int[capacity];
+        }
+
+        int get(long key) {
+            int slot = slot(key);
+            return keys[slot] == key ? values[slot] : 0;
+        }
+
+        /** Slot holding the key, or the free slot where it belongs. */
+        int slot(long key) {
+            int mask = keys.length - 1;
+            int slot = mix(key) & mask;
+            // Bounded: a torn optimistic read can see a full-looking table, the lock validation discards it
+            for (int probes = 0; probes < keys.length; probes++) {
+                long current = keys[slot];
+                if (current == key || current == 0) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        Table resized(int capacity) {
+            Table resized = new Table(capacity);
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != 0) {
+                    int slot = resized.slot(keys[i]);
+                    resized.keys[slot] = keys[i];
+                    resized.values[slot] = values[i];
+                }
+            }
+            return resized;
+        }
+
+        private static int mix(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.starter.core.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Builds the password encoder with work factors calibrated on this host.
+ *
+ * At startup one hash is timed at a known work factor and the factor is scaled so a hash takes about the target
+ * latency: bcrypt time doubles per cost step, Argon2id time grows linearly with iterations. The result never
+ * goes below the floor (bcrypt cost 10, the previous fixed cost; 2 Argon2id iterations). A configured cost or
+ * iteration count skips the benchmark, e.g. to pin one value across a fleet of different hosts.
+ *
+ * Hashes are stored with an {bcrypt} or {argon2id} prefix; unprefixed hashes from before are verified as bcrypt.
+ * {@link PasswordEncoder#upgradeEncoding} reports hashes of the other algorithm or with weaker parameters
+ * (only weaker, so hosts calibrated differently do not rehash each other's hashes back and forth).
+ */
+@Slf4j
+public final class PasswordEncoderCalibrator {
+    public static final String BCRYPT = "bcrypt";
+    public static final String ARGON2ID = "argon2id";
+
+    static final int MIN_BCRYPT_COST = 10;
+    static final int MAX_BCRYPT_COST = 16;
+    static final int MIN_ARGON2_ITERATIONS = 2;
+    static final int MAX_ARGON2_ITERATIONS = 10;
+    private static final int ARGON2_SALT_LENGTH = 16;
+    private static final int ARGON2_HASH_LENGTH = 32;
+    private static final int ARGON2_PARALLELISM = 1;
+    private static final int SAMPLES = 3;
+    private static final String SAMPLE_PASSWORD = "calibration-Password-1";
+
+    private PasswordEncoderCalibrator() {
+    }
+
+    /**
+     * @param algorithm        {@link #BCRYPT} or {@link #ARGON2ID}, used for new hashes
+     * @param target           hash latency to aim for
+     * @param bcryptCost       fixed bcrypt cost, or 0 to calibrate
+     * @param argon2MemoryKb   Argon2id memory per hash
+     * @param argon2Iterations fixed Argon2id iterations, or 0 to calibrate
+     */
+    public static PasswordEncoder create(
+        String algorithm,
+        Duration target,
+        int bcryptCost,
+        int argon2MemoryKb,
+        int argon2Iterations
+    ) {
+        PasswordEncoder bcrypt;
+        PasswordEncoder argon2;
+        switch (algorithm) {
+            case BCRYPT -> {
+                int cost = bcryptCost > 0 ? bcryptCost : calibrateBcrypt(target);
+                log.info("Password hashing: bcrypt, cost {}", cost);
+                bcrypt = new BCryptPasswordEncoder(cost);
+                argon2 = argon2(argon2MemoryKb, MIN_ARGON2_ITERATIONS);
+            }
+            case ARGON2ID -> {
+                int iterations = argon2Iterations > 0 ? argon2Iterations : calibrateArgon2(target, argon2MemoryKb);
+                log.info("Password hashing: argon2id, {} KiB, {} iterations", argon2MemoryKb, iterations);
+                bcrypt = new BCryptPasswordEncoder(MIN_BCRYPT_COST);
+                argon2 = argon2(argon2MemoryKb, iterations);
+            }
+            default -> throw new IllegalArgumentException("Unknown password hashing algorithm: " + algorithm);
+        }
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(
+            algorithm, Map.of(BCRYPT, bcrypt, ARGON2ID, argon2)
+        );
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return encoder;
+    }
+
+    /**
+     * Largest cost whose hash stays within the target, given a hash at measuredCost took measuredNanos.
+     */
+    static int scaleBcryptCost(int measuredCost, long measuredNanos, long targetNanos) {
+        int cost = measuredCost;
+        long nanos = Math.max(measuredNanos, 1);
+        while (cost < MAX_BCRYPT_COST && nanos * 2 <= targetNanos) {
+            nanos *= 2;
+            cost++;
+        }
+        return Math.max(cost, MIN_BCRYPT_COST);
+    }
+
+    /**
+     * Largest iteration count whose hash stays within the target, given measuredIterations took measuredNanos.
+     */
+    static int scaleArgon2Iterations(int measuredIterations, long measuredNanos, long targetNanos) {
+        long perIteration = Math.max(measuredNanos / measuredIterations, 1);
+        long iterations = targetNanos / perIteration;
+        return Math.clamp(iterations, MIN_ARGON2_ITERATIONS, MAX_ARGON2_ITERATIONS);
+    }
+
+    private static int calibrateBcrypt(Duration target) {
+        long nanos = medianNanos(new BCryptPasswordEncoder(MIN_BCRYPT_COST));
+        return scaleBcryptCost(MIN_BCRYPT_COST, nanos, target.toNanos());
+    }
+
+    private static int calibrateArgon2(Duration target, int memoryKb) {
+        long nanos = medianNanos(argon2(memoryKb, MIN_ARGON2_ITERATIONS));
+        return scaleArgon2Iterations(MIN_ARGON2_ITERATIONS, nanos, target.toNanos());
+    }
+
+    private static long medianNanos(PasswordEncoder encoder) {
+        // First hash warms up the JIT and is discarded
+        encoder.encode(SAMPLE_PASSWORD);
+        long[] samples = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            encoder.encode(SAMPLE_PASSWORD);
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return samples[SAMPLES / 2];
+    }
+
+    private static Argon2PasswordEncoder argon2(int memoryKb, int iterations) {
+        return new Argon2PasswordEncoder(
+            ARGON2_SALT_LENGTH, ARGON2_HASH_LENGTH, ARGON2_PARALLELISM, memoryKb, iterations
+        );
+    }
+}
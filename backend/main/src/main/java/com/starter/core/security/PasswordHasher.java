@@ -0,0 +1,217 @@
+package com.starter.core.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+import com.starter.core.exception.PasswordHashingOverloadedException;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Runs password hashing (encode and verify) on a bounded pool sized to the CPU count.
+ *
+ * A bcrypt verification costs tens of milliseconds of CPU; run on request threads, a burst of logins occupies
+ * every servlet thread and starves all other endpoints. Here at most threads + queue-capacity hashes of the
+ * standard lane (login, registration, reset) are running or waiting; further requests fail fast with
+ * {@link PasswordHashingOverloadedException} (503 with Retry-After) instead of queueing without bound.
+ * The priority lane (re-authentication of signed-in users, e.g. changing the password) has its own slots and
+ * is taken from the queue first, so a login flood does not lock signed-in users out of account settings.
+ * Background work (rehashing outdated hashes after login) runs last and is dropped when its few slots are taken.
+ */
+@Component
+public class PasswordHasher {
+
+    /** Admission lane of a hashing call. */
+    public enum Lane {
+        /** Already authenticated users; admitted separately and run first. */
+        PRIORITY,
+        /** Anonymous callers (login, registration, password reset). */
+        STANDARD,
+        /** Work nobody waits for (rehashing after login); dropped rather than queued when busy. */
+        BACKGROUND
+    }
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor hashExecutor;
+    private final Map<Lane, Semaphore> slots = new EnumMap<>(Lane.class);
+    private final Map<Lane, Counter> rejected = new EnumMap<>(Lane.class);
+    private final Map<Lane, DistributionSummary> queueDepth = new EnumMap<>(Lane.class);
+    private final Map<Lane, Timer> waitTimers = new EnumMap<>(Lane.class);
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final AtomicLong sequence = new AtomicLong();
+    private final long retryAfterSeconds;
+
+    public PasswordHasher(
+        PasswordEncoder passwordEncoder,
+        MeterRegistry meterRegistry,
+        @Value("${app.security.password-hashing.threads:0}") int threads,
+        @Value("${app.security.password-hashing.queue-capacity:64}") int queueCapacity,
+        @Value("${app.security.password-hashing.priority-queue-capacity:16}") int priorityQueueCapacity,
+        @Value("${app.security.password-hashing.retry-after-seconds:2}") long retryAfterSeconds
+    ) {
+        this.passwordEncoder = passwordEncoder;
+        this.retryAfterSeconds = retryAfterSeconds;
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCounter = new AtomicInteger();
+        // Unbounded on its own; admission is bounded per lane by the semaphores below
+        this.hashExecutor = new ThreadPoolExecutor(
+            poolSize, poolSize, 0L, TimeUnit.MILLISECONDS, new PriorityBlockingQueue<>(),
+            runnable -> {
+                Thread thread = new Thread(runnable, "password-hash-" + threadCounter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        );
+        slots.put(Lane.STANDARD, new Semaphore(poolSize + queueCapacity));
+        slots.put(Lane.PRIORITY, new Semaphore(priorityQueueCapacity));
+        slots.put(Lane.BACKGROUND, new Semaphore(poolSize));
+        for (Lane lane : Lane.values()) {
+            String tag = lane.name().toLowerCase(Locale.ROOT);
+            rejected.put(lane, Counter.builder("password.hashing.rejected")
+                .tag("lane", tag)
+                .description("Password hashing requests shed because the lane was full")
+                .register(meterRegistry));
+            queueDepth.put(lane, DistributionSummary.builder("password.hashing.queue.depth")
+                .tag("lane", tag)
+                .description("Hashes already waiting when a request was queued")
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+            waitTimers.put(lane, Timer.builder("password.hashing.wait")
+                .tag("lane", tag)
+                .description("Time a password hash waited for a hashing thread")
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+        }
+        this.encodeTimer = hashTimer(meterRegistry, "encode");
+        this.matchesTimer = hashTimer(meterRegistry, "matches");
+    }
+
+    @PreDestroy
+    void shutdown() {
+        hashExecutor.shutdownNow();
+    }
+
+    /**
+     * Hash a raw password.
+     *
+     * @throws PasswordHashingOverloadedException if the lane is full
+     */
+    public String encode(String rawPassword, Lane lane) {
+        return run(lane, encodeTimer, () -> passwordEncoder.encode(rawPassword));
+    }
+
+    /**
+     * Verify a raw password against a stored hash.
+     *
+     * @throws PasswordHashingOverloadedException if the lane is full
+     */
+    public boolean matches(String rawPassword, String encodedPassword, Lane lane) {
+        return run(lane, matchesTimer, () -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Hash a raw password without waiting for the result.
+     *
+     * @throws PasswordHashingOverloadedException if the lane is full
+     */
+    public CompletableFuture<String> encodeAsync(String rawPassword, Lane lane) {
+        return submit(lane, encodeTimer, () -> passwordEncoder.encode(rawPassword));
+    }
+
+    /**
+     * Whether a stored hash uses another algorithm or weaker parameters than new hashes (no hashing involved).
+     */
+    public boolean needsRehash(String encodedPassword) {
+        return passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+
+    int queued() {
+        return hashExecutor.getQueue().size();
+    }
+
+    private <T> T run(Lane lane, Timer hashTimer, Supplier<T> hash) {
+        try {
+            return submit(lane, hashTimer, hash).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private <T> CompletableFuture<T> submit(Lane lane, Timer hashTimer, Supplier<T> hash) {
+        Semaphore laneSlots = slots.get(lane);
+        if (!laneSlots.tryAcquire()) {
+            throw overloaded(lane);
+        }
+        CompletableFuture<T> result = new CompletableFuture<>();
+        long queuedAt = System.nanoTime();
+        HashTask task = new HashTask(lane, sequence.getAndIncrement(), () -> {
+            try {
+                waitTimers.get(lane).record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                result.complete(hashTimer.record(hash));
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            } finally {
+                laneSlots.release();
+            }
+        });
+        queueDepth.get(lane).record(hashExecutor.getQueue().size());
+        try {
+            hashExecutor.execute(task);
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+            laneSlots.release();
+            throw overloaded(lane);
+        }
+        return result;
+    }
+
+    private PasswordHashingOverloadedException overloaded(Lane lane) {
+        rejected.get(lane).increment();
+        return new PasswordHashingOverloadedException(retryAfterSeconds);
+    }
+
+    private static Timer hashTimer(MeterRegistry meterRegistry, String operation) {
+        return Timer.builder("password.hashing.latency")
+            .tag("operation", operation)
+            .description("CPU time of one password hash on a hashing thread")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    }
+
+    /** Queue entry ordered by lane, then arrival. */
+    private record HashTask(Lane lane, long sequence, Runnable work) implements Runnable, Comparable<HashTask> {
+        @Override
+        public void run() {
+            work.run();
+        }
+
+        @Override
+        public int compareTo(HashTask other) {
+            int byLane = lane.compareTo(other.lane);
+            return byLane != 0 ? byLane : Long.compare(sequence, other.sequence);
+        }
+    }
+}
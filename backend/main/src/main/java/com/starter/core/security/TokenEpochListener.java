@@ -0,0 +1,108 @@
+package com.starter.core.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import javax.sql.DataSource;
+
+/**
+ * Applies token epoch changes as Postgres notifies them (channel user_token_epoch, sent by a trigger on commit).
+ *
+ * Holds one pooled connection for LISTEN on a daemon thread. After every (re)connect it runs a poll, since
+ * notifications sent while not listening are lost. Turn off with jwt.token-epoch.listen=false where LISTEN is not
+ * available (e.g. behind a transaction-pooling proxy); revocation then takes up to one poll interval.
+ */
+@Slf4j
+@Component
+public class TokenEpochListener {
+    static final String CHANNEL = "user_token_epoch";
+    private static final int WAIT_MILLIS = 10_000;
+    private static final long RECONNECT_DELAY_MILLIS = 5_000;
+
+    private final DataSource dataSource;
+    private final TokenEpochs tokenEpochs;
+    private final boolean enabled;
+    private volatile boolean running = true;
+    private Thread listenerThread;
+
+    public TokenEpochListener(
+        DataSource dataSource,
+        TokenEpochs tokenEpochs,
+        @Value("${jwt.token-epoch.listen:true}") boolean enabled
+    ) {
+        this.dataSource = dataSource;
+        this.tokenEpochs = tokenEpochs;
+        this.enabled = enabled;
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        listenerThread = new Thread(this::listen, "token-epoch-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                log.info("Listening for token epoch changes");
+                tokenEpochs.refresh();
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(WAIT_MILLIS);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            apply(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Token epoch listener disconnected, reconnecting: {}", e.getMessage());
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MILLIS);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /** Payload "<user id>:<epoch>". */
+    void apply(String payload) {
+        int separator = payload.indexOf(':');
+        try {
+            tokenEpochs.apply(
+                Long.parseLong(payload.substring(0, separator)),
+                Integer.parseInt(payload.substring(separator + 1))
+            );
+        } catch (RuntimeException e) {
+            log.warn("Ignoring malformed token epoch notification: {}", payload);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.starter.core.security;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Repository for users.token_epoch, the revocation counter embedded in access tokens.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TokenEpochRepository {
+    private final JdbcClient jdbcClient;
+
+    /** Receives one user's current epoch. */
+    @FunctionalInterface
+    public interface EpochConsumer {
+        void accept(long userId, int epoch);
+    }
+
+    /**
+     * Invalidate every access token issued to the user so far. Takes effect when the transaction commits.
+     */
+    public void increment(Long userId) {
+        jdbcClient
+            .sql("""
+                UPDATE users
+                SET token_epoch = token_epoch + 1,
+                    token_epoch_changed_at = CURRENT_TIMESTAMP
+                WHERE id = :userId
+                """)
+            .param("userId", userId)
+            .update();
+    }
+
+    /**
+     * Pass every non-zero epoch changed at or after since (all of them if since is null) to the consumer.
+     *
+     * @return the latest change seen, or null if there was none
+     */
+    public Instant forEachChangedSince(Instant since, EpochConsumer consumer) {
+        AtomicReference<Instant> latest = new AtomicReference<>();
+        RowCallbackHandler handler = rs -> {
+            consumer.accept(rs.getLong("id"), rs.getInt("token_epoch"));
+            Instant changedAt = rs.getTimestamp("token_epoch_changed_at").toInstant();
+            latest.accumulateAndGet(changedAt, (seen, next) -> seen == null || next.isAfter(seen) ? next : seen);
+        };
+        if (since == null) {
+            jdbcClient
+                .sql("SELECT id, token_epoch, token_epoch_changed_at FROM users WHERE token_epoch > 0")
+                .query(handler);
+        } else {
+            jdbcClient
+                .sql("""
+                    SELECT id, token_epoch, token_epoch_changed_at
+                    FROM users
+                    WHERE token_epoch > 0 AND token_epoch_changed_at >= :since
+                    """)
+                .param("since", Timestamp.from(since))
+                .query(handler);
+        }
+        return latest.get();
+    }
+}
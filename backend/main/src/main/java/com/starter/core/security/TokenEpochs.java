@@ -0,0 +1,108 @@
+package com.starter.core.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * In-memory copy of the users' token epochs, checked by the JWT filter on every authenticated request.
+ *
+ * Only users whose epoch was ever incremented are held (everyone else is at 0), in a primitive map, so the check
+ * is a hash lookup without a query. Changes arrive within milliseconds through {@link TokenEpochListener}; the
+ * periodic delta poll covers missed notifications, and re-reads an overlap window because a transaction can
+ * commit after rows with a later change time were already polled. Epochs only grow, so applying an update twice or
+ * out of order is harmless. Changes are never applied before their transaction commits.
+ *
+ * All epochs are loaded before the application starts serving, and startup fails if that load fails: until
+ * then every revoked token would be accepted.
+ */
+@Slf4j
+@Component
+public class TokenEpochs {
+    private final TokenEpochRepository repository;
+    private final Duration overlap;
+    private final LongIntMap epochs = new LongIntMap();
+    private final Counter rejected;
+    private Instant cursor;
+
+    public TokenEpochs(
+        TokenEpochRepository repository,
+        MeterRegistry meterRegistry,
+        @Value("${jwt.token-epoch.poll-overlap-seconds:300}") long overlapSeconds
+    ) {
+        this.repository = repository;
+        this.overlap = Duration.ofSeconds(overlapSeconds);
+        this.rejected = Counter.builder("jwt.token.revoked")
+            .description("Requests rejected because the token was issued before its user's tokens were revoked")
+            .register(meterRegistry);
+        Gauge.builder("jwt.token.epochs.size", epochs, LongIntMap::size)
+            .description("Users with revoked tokens held in memory")
+            .register(meterRegistry);
+    }
+
+    /**
+     * @return false if the user's tokens were revoked after this one was issued
+     */
+    public boolean isCurrent(long userId, int tokenEpoch) {
+        if (tokenEpoch >= epochs.get(userId)) {
+            return true;
+        }
+        rejected.increment();
+        return false;
+    }
+
+    /**
+     * Apply a committed epoch (from a notification or a poll).
+     */
+    public void apply(long userId, int epoch) {
+        if (epochs.raise(userId, epoch)) {
+            log.debug("Tokens of user {} before epoch {} revoked", userId, epoch);
+        }
+    }
+
+    /**
+     * Load all epochs; a failure fails startup instead of accepting revoked tokens.
+     */
+    @PostConstruct
+    void load() {
+        poll();
+        log.info("Loaded token epochs of {} users", epochs.size());
+    }
+
+    /**
+     * Apply the epochs changed since the last poll (minus the overlap). Failures are logged; the epochs already
+     * loaded stay in force.
+     */
+    @Scheduled(
+        initialDelayString = "${jwt.token-epoch.poll-interval-ms:30000}",
+        fixedDelayString = "${jwt.token-epoch.poll-interval-ms:30000}"
+    )
+    public void refresh() {
+        try {
+            poll();
+        } catch (RuntimeException e) {
+            log.warn("Token epoch refresh failed: {}", e.getMessage());
+        }
+    }
+
+    private synchronized void poll() {
+        Instant since = cursor != null ? cursor.minus(overlap) : null;
+        Instant latest = repository.forEachChangedSince(since, this::apply);
+        if (latest != null && (cursor == null || latest.isAfter(cursor))) {
+            cursor = latest;
+        }
+    }
+
+    int size() {
+        return epochs.size();
+    }
+}
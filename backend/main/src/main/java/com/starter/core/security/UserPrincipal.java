@@ -10,18 +10,22 @@ import org.springframework.security.core.userdetails.UserDetails;
 import com.starter.core.user.User;
 
 import java.util.Collection;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 
-/** Represents the authenticated user in Spring Security context. */
+/** Represents the authenticated user in Spring Security context. Immutable, so it can be shared across requests. */
 @Data
 @Builder
 @AllArgsConstructor
 public class UserPrincipal implements UserDetails {
+    private static final Map<User.Role, List<GrantedAuthority>> AUTHORITIES = authoritiesByRole();
 
     private final Long id;
     private final String email;
     private final User.Role role;
     private final boolean emailVerified;
+    private final int tokenEpoch;
 
     /** Create UserPrincipal from User entity. */
     public static UserPrincipal fromUser(User user) {
@@ -30,6 +34,7 @@ public class UserPrincipal implements UserDetails {
             .email(user.getEmail())
             .role(user.getRole())
             .emailVerified(user.isEmailVerified())
+            .tokenEpoch(user.getTokenEpoch())
             .build();
     }
 
@@ -40,7 +45,7 @@ public class UserPrincipal implements UserDetails {
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        return List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
+        return AUTHORITIES.get(role);
     }
 
     @Override
@@ -72,4 +77,12 @@ public class UserPrincipal implements UserDetails {
     public boolean isEnabled() {
         return true;
     }
+
+    private static Map<User.Role, List<GrantedAuthority>> authoritiesByRole() {
+        Map<User.Role, List<GrantedAuthority>> authorities = new EnumMap<>(User.Role.class);
+        for (User.Role role : User.Role.values()) {
+            authorities.put(role, List.of(new SimpleGrantedAuthority("ROLE_" + role.name())));
+        }
+        return authorities;
+    }
 }
@@ -0,0 +1,154 @@
+package com.starter.core.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU cache of verified access tokens, keyed by the SHA-256 of the token.
+ *
+ * The SPA sends the same token with every request; a hit skips the Base64 decode, HMAC check and claims parse.
+ * Only tokens that passed verification are stored, so invalid tokens cannot fill the cache, and an entry
+ * expires at its token's exp. Raw tokens are not kept in memory.
+ *
+ * Every lookup reorders the LRU, so entries are spread over lock stripes by digest (each a bounded LRU map with
+ * its own lock); concurrent requests with different tokens rarely wait for each other. Eviction is LRU per
+ * stripe, an approximation of global LRU.
+ */
+@Component
+public class VerifiedTokenCache {
+    private static final int STRIPES = 64;
+
+    private final Clock clock;
+    private final Stripe[] stripes;
+    private final Counter hits;
+    private final Counter misses;
+
+    public VerifiedTokenCache(
+        MeterRegistry meterRegistry,
+        @Value("${jwt.token-cache.max-entries:10000}") int maxEntries
+    ) {
+        this(meterRegistry, maxEntries, STRIPES, Clock.systemUTC());
+    }
+
+    /**
+     * @param stripeCount power of two
+     */
+    VerifiedTokenCache(MeterRegistry meterRegistry, int maxEntries, int stripeCount, Clock clock) {
+        if (Integer.bitCount(stripeCount) != 1) {
+            throw new IllegalArgumentException("Stripe count must be a power of two: " + stripeCount);
+        }
+        this.clock = clock;
+        this.stripes = new Stripe[stripeCount];
+        int entriesPerStripe = Math.max(maxEntries / stripeCount, 1);
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe(entriesPerStripe);
+        }
+        this.hits = Counter.builder("jwt.token.cache.requests")
+            .tag("result", "hit")
+            .description("Authenticated requests whose token was found verified in the cache")
+            .register(meterRegistry);
+        this.misses = Counter.builder("jwt.token.cache.requests")
+            .tag("result", "miss")
+            .description("Authenticated requests whose token had to be verified and parsed")
+            .register(meterRegistry);
+        Gauge.builder("jwt.token.cache.size", stripes, VerifiedTokenCache::size)
+            .description("Verified tokens in the cache")
+            .register(meterRegistry);
+    }
+
+    /**
+     * @return the principal of a cached, unexpired token, or null if the token must be verified
+     */
+    public UserPrincipal get(String token) {
+        ByteBuffer key = digest(token);
+        UserPrincipal principal = stripe(key).get(key, clock.millis());
+        if (principal != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return principal;
+    }
+
+    /**
+     * Cache the principal of a token that passed verification, until the token expires.
+     */
+    public void put(String token, UserPrincipal principal, Instant expiresAt) {
+        if (!expiresAt.isAfter(clock.instant())) {
+            return;
+        }
+        ByteBuffer key = digest(token);
+        stripe(key).put(key, new CachedPrincipal(principal, expiresAt.toEpochMilli()));
+    }
+
+    int size() {
+        return size(stripes);
+    }
+
+    private static int size(Stripe[] stripes) {
+        return Arrays.stream(stripes).mapToInt(Stripe::size).sum();
+    }
+
+    private Stripe stripe(ByteBuffer key) {
+        // The key is a SHA-256 digest, so any of its bits are uniformly distributed
+        return stripes[key.getInt(0) & (stripes.length - 1)];
+    }
+
+    private static ByteBuffer digest(String token) {
+        try {
+            return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /** LRU map of cached principals guarded by its own lock. */
+    private static final class Stripe {
+        private final Map<ByteBuffer, CachedPrincipal> principals;
+
+        Stripe(int maxEntries) {
+            this.principals = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<ByteBuffer, CachedPrincipal> eldest) {
+                    return size() > maxEntries;
+                }
+            };
+        }
+
+        synchronized UserPrincipal get(ByteBuffer key, long now) {
+            CachedPrincipal cached = principals.get(key);
+            if (cached == null) {
+                return null;
+            }
+            if (now < cached.expiresAtMillis()) {
+                return cached.principal();
+            }
+            principals.remove(key);
+            return null;
+        }
+
+        synchronized void put(ByteBuffer key, CachedPrincipal principal) {
+            principals.put(key, principal);
+        }
+
+        synchronized int size() {
+            return principals.size();
+        }
+    }
+
+    private record CachedPrincipal(UserPrincipal principal, long expiresAtMillis) {
+    }
+}
@@ -47,6 +47,9 @@ public class User {
     private String emailChangeToken;
     private Instant emailChangeTokenExpiresAt;
 
+    // Access tokens issued with a lower epoch are revoked
+    private int tokenEpoch;
+
     /** User roles. */
     public enum Role {
         USER,
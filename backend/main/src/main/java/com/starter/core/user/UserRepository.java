@@ -27,7 +27,7 @@ public class UserRepository {
             + "password_reset_token_expires_at, last_login_at, created_at, updated_at, "
             + "display_name, bio, website, company, location, country, "
             + "avatar, avatar_content_type, archived_at, "
-            + "pending_email, email_change_token, email_change_token_expires_at";
+            + "pending_email, email_change_token, email_change_token_expires_at, token_epoch";
 
     /** Find user by email (case-insensitive, active users only). */
     public Optional<User> findByEmail(String email) {
@@ -226,6 +226,29 @@ public class UserRepository {
             .update();
     }
 
+    /**
+     * Replace a password hash with a rehash of the same password, unless the password changed in the meantime.
+     * Leaves reset tokens alone.
+     *
+     * @return true if the hash was replaced
+     */
+    public boolean replacePasswordHash(Long userId, String currentHash, String newHash) {
+        return jdbcClient
+            .sql(
+                """
+                    UPDATE users
+                    SET password = :newHash,
+                        updated_at = :updatedAt
+                    WHERE id = :userId AND password = :currentHash
+                    """
+            )
+            .param("newHash", newHash)
+            .param("updatedAt", Timestamp.from(Instant.now()))
+            .param("userId", userId)
+            .param("currentHash", currentHash)
+            .update() == 1;
+    }
+
     /** Find all users ordered by creation date (active users only). */
     public List<User> findAll() {
         return jdbcClient
@@ -465,6 +488,7 @@ public class UserRepository {
                 .emailChangeTokenExpiresAt(
                     emailChangeExpires != null ? emailChangeExpires.toInstant() : null
                 )
+                .tokenEpoch(rs.getInt("token_epoch"))
                 .build();
         }
     }
@@ -4,13 +4,15 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DuplicateKeyException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.starter.core.email.EmailService;
 import com.starter.core.exception.EmailAlreadyExistsException;
 import com.starter.core.exception.InvalidCredentialsException;
+import com.starter.core.security.PasswordHasher;
+import com.starter.core.security.PasswordHasher.Lane;
+import com.starter.core.security.TokenEpochRepository;
 import com.starter.shared.util.TokenGenerator;
 
 import java.time.Instant;
@@ -24,9 +26,10 @@ import java.util.Optional;
 public class UserService {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
     private final TokenGenerator tokenGenerator;
     private final EmailService emailService;
+    private final TokenEpochRepository tokenEpochRepository;
 
     // Optional dependency - only available if files feature is implemented
     @Autowired(required = false)
@@ -93,7 +96,7 @@ public class UserService {
             .orElseThrow(() -> new RuntimeException("User not found"));
 
         // Verify password
-        if (!passwordEncoder.matches(password, user.getPassword())) {
+        if (!passwordHasher.matches(password, user.getPassword(), Lane.PRIORITY)) {
             log.warn("Email change failed: incorrect password for user ID {}", userId);
             throw new InvalidCredentialsException("Password is incorrect");
         }
@@ -142,16 +145,16 @@ public class UserService {
             .orElseThrow(() -> new RuntimeException("User not found"));
 
         // Verify password
-        if (!passwordEncoder.matches(password, user.getPassword())) {
+        if (!passwordHasher.matches(password, user.getPassword(), Lane.PRIORITY)) {
             log.warn("Account deletion failed: incorrect password for user ID {}", userId);
             throw new InvalidCredentialsException("Password is incorrect");
         }
 
-        // Delete all user files from S3 and database (if files feature is implemented)
+        // Purge all user files from S3 and database in the background (if files feature is implemented)
         if (fileService != null) {
             try {
                 fileService.deleteAllUserFiles(userId);
-                log.info("Deleted all files for user ID: {}", userId);
+                log.info("Scheduled file purge for user ID: {}", userId);
             } catch (Exception e) {
                 log.error("Failed to delete user files for user ID {}: {}", userId, e.getMessage(), e);
                 // Continue with account deletion even if file deletion fails
@@ -160,8 +163,9 @@ public class UserService {
             log.debug("FileService not available - skipping file deletion (files feature not implemented)");
         }
 
-        // Soft delete (archive)
+        // Soft delete (archive) and sign out everywhere
         userRepository.archiveUser(userId);
+        tokenEpochRepository.increment(userId);
 
         log.info("Account archived for user ID: {}", userId);
     }
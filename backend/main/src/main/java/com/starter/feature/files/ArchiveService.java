@@ -0,0 +1,275 @@
+package com.starter.feature.files;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import com.starter.core.exception.ResourceNotFoundException;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Streams a ZIP of many files (selected by IDs, by filter, or the whole account) straight to the response.
+ *
+ * Files are listed page by page with keyset pagination and read from S3 a few objects ahead of the ZIP writer,
+ * each into a small bounded queue of chunks, so memory per archive stays at read-ahead x chunks-per-file chunks
+ * whatever the account size, and nothing is spooled to disk. Content that is already compressed (images, ZIP,
+ * PDF) is written without compression; other content is deflated.
+ *
+ * Fetches run on virtual threads, one per object: a fetch parked behind a slow client holds no pooled thread,
+ * so slow downloads cannot starve other archives. The writer waits at most fetch-timeout-ms for each chunk.
+ *
+ * Once the first byte is sent, errors can no longer change the status: objects that cannot be read at all are
+ * skipped and listed in a {@value #MISSING_FILES_ENTRY} entry, and a failure in the middle of an object aborts
+ * the response (the client sees a truncated archive).
+ */
+@Slf4j
+@Service
+public class ArchiveService {
+    static final int MAX_IDS = 1000;
+    static final String MISSING_FILES_ENTRY = "MISSING_FILES.txt";
+    private static final int PAGE_SIZE = 200;
+    private static final Set<String> COMPRESSED_TYPES = Set.of(
+        "application/zip", "application/x-zip-compressed", "application/gzip", "application/pdf"
+    );
+    private static final Set<String> UNCOMPRESSED_IMAGE_TYPES = Set.of("image/svg+xml", "image/bmp", "image/tiff");
+
+    private final FileRepository fileRepository;
+    private final BlobStore blobStore;
+    private final int readAhead;
+    private final int chunkSize;
+    private final int chunksPerFile;
+    private final int compressionLevel;
+    private final long fetchTimeoutMillis;
+    private final ExecutorService fetchExecutor = Executors.newThreadPerTaskExecutor(
+        Thread.ofVirtual().name("archive-fetch-", 0).factory()
+    );
+    private final Counter archivedBytes;
+
+    public ArchiveService(
+        FileRepository fileRepository,
+        BlobStore blobStore,
+        MeterRegistry meterRegistry,
+        @Value("${app.storage.archive.read-ahead:4}") int readAhead,
+        @Value("${app.storage.archive.chunk-size:65536}") int chunkSize,
+        @Value("${app.storage.archive.chunks-per-file:4}") int chunksPerFile,
+        @Value("${app.storage.archive.compression-level:6}") int compressionLevel,
+        @Value("${app.storage.archive.fetch-timeout-ms:30000}") long fetchTimeoutMillis
+    ) {
+        this.fileRepository = fileRepository;
+        this.blobStore = blobStore;
+        this.readAhead = readAhead;
+        this.chunkSize = chunkSize;
+        this.chunksPerFile = chunksPerFile;
+        this.compressionLevel = compressionLevel;
+        this.fetchTimeoutMillis = fetchTimeoutMillis;
+        this.archivedBytes = Counter.builder("files.archive.bytes")
+            .description("File content bytes written to ZIP archives")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        fetchExecutor.shutdownNow();
+    }
+
+    /**
+     * Write a ZIP of the selected files to the response. Without IDs and filter, the whole account is archived.
+     *
+     * @throws IllegalArgumentException if both IDs and a filter are given, or too many IDs
+     * @throws ResourceNotFoundException if nothing matches (before any byte is written)
+     */
+    public void stream(
+        Long userId, List<Long> ids, String contentType, String search, HttpServletResponse response
+    ) throws IOException {
+        boolean hasIds = ids != null && !ids.isEmpty();
+        String typeFilter = blankToNull(contentType);
+        String searchFilter = blankToNull(search);
+        if (hasIds && (typeFilter != null || searchFilter != null)) {
+            throw new IllegalArgumentException("Specify either ids or a filter (contentType, search)");
+        }
+        if (hasIds && ids.size() > MAX_IDS) {
+            throw new IllegalArgumentException("At most " + MAX_IDS + " ids per archive");
+        }
+
+        Iterator<UserFile> files = hasIds
+            ? selectByIds(userId, ids)
+            : new KeysetIterator(userId, typeFilter, searchFilter);
+        if (!files.hasNext()) {
+            throw new ResourceNotFoundException("No files to archive");
+        }
+
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType("application/zip");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+            .filename("files-" + LocalDate.now(ZoneOffset.UTC) + ".zip")
+            .build()
+            .toString());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+        int count = write(files, response.getOutputStream());
+        log.info("Streamed archive of {} files for user {}", count, userId);
+    }
+
+    /**
+     * Write the archive, keeping up to read-ahead objects in flight ahead of the entry being written.
+     *
+     * @return number of entries written (without the missing files list)
+     */
+    int write(Iterator<UserFile> files, OutputStream out) throws IOException {
+        Deque<PrefetchedObject> window = new ArrayDeque<>(readAhead);
+        List<String> missing = new ArrayList<>();
+        String missingEntry = MISSING_FILES_ENTRY;
+        int count = 0;
+        ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(out, chunkSize), StandardCharsets.UTF_8);
+        try {
+            fill(window, files);
+            while (!window.isEmpty()) {
+                try (PrefetchedObject next = window.poll()) {
+                    fill(window, files);
+                    if (writeEntry(zip, next)) {
+                        count++;
+                        if (next.getFile().getFilename().equals(missingEntry)) {
+                            missingEntry = "_" + missingEntry;
+                        }
+                    } else {
+                        missing.add(next.getFile().getFilename());
+                    }
+                }
+            }
+            if (!missing.isEmpty()) {
+                zip.setLevel(compressionLevel);
+                zip.putNextEntry(new ZipEntry(missingEntry));
+                zip.write((String.join("\n", missing) + "\n").getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+            zip.finish();
+            zip.flush();
+        } finally {
+            window.forEach(PrefetchedObject::close);
+        }
+        return count;
+    }
+
+    /**
+     * Already-compressed formats gain nothing from deflate; skip the CPU cost.
+     */
+    static boolean isCompressed(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        String type = contentType.toLowerCase(Locale.ROOT);
+        int parameters = type.indexOf(';');
+        if (parameters >= 0) {
+            type = type.substring(0, parameters).trim();
+        }
+        if (type.startsWith("image/")) {
+            return !UNCOMPRESSED_IMAGE_TYPES.contains(type);
+        }
+        return type.startsWith("video/") || type.startsWith("audio/") || COMPRESSED_TYPES.contains(type);
+    }
+
+    private boolean writeEntry(ZipOutputStream zip, PrefetchedObject object) throws IOException {
+        UserFile file = object.getFile();
+        if (!object.awaitContent()) {
+            log.warn("Skipping {} in archive: content could not be read", file.getS3Key(), object.getFailure());
+            return false;
+        }
+
+        // STORED would need the CRC before the data; level 0 emits stored deflate blocks in a single pass
+        zip.setLevel(isCompressed(file.getContentType()) ? Deflater.NO_COMPRESSION : compressionLevel);
+        ZipEntry entry = new ZipEntry(file.getFilename());
+        if (file.getCreatedAt() != null) {
+            entry.setTime(file.getCreatedAt().toEpochMilli());
+        }
+        zip.putNextEntry(entry);
+        archivedBytes.increment(object.transferTo(zip));
+        zip.closeEntry();
+        return true;
+    }
+
+    private void fill(Deque<PrefetchedObject> window, Iterator<UserFile> files) {
+        while (window.size() < readAhead && files.hasNext()) {
+            window.add(PrefetchedObject.start(
+                files.next(), blobStore, chunkSize, chunksPerFile, fetchTimeoutMillis, fetchExecutor
+            ));
+        }
+    }
+
+    private Iterator<UserFile> selectByIds(Long userId, List<Long> ids) {
+        List<UserFile> files = new ArrayList<>(fileRepository.findByIdsAndUserId(Set.copyOf(ids), userId));
+        files.sort(Comparator.comparing(UserFile::getFilename).thenComparing(UserFile::getId));
+        return files.iterator();
+    }
+
+    private static String blankToNull(String value) {
+        return value != null && !value.isBlank() ? value : null;
+    }
+
+    /** Matching ACTIVE files by filename, one keyset page in memory at a time. */
+    private final class KeysetIterator implements Iterator<UserFile> {
+        private final Long userId;
+        private final String contentType;
+        private final String search;
+        private Iterator<UserFile> page = Collections.emptyIterator();
+        private FileCursor after;
+        private boolean lastPage;
+
+        KeysetIterator(Long userId, String contentType, String search) {
+            this.userId = userId;
+            this.contentType = contentType;
+            this.search = search;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (!page.hasNext() && !lastPage) {
+                List<UserFile> files = fileRepository.findPageByKeyset(
+                    userId, contentType, search, FileSort.FILENAME, true, after, PAGE_SIZE
+                );
+                lastPage = files.size() < PAGE_SIZE;
+                if (!files.isEmpty()) {
+                    after = FileCursor.after(files.get(files.size() - 1), FileSort.FILENAME, true);
+                }
+                page = files.iterator();
+            }
+            return page.hasNext();
+        }
+
+        @Override
+        public UserFile next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return page.next();
+        }
+    }
+}
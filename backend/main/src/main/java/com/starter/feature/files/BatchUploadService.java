@@ -0,0 +1,255 @@
+package com.starter.feature.files;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.starter.feature.files.dto.BatchUploadResponse;
+import com.starter.feature.files.exception.StorageQuotaExceededException;
+
+import jakarta.annotation.PreDestroy;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Uploads many files from one multipart request (desktop sync clients sending hundreds of small files).
+ *
+ * Per batch instead of per file: one filename conflict query, one quota check for the total size and one INSERT
+ * of all PENDING rows; content goes to S3 concurrently on a bounded pool, and the uploaded rows are activated
+ * in one transaction. Every file gets its own result - an invalid, conflicting, over-quota or failed file
+ * does not fail the others. Files that do not fit into the remaining quota are rejected in request order.
+ * Content is stored under per-user keys (no deduplication), like direct uploads.
+ */
+@Slf4j
+@Service
+public class BatchUploadService {
+    static final String QUOTA_ERROR = "Storage quota exceeded";
+
+    private final FileService fileService;
+    private final FileRepository fileRepository;
+    private final StorageQuotaService quotaService;
+    private final UploadStateService uploadStateService;
+    private final S3MultipartUploader multipartUploader;
+    private final long maxFileSizeBytes;
+    private final int maxFiles;
+    private final Duration lease;
+    private final ExecutorService uploadExecutor;
+
+    public BatchUploadService(
+        FileService fileService,
+        FileRepository fileRepository,
+        StorageQuotaService quotaService,
+        UploadStateService uploadStateService,
+        S3MultipartUploader multipartUploader,
+        @Value("${app.storage.max-file-size}") long maxFileSizeBytes,
+        @Value("${app.storage.batch-upload.max-files:500}") int maxFiles,
+        @Value("${app.storage.batch-upload.parallel-uploads:8}") int parallelUploads,
+        @Value("${app.storage.upload-lease-minutes:30}") int uploadLeaseMinutes
+    ) {
+        this.fileService = fileService;
+        this.fileRepository = fileRepository;
+        this.quotaService = quotaService;
+        this.uploadStateService = uploadStateService;
+        this.multipartUploader = multipartUploader;
+        this.maxFileSizeBytes = maxFileSizeBytes;
+        this.maxFiles = maxFiles;
+        this.lease = Duration.ofMinutes(uploadLeaseMinutes);
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.uploadExecutor = Executors.newFixedThreadPool(parallelUploads, runnable -> {
+            Thread thread = new Thread(runnable, "s3-batch-upload-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        uploadExecutor.shutdown();
+    }
+
+    /**
+     * Upload all files; never throws for individual files.
+     *
+     * @throws IllegalArgumentException if the batch is empty or too large
+     */
+    public BatchUploadResponse upload(Long userId, List<MultipartFile> files) {
+        if (files.isEmpty()) {
+            throw new IllegalArgumentException("No files to upload");
+        }
+        if (files.size() > maxFiles) {
+            throw new IllegalArgumentException(String.format("At most %d files can be uploaded at once", maxFiles));
+        }
+
+        String[] errors = new String[files.size()];
+        Map<String, Integer> indexByFilename = new LinkedHashMap<>();
+        Map<Integer, UserFile> candidates = new LinkedHashMap<>();
+
+        // 1. Validate each file (size, type, name; duplicates within the batch)
+        for (int i = 0; i < files.size(); i++) {
+            try {
+                UserFile candidate = toCandidate(userId, files.get(i));
+                if (indexByFilename.putIfAbsent(candidate.getFilename(), i) != null) {
+                    throw new IllegalArgumentException(
+                        String.format("File name '%s' appears more than once in the batch", candidate.getFilename())
+                    );
+                }
+                candidates.put(i, candidate);
+            } catch (IllegalArgumentException e) {
+                errors[i] = e.getMessage();
+            }
+        }
+
+        // 2. Existing names with one query, then the quota with one read
+        Set<String> taken = fileRepository.findExistingFilenames(userId, indexByFilename.keySet());
+        long remainingQuota = quotaService.getRemaining(userId);
+        List<UserFile> admitted = new ArrayList<>();
+        candidates.forEach((index, candidate) -> {
+            if (taken.contains(candidate.getFilename())) {
+                errors[index] = String.format("File with name '%s' already exists", candidate.getFilename());
+            } else {
+                admitted.add(candidate);
+            }
+        });
+        for (UserFile candidate : List.copyOf(admitted)) {
+            if (candidate.getSizeBytes() > remainingQuota) {
+                errors[indexByFilename.get(candidate.getFilename())] = QUOTA_ERROR;
+                admitted.remove(candidate);
+            } else {
+                remainingQuota -= candidate.getSizeBytes();
+            }
+        }
+
+        // 3. All PENDING rows in one statement, quota reserved for their total
+        List<UserFile> pending = reserve(userId, admitted, indexByFilename, errors);
+
+        // 4. Content to S3 in parallel, then activate everything that arrived in one transaction
+        List<UserFile> uploaded = transfer(pending, files, indexByFilename, errors);
+        Map<Long, UserFile> activated = new HashMap<>();
+        if (!uploaded.isEmpty()) {
+            uploadStateService.activateAll(userId, uploaded).forEach(file -> activated.put(file.getId(), file));
+        }
+        for (UserFile file : uploaded) {
+            if (!activated.containsKey(file.getId())) {
+                errors[indexByFilename.get(file.getFilename())] = "Upload reservation has expired";
+            }
+        }
+
+        return toResponse(userId, files, errors, indexByFilename, activated);
+    }
+
+    private UserFile toCandidate(Long userId, MultipartFile file) {
+        if (file.getSize() > maxFileSizeBytes) {
+            throw new IllegalArgumentException(
+                String.format("File exceeds maximum size of %d bytes", maxFileSizeBytes)
+            );
+        }
+        if (file.isEmpty()) {
+            throw new IllegalArgumentException("File cannot be empty");
+        }
+        String contentType = fileService.resolveContentType(file.getContentType());
+        String filename = fileService.resolveFilename(file.getOriginalFilename());
+        return UserFile.builder()
+            .userId(userId)
+            .filename(filename)
+            .s3Key(fileService.buildS3Key(userId, filename))
+            .sizeBytes(file.getSize())
+            .contentType(contentType)
+            .build();
+    }
+
+    private List<UserFile> reserve(
+        Long userId, List<UserFile> admitted, Map<String, Integer> indexByFilename, String[] errors
+    ) {
+        if (admitted.isEmpty()) {
+            return List.of();
+        }
+        List<UserFile> pending;
+        try {
+            pending = uploadStateService.beginAll(userId, admitted, lease);
+        } catch (StorageQuotaExceededException e) {
+            // Usage grew since the quota read (concurrent upload); nothing was inserted
+            admitted.forEach(file -> errors[indexByFilename.get(file.getFilename())] = QUOTA_ERROR);
+            return List.of();
+        }
+
+        Set<String> inserted = new HashSet<>();
+        pending.forEach(file -> inserted.add(file.getFilename()));
+        for (UserFile file : admitted) {
+            if (!inserted.contains(file.getFilename())) {
+                errors[indexByFilename.get(file.getFilename())] =
+                    String.format("File with name '%s' already exists", file.getFilename());
+            }
+        }
+        return pending;
+    }
+
+    private List<UserFile> transfer(
+        List<UserFile> pending, List<MultipartFile> files, Map<String, Integer> indexByFilename, String[] errors
+    ) {
+        Map<UserFile, CompletableFuture<Void>> transfers = new LinkedHashMap<>();
+        for (UserFile file : pending) {
+            MultipartFile part = files.get(indexByFilename.get(file.getFilename()));
+            transfers.put(file, CompletableFuture.runAsync(() -> {
+                try (InputStream content = part.getInputStream()) {
+                    multipartUploader.upload(file.getS3Key(), file.getContentType(), content, maxFileSizeBytes);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, uploadExecutor));
+        }
+
+        List<UserFile> uploaded = new ArrayList<>();
+        transfers.forEach((file, transfer) -> {
+            try {
+                transfer.join();
+                uploaded.add(file);
+            } catch (CompletionException e) {
+                log.error("S3 upload failed for file {}, discarding upload", file.getId(), e.getCause());
+                errors[indexByFilename.get(file.getFilename())] = "Failed to upload file to storage";
+                fileService.discardUpload(file);
+            }
+        });
+        return uploaded;
+    }
+
+    private BatchUploadResponse toResponse(
+        Long userId, List<MultipartFile> files, String[] errors,
+        Map<String, Integer> indexByFilename, Map<Long, UserFile> activated
+    ) {
+        Map<Integer, UserFile> storedByIndex = new HashMap<>();
+        activated.values().forEach(file -> storedByIndex.put(indexByFilename.get(file.getFilename()), file));
+
+        List<BatchUploadResponse.Result> results = new ArrayList<>(files.size());
+        for (int i = 0; i < files.size(); i++) {
+            UserFile stored = storedByIndex.get(i);
+            results.add(BatchUploadResponse.Result.builder()
+                .originalFilename(files.get(i).getOriginalFilename())
+                .file(stored != null ? fileService.toDto(stored) : null)
+                .error(stored != null ? null : errors[i])
+                .build());
+        }
+
+        log.info("Batch upload for user {}: {} of {} files stored", userId, activated.size(), files.size());
+        return BatchUploadResponse.builder()
+            .uploadedCount(activated.size())
+            .failedCount(files.size() - activated.size())
+            .results(results)
+            .build();
+    }
+}
@@ -0,0 +1,132 @@
+package com.starter.feature.files;
+
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Object storage used for file content, selected by app.storage.type:
+ * {@link S3Service} (s3, default) or {@link LocalBlobStore} (local disk, for self-hosted installs and tests).
+ *
+ * Keys are the application's object keys (users/{id}/files/..., blobs/..., ...). Multipart uploads are
+ * assembled from numbered parts; parts other than the last must be at least 5MB on S3.
+ */
+public interface BlobStore {
+    /** Limit for keys per {@link #deleteFiles} call. */
+    int MAX_DELETE_BATCH = 1000;
+
+    /**
+     * Store the first {@code length} bytes of a buffer, replacing any existing object.
+     */
+    void uploadFile(String key, byte[] buffer, int length, String contentType);
+
+    default void uploadFile(String key, byte[] content, String contentType) {
+        uploadFile(key, content, content.length, contentType);
+    }
+
+    /**
+     * Start a multipart upload.
+     *
+     * @return upload ID used by subsequent part, complete and abort calls
+     */
+    String createMultipartUpload(String key, String contentType);
+
+    Part uploadPart(String key, String uploadId, int partNumber, byte[] buffer, int length);
+
+    /**
+     * Assemble the parts (ordered by part number) into the object.
+     */
+    void completeMultipartUpload(String key, String uploadId, List<Part> parts);
+
+    /**
+     * Abort a multipart upload; failures are logged, not thrown (callers are already failing).
+     */
+    void abortMultipartUpload(String key, String uploadId);
+
+    /**
+     * Abort every multipart upload still in progress for the key (stuck PENDING uploads).
+     */
+    void abortIncompleteUploads(String key);
+
+    void deleteFile(String key);
+
+    /**
+     * Delete up to {@value #MAX_DELETE_BATCH} objects in one call; per-key failures are returned.
+     *
+     * @return key -> error message for keys that could not be deleted
+     */
+    Map<String, String> deleteFiles(List<String> keys);
+
+    /**
+     * {@link #deleteFiles} without blocking the caller where the store supports it.
+     */
+    default CompletableFuture<Map<String, String>> deleteFilesAsync(List<String> keys) {
+        try {
+            return CompletableFuture.completedFuture(deleteFiles(keys));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Object metadata, empty if the object does not exist.
+     */
+    Optional<ObjectInfo> headObject(String key);
+
+    /**
+     * Open an object for reading; the caller must close the stream.
+     */
+    InputStream openObject(String key);
+
+    /**
+     * Open a byte range of an object (both ends inclusive); the caller must close the stream.
+     */
+    InputStream openObject(String key, long start, long end);
+
+    /**
+     * The object as a local file, for zero-copy serving; empty for remote stores.
+     */
+    default Optional<Path> localPath(String key) {
+        return Optional.empty();
+    }
+
+    /**
+     * List one page of objects under a prefix in UTF-8 byte order of their keys.
+     *
+     * @param startAfter exclusive lower bound, or null to start at the beginning of the prefix
+     */
+    ObjectPage listObjectsPage(String prefix, String startAfter, int maxKeys);
+
+    /**
+     * Signed URL for downloading the object under the given filename (Content-Disposition).
+     *
+     * @param contentEncoding Content-Encoding the response declares (encoded objects), or null
+     */
+    PresignedUrl presignDownload(String key, String filename, String contentEncoding, Duration expiration);
+
+    /**
+     * Signed URL for uploading the object with PUT. Content type and length are signed,
+     * so uploads that differ are rejected; the client must send the signed headers unchanged.
+     */
+    PresignedUrl generatePresignedUploadUrl(String key, String contentType, long contentLength, Duration expiration);
+
+    record Part(int partNumber, String eTag) {
+    }
+
+    record ObjectInfo(long contentLength, String contentType) {
+    }
+
+    record ObjectSummary(String key, long size, Instant lastModified) {
+    }
+
+    record ObjectPage(List<ObjectSummary> objects, boolean truncated) {
+    }
+
+    record PresignedUrl(String url, Map<String, List<String>> signedHeaders, Instant expiration) {
+    }
+}
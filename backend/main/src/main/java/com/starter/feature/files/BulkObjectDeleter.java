@@ -0,0 +1,81 @@
+package com.starter.feature.files;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Deletes many S3 objects with DeleteObjects batches of up to 1000 keys, several batches in parallel.
+ * A batch whose call fails after retries marks all of its keys as failed; other batches are unaffected.
+ *
+ * Batches are issued through {@link BlobStore#deleteFilesAsync} in parallel-batches lanes, each lane starting
+ * its next batch when the previous one completes, so no thread waits for S3 in async client mode.
+ */
+@Slf4j
+@Component
+public class BulkObjectDeleter {
+    private final BlobStore blobStore;
+    private final int parallelBatches;
+
+    public BulkObjectDeleter(
+        BlobStore blobStore,
+        @Value("${app.storage.bulk-delete.parallel-batches:4}") int parallelBatches
+    ) {
+        this.blobStore = blobStore;
+        this.parallelBatches = parallelBatches;
+    }
+
+    /**
+     * Delete the objects and wait for all batches.
+     *
+     * @return key -> error message for keys that could not be deleted
+     */
+    public Map<String, String> delete(List<String> s3Keys) {
+        List<List<String>> batches = new ArrayList<>();
+        for (int from = 0; from < s3Keys.size(); from += BlobStore.MAX_DELETE_BATCH) {
+            batches.add(s3Keys.subList(from, Math.min(from + BlobStore.MAX_DELETE_BATCH, s3Keys.size())));
+        }
+
+        Map<String, String> failures = new ConcurrentHashMap<>();
+        List<CompletableFuture<Void>> lanes = new ArrayList<>();
+        for (int lane = 0; lane < Math.min(parallelBatches, batches.size()); lane++) {
+            CompletableFuture<Void> chain = CompletableFuture.completedFuture(null);
+            for (int i = lane; i < batches.size(); i += parallelBatches) {
+                List<String> batch = batches.get(i);
+                chain = chain.thenCompose(previous -> deleteBatch(batch)).thenAccept(failures::putAll);
+            }
+            lanes.add(chain);
+        }
+
+        CompletableFuture.allOf(lanes.toArray(CompletableFuture[]::new)).join();
+        if (!failures.isEmpty()) {
+            log.warn("Failed to delete {} of {} objects from S3", failures.size(), s3Keys.size());
+        }
+        return new HashMap<>(failures);
+    }
+
+    private CompletableFuture<Map<String, String>> deleteBatch(List<String> batch) {
+        CompletableFuture<Map<String, String>> result;
+        try {
+            result = blobStore.deleteFilesAsync(batch);
+        } catch (Exception e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        return result.exceptionally(e -> {
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            String message = cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+            log.warn("DeleteObjects batch of {} keys failed: {}", batch.size(), message);
+            Map<String, String> failures = new HashMap<>();
+            batch.forEach(key -> failures.put(key, message));
+            return failures;
+        });
+    }
+}
@@ -0,0 +1,23 @@
+package com.starter.feature.files;
+
+import java.util.Locale;
+
+/**
+ * ACTIVE file count and logical bytes of one user for one major content type (user_content_facets).
+ */
+public record ContentFacet(String contentMajor, long fileCount, long bytesUsed) {
+    private static final String UNKNOWN_CONTENT_TYPE = "application/octet-stream";
+
+    /**
+     * Major type as stored in user_files.content_major (generated column, same normalization).
+     */
+    public static String majorOf(String contentType) {
+        String type = contentType != null ? contentType : UNKNOWN_CONTENT_TYPE;
+        int slash = type.indexOf('/');
+        return (slash < 0 ? type : type.substring(0, slash)).trim().toLowerCase(Locale.ROOT);
+    }
+
+    ContentFacet plus(ContentFacet other) {
+        return new ContentFacet(contentMajor, fileCount + other.fileCount, bytesUsed + other.bytesUsed);
+    }
+}
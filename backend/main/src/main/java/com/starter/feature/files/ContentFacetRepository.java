@@ -0,0 +1,167 @@
+package com.starter.feature.files;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Repository for per-user content-type facets (user_content_facets).
+ * Changed in the same transaction as the user_files rows they describe, after the user's
+ * {@link StorageUsageRepository} counter row, whose lock serializes concurrent changes.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ContentFacetRepository {
+    private final JdbcClient jdbcClient;
+    private static final RowMapper<ContentFacet> ROW_MAPPER = (rs, rowNum) -> new ContentFacet(
+        rs.getString("content_major"),
+        rs.getLong("file_count"),
+        rs.getLong("bytes_used")
+    );
+
+    /**
+     * Count a file that became ACTIVE with the given (final) size.
+     */
+    public void add(Long userId, String contentType, long sizeBytes) {
+        String major = ContentFacet.majorOf(contentType);
+        upsert(userId, List.of(new ContentFacet(major, 1, sizeBytes)));
+    }
+
+    /**
+     * Count files that became ACTIVE with their recorded sizes (one statement for all types).
+     */
+    public void add(Long userId, Collection<UserFile> files) {
+        upsert(userId, group(files));
+    }
+
+    /**
+     * Uncount deleted ACTIVE files. Clamped at zero like the usage counters; reconciliation repairs drift.
+     */
+    public void remove(Long userId, Collection<UserFile> files) {
+        List<ContentFacet> deltas = group(files);
+        if (deltas.isEmpty()) {
+            return;
+        }
+        jdbcClient
+            .sql("""
+                UPDATE user_content_facets AS f SET
+                    file_count = GREATEST(f.file_count - delta.file_count, 0),
+                    bytes_used = GREATEST(f.bytes_used - delta.bytes_used, 0),
+                    updated_at = CURRENT_TIMESTAMP
+                FROM unnest(
+                    CAST(:majors AS varchar[]), CAST(:counts AS bigint[]), CAST(:bytes AS bigint[])
+                ) AS delta(content_major, file_count, bytes_used)
+                WHERE f.user_id = :userId AND f.content_major = delta.content_major
+                """)
+            .param("userId", userId)
+            .param("majors", deltas.stream().map(ContentFacet::contentMajor).toArray(String[]::new))
+            .param("counts", deltas.stream().map(ContentFacet::fileCount).toArray(Long[]::new))
+            .param("bytes", deltas.stream().map(ContentFacet::bytesUsed).toArray(Long[]::new))
+            .update();
+    }
+
+    /**
+     * The user's non-empty facets, most files first.
+     */
+    public List<ContentFacet> findByUserId(Long userId) {
+        return jdbcClient
+            .sql("""
+                SELECT content_major, file_count, bytes_used
+                FROM user_content_facets
+                WHERE user_id = :userId AND file_count > 0
+                ORDER BY file_count DESC, content_major
+                """)
+            .param("userId", userId)
+            .query(ROW_MAPPER)
+            .list();
+    }
+
+    /**
+     * Recompute a user's facets from user_files (source of truth), in the order of {@link #findByUserId}.
+     */
+    public List<ContentFacet> computeFromFiles(Long userId) {
+        return jdbcClient
+            .sql("""
+                SELECT content_major, COUNT(*) AS file_count, COALESCE(SUM(size_bytes), 0) AS bytes_used
+                FROM user_files
+                WHERE user_id = :userId AND status = 'ACTIVE'
+                GROUP BY content_major
+                ORDER BY file_count DESC, content_major
+                """)
+            .param("userId", userId)
+            .query(ROW_MAPPER)
+            .list();
+    }
+
+    /**
+     * Replace all of a user's facets with recomputed values (reconciliation); drops rows that reached zero.
+     */
+    public void replace(Long userId, List<ContentFacet> facets) {
+        jdbcClient
+            .sql("DELETE FROM user_content_facets WHERE user_id = :userId")
+            .param("userId", userId)
+            .update();
+        upsert(userId, facets);
+    }
+
+    /**
+     * Users whose facets differ from user_files (one aggregate pass, no locks).
+     * Candidates only - each is re-checked under the user's counter row lock.
+     */
+    public List<Long> findDriftCandidates() {
+        return jdbcClient
+            .sql("""
+                SELECT DISTINCT COALESCE(f.user_id, c.user_id)
+                FROM (
+                    SELECT user_id, content_major, COUNT(*) AS file_count, SUM(size_bytes) AS bytes_used
+                    FROM user_files
+                    WHERE status = 'ACTIVE'
+                    GROUP BY user_id, content_major
+                ) f
+                FULL OUTER JOIN user_content_facets c
+                    ON c.user_id = f.user_id AND c.content_major = f.content_major
+                WHERE COALESCE(f.file_count, 0) <> COALESCE(c.file_count, 0)
+                   OR COALESCE(f.bytes_used, 0) <> COALESCE(c.bytes_used, 0)
+                """)
+            .query(Long.class)
+            .list();
+    }
+
+    private void upsert(Long userId, List<ContentFacet> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        jdbcClient
+            .sql("""
+                INSERT INTO user_content_facets AS f (user_id, content_major, file_count, bytes_used)
+                SELECT :userId, delta.content_major, delta.file_count, delta.bytes_used
+                FROM unnest(
+                    CAST(:majors AS varchar[]), CAST(:counts AS bigint[]), CAST(:bytes AS bigint[])
+                ) AS delta(content_major, file_count, bytes_used)
+                ON CONFLICT (user_id, content_major) DO UPDATE SET
+                    file_count = f.file_count + EXCLUDED.file_count,
+                    bytes_used = f.bytes_used + EXCLUDED.bytes_used,
+                    updated_at = CURRENT_TIMESTAMP
+                """)
+            .param("userId", userId)
+            .param("majors", deltas.stream().map(ContentFacet::contentMajor).toArray(String[]::new))
+            .param("counts", deltas.stream().map(ContentFacet::fileCount).toArray(Long[]::new))
+            .param("bytes", deltas.stream().map(ContentFacet::bytesUsed).toArray(Long[]::new))
+            .update();
+    }
+
+    private static List<ContentFacet> group(Collection<UserFile> files) {
+        Map<String, ContentFacet> totals = new TreeMap<>();
+        for (UserFile file : files) {
+            String major = ContentFacet.majorOf(file.getContentType());
+            totals.merge(major, new ContentFacet(major, 1, file.getSizeBytes()), ContentFacet::plus);
+        }
+        return List.copyOf(totals.values());
+    }
+}
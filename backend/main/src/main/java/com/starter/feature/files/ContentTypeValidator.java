@@ -46,7 +46,10 @@ public class ContentTypeValidator {
         }
     }
 
-    private boolean matchesPattern(String contentType, String pattern) {
+    /**
+     * Match a content type against a pattern: exact, or "type/*" for a whole top-level type.
+     */
+    static boolean matchesPattern(String contentType, String pattern) {
         // Case-insensitive matching
         String contentTypeLower = contentType.toLowerCase(Locale.ROOT);
         String patternLower = pattern.toLowerCase(Locale.ROOT);
@@ -0,0 +1,116 @@
+package com.starter.feature.files;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.starter.core.exception.FileTooLargeException;
+import com.starter.core.exception.ResourceNotFoundException;
+import com.starter.feature.files.dto.CreateUploadRequest;
+import com.starter.feature.files.dto.FileDto;
+import com.starter.feature.files.dto.UploadReservationResponse;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Direct-to-S3 uploads: the client PUTs the bytes to a presigned URL, so they never pass through the JVM.
+ *
+ * Flow:
+ * 1. Reserve: validate, insert PENDING row (reserves quota and filename), return presigned URL
+ * 2. Client uploads to S3
+ * 3. Complete: HEAD the object, verify size and type, flip row to ACTIVE
+ * Reservations that are never completed are removed by {@link PendingUploadSweeper}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DirectUploadService {
+    private final FileRepository fileRepository;
+    private final FileService fileService;
+    private final UploadStateService uploadStateService;
+    private final BlobStore blobStore;
+
+    @Value("${app.storage.max-file-size}")
+    private long maxFileSizeBytes;
+
+    @Value("${app.storage.direct-upload.url-expiration-minutes:15}")
+    private int urlExpirationMinutes;
+
+    @Value("${app.storage.direct-upload.reservation-ttl-minutes:30}")
+    private int reservationTtlMinutes;
+
+    /**
+     * Reserve quota and filename and return a presigned PUT URL.
+     */
+    @Transactional
+    public UploadReservationResponse reserve(Long userId, CreateUploadRequest request) {
+        long size = request.getSizeBytes();
+        if (size > maxFileSizeBytes) {
+            throw new FileTooLargeException(size, maxFileSizeBytes);
+        }
+
+        String contentType = fileService.resolveContentType(request.getContentType());
+        String filename = fileService.resolveFilename(request.getFilename());
+        fileService.ensureFilenameAvailable(userId, filename);
+
+        // Reserved bytes count towards quota until the upload is completed or swept
+        String s3Key = fileService.buildS3Key(userId, filename);
+        UserFile reserved = uploadStateService.begin(
+            userId, filename, s3Key, contentType, size, Duration.ofMinutes(reservationTtlMinutes)
+        );
+
+        BlobStore.PresignedUrl presigned = blobStore.generatePresignedUploadUrl(
+            s3Key, contentType, size, Duration.ofMinutes(urlExpirationMinutes)
+        );
+
+        log.info("Reserved direct upload {} for user {} ({} bytes)", reserved.getId(), userId, size);
+        return UploadReservationResponse.builder()
+            .fileId(reserved.getId())
+            .filename(filename)
+            .uploadUrl(presigned.url())
+            .method("PUT")
+            .headers(clientHeaders(presigned.signedHeaders()))
+            .expiresAt(presigned.expiration())
+            .build();
+    }
+
+    /**
+     * Verify the uploaded object and activate the file.
+     *
+     * @throws ResourceNotFoundException if there is no pending reservation with this ID
+     * @throws IllegalArgumentException  if the object is missing or does not match the reservation
+     */
+    public FileDto complete(Long userId, Long fileId) {
+        UserFile file = fileRepository.findPendingByIdAndUserId(fileId, userId)
+            .orElseThrow(() -> new ResourceNotFoundException("Upload", fileId));
+
+        BlobStore.ObjectInfo object = blobStore.headObject(file.getS3Key())
+            .orElseThrow(() -> new IllegalArgumentException("Upload has not been received by storage yet"));
+
+        if (object.contentLength() != file.getSizeBytes().longValue()
+            || !file.getContentType().equalsIgnoreCase(object.contentType())) {
+            log.warn(
+                "Direct upload {} does not match reservation: {} bytes / {} (expected {} bytes / {})",
+                fileId, object.contentLength(), object.contentType(), file.getSizeBytes(), file.getContentType()
+            );
+            blobStore.deleteFile(file.getS3Key());
+            throw new IllegalArgumentException("Uploaded content does not match the reservation");
+        }
+
+        uploadStateService.activate(file, object.contentLength());
+        log.info("Direct upload completed: {} for user {} ({} bytes)", file.getFilename(), userId, file.getSizeBytes());
+        return fileService.toDto(file);
+    }
+
+    /** Drop Host - set by the HTTP client from the URL and not settable from browsers. */
+    private static Map<String, List<String>> clientHeaders(Map<String, List<String>> signedHeaders) {
+        return signedHeaders.entrySet().stream()
+            .filter(header -> !header.getKey().equalsIgnoreCase("host"))
+            .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+    }
+}
@@ -0,0 +1,10 @@
+package com.starter.feature.files;
+
+/**
+ * Deduplicated content shared by user_files rows (file_blobs).
+ * codec and storedSizeBytes describe the object (null if stored as uploaded), as on {@link UserFile}.
+ */
+public record FileBlob(
+    long id, String sha256, long sizeBytes, String s3Key, StorageCodec codec, Long storedSizeBytes
+) {
+}
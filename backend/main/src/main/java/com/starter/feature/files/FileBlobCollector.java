@@ -0,0 +1,64 @@
+package com.starter.feature.files;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Removes deduplicated content no file references anymore: deletes the file_blobs row and enqueues
+ * its object to the S3 outbox in one transaction. Blobs stay for a grace period after their last
+ * reference is dropped, so deleting and re-uploading the same file does not re-upload the content.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FileBlobCollector {
+    private final FileBlobRepository blobRepository;
+    private final S3OutboxRepository outboxRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.storage.dedup.collect-batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.storage.dedup.unreferenced-grace-minutes:60}")
+    private long graceMinutes;
+
+    @Scheduled(
+        fixedDelayString = "${app.storage.dedup.collect-interval-ms:600000}",
+        initialDelayString = "${app.storage.dedup.collect-interval-ms:600000}"
+    )
+    public void collect() {
+        int collected = 0;
+        int batch;
+        do {
+            batch = collectBatch(Instant.now());
+            collected += batch;
+        } while (batch == batchSize);
+
+        if (collected > 0) {
+            log.info("Collected {} unreferenced blobs", collected);
+        }
+    }
+
+    /**
+     * Delete one batch of unreferenced blobs and enqueue their objects.
+     *
+     * @return number of collected blobs
+     */
+    int collectBatch(Instant now) {
+        Instant idleBefore = now.minus(Duration.ofMinutes(graceMinutes));
+        List<String> keys = transactionTemplate.execute(status -> {
+            List<String> deleted = blobRepository.deleteUnreferenced(idleBefore, batchSize);
+            outboxRepository.enqueue(deleted, now);
+            return deleted;
+        });
+        return keys.size();
+    }
+}
@@ -0,0 +1,135 @@
+package com.starter.feature.files;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository for deduplicated content (file_blobs).
+ * Reference counts change in the same transaction as the user_files rows that reference the blob.
+ */
+@Repository
+@RequiredArgsConstructor
+public class FileBlobRepository {
+    private final JdbcClient jdbcClient;
+    private static final RowMapper<FileBlob> ROW_MAPPER = (rs, rowNum) -> new FileBlob(
+        rs.getLong("id"), rs.getString("sha256"), rs.getLong("size_bytes"), rs.getString("s3_key"),
+        StorageCodec.fromColumn(rs.getString("codec")), rs.getObject("stored_size_bytes", Long.class)
+    );
+
+    /**
+     * Take a reference to existing content, if stored.
+     *
+     * @return the blob, or empty if no blob with this digest and size exists
+     */
+    public Optional<FileBlob> acquire(String sha256, long sizeBytes) {
+        return jdbcClient
+            .sql("""
+                UPDATE file_blobs
+                SET ref_count = ref_count + 1, updated_at = CURRENT_TIMESTAMP
+                WHERE sha256 = :sha256 AND size_bytes = :sizeBytes
+                RETURNING id, sha256, size_bytes, s3_key, codec, stored_size_bytes
+                """)
+            .param("sha256", sha256)
+            .param("sizeBytes", sizeBytes)
+            .query(ROW_MAPPER)
+            .optional();
+    }
+
+    /**
+     * Register freshly uploaded content and take a reference to it.
+     * If the digest is already stored (concurrent upload of the same content), the existing blob is
+     * referenced instead and returned (with its own codec); the caller then deletes its own copy.
+     */
+    public FileBlob register(String sha256, long sizeBytes, String s3Key, StorageCodec codec, Long storedSizeBytes) {
+        return jdbcClient
+            .sql("""
+                INSERT INTO file_blobs AS b (sha256, size_bytes, s3_key, codec, stored_size_bytes, ref_count)
+                VALUES (:sha256, :sizeBytes, :s3Key, :codec, :storedSizeBytes, 1)
+                ON CONFLICT (sha256) DO UPDATE SET
+                    ref_count = b.ref_count + 1,
+                    updated_at = CURRENT_TIMESTAMP
+                RETURNING id, sha256, size_bytes, s3_key, codec, stored_size_bytes
+                """)
+            .param("sha256", sha256)
+            .param("sizeBytes", sizeBytes)
+            .param("s3Key", s3Key)
+            .param("codec", codec != null ? codec.name() : null)
+            .param("storedSizeBytes", storedSizeBytes)
+            .query(ROW_MAPPER)
+            .single();
+    }
+
+    /**
+     * Drop references (one per element, so a blob may appear several times).
+     */
+    public void release(Collection<Long> blobIds) {
+        if (blobIds.isEmpty()) {
+            return;
+        }
+        jdbcClient
+            .sql("""
+                UPDATE file_blobs b
+                SET ref_count = GREATEST(b.ref_count - r.refs, 0), updated_at = CURRENT_TIMESTAMP
+                FROM (
+                    SELECT blob_id, COUNT(*) AS refs
+                    FROM unnest(CAST(:blobIds AS bigint[])) AS blob_id
+                    GROUP BY blob_id
+                ) r
+                WHERE b.id = r.blob_id
+                """)
+            .param("blobIds", blobIds.toArray(Long[]::new))
+            .update();
+    }
+
+    /**
+     * Drop all references held by a user's rows (before the user is hard-deleted).
+     */
+    public void releaseAllForUser(Long userId) {
+        jdbcClient
+            .sql("""
+                UPDATE file_blobs b
+                SET ref_count = GREATEST(b.ref_count - r.refs, 0), updated_at = CURRENT_TIMESTAMP
+                FROM (
+                    SELECT blob_id, COUNT(*) AS refs
+                    FROM user_files
+                    WHERE user_id = :userId AND blob_id IS NOT NULL
+                    GROUP BY blob_id
+                ) r
+                WHERE b.id = r.blob_id
+                """)
+            .param("userId", userId)
+            .update();
+    }
+
+    /**
+     * Delete unreferenced blobs idle since before the cutoff and return their S3 keys.
+     * A concurrent acquire re-checks the row after the lock, so a blob that just gained a reference survives.
+     */
+    public List<String> deleteUnreferenced(Instant idleBefore, int limit) {
+        return jdbcClient
+            .sql("""
+                DELETE FROM file_blobs
+                WHERE id IN (
+                    SELECT b.id FROM file_blobs b
+                    WHERE b.ref_count = 0 AND b.updated_at < :idleBefore
+                      AND NOT EXISTS (SELECT 1 FROM user_files f WHERE f.blob_id = b.id)
+                    LIMIT :limit
+                    FOR UPDATE SKIP LOCKED
+                )
+                AND ref_count = 0
+                RETURNING s3_key
+                """)
+            .param("idleBefore", Timestamp.from(idleBefore))
+            .param("limit", limit)
+            .query(String.class)
+            .list();
+    }
+}
@@ -0,0 +1,262 @@
+package com.starter.feature.files;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import com.starter.core.exception.ResourceNotFoundException;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Serves file content through the backend, for clients that cannot reach S3 (proxies blocking S3 hosts).
+ *
+ * Supports HEAD, a single byte range (Range / If-Range) and revalidation (If-None-Match); content under an S3 key
+ * never changes, so the ETag only depends on the file and its key. Ranged GETs are streamed from S3 through
+ * a fixed-size buffer, or served from {@link LocalContentCache} with FileChannel.transferTo when enabled.
+ * With the local blob store the object file itself is sent with transferTo.
+ *
+ * Objects stored with a {@link StorageCodec} are sent as stored, with Content-Encoding, to clients that accept
+ * the coding (ranges and ETag then refer to the encoded bytes) and decoded while streaming for other clients.
+ */
+@Slf4j
+@Service
+public class FileContentService {
+    /** Marks a Range header that cannot be satisfied (416). */
+    static final ByteRange UNSATISFIABLE = new ByteRange(-1, -1);
+
+    private final FileRepository fileRepository;
+    private final BlobStore blobStore;
+    private final LocalContentCache contentCache;
+    private final int bufferSize;
+    private final Counter localBytes;
+    private final Counter cacheBytes;
+    private final Counter s3Bytes;
+    private final Counter decodedBytes;
+
+    public FileContentService(
+        FileRepository fileRepository,
+        BlobStore blobStore,
+        LocalContentCache contentCache,
+        MeterRegistry meterRegistry,
+        @Value("${app.storage.content.buffer-size:65536}") int bufferSize
+    ) {
+        this.fileRepository = fileRepository;
+        this.blobStore = blobStore;
+        this.contentCache = contentCache;
+        this.bufferSize = bufferSize;
+        this.localBytes = Counter.builder("files.content.bytes")
+            .tag("source", "local")
+            .description("Content bytes served by the proxy")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+        this.cacheBytes = Counter.builder("files.content.bytes")
+            .tag("source", "cache")
+            .description("Content bytes served by the proxy")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+        this.s3Bytes = Counter.builder("files.content.bytes")
+            .tag("source", "s3")
+            .description("Content bytes served by the proxy")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+        this.decodedBytes = Counter.builder("files.content.bytes")
+            .tag("source", "decoded")
+            .description("Content bytes served by the proxy")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Write the content (or the requested range) of a user's file to the response.
+     *
+     * @throws ResourceNotFoundException if the file does not exist or belongs to another user
+     */
+    public void serve(Long userId, Long fileId, HttpServletRequest request, HttpServletResponse response)
+        throws IOException {
+        UserFile file = fileRepository.findByIdAndUserId(fileId, userId)
+            .orElseThrow(() -> new ResourceNotFoundException("File", fileId));
+        StorageCodec codec = file.getCodec();
+        boolean sendEncoded = codec != null && codec.isAcceptedBy(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        long length = sendEncoded ? file.storedSize() : file.getSizeBytes();
+        String etag = sendEncoded ? encodedEtag(file) : etag(file);
+
+        // Authorization is checked on every request, so browsers must revalidate instead of reusing blindly
+        response.setHeader(HttpHeaders.ETAG, etag);
+        if (codec != null) {
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (matchesAny(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return;
+        }
+
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        ByteRange range = ifRange == null || ifRange.equals(etag)
+            ? parseRange(request.getHeader(HttpHeaders.RANGE), length)
+            : null;
+        if (range == UNSATISFIABLE) {
+            response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+            return;
+        }
+        if (range == null) {
+            range = new ByteRange(0, length - 1);
+            response.setStatus(HttpStatus.OK.value());
+        } else {
+            response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + range.start() + "-" + range.end() + "/" + length);
+        }
+
+        response.setContentType(file.getContentType());
+        if (sendEncoded) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, codec.contentEncoding());
+        }
+        response.setHeader(
+            HttpHeaders.CONTENT_DISPOSITION,
+            ContentDisposition.inline().filename(file.getFilename(), StandardCharsets.UTF_8).build().toString()
+        );
+        response.setContentLengthLong(range.length());
+        if (HttpMethod.HEAD.matches(request.getMethod()) || range.length() == 0) {
+            return;
+        }
+
+        OutputStream out = response.getOutputStream();
+        if (codec != null && !sendEncoded) {
+            // Positions refer to decoded bytes, so the object is read from the start
+            try (InputStream content = StorageCodec.openDecoded(blobStore, file)) {
+                content.skipNBytes(range.start());
+                copy(content, range.length(), out);
+            }
+            decodedBytes.increment(range.length());
+            return;
+        }
+        Optional<Path> local = blobStore.localPath(file.getS3Key());
+        if (local.isPresent()) {
+            try (FileChannel channel = FileChannel.open(local.get())) {
+                transfer(channel, range, out);
+            }
+            localBytes.increment(range.length());
+            return;
+        }
+        Optional<FileChannel> cached = contentCache.open(file.getS3Key(), length);
+        if (cached.isPresent()) {
+            try (FileChannel channel = cached.get()) {
+                transfer(channel, range, out);
+            }
+            cacheBytes.increment(range.length());
+        } else {
+            try (InputStream content = blobStore.openObject(file.getS3Key(), range.start(), range.end())) {
+                copy(content, range.length(), out);
+            }
+            s3Bytes.increment(range.length());
+        }
+    }
+
+    /**
+     * Parse a Range header for an object of the given length.
+     * Multiple ranges and malformed headers are ignored (the whole object is served), as RFC 9110 allows.
+     *
+     * @return the range, null for the whole object, or {@link #UNSATISFIABLE}
+     */
+    static ByteRange parseRange(String header, long length) {
+        if (header == null) {
+            return null;
+        }
+        List<HttpRange> ranges;
+        try {
+            ranges = HttpRange.parseRanges(header);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (ranges.size() != 1) {
+            return null;
+        }
+
+        HttpRange range = ranges.get(0);
+        long start = range.getRangeStart(length);
+        if (start >= length) {
+            return UNSATISFIABLE;
+        }
+        return new ByteRange(start, range.getRangeEnd(length));
+    }
+
+    static String etag(UserFile file) {
+        return "\"" + file.getId() + "-" + Integer.toHexString(file.getS3Key().hashCode()) + "\"";
+    }
+
+    /** The encoded bytes are a different representation, so they get their own (strong) ETag. */
+    static String encodedEtag(UserFile file) {
+        String etag = etag(file);
+        return etag.substring(0, etag.length() - 1) + "-" + file.getCodec().contentEncoding() + "\"";
+    }
+
+    private static boolean matchesAny(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || tag.equals(etag) || tag.equals("W/" + etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Zero-copy where the target allows it; the servlet stream is wrapped, so the JDK copies via a direct buffer. */
+    private static void transfer(FileChannel channel, ByteRange range, OutputStream out) throws IOException {
+        WritableByteChannel target = Channels.newChannel(out);
+        long position = range.start();
+        long remaining = range.length();
+        while (remaining > 0) {
+            long sent = channel.transferTo(position, remaining, target);
+            if (sent <= 0) {
+                throw new EOFException("Cached object ended at " + position);
+            }
+            position += sent;
+            remaining -= sent;
+        }
+    }
+
+    private void copy(InputStream content, long length, OutputStream out) throws IOException {
+        byte[] buffer = new byte[bufferSize];
+        long remaining = length;
+        while (remaining > 0) {
+            int read = content.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+            if (read < 0) {
+                throw new EOFException("S3 object ended " + remaining + " bytes early");
+            }
+            out.write(buffer, 0, read);
+            remaining -= read;
+        }
+    }
+
+    record ByteRange(long start, long end) {
+        long length() {
+            return end - start + 1;
+        }
+    }
+}
@@ -9,7 +9,9 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
@@ -18,7 +20,12 @@ import org.springframework.web.multipart.MultipartFile;
 import com.starter.core.security.UserPrincipal;
 import com.starter.feature.files.dto.*;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
+
 import java.io.IOException;
+import java.util.List;
 
 /**
  * REST controller for file operations.
@@ -30,7 +37,17 @@ import java.io.IOException;
 @Tag(name = "Files", description = "File storage and management API")
 @SecurityRequirement(name = "bearerAuth")
 public class FileController {
+    private static final String UPLOAD_OFFSET_HEADER = "Upload-Offset";
+    private static final String UPLOAD_LENGTH_HEADER = "Upload-Length";
+
     private final FileService fileService;
+    private final StreamingUploadService streamingUploadService;
+    private final DirectUploadService directUploadService;
+    private final FileDeletionService fileDeletionService;
+    private final FileContentService fileContentService;
+    private final ResumableUploadService resumableUploadService;
+    private final BatchUploadService batchUploadService;
+    private final ArchiveService archiveService;
 
     @PostMapping
     @Operation(
@@ -47,22 +64,174 @@ public class FileController {
         return ResponseEntity.status(HttpStatus.CREATED).body(uploaded);
     }
 
+    @PostMapping(value = "/stream", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(
+        summary = "Upload file (streaming)",
+        description = "Upload a new file as multipart/form-data part 'file'. The body is streamed straight " +
+            "into S3 with constant memory use; use for large files. Same limits as POST /api/files."
+    )
+    public ResponseEntity<FileDto> uploadFileStreaming(
+        @AuthenticationPrincipal UserPrincipal principal,
+        HttpServletRequest request
+    ) throws IOException {
+        FileDto uploaded = streamingUploadService.upload(principal.getId(), request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(uploaded);
+    }
+
+    @PostMapping(value = "/batch", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(
+        summary = "Upload many files",
+        description = "Upload up to 500 files as multipart/form-data parts named 'files' (100MB per request). "
+            + "Returns one result per file in request order; a rejected or failed file does not fail the others."
+    )
+    public ResponseEntity<BatchUploadResponse> uploadFiles(
+        @AuthenticationPrincipal UserPrincipal principal,
+        @Parameter(description = "Files to upload", required = true)
+        @RequestParam("files") List<MultipartFile> files
+    ) {
+        return ResponseEntity.ok(batchUploadService.upload(principal.getId(), files));
+    }
+
+    @PostMapping("/uploads")
+    @Operation(
+        summary = "Reserve direct upload",
+        description = "Reserve quota and filename and get a presigned URL to upload the file directly to S3. " +
+            "Send the file with the returned method, URL and headers, then call the complete endpoint."
+    )
+    public ResponseEntity<UploadReservationResponse> reserveUpload(
+        @AuthenticationPrincipal UserPrincipal principal,
+        @Valid @RequestBody CreateUploadRequest request
+    ) {
+        UploadReservationResponse reservation = directUploadService.reserve(principal.getId(), request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(reservation);
+    }
+
+    @PostMapping("/uploads/{fileId}/complete")
+    @Operation(
+        summary = "Complete direct upload",
+        description = "Verify the uploaded object in S3 and make the file available"
+    )
+    public ResponseEntity<FileDto> completeUpload(
+        @AuthenticationPrincipal UserPrincipal principal,
+        @Parameter(description = "File ID from the reservation")
+        @PathVariable Long fileId
+    ) {
+        return ResponseEntity.ok(directUploadService.complete(principal.getId(), fileId));
+    }
+
+    @PostMapping("/resumable-uploads")
+    @Operation(
+        summary = "Create resumable upload",
+        description = "Reserve quota and filename for a large upload sent in chunks of chunkSize bytes. "
+            + "An interrupted upload continues from its current offset, on any server."
+    )
+    public ResponseEntity<ResumableUploadResponse> createResumableUpload(
+        @AuthenticationPrincipal UserPrincipal principal,
+        @Valid @RequestBody CreateUploadRequest request
+    ) {
+        ResumableUploadResponse upload = resumableUploadService.create(principal.getId(), request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(upload);
+    }
+
+    @RequestMapping(value = "/resumable-uploads/{fileId}", method = RequestMethod.HEAD)
+    @Operation(
+        summary = "Get resumable upload offset",
+        description = "Returns the number of bytes received in the Upload-Offset header"
+    )
+    public ResponseEntity<Void> getResumableUploadOffset(
+        @AuthenticationPrincipal UserPrincipal principal,
+        @Parameter(description = "File ID from the create response")
+        @PathVariable Long fileId
+    ) {
+        ResumableUploadResponse upload = resumableUploadService.getStatus(principal.getId(), fileId);
+        return ResponseEntity.ok()
+            .header(UPLOAD_OFFSET_HEADER, String.valueOf(upload.getUploadOffset()))
+            .header(UPLOAD_LENGTH_HEADER, String.valueOf(upload.getUploadLength()))
+            .header(HttpHeaders.CACHE_CONTROL, "no-store")
+            .build();
+    }
+
+    @GetMapping("/resumable-uploads/{fileId}")
+    @Operation(
+        summary = "Get resumable upload",
+        description = "Current offset, chunk size and expiry of an upload in progress"
+    )
+    public ResponseEntity<ResumableUploadResponse> getResumableUpload(
+        @AuthenticationPrincipal UserPrincipal principal,
+        @Parameter(description = "File ID from the create response")
+        @PathVariable Long fileId
+    ) {
+        return ResponseEntity.ok(resumableUploadService.getStatus(principal.getId(), fileId));
+    }
+
+    @PatchMapping("/resumable-uploads/{fileId}")
+    @Operation(
+        summary = "Append chunk",
+        description = "Send the chunk starting at Upload-Offset as the raw request body. Every chunk except the "
+            + "last must be exactly chunkSize bytes. Returns the new offset in the Upload-Offset header; "
+            + "409 if the offset does not match (query it and continue from there)."
+    )
+    public ResponseEntity<Void> appendChunk(
+        @AuthenticationPrincipal UserPrincipal principal,
+        @Parameter(description = "File ID from the create response")
+        @PathVariable Long fileId,
+        @RequestHeader(UPLOAD_OFFSET_HEADER) long offset,
+        HttpServletRequest request
+    ) throws IOException {
+        long newOffset = resumableUploadService.append(
+            principal.getId(), fileId, offset, request.getContentLengthLong(), request.getInputStream()
+        );
+        return ResponseEntity.noContent().header(UPLOAD_OFFSET_HEADER, String.valueOf(newOffset)).build();
+    }
+
+    @PostMapping("/resumable-uploads/{fileId}/complete")
+    @Operation(
+        summary = "Complete resumable upload",
+        description = "Assemble the received chunks and make the file available"
+    )
+    public ResponseEntity<FileDto> completeResumableUpload(
+        @AuthenticationPrincipal UserPrincipal principal,
+        @Parameter(description = "File ID from the create response")
+        @PathVariable Long fileId
+    ) {
+        return ResponseEntity.ok(resumableUploadService.complete(principal.getId(), fileId));
+    }
+
     @GetMapping
     @Operation(
         summary = "List files",
-        description = "Get paginated list of files for current user"
+        description = "Get paginated list of files for current user. "
+            + "Pass cursor (empty for the first page) to switch to keyset pagination, "
+            + "which stays fast on deep pages and supports sort/direction."
     )
-    public ResponseEntity<Page<FileDto>> getFiles(
+    public ResponseEntity<?> getFiles(
         @AuthenticationPrincipal UserPrincipal principal,
-        @Parameter(description = "Page number (0-indexed)")
+        @Parameter(description = "Page number (0-indexed), ignored in cursor mode")
         @RequestParam(defaultValue = "0") int page,
         @Parameter(description = "Page size")
         @RequestParam(defaultValue = "20") int size,
         @Parameter(description = "Filter by content type (e.g., 'image/*')")
         @RequestParam(required = false) String contentType,
-        @Parameter(description = "Search by filename")
-        @RequestParam(required = false) String search
+        @Parameter(description = "Search by filename; without cursor, results are ranked by similarity "
+            + "and totalElements stops at 1001 (show as 1000+)")
+        @RequestParam(required = false) String search,
+        @Parameter(description = "Cursor from the previous page's nextCursor; empty for the first page")
+        @RequestParam(required = false) String cursor,
+        @Parameter(description = "Sort field in cursor mode: createdAt, filename or size")
+        @RequestParam(defaultValue = "createdAt") String sort,
+        @Parameter(description = "Sort direction in cursor mode: asc or desc")
+        @RequestParam(defaultValue = "desc") String direction,
+        @Parameter(description = "Include total count in cursor mode (extra query)")
+        @RequestParam(defaultValue = "false") boolean includeTotal
     ) {
+        if (cursor != null) {
+            FileCursorPage cursorPage = fileService.getUserFilesByCursor(
+                principal.getId(), contentType, search,
+                FileSort.fromParam(sort), parseAscending(direction), cursor, size, includeTotal
+            );
+            return ResponseEntity.ok(cursorPage);
+        }
+
         Pageable pageable = PageRequest.of(page, size);
         Page<FileDto> files;
 
@@ -96,6 +265,18 @@ public class FileController {
         }
     }
 
+    @GetMapping("/facets")
+    @Operation(
+        summary = "Get content type facets",
+        description = "Get file count and total size per content type (e.g. image/*), most files first; "
+            + "each contentType is a valid filter for the list endpoints"
+    )
+    public ResponseEntity<List<ContentFacetDto>> getContentFacets(
+        @AuthenticationPrincipal UserPrincipal principal
+    ) {
+        return ResponseEntity.ok(fileService.getContentFacets(principal.getId()));
+    }
+
     @GetMapping("/storage/usage")
     @Operation(
         summary = "Get storage usage",
@@ -116,7 +297,7 @@ public class FileController {
     @GetMapping("/{fileId}/download")
     @Operation(
         summary = "Get download URL",
-        description = "Get presigned URL to download file (valid for 60 minutes)"
+        description = "Get presigned URL to download file (valid for at least 30 minutes)"
     )
     public ResponseEntity<FileDownloadResponse> getDownloadUrl(
         @AuthenticationPrincipal UserPrincipal principal,
@@ -127,6 +308,67 @@ public class FileController {
         return ResponseEntity.ok(FileDownloadResponse.builder().downloadUrl(url).build());
     }
 
+    @RequestMapping(value = "/{fileId}/content", method = {RequestMethod.GET, RequestMethod.HEAD})
+    @Operation(
+        summary = "Download file content",
+        description = "Stream the file through the backend, for clients that cannot reach S3 download URLs. "
+            + "Supports HEAD, single byte ranges (Range, If-Range) and If-None-Match."
+    )
+    public void getContent(
+        @AuthenticationPrincipal UserPrincipal principal,
+        @Parameter(description = "File ID")
+        @PathVariable Long fileId,
+        HttpServletRequest request,
+        HttpServletResponse response
+    ) throws IOException {
+        fileContentService.serve(principal.getId(), fileId, request, response);
+    }
+
+    @GetMapping("/archive")
+    @Operation(
+        summary = "Download files as ZIP",
+        description = "Stream a ZIP of files selected by IDs (up to 1000) or by filter (contentType, search); "
+            + "without either, the whole account. Files that cannot be read are listed in MISSING_FILES.txt."
+    )
+    public void getArchive(
+        @AuthenticationPrincipal UserPrincipal principal,
+        @Parameter(description = "File IDs")
+        @RequestParam(required = false) List<Long> ids,
+        @Parameter(description = "Filter by content type (e.g., 'image/*')")
+        @RequestParam(required = false) String contentType,
+        @Parameter(description = "Search by filename")
+        @RequestParam(required = false) String search,
+        HttpServletResponse response
+    ) throws IOException {
+        archiveService.stream(principal.getId(), ids, contentType, search, response);
+    }
+
+    @PostMapping("/download-urls")
+    @Operation(
+        summary = "Get download URLs in bulk",
+        description = "Get presigned download URLs for up to 200 files in one request (e.g. a gallery page). "
+            + "URLs are valid for at least 30 minutes; IDs not found are listed in missingIds."
+    )
+    public ResponseEntity<BatchDownloadUrlResponse> getDownloadUrls(
+        @AuthenticationPrincipal UserPrincipal principal,
+        @Valid @RequestBody BatchDownloadUrlRequest request
+    ) {
+        return ResponseEntity.ok(fileService.getDownloadUrls(principal.getId(), request.getIds()));
+    }
+
+    @DeleteMapping
+    @Operation(
+        summary = "Delete files in bulk",
+        description = "Delete files selected by IDs or by filter (contentType, search). "
+            + "Reports files whose content could not be removed from storage."
+    )
+    public ResponseEntity<BulkDeleteResponse> deleteFiles(
+        @AuthenticationPrincipal UserPrincipal principal,
+        @Valid @RequestBody BulkDeleteRequest request
+    ) {
+        return ResponseEntity.ok(fileDeletionService.deleteFiles(principal.getId(), request));
+    }
+
     @DeleteMapping("/{fileId}")
     @Operation(
         summary = "Delete file",
@@ -140,4 +382,14 @@ public class FileController {
     ) {
         fileService.deleteFile(principal.getId(), fileId);
     }
+
+    private static boolean parseAscending(String direction) {
+        if (direction.equalsIgnoreCase("asc")) {
+            return true;
+        }
+        if (direction.equalsIgnoreCase("desc")) {
+            return false;
+        }
+        throw new IllegalArgumentException("Invalid sort direction: " + direction);
+    }
 }
@@ -0,0 +1,54 @@
+package com.starter.feature.files;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.util.Base64;
+
+/**
+ * Opaque keyset pagination cursor: position after the last returned row for a given sort order.
+ * Encoded as URL-safe Base64 so clients treat it as a token.
+ */
+public record FileCursor(FileSort sort, boolean ascending, long lastId, String lastKey) {
+    private static final String VERSION = "v1";
+
+    /** Cursor pointing after the given file. */
+    public static FileCursor after(UserFile file, FileSort sort, boolean ascending) {
+        return new FileCursor(sort, ascending, file.getId(), sort.keyOf(file));
+    }
+
+    public String encode() {
+        String raw = String.join("|", VERSION, sort.name(), ascending ? "asc" : "desc", Long.toString(lastId), lastKey);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a cursor and check it was issued for the requested sort order.
+     *
+     * @throws IllegalArgumentException if the cursor is malformed or belongs to another sort order
+     */
+    public static FileCursor decode(String encoded, FileSort sort, boolean ascending) {
+        FileCursor cursor = parse(encoded);
+        if (cursor.sort != sort || cursor.ascending != ascending) {
+            throw new IllegalArgumentException("Cursor does not match requested sort order");
+        }
+        return cursor;
+    }
+
+    private static FileCursor parse(String encoded) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8);
+            // Sort key goes last - it is the only part that may contain arbitrary characters
+            String[] parts = raw.split("\\|", 5);
+            if (parts.length != 5 || !VERSION.equals(parts[0])) {
+                throw new IllegalArgumentException("Unknown cursor format");
+            }
+            FileSort sort = FileSort.valueOf(parts[1]);
+            FileCursor cursor = new FileCursor(sort, "asc".equals(parts[2]), Long.parseLong(parts[3]), parts[4]);
+            // Validate key format early rather than failing in SQL
+            sort.toSqlValue(cursor.lastKey);
+            return cursor;
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.starter.feature.files;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.starter.feature.files.dto.BulkDeleteRequest;
+import com.starter.feature.files.dto.BulkDeleteResponse;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Bulk deletion engine used by the bulk delete API and account purge.
+ *
+ * Strategy: one set-based DELETE ... RETURNING, quota release and S3 outbox entries in a short transaction.
+ * The bulk API then deletes the content itself with DeleteObjects batches and reports per-key failures;
+ * anything not deleted stays in the outbox and is retried by {@link S3OutboxWorker}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FileDeletionService {
+    /** Outbox delivery delay for content the bulk API deletes inline. */
+    private static final Duration INLINE_DELETE_GRACE = Duration.ofMinutes(5);
+
+    private final FileRepository fileRepository;
+    private final StorageQuotaService quotaService;
+    private final ContentFacetRepository facetRepository;
+    private final BulkObjectDeleter bulkObjectDeleter;
+    private final S3OutboxRepository outboxRepository;
+    private final FileBlobRepository blobRepository;
+    private final PresignedUrlCache presignedUrlCache;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Delete the user's files selected by IDs or by filter.
+     *
+     * @throws IllegalArgumentException if the request has neither or both IDs and a filter
+     */
+    @CacheEvict(value = "fileStats", key = "#userId")
+    public BulkDeleteResponse deleteFiles(Long userId, BulkDeleteRequest request) {
+        boolean hasIds = request.getIds() != null && !request.getIds().isEmpty();
+        String contentType = blankToNull(request.getContentType());
+        String search = blankToNull(request.getSearch());
+        boolean hasFilter = contentType != null || search != null;
+        if (hasIds == hasFilter) {
+            throw new IllegalArgumentException("Specify either ids or a filter (contentType, search)");
+        }
+
+        // Outbox entries are a safety net here, delivered only if the inline delete below does not remove them
+        DeletedFiles deleted = deleteRows(
+            userId,
+            () -> hasIds
+                ? fileRepository.deleteByIds(userId, request.getIds())
+                : fileRepository.deleteByFilters(userId, contentType, search),
+            Instant.now().plus(INLINE_DELETE_GRACE)
+        );
+        List<BulkDeleteResponse.Failure> failures = deleteContent(deleted);
+
+        log.info("Bulk deleted {} files for user {} ({} S3 failures)", deleted.files().size(), userId, failures.size());
+        return BulkDeleteResponse.builder()
+            .deletedCount(deleted.files().size())
+            .freedBytes(deleted.files().stream().mapToLong(UserFile::getSizeBytes).sum())
+            .failures(failures)
+            .build();
+    }
+
+    /**
+     * Delete all files of a user, in any status (account deletion). Runs in the background;
+     * content is deleted by {@link S3OutboxWorker}.
+     */
+    @Async
+    @CacheEvict(value = "fileStats", key = "#userId")
+    public void purgeUserFiles(Long userId) {
+        log.info("Purging all files for user ID: {}", userId);
+        DeletedFiles deleted = deleteRows(userId, () -> fileRepository.deleteAllByUserId(userId), Instant.now());
+        log.info(
+            "Purged files for user {}: {} deleted from DB, {} S3 objects enqueued for deletion",
+            userId, deleted.files().size(), deleted.outboxEntries().size()
+        );
+    }
+
+    /** Set-based delete, quota release and outbox entries in one short transaction. */
+    private DeletedFiles deleteRows(Long userId, Supplier<List<UserFile>> delete, Instant deliverNotBefore) {
+        DeletedFiles deletedFiles = transactionTemplate.execute(status -> {
+            List<UserFile> deleted = delete.get();
+            long activeBytes = 0;
+            long pendingBytes = 0;
+            List<String> keys = new ArrayList<>();
+            List<Long> blobIds = new ArrayList<>();
+            List<UserFile> activeFiles = new ArrayList<>();
+            for (UserFile file : deleted) {
+                if (file.getStatus() == UserFile.Status.ACTIVE) {
+                    activeBytes += file.getSizeBytes();
+                    activeFiles.add(file);
+                } else if (file.getStatus() == UserFile.Status.PENDING) {
+                    pendingBytes += file.getSizeBytes();
+                }
+                keys.addAll(file.contentKeys());
+                if (file.getBlobId() != null) {
+                    blobIds.add(file.getBlobId());
+                }
+            }
+            blobRepository.release(blobIds);
+            if (!activeFiles.isEmpty()) {
+                quotaService.releaseFiles(userId, activeBytes, activeFiles.size());
+                facetRepository.remove(userId, activeFiles);
+            }
+            if (pendingBytes > 0) {
+                quotaService.releasePendingUpload(userId, pendingBytes);
+            }
+            return new DeletedFiles(deleted, outboxRepository.enqueue(keys, deliverNotBefore));
+        });
+        presignedUrlCache.invalidate(deletedFiles.files());
+        return deletedFiles;
+    }
+
+    /** Delete objects and thumbnails now; report one failure per file, drop delivered outbox entries. */
+    private List<BulkDeleteResponse.Failure> deleteContent(DeletedFiles deleted) {
+        if (deleted.outboxEntries().isEmpty()) {
+            return List.of();
+        }
+
+        Map<String, String> failedKeys = bulkObjectDeleter.delete(
+            deleted.outboxEntries().stream().map(S3OutboxEntry::s3Key).toList()
+        );
+        outboxRepository.delete(
+            deleted.outboxEntries().stream()
+                .filter(entry -> !failedKeys.containsKey(entry.s3Key()))
+                .map(S3OutboxEntry::id)
+                .toList()
+        );
+
+        List<BulkDeleteResponse.Failure> failures = new ArrayList<>();
+        for (UserFile file : deleted.files()) {
+            String error = file.contentKeys().stream()
+                .map(failedKeys::get)
+                .filter(Objects::nonNull)
+                .findFirst()
+                .orElse(null);
+            if (error != null) {
+                log.warn("Failed to delete {} from S3 (left in outbox for retry): {}", file.getS3Key(), error);
+                failures.add(
+                    BulkDeleteResponse.Failure.builder()
+                        .fileId(file.getId())
+                        .filename(file.getFilename())
+                        .error(error)
+                        .build()
+                );
+            }
+        }
+        return failures;
+    }
+
+    private record DeletedFiles(List<UserFile> files, List<S3OutboxEntry> outboxEntries) {
+    }
+
+    private static String blankToNull(String value) {
+        return value != null && !value.isBlank() ? value : null;
+    }
+}
@@ -13,8 +13,12 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.time.Instant;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Repository for UserFile entity using JdbcClient.
@@ -27,6 +31,13 @@ public class FileRepository {
     private final JdbcClient jdbcClient;
     private static final RowMapper<UserFile> ROW_MAPPER = new UserFileRowMapper();
 
+    /** Search totals above this are reported as SEARCH_COUNT_LIMIT + 1 ("1000+") instead of counted. */
+    static final int SEARCH_COUNT_LIMIT = 1000;
+
+    private static final String SELECT_FIELDS =
+        "id, user_id, filename, s3_key, size_bytes, content_type, thumbnail_s3_key, preview_s3_key, blob_id, "
+            + "codec, stored_size_bytes, status, upload_expires_at, created_at, updated_at";
+
     /**
      * Find files by user ID with pagination.
      */
@@ -35,13 +46,12 @@ public class FileRepository {
 
         List<UserFile> files = jdbcClient
             .sql("""
-                SELECT id, user_id, filename, s3_key, size_bytes, content_type, thumbnail_s3_key,
-                       created_at, updated_at
+                SELECT %s
                 FROM user_files
-                WHERE user_id = :userId
+                WHERE user_id = :userId AND status = 'ACTIVE'
                 ORDER BY created_at DESC
                 LIMIT :limit OFFSET :offset
-                """)
+                """.formatted(SELECT_FIELDS))
             .param("userId", userId)
             .param("limit", size)
             .param("offset", offset)
@@ -53,76 +63,157 @@ public class FileRepository {
     }
 
     /**
-     * Find all files by user ID (for deleteAllUserFiles).
+     * Find one keyset page of ACTIVE files.
+     * Seeks past the cursor with a row comparison on (sort column, id), which the composite
+     * {@code (user_id, <column>, id)} indexes serve directly - cost does not grow with page depth.
+     *
+     * @param contentTypePattern optional content type filter, '*' as wildcard (e.g. image/*)
+     * @param search             optional case-insensitive filename substring
+     * @param after              optional cursor; null for the first page
      */
-    public List<UserFile> findByUserId(Long userId) {
-        return jdbcClient
-            .sql("""
-                SELECT id, user_id, filename, s3_key, size_bytes, content_type, thumbnail_s3_key,
-                       created_at, updated_at
-                FROM user_files
-                WHERE user_id = :userId
-                ORDER BY created_at DESC
-                """)
+    public List<UserFile> findPageByKeyset(
+        Long userId, String contentTypePattern, String search,
+        FileSort sort, boolean ascending, FileCursor after, int limit
+    ) {
+        String column = sort.column();
+        String direction = ascending ? "ASC" : "DESC";
+
+        StringBuilder sql = new StringBuilder("SELECT ").append(SELECT_FIELDS)
+            .append(" FROM user_files WHERE user_id = :userId AND status = 'ACTIVE'");
+        appendFilters(sql, contentTypePattern, search);
+        if (after != null) {
+            sql.append(" AND (").append(column).append(", id) ")
+                .append(ascending ? ">" : "<").append(" (:lastKey, :lastId)");
+        }
+        sql.append(" ORDER BY ").append(column).append(' ').append(direction)
+            .append(", id ").append(direction)
+            .append(" LIMIT :limit");
+
+        var statement = jdbcClient.sql(sql.toString())
             .param("userId", userId)
-            .query(ROW_MAPPER)
-            .list();
+            .param("limit", limit);
+        statement = bindFilters(statement, contentTypePattern, search);
+        if (after != null) {
+            statement = statement
+                .param("lastKey", sort.toSqlValue(after.lastKey()))
+                .param("lastId", after.lastId());
+        }
+        return statement.query(ROW_MAPPER).list();
     }
 
     /**
-     * Get total size with lock (for race condition prevention).
-     * Uses SELECT FOR UPDATE to lock rows during transaction.
-     * ORDER BY ensures deterministic lock order to prevent deadlocks.
-     *
-     * Note: PostgreSQL doesn't allow FOR UPDATE with aggregate functions,
-     * so we use a subquery to lock rows first, then sum them.
+     * Count ACTIVE files matching the same optional filters as {@link #findPageByKeyset}.
      */
-    public Long getTotalSizeWithLock(Long userId) {
+    public long countByFilters(Long userId, String contentTypePattern, String search) {
+        if (contentTypePattern != null && search == null) {
+            ContentTypeFilter filter = ContentTypeFilter.parse(contentTypePattern);
+            if (filter.isWholeMajor()) {
+                return countByMajor(userId, filter.major());
+            }
+        }
+        StringBuilder sql = new StringBuilder(
+            "SELECT COUNT(*) FROM user_files WHERE user_id = :userId AND status = 'ACTIVE'"
+        );
+        appendFilters(sql, contentTypePattern, search);
+
+        var statement = jdbcClient.sql(sql.toString()).param("userId", userId);
+        return bindFilters(statement, contentTypePattern, search).query(Long.class).single();
+    }
+
+    private static void appendFilters(StringBuilder sql, String contentTypePattern, String search) {
+        if (contentTypePattern != null) {
+            ContentTypeFilter filter = ContentTypeFilter.parse(contentTypePattern);
+            if (filter.likePattern() != null) {
+                sql.append(" AND content_type LIKE :contentType");
+            } else {
+                sql.append(" AND content_major = :contentMajor");
+                if (filter.minor() != null) {
+                    sql.append(" AND content_minor = :contentMinor");
+                }
+            }
+        }
+        if (search != null) {
+            sql.append(" AND filename ILIKE :pattern");
+        }
+    }
+
+    private static JdbcClient.StatementSpec bindFilters(
+        JdbcClient.StatementSpec statement, String contentTypePattern, String search
+    ) {
+        if (contentTypePattern != null) {
+            ContentTypeFilter filter = ContentTypeFilter.parse(contentTypePattern);
+            if (filter.likePattern() != null) {
+                statement = statement.param("contentType", filter.likePattern());
+            } else {
+                statement = statement.param("contentMajor", filter.major());
+                if (filter.minor() != null) {
+                    statement = statement.param("contentMinor", filter.minor());
+                }
+            }
+        }
+        if (search != null) {
+            statement = statement.param("pattern", "%" + search + "%");
+        }
+        return statement;
+    }
+
+    /** Precomputed count from user_content_facets, maintained with every activation and delete. */
+    private long countByMajor(Long userId, String contentMajor) {
         return jdbcClient
-            .sql("""
-                SELECT COALESCE(SUM(size_bytes), 0)
-                FROM (
-                    SELECT size_bytes
-                    FROM user_files
-                    WHERE user_id = :userId
-                    ORDER BY id
-                    FOR UPDATE
-                ) AS locked_rows
-                """)
+            .sql("SELECT file_count FROM user_content_facets WHERE user_id = :userId AND content_major = :major")
             .param("userId", userId)
+            .param("major", contentMajor)
             .query(Long.class)
             .optional()
             .orElse(0L);
     }
 
     /**
-     * Get total size without lock (for stats display).
+     * Content type filter on the normalized columns, served by {@code (user_id, content_major, created_at, id)}:
+     * {@code image/*} matches content_major, {@code image/png} both columns (case-insensitive, parameters ignored).
+     * Other wildcard patterns (e.g. {@code image/x-*}) fall back to LIKE on content_type.
      */
-    public Long getTotalSizeByUserId(Long userId) {
-        log.debug("Getting total size for user: {}", userId);
-        try {
-            Long result = jdbcClient
-                .sql("SELECT COALESCE(SUM(size_bytes), 0) FROM user_files WHERE user_id = :userId")
-                .param("userId", userId)
-                .query(Long.class)
-                .optional()
-                .orElse(0L);
-            log.debug("Total size for user {}: {}", userId, result);
-            return result;
-        } catch (Exception e) {
-            log.error("Error getting total size for user: {}", userId, e);
-            throw e;
+    private record ContentTypeFilter(String major, String minor, String likePattern) {
+        static ContentTypeFilter parse(String pattern) {
+            String type = pattern.split(";", 2)[0].trim().toLowerCase(Locale.ROOT);
+            int slash = type.indexOf('/');
+            String major = slash < 0 ? type : type.substring(0, slash).trim();
+            String minor = slash < 0 ? "*" : type.substring(slash + 1).trim();
+            if (major.isEmpty() || major.contains("*") || (minor.contains("*") && !minor.equals("*"))) {
+                return new ContentTypeFilter(null, null, pattern.replace("*", "%"));
+            }
+            return new ContentTypeFilter(major, minor.equals("*") ? null : minor, null);
+        }
+
+        boolean isWholeMajor() {
+            return likePattern == null && minor == null;
         }
     }
 
     /**
-     * Count files by user ID.
+     * Find all files by user ID (for deleteAllUserFiles).
+     */
+    public List<UserFile> findByUserId(Long userId) {
+        return jdbcClient
+            .sql("""
+                SELECT %s
+                FROM user_files
+                WHERE user_id = :userId
+                ORDER BY created_at DESC
+                """.formatted(SELECT_FIELDS))
+            .param("userId", userId)
+            .query(ROW_MAPPER)
+            .list();
+    }
+
+    /**
+     * Count ACTIVE files by user ID.
      */
     public long countByUserId(Long userId) {
         log.debug("Counting files for user: {}", userId);
         try {
             long result = jdbcClient
-                .sql("SELECT COUNT(*) FROM user_files WHERE user_id = :userId")
+                .sql("SELECT COUNT(*) FROM user_files WHERE user_id = :userId AND status = 'ACTIVE'")
                 .param("userId", userId)
                 .query(Long.class)
                 .single();
@@ -140,17 +231,161 @@ public class FileRepository {
     public Optional<UserFile> findByIdAndUserId(Long fileId, Long userId) {
         return jdbcClient
             .sql("""
-                SELECT id, user_id, filename, s3_key, size_bytes, content_type, thumbnail_s3_key,
-                       created_at, updated_at
+                SELECT %s
                 FROM user_files
-                WHERE id = :id AND user_id = :userId
-                """)
+                WHERE id = :id AND user_id = :userId AND status = 'ACTIVE'
+                """.formatted(SELECT_FIELDS))
             .param("id", fileId)
             .param("userId", userId)
             .query(ROW_MAPPER)
             .optional();
     }
 
+    /**
+     * Find the user's ACTIVE files among the given IDs (ownership check for batch operations).
+     */
+    public List<UserFile> findByIdsAndUserId(Collection<Long> fileIds, Long userId) {
+        if (fileIds.isEmpty()) {
+            return List.of();
+        }
+        return jdbcClient
+            .sql("""
+                SELECT %s
+                FROM user_files
+                WHERE id IN (:ids) AND user_id = :userId AND status = 'ACTIVE'
+                """.formatted(SELECT_FIELDS))
+            .param("ids", fileIds)
+            .param("userId", userId)
+            .query(ROW_MAPPER)
+            .list();
+    }
+
+    /**
+     * Find a reserved (PENDING) file by ID and user ID.
+     */
+    public Optional<UserFile> findPendingByIdAndUserId(Long fileId, Long userId) {
+        return jdbcClient
+            .sql("""
+                SELECT %s
+                FROM user_files
+                WHERE id = :id AND user_id = :userId AND status = 'PENDING'
+                """.formatted(SELECT_FIELDS))
+            .param("id", fileId)
+            .param("userId", userId)
+            .query(ROW_MAPPER)
+            .optional();
+    }
+
+    /**
+     * Flip a PENDING upload to ACTIVE with its final size, unless it has already expired.
+     *
+     * @param storedSizeBytes size of the encoded object, or null if stored as uploaded
+     * @return true if the row was activated
+     */
+    public boolean activate(Long fileId, long sizeBytes, Long storedSizeBytes, Instant now) {
+        int updated = jdbcClient
+            .sql("""
+                UPDATE user_files
+                SET status = 'ACTIVE', size_bytes = :sizeBytes, stored_size_bytes = :storedSizeBytes,
+                    upload_expires_at = NULL, updated_at = :now,
+                    thumbnail_state = CASE WHEN content_type LIKE 'image/%' THEN 'PENDING' END,
+                    thumbnail_requested_at = CASE WHEN content_type LIKE 'image/%' THEN :now END,
+                    thumbnail_next_attempt_at = CASE WHEN content_type LIKE 'image/%' THEN :now END
+                WHERE id = :id AND status = 'PENDING' AND upload_expires_at > :now
+                """)
+            .param("id", fileId)
+            .param("sizeBytes", sizeBytes)
+            .param("storedSizeBytes", storedSizeBytes)
+            .param("now", Timestamp.from(now))
+            .update();
+        return updated == 1;
+    }
+
+    /**
+     * Flip many PENDING uploads of one user to ACTIVE (sizes as reserved), skipping expired ones.
+     *
+     * @return the activated files
+     */
+    public List<UserFile> activateAll(Long userId, Collection<Long> fileIds, Instant now) {
+        if (fileIds.isEmpty()) {
+            return List.of();
+        }
+        return jdbcClient
+            .sql("""
+                UPDATE user_files
+                SET status = 'ACTIVE', upload_expires_at = NULL, updated_at = :now,
+                    thumbnail_state = CASE WHEN content_type LIKE 'image/%%' THEN 'PENDING' END,
+                    thumbnail_requested_at = CASE WHEN content_type LIKE 'image/%%' THEN :now END,
+                    thumbnail_next_attempt_at = CASE WHEN content_type LIKE 'image/%%' THEN :now END
+                WHERE id IN (:ids) AND user_id = :userId AND status = 'PENDING' AND upload_expires_at > :now
+                RETURNING %s
+                """.formatted(SELECT_FIELDS))
+            .param("ids", fileIds)
+            .param("userId", userId)
+            .param("now", Timestamp.from(now))
+            .query(ROW_MAPPER)
+            .list();
+    }
+
+    /**
+     * Point a file at shared blob content (key and codec of the blob's object).
+     */
+    public void attachBlob(Long fileId, FileBlob blob) {
+        jdbcClient
+            .sql("""
+                UPDATE user_files
+                SET blob_id = :blobId, s3_key = :s3Key, codec = :codec, stored_size_bytes = :storedSizeBytes
+                WHERE id = :id
+                """)
+            .param("id", fileId)
+            .param("blobId", blob.id())
+            .param("s3Key", blob.s3Key())
+            .param("codec", blob.codec() != null ? blob.codec().name() : null)
+            .param("storedSizeBytes", blob.storedSizeBytes())
+            .update();
+    }
+
+    /**
+     * Flip a PENDING upload to FAILED and make it immediately eligible for sweeping.
+     *
+     * @return true if the row was still PENDING
+     */
+    public boolean markFailed(Long fileId, Instant now) {
+        int updated = jdbcClient
+            .sql("""
+                UPDATE user_files
+                SET status = 'FAILED', upload_expires_at = :now, updated_at = :now
+                WHERE id = :id AND status = 'PENDING'
+                """)
+            .param("id", fileId)
+            .param("now", Timestamp.from(now))
+            .update();
+        return updated == 1;
+    }
+
+    /**
+     * Delete expired PENDING and FAILED uploads and return them (for S3 cleanup).
+     * SKIP LOCKED lets sweepers on several instances run concurrently without blocking each other.
+     */
+    public List<UserFile> deleteExpiredUploads(Instant now, int limit) {
+        return jdbcClient
+            .sql("""
+                DELETE FROM user_files
+                WHERE id IN (
+                    SELECT id FROM user_files
+                    WHERE status IN ('PENDING', 'FAILED') AND upload_expires_at <= :now
+                    ORDER BY upload_expires_at
+                    LIMIT :limit
+                    FOR UPDATE SKIP LOCKED
+                )
+                RETURNING %s
+                """.formatted(SELECT_FIELDS))
+            .param("now", Timestamp.from(now))
+            .param("limit", limit)
+            .query(ROW_MAPPER)
+            .list();
+    }
+
     /**
      * Check if filename already exists for user.
      */
@@ -165,17 +400,80 @@ public class FileRepository {
         );
     }
 
+    /**
+     * Filenames of the user that are already taken, out of the given ones (one query for a whole batch).
+     */
+    public Set<String> findExistingFilenames(Long userId, Collection<String> filenames) {
+        if (filenames.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(
+            jdbcClient
+                .sql("""
+                    SELECT filename FROM user_files
+                    WHERE user_id = :userId AND filename = ANY(CAST(:filenames AS varchar[]))
+                    """)
+                .param("userId", userId)
+                .param("filenames", filenames.toArray(String[]::new))
+                .query(String.class)
+                .list()
+        );
+    }
+
+    /**
+     * Insert PENDING rows for many uploads of one user in a single statement.
+     * Rows whose filename was taken meanwhile are skipped (ON CONFLICT DO NOTHING).
+     *
+     * @return the inserted files
+     */
+    public List<UserFile> insertPending(Long userId, List<UserFile> files, Instant uploadExpiresAt) {
+        if (files.isEmpty()) {
+            return List.of();
+        }
+        Instant now = Instant.now();
+        return jdbcClient
+            .sql("""
+                INSERT INTO user_files (user_id, filename, s3_key, size_bytes, content_type,
+                                        status, upload_expires_at, created_at, updated_at)
+                SELECT :userId, batch.filename, batch.s3_key, batch.size_bytes, batch.content_type,
+                       'PENDING', :uploadExpiresAt, :now, :now
+                FROM unnest(
+                    CAST(:filenames AS varchar[]), CAST(:s3Keys AS varchar[]),
+                    CAST(:sizes AS bigint[]), CAST(:contentTypes AS varchar[])
+                ) AS batch(filename, s3_key, size_bytes, content_type)
+                ON CONFLICT DO NOTHING
+                RETURNING %s
+                """.formatted(SELECT_FIELDS))
+            .param("userId", userId)
+            .param("filenames", files.stream().map(UserFile::getFilename).toArray(String[]::new))
+            .param("s3Keys", files.stream().map(UserFile::getS3Key).toArray(String[]::new))
+            .param("sizes", files.stream().map(UserFile::getSizeBytes).toArray(Long[]::new))
+            .param("contentTypes", files.stream().map(UserFile::getContentType).toArray(String[]::new))
+            .param("uploadExpiresAt", Timestamp.from(uploadExpiresAt))
+            .param("now", Timestamp.from(now))
+            .query(ROW_MAPPER)
+            .list();
+    }
+
     /**
      * Save a new file record.
      */
     public UserFile save(UserFile file) {
         Instant now = Instant.now();
+        UserFile.Status status = file.getStatus() != null ? file.getStatus() : UserFile.Status.ACTIVE;
+        // Images are queued for ThumbnailWorker when they become ACTIVE (here or in activate)
+        boolean queueThumbnail = status == UserFile.Status.ACTIVE && file.getThumbnailS3Key() == null
+            && file.getContentType() != null && file.getContentType().startsWith("image/");
         Long id = jdbcClient
             .sql("""
-                INSERT INTO user_files (user_id, filename, s3_key, size_bytes, content_type,
-                                       thumbnail_s3_key, created_at, updated_at)
+                INSERT INTO user_files (user_id, filename, s3_key, size_bytes, content_type, thumbnail_s3_key,
+                                       blob_id, codec, stored_size_bytes, status, upload_expires_at,
+                                       created_at, updated_at,
+                                       thumbnail_state, thumbnail_requested_at, thumbnail_next_attempt_at)
                 VALUES (:userId, :filename, :s3Key, :sizeBytes, :contentType, :thumbnailS3Key,
-                        :createdAt, :updatedAt)
+                        :blobId, :codec, :storedSizeBytes, :status, :uploadExpiresAt,
+                        :createdAt, :updatedAt,
+                        :thumbnailState, :thumbnailRequestedAt, :thumbnailRequestedAt)
                 RETURNING id
                 """)
             .param("userId", file.getUserId())
@@ -184,6 +482,13 @@ public class FileRepository {
             .param("sizeBytes", file.getSizeBytes())
             .param("contentType", file.getContentType())
             .param("thumbnailS3Key", file.getThumbnailS3Key())
+            .param("blobId", file.getBlobId())
+            .param("codec", file.getCodec() != null ? file.getCodec().name() : null)
+            .param("storedSizeBytes", file.getStoredSizeBytes())
+            .param("status", status.name())
+            .param("thumbnailState", queueThumbnail ? "PENDING" : null)
+            .param("thumbnailRequestedAt", queueThumbnail ? Timestamp.from(now) : null)
+            .param("uploadExpiresAt", file.getUploadExpiresAt() != null ? Timestamp.from(file.getUploadExpiresAt()) : null)
             .param("createdAt", Timestamp.from(now))
             .param("updatedAt", Timestamp.from(now))
             .query(Long.class)
@@ -197,6 +502,12 @@ public class FileRepository {
             .sizeBytes(file.getSizeBytes())
             .contentType(file.getContentType())
             .thumbnailS3Key(file.getThumbnailS3Key())
+            .previewS3Key(file.getPreviewS3Key())
+            .blobId(file.getBlobId())
+            .codec(file.getCodec())
+            .storedSizeBytes(file.getStoredSizeBytes())
+            .status(status)
+            .uploadExpiresAt(file.getUploadExpiresAt())
             .createdAt(now)
             .updatedAt(now)
             .build();
@@ -213,51 +524,97 @@ public class FileRepository {
     }
 
     /**
-     * Delete all files for user (used in deleteAllUserFiles).
+     * Delete one of the user's ACTIVE files.
+     *
+     * @return the row as deleted, or empty if it was already gone (a concurrent delete won)
      */
-    public void deleteByUserId(Long userId) {
-        jdbcClient
-            .sql("DELETE FROM user_files WHERE user_id = :userId")
+    public Optional<UserFile> deleteActiveByIdAndUserId(Long fileId, Long userId) {
+        return jdbcClient
+            .sql("""
+                DELETE FROM user_files
+                WHERE id = :id AND user_id = :userId AND status = 'ACTIVE'
+                RETURNING %s
+                """.formatted(SELECT_FIELDS))
+            .param("id", fileId)
             .param("userId", userId)
-            .update();
+            .query(ROW_MAPPER)
+            .optional();
     }
 
     /**
-     * Find files by content type (for filtering).
+     * Delete all files of a user in one statement, in any status (account purge).
+     *
+     * @return the deleted rows (for S3 cleanup and quota release)
      */
-    public Page<UserFile> findByUserIdAndContentType(Long userId, String contentType, int page, int size) {
-        int offset = page * size;
-        // Simple validation: only allow * wildcard, not % directly
-        String contentTypePattern = contentType.replace("*", "%");
+    public List<UserFile> deleteAllByUserId(Long userId) {
+        return jdbcClient
+            .sql("DELETE FROM user_files WHERE user_id = :userId RETURNING %s".formatted(SELECT_FIELDS))
+            .param("userId", userId)
+            .query(ROW_MAPPER)
+            .list();
+    }
 
-        List<UserFile> files = jdbcClient
+    /**
+     * Delete the user's ACTIVE files with the given IDs in one statement; unknown IDs are ignored.
+     *
+     * @return the deleted rows
+     */
+    public List<UserFile> deleteByIds(Long userId, List<Long> ids) {
+        return jdbcClient
             .sql("""
-                SELECT id, user_id, filename, s3_key, size_bytes, content_type, thumbnail_s3_key,
-                       created_at, updated_at
-                FROM user_files
-                WHERE user_id = :userId AND content_type LIKE :contentType
-                ORDER BY created_at DESC
-                LIMIT :limit OFFSET :offset
-                """)
+                DELETE FROM user_files
+                WHERE user_id = :userId AND status = 'ACTIVE' AND id IN (:ids)
+                RETURNING %s
+                """.formatted(SELECT_FIELDS))
             .param("userId", userId)
-            .param("contentType", contentTypePattern)
-            .param("limit", size)
-            .param("offset", offset)
+            .param("ids", ids)
             .query(ROW_MAPPER)
             .list();
+    }
 
-        long total = jdbcClient
-            .sql("SELECT COUNT(*) FROM user_files WHERE user_id = :userId AND content_type LIKE :contentType")
+    /**
+     * Delete the user's ACTIVE files matching the same optional filters as {@link #findPageByKeyset}.
+     *
+     * @return the deleted rows
+     */
+    public List<UserFile> deleteByFilters(Long userId, String contentTypePattern, String search) {
+        StringBuilder sql = new StringBuilder("DELETE FROM user_files WHERE user_id = :userId AND status = 'ACTIVE'");
+        appendFilters(sql, contentTypePattern, search);
+        sql.append(" RETURNING ").append(SELECT_FIELDS);
+
+        var statement = jdbcClient.sql(sql.toString()).param("userId", userId);
+        return bindFilters(statement, contentTypePattern, search).query(ROW_MAPPER).list();
+    }
+
+    /**
+     * Find files by content type (for filtering), with the same patterns as {@link #findPageByKeyset}.
+     * Whole-type filters ({@code image/*}) take their total from the precomputed facets instead of a COUNT.
+     */
+    public Page<UserFile> findByUserIdAndContentType(Long userId, String contentType, int page, int size) {
+        int offset = page * size;
+
+        StringBuilder sql = new StringBuilder("SELECT ").append(SELECT_FIELDS)
+            .append(" FROM user_files WHERE user_id = :userId AND status = 'ACTIVE'");
+        appendFilters(sql, contentType, null);
+        sql.append(" ORDER BY created_at DESC LIMIT :limit OFFSET :offset");
+
+        var statement = jdbcClient.sql(sql.toString())
             .param("userId", userId)
-            .param("contentType", contentTypePattern)
-            .query(Long.class)
-            .single();
+            .param("limit", size)
+            .param("offset", offset);
+        List<UserFile> files = bindFilters(statement, contentType, null).query(ROW_MAPPER).list();
 
+        long total = countByFilters(userId, contentType, null);
         return new PageImpl<>(files, PageRequest.of(page, size), total);
     }
 
     /**
-     * Search files by filename.
+     * Search files by filename, best matches first (served by the trigram index).
+     * Substring matches rank above fuzzy word matches (typos, pg_trgm {@code <%}), then by word similarity,
+     * then newest first. The total stops counting past {@link #SEARCH_COUNT_LIMIT} (reported as limit + 1).
+     * Only the newest limit + 1 substring matches and the newest limit + 1 fuzzy-only matches are ranked, so a
+     * common term costs a bounded sort instead of sorting every match of the user, and fuzzy hits never push
+     * substring hits out of the ranking.
      */
     public Page<UserFile> findByUserIdAndFilenameContaining(Long userId, String query, int page, int size) {
         int offset = page * size;
@@ -265,24 +622,49 @@ public class FileRepository {
 
         List<UserFile> files = jdbcClient
             .sql("""
-                SELECT id, user_id, filename, s3_key, size_bytes, content_type, thumbnail_s3_key,
-                       created_at, updated_at
-                FROM user_files
-                WHERE user_id = :userId AND filename ILIKE :pattern
-                ORDER BY created_at DESC
+                SELECT %s
+                FROM (
+                    (
+                        SELECT * FROM user_files
+                        WHERE user_id = :userId AND status = 'ACTIVE' AND filename ILIKE :pattern
+                        ORDER BY created_at DESC, id DESC
+                        LIMIT :candidateLimit
+                    )
+                    UNION ALL
+                    (
+                        SELECT * FROM user_files
+                        WHERE user_id = :userId AND status = 'ACTIVE'
+                          AND :query <%% filename AND NOT filename ILIKE :pattern
+                        ORDER BY created_at DESC, id DESC
+                        LIMIT :candidateLimit
+                    )
+                ) candidates
+                ORDER BY filename ILIKE :pattern DESC, word_similarity(:query, filename) DESC,
+                         created_at DESC, id DESC
                 LIMIT :limit OFFSET :offset
-                """)
+                """.formatted(SELECT_FIELDS))
             .param("userId", userId)
             .param("pattern", searchPattern)
+            .param("query", query)
+            .param("candidateLimit", SEARCH_COUNT_LIMIT + 1)
             .param("limit", size)
             .param("offset", offset)
             .query(ROW_MAPPER)
             .list();
 
         long total = jdbcClient
-            .sql("SELECT COUNT(*) FROM user_files WHERE user_id = :userId AND filename ILIKE :pattern")
+            .sql("""
+                SELECT COUNT(*) FROM (
+                    SELECT 1 FROM user_files
+                    WHERE user_id = :userId AND status = 'ACTIVE'
+                      AND (filename ILIKE :pattern OR :query <% filename)
+                    LIMIT :countLimit
+                ) matches
+                """)
             .param("userId", userId)
             .param("pattern", searchPattern)
+            .param("query", query)
+            .param("countLimit", SEARCH_COUNT_LIMIT + 1)
             .query(Long.class)
             .single();
 
@@ -290,15 +672,56 @@ public class FileRepository {
     }
 
     /**
-     * Get all S3 keys from database (for cleanup - if needed in future).
+     * Next page of object, rendition (thumbnail, preview) and blob keys under a prefix, in byte order
+     * (COLLATE "C", the order S3 lists in).
+     * Keyset paging keeps each query short, so no transaction stays open while a reconciliation walks the table.
+     * A blob key shared by several rows is returned once; blobs count as active until collected.
+     *
+     * @param afterKey exclusive lower bound, or null to start at the beginning of the prefix
      */
-    public List<String> findAllS3Keys() {
+    public List<ContentKey> findContentKeysAfter(String prefix, String afterKey, int limit) {
         return jdbcClient
-            .sql("SELECT s3_key FROM user_files")
-            .query(String.class)
+            .sql("""
+                SELECT content_key, bool_or(active) AS active FROM (
+                    SELECT s3_key AS content_key, status = 'ACTIVE' AS active
+                    FROM user_files
+                    WHERE s3_key COLLATE "C" >= :prefix AND s3_key COLLATE "C" > :afterKey
+                      AND starts_with(s3_key, :prefix)
+                    UNION ALL
+                    SELECT thumbnail_s3_key, status = 'ACTIVE'
+                    FROM user_files
+                    WHERE thumbnail_s3_key COLLATE "C" >= :prefix AND thumbnail_s3_key COLLATE "C" > :afterKey
+                      AND starts_with(thumbnail_s3_key, :prefix)
+                    UNION ALL
+                    SELECT preview_s3_key, status = 'ACTIVE'
+                    FROM user_files
+                    WHERE preview_s3_key COLLATE "C" >= :prefix AND preview_s3_key COLLATE "C" > :afterKey
+                      AND starts_with(preview_s3_key, :prefix)
+                    UNION ALL
+                    SELECT s3_key, TRUE
+                    FROM file_blobs
+                    WHERE s3_key COLLATE "C" >= :prefix AND s3_key COLLATE "C" > :afterKey
+                      AND starts_with(s3_key, :prefix)
+                ) content_keys
+                GROUP BY content_key
+                ORDER BY content_key COLLATE "C"
+                LIMIT :limit
+                """)
+            .param("prefix", prefix)
+            .param("afterKey", afterKey == null ? "" : afterKey)
+            .param("limit", limit)
+            .query((rs, rowNum) -> new ContentKey(rs.getString("content_key"), rs.getBoolean("active")))
             .list();
     }
 
+    /**
+     * Key of a stored object referenced by user_files.
+     *
+     * @param active false for PENDING/FAILED rows, whose object may legitimately be missing
+     */
+    public record ContentKey(String key, boolean active) {
+    }
+
     private static class UserFileRowMapper implements RowMapper<UserFile> {
         @Override
         public UserFile mapRow(ResultSet rs, int rowNum) throws SQLException {
@@ -310,9 +733,19 @@ public class FileRepository {
                 .sizeBytes(rs.getLong("size_bytes"))
                 .contentType(rs.getString("content_type"))
                 .thumbnailS3Key(rs.getString("thumbnail_s3_key"))
+                .previewS3Key(rs.getString("preview_s3_key"))
+                .blobId(rs.getObject("blob_id", Long.class))
+                .codec(StorageCodec.fromColumn(rs.getString("codec")))
+                .storedSizeBytes(rs.getObject("stored_size_bytes", Long.class))
+                .status(UserFile.Status.valueOf(rs.getString("status")))
+                .uploadExpiresAt(toInstant(rs.getTimestamp("upload_expires_at")))
                 .createdAt(rs.getTimestamp("created_at").toInstant())
                 .updatedAt(rs.getTimestamp("updated_at").toInstant())
                 .build();
         }
+
+        private static Instant toInstant(Timestamp timestamp) {
+            return timestamp != null ? timestamp.toInstant() : null;
+        }
     }
 }
@@ -15,38 +15,58 @@ import com.starter.core.exception.ResourceNotFoundException;
 import com.starter.feature.files.dto.*;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 
 /**
  * Service for file operations.
  *
  * Atomicity strategy:
- * - Upload: DB first, then S3 (if S3 fails → rollback DB)
- * - Delete: DB first, then S3 (if S3 fails → orphaned file, but user sees success)
+ * - Upload: PENDING row, then S3, then ACTIVE (if S3 fails → FAILED, content and row removed)
+ * - Delete: row removed and its S3 keys enqueued to s3_outbox in one transaction; {@link S3OutboxWorker}
+ *   deletes the content after commit, retrying with backoff (no orphans, and no S3 call on the request path)
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class FileService {
+    static final int MAX_CURSOR_PAGE_SIZE = 100;
+
     private final FileRepository fileRepository;
-    private final S3Service s3Service;
+    private final BlobStore blobStore;
+    private final S3MultipartUploader multipartUploader;
     private final StorageQuotaService quotaService;
+    private final ContentFacetRepository facetRepository;
+    private final UploadStateService uploadStateService;
+    private final FileDeletionService fileDeletionService;
+    private final S3OutboxRepository outboxRepository;
     private final ContentTypeValidator contentTypeValidator;
+    private final PresignedUrlCache presignedUrlCache;
+    private final FileBlobRepository blobRepository;
 
     @Value("${app.storage.max-file-size}")
     private long maxFileSizeBytes;
 
-    @Value("${app.storage.presigned-url-expiration-minutes:60}")
-    private int presignedUrlExpirationMinutes;
+    @Value("${app.storage.upload-lease-minutes:30}")
+    private int uploadLeaseMinutes;
 
     /**
-     * Upload file with full validation and atomicity.
-     * Strategy: DB first, then S3 (if S3 fails, DB rollback).
+     * Upload file with full validation.
+     * Strategy: PENDING row first (short transaction), then S3, then ACTIVE (short transaction).
+     * No DB connection is held during the transfer; if S3 fails the row is marked FAILED and removed.
+     * Content already stored by any user (same SHA-256) is referenced instead of uploaded again.
      */
-    @Transactional
-    @CacheEvict(value = "fileStats", key = "#userId")
     public FileDto uploadFile(Long userId, MultipartFile file) throws IOException {
         // 1. Validate file size BEFORE any processing
         if (file.getSize() > maxFileSizeBytes) {
@@ -60,56 +80,44 @@ public class FileService {
         }
 
         // 2. Validate content type
-        String contentType = file.getContentType();
-        if (contentType == null || contentType.isBlank()) {
-            contentType = "application/octet-stream";  // Default
-        }
-        contentTypeValidator.validate(contentType);
+        String contentType = resolveContentType(file.getContentType());
 
         // 3. Sanitize filename
-        String originalFilename = file.getOriginalFilename();
-        if (originalFilename == null || originalFilename.isBlank()) {
-            originalFilename = "file_" + System.currentTimeMillis();
-        }
-        String sanitizedFilename = FilenameSanitizer.sanitize(originalFilename);
+        String sanitizedFilename = resolveFilename(file.getOriginalFilename());
 
         // 4. Check if filename already exists
-        if (fileRepository.existsByUserIdAndFilename(userId, sanitizedFilename)) {
-            throw new IllegalArgumentException(
-                String.format("File with name '%s' already exists", sanitizedFilename)
+        ensureFilenameAvailable(userId, sanitizedFilename);
+
+        // 5. Known content: reference the stored blob, no S3 transfer at all
+        String sha256 = sha256(file);
+        Optional<UserFile> deduplicated = uploadStateService.createFromBlob(
+            userId, sanitizedFilename, contentType, sha256, file.getSize()
+        );
+        if (deduplicated.isPresent()) {
+            log.info(
+                "File uploaded as reference to stored content: {} for user {} ({} bytes)",
+                sanitizedFilename, userId, file.getSize()
             );
+            return toDto(deduplicated.get());
         }
 
-        // 5. Check quota WITH LOCK (prevents race conditions)
-        quotaService.checkQuotaWithLock(userId, file.getSize());
-
-        // 6. Generate S3 key
-        String fileId = UUID.randomUUID().toString();
-        String s3Key = String.format("users/%d/files/%s-%s", userId, fileId, sanitizedFilename);
-
-        // 7. Read file content
-        byte[] content = file.getBytes();
-
-        // 8. Save to DB FIRST (in transaction)
-        UserFile userFile = UserFile.builder()
-            .userId(userId)
-            .filename(sanitizedFilename)
-            .s3Key(s3Key)
-            .sizeBytes(file.getSize())
-            .contentType(contentType)
-            .build();
-
-        UserFile saved = fileRepository.save(userFile);
+        // 6. Reserve filename and quota in a PENDING row (committed before the transfer starts)
+        String s3Key = buildBlobKey();
+        UserFile pending = uploadStateService.begin(
+            userId, sanitizedFilename, s3Key, contentType, file.getSize(), Duration.ofMinutes(uploadLeaseMinutes)
+        );
 
-        try {
-            // 9. Upload to S3 AFTER DB save
-            s3Service.uploadFile(s3Key, content, contentType);
+        // 7. Stream to S3 (pooled part buffers, never the whole file on heap)
+        try (InputStream content = file.getInputStream()) {
+            multipartUploader.upload(s3Key, contentType, content, maxFileSizeBytes);
         } catch (Exception e) {
-            // 10. If S3 upload fails, transaction will rollback DB insert
-            log.error("S3 upload failed for file {}, rolling back DB record", saved.getId(), e);
+            log.error("S3 upload failed for file {}, discarding upload", pending.getId(), e);
+            discardUpload(pending);
             throw new RuntimeException("Failed to upload file to storage", e);
         }
 
+        // 8. Activate and register the content as a blob (second short transaction)
+        UserFile saved = activateUpload(pending, file.getSize(), null, sha256);
         log.info(
             "File uploaded successfully: {} for user {} ({} bytes)",
             sanitizedFilename, userId, file.getSize()
@@ -117,6 +125,36 @@ public class FileService {
         return toDto(saved);
     }
 
+    /**
+     * Activate an upload whose content is in S3; on failure the upload is discarded.
+     *
+     * @param storedSizeBytes size of the encoded object, or null if the content is stored as uploaded
+     * @param sha256          content digest to register the object for deduplication, or null to keep it private
+     */
+    UserFile activateUpload(UserFile pending, long sizeBytes, Long storedSizeBytes, String sha256) {
+        try {
+            return uploadStateService.activate(pending, sizeBytes, storedSizeBytes, sha256);
+        } catch (RuntimeException e) {
+            log.warn("Failed to activate upload {}, discarding it", pending.getId());
+            discardUpload(pending);
+            throw e;
+        }
+    }
+
+    /**
+     * Mark an upload FAILED, remove its content and then the row.
+     * If S3 cleanup fails the FAILED row stays and the sweeper retries.
+     */
+    void discardUpload(UserFile pending) {
+        try {
+            uploadStateService.fail(pending);
+            blobStore.deleteFile(pending.getS3Key());
+            fileRepository.delete(pending.getId());
+        } catch (Exception e) {
+            log.warn("Failed to discard upload {} (left for the sweeper)", pending.getS3Key(), e);
+        }
+    }
+
     /**
      * Get user files with pagination.
      */
@@ -155,6 +193,40 @@ public class FileService {
         return files.map(this::toDto);
     }
 
+    /**
+     * Get one keyset page of user files.
+     * Fetches one row more than requested to know whether another page exists without counting.
+     *
+     * @param cursor       cursor from the previous page, null or blank for the first page
+     * @param includeTotal whether to run the (non-constant time) total count
+     */
+    public FileCursorPage getUserFilesByCursor(
+        Long userId, String contentType, String search,
+        FileSort sort, boolean ascending, String cursor, int size, boolean includeTotal
+    ) {
+        if (size < 1 || size > MAX_CURSOR_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_CURSOR_PAGE_SIZE);
+        }
+        String typeFilter = contentType != null && !contentType.isBlank() ? contentType : null;
+        String searchFilter = search != null && !search.isBlank() ? search : null;
+        FileCursor after = cursor != null && !cursor.isBlank() ? FileCursor.decode(cursor, sort, ascending) : null;
+
+        List<UserFile> files = fileRepository.findPageByKeyset(
+            userId, typeFilter, searchFilter, sort, ascending, after, size + 1
+        );
+        boolean hasMore = files.size() > size;
+        if (hasMore) {
+            files = files.subList(0, size);
+        }
+
+        return FileCursorPage.builder()
+            .content(files.stream().map(this::toDto).toList())
+            .nextCursor(hasMore ? FileCursor.after(files.get(files.size() - 1), sort, ascending).encode() : null)
+            .hasMore(hasMore)
+            .totalElements(includeTotal ? fileRepository.countByFilters(userId, typeFilter, searchFilter) : null)
+            .build();
+    }
+
     /**
      * Get file statistics (cached for 30 seconds).
      */
@@ -162,8 +234,9 @@ public class FileService {
     public FileStatsDto getFileStats(Long userId) {
         log.debug("Getting file stats for user: {}", userId);
         try {
-            long totalSize = fileRepository.getTotalSizeByUserId(userId);
-            long fileCount = fileRepository.countByUserId(userId);
+            StorageUsage usage = quotaService.getStorageUsage(userId);
+            long totalSize = usage.getBytesUsed();
+            long fileCount = usage.getFileCount();
             log.debug("File stats retrieved - count: {}, totalSize: {}", fileCount, totalSize);
             return FileStatsDto.builder()
                 .fileCount((int) fileCount)
@@ -175,6 +248,20 @@ public class FileService {
         }
     }
 
+    /**
+     * Get file count and size per major content type, most files first (filter sidebar).
+     * Reads the precomputed facets, maintained with every activation and delete.
+     */
+    public List<ContentFacetDto> getContentFacets(Long userId) {
+        return facetRepository.findByUserId(userId).stream()
+            .map(facet -> ContentFacetDto.builder()
+                .contentType(facet.contentMajor() + "/*")
+                .fileCount(facet.fileCount())
+                .totalSizeBytes(facet.bytesUsed())
+                .build())
+            .toList();
+    }
+
     /**
      * Get storage usage info.
      */
@@ -189,91 +276,139 @@ public class FileService {
         UserFile file = fileRepository.findByIdAndUserId(fileId, userId)
             .orElseThrow(() -> new ResourceNotFoundException("File", fileId));
 
-        Duration expiration = Duration.ofMinutes(presignedUrlExpirationMinutes);
-        return s3Service.generatePresignedDownloadUrl(file.getS3Key(), expiration);
+        return presignedUrlCache.getDownloadUrl(file);
     }
 
     /**
-     * Delete file (atomic: DB first, then S3).
+     * Get presigned download URLs for many files with one ownership-checked query (gallery views).
+     * IDs that do not exist or belong to another user are reported as missing.
+     */
+    public BatchDownloadUrlResponse getDownloadUrls(Long userId, List<Long> fileIds) {
+        Map<Long, String> urls = new LinkedHashMap<>();
+        for (UserFile file : fileRepository.findByIdsAndUserId(fileIds, userId)) {
+            urls.put(file.getId(), presignedUrlCache.getDownloadUrl(file));
+        }
+        List<Long> missing = fileIds.stream().distinct().filter(id -> !urls.containsKey(id)).toList();
+
+        return BatchDownloadUrlResponse.builder()
+            .downloadUrls(urls)
+            .missingIds(missing)
+            .build();
+    }
+
+    /**
+     * Delete file (atomic: DB row and S3 outbox entry in one transaction).
      * Strategy: DB first → user sees immediate success.
-     * If S3 delete fails → orphaned file (acceptable, invisible to user).
+     * S3 content is deleted by {@link S3OutboxWorker}, retried until it succeeds.
+     * Counters and the outbox use the row returned by the DELETE, so of two concurrent deletes only one
+     * releases quota and blob references, and keys written just before the delete (thumbnails) are included.
      */
     @Transactional
     @CacheEvict(value = "fileStats", key = "#userId")
     public void deleteFile(Long userId, Long fileId) {
-        UserFile file = fileRepository.findByIdAndUserId(fileId, userId)
+        UserFile file = fileRepository.deleteActiveByIdAndUserId(fileId, userId)
             .orElseThrow(() -> new ResourceNotFoundException("File", fileId));
 
-        // 1. Delete from DB FIRST (user sees immediate success)
-        fileRepository.delete(fileId);
-
-        // 2. Delete from S3 SECOND (best effort, don't block)
-        try {
-            s3Service.deleteFile(file.getS3Key());
-            if (file.getThumbnailS3Key() != null) {
-                s3Service.deleteFile(file.getThumbnailS3Key());
-            }
-            log.debug("File deleted from S3: {}", file.getS3Key());
-        } catch (Exception e) {
-            // Log but don't fail - file is already removed from DB
-            log.warn(
-                "Failed to delete file from S3 after DB deletion: {} (file will remain in S3 as orphaned)",
-                file.getS3Key(), e
-            );
-            // File remains in S3 but is invisible to user (removed from DB)
-            // This is acceptable - orphaned files don't affect UX
+        quotaService.releaseFiles(userId, file.getSizeBytes(), 1);
+        facetRepository.remove(userId, List.of(file));
+        if (file.getBlobId() != null) {
+            blobRepository.release(List.of(file.getBlobId()));
         }
+        outboxRepository.enqueue(file.contentKeys(), Instant.now());
+        presignedUrlCache.invalidate(List.of(file));
 
         log.info("File deleted: {} for user {}", file.getFilename(), userId);
     }
 
+    /**
+     * Enqueue deletion of all of a user's S3 content.
+     * Must run in the transaction that hard-deletes the user: ON DELETE CASCADE removes the rows without touching S3.
+     */
+    public void enqueueAllContentDeletion(Long userId) {
+        blobRepository.releaseAllForUser(userId);
+        int enqueued = outboxRepository.enqueueAllForUser(userId);
+        log.info("Enqueued {} S3 objects of user {} for deletion", enqueued, userId);
+    }
+
     /**
      * Delete all user files (used when account is deleted).
-     * Strategy: DB first, then S3 (best effort).
+     * Handed to the bulk deletion engine in the background, so the request does not wait for S3.
      */
-    @Transactional
-    @CacheEvict(value = "fileStats", key = "#userId")
     public void deleteAllUserFiles(Long userId) {
-        log.info("Deleting all files for user ID: {}", userId);
+        fileDeletionService.purgeUserFiles(userId);
+    }
+
+    /**
+     * Validate content type, defaulting to application/octet-stream when missing.
+     */
+    String resolveContentType(String contentType) {
+        if (contentType == null || contentType.isBlank()) {
+            contentType = "application/octet-stream";  // Default
+        }
+        contentTypeValidator.validate(contentType);
+        return contentType;
+    }
 
-        List<UserFile> files = fileRepository.findByUserId(userId);
-        int deletedFromDb = 0;
-        int deletedFromS3 = 0;
-        int s3Failures = 0;
+    /**
+     * Sanitize filename, generating one when missing.
+     */
+    String resolveFilename(String originalFilename) {
+        if (originalFilename == null || originalFilename.isBlank()) {
+            originalFilename = "file_" + System.currentTimeMillis();
+        }
+        return FilenameSanitizer.sanitize(originalFilename);
+    }
 
-        // 1. Delete all from DB FIRST
-        for (UserFile file : files) {
-            fileRepository.delete(file.getId());
-            deletedFromDb++;
+    void ensureFilenameAvailable(Long userId, String filename) {
+        if (fileRepository.existsByUserIdAndFilename(userId, filename)) {
+            throw new IllegalArgumentException(
+                String.format("File with name '%s' already exists", filename)
+            );
         }
+    }
+
+    String buildS3Key(Long userId, String filename) {
+        String fileId = UUID.randomUUID().toString();
+        return String.format("users/%d/files/%s-%s", userId, fileId, filename);
+    }
+
+    /**
+     * Key for content that may be shared between users: no user ID or filename in it.
+     */
+    String buildBlobKey() {
+        return "blobs/" + UUID.randomUUID();
+    }
 
-        // 2. Delete all from S3 SECOND (best effort)
-        for (UserFile file : files) {
-            try {
-                s3Service.deleteFile(file.getS3Key());
-                if (file.getThumbnailS3Key() != null) {
-                    s3Service.deleteFile(file.getThumbnailS3Key());
-                }
-                deletedFromS3++;
-            } catch (Exception e) {
-                log.warn("Failed to delete file {} from S3: {}", file.getS3Key(), e.getMessage());
-                s3Failures++;
-            }
+    /**
+     * Hex SHA-256 of a spooled upload (one pass over the container's temp file).
+     */
+    private static String sha256(MultipartFile file) throws IOException {
+        MessageDigest digest = newSha256();
+        try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
         }
+        return HexFormat.of().formatHex(digest.digest());
+    }
 
-        log.info(
-            "Deleted {} files from DB, {} from S3 ({} S3 failures) for user {}",
-            deletedFromDb, deletedFromS3, s3Failures, userId
-        );
+    static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
 
-    private FileDto toDto(UserFile file) {
+    FileDto toDto(UserFile file) {
         return FileDto.builder()
             .id(file.getId())
             .filename(file.getFilename())
             .sizeBytes(file.getSizeBytes())
             .contentType(file.getContentType())
             .createdAt(file.getCreatedAt())
+            .thumbnailUrl(file.getThumbnailS3Key() == null
+                ? null : presignedUrlCache.getUrl(file.getThumbnailS3Key(), file.getFilename()))
+            .previewUrl(file.getPreviewS3Key() == null
+                ? null : presignedUrlCache.getUrl(file.getPreviewS3Key(), file.getFilename()))
             .build();
     }
 }
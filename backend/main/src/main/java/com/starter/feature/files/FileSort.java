@@ -0,0 +1,67 @@
+package com.starter.feature.files;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Locale;
+
+/**
+ * Sort orders supported by keyset (cursor) pagination.
+ * Every order is backed by a composite index {@code (user_id, <column>, id)} - id breaks ties.
+ */
+public enum FileSort {
+    CREATED_AT("createdAt", "created_at"),
+    FILENAME("filename", "filename"),
+    SIZE("size", "size_bytes");
+
+    private final String param;
+    private final String column;
+
+    FileSort(String param, String column) {
+        this.param = param;
+        this.column = column;
+    }
+
+    /**
+     * Parse API parameter value (createdAt, filename, size).
+     *
+     * @throws IllegalArgumentException for unknown values
+     */
+    public static FileSort fromParam(String value) {
+        for (FileSort sort : values()) {
+            if (sort.param.equalsIgnoreCase(value)) {
+                return sort;
+            }
+        }
+        throw new IllegalArgumentException(
+            String.format("Unsupported sort '%s'. Allowed: createdAt, filename, size", value)
+        );
+    }
+
+    /** SQL column name (never user input). */
+    String column() {
+        return column;
+    }
+
+    /** Sort key of a file, as stored in the cursor. */
+    String keyOf(UserFile file) {
+        return switch (this) {
+            case CREATED_AT -> file.getCreatedAt().toString();
+            case FILENAME -> file.getFilename();
+            case SIZE -> file.getSizeBytes().toString();
+        };
+    }
+
+    /** Cursor sort key converted to the SQL parameter type of the column. */
+    Object toSqlValue(String key) {
+        return switch (this) {
+            case CREATED_AT -> Timestamp.from(Instant.parse(key));
+            case FILENAME -> key;
+            case SIZE -> Long.parseLong(key);
+        };
+    }
+
+    @Override
+    public String toString() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,109 @@
+package com.starter.feature.files;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.starter.core.exception.ResourceNotFoundException;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+/**
+ * Target of the signed URLs issued by {@link LocalBlobStore} (app.storage.type=local).
+ * Public: the signature authorizes the request, like an S3 presigned URL.
+ *
+ * Downloads use FileChannel.transferTo, but into a channel wrapping the servlet stream, so this is not zero-copy:
+ * the JDK copies through a buffer (as for {@link FileContentService}).
+ */
+@RestController
+@RequestMapping(LocalBlobStore.OBJECTS_PATH)
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.storage.type", havingValue = "local")
+@Tag(name = "Storage", description = "Signed object URLs of the local storage backend")
+public class LocalBlobController {
+    private static final String INVALID_SIGNATURE = "Invalid or expired signature";
+
+    private final LocalBlobStore blobStore;
+
+    @GetMapping
+    @Operation(summary = "Download object", description = "Download an object with a signed URL")
+    public void download(
+        @RequestParam String key,
+        @RequestParam String filename,
+        @RequestParam(required = false) String encoding,
+        @RequestParam long expires,
+        @RequestParam String signature,
+        HttpServletResponse response
+    ) throws IOException {
+        if (!blobStore.verifyDownload(key, filename, encoding, expires, signature)) {
+            throw new AccessDeniedException(INVALID_SIGNATURE);
+        }
+        Path path = blobStore.localPath(key)
+            .orElseThrow(() -> new ResourceNotFoundException("Object not found"));
+
+        try (FileChannel in = FileChannel.open(path)) {
+            long size = in.size();
+            response.setContentType(blobStore.readContentType(key));
+            response.setContentLengthLong(size);
+            if (encoding != null) {
+                response.setHeader(HttpHeaders.CONTENT_ENCODING, encoding);
+            }
+            response.setHeader(
+                HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.inline().filename(filename, StandardCharsets.UTF_8).build().toString()
+            );
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = 0;
+            while (position < size) {
+                long sent = in.transferTo(position, size - position, out);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+            }
+        }
+    }
+
+    @PutMapping
+    @Operation(
+        summary = "Upload object",
+        description = "Upload an object with a signed URL; Content-Type and Content-Length must match the signature"
+    )
+    public ResponseEntity<Void> upload(
+        @RequestParam String key,
+        @RequestParam String contentType,
+        @RequestParam long length,
+        @RequestParam long expires,
+        @RequestParam String signature,
+        @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String requestContentType,
+        HttpServletRequest request
+    ) throws IOException {
+        if (!blobStore.verifyUpload(key, contentType, length, expires, signature)) {
+            throw new AccessDeniedException(INVALID_SIGNATURE);
+        }
+        if (!contentType.equals(requestContentType) || request.getContentLengthLong() != length) {
+            throw new AccessDeniedException("Content-Type and Content-Length must match the signed URL");
+        }
+        blobStore.write(key, request.getInputStream(), length, contentType);
+        return ResponseEntity.ok().build();
+    }
+}
@@ -0,0 +1,531 @@
+package com.starter.feature.files;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Local disk implementation of {@link BlobStore} (app.storage.type=local), for self-hosted installs
+ * without S3 and for integration tests.
+ *
+ * Objects live under {directory}/objects/{key} and their content type under {directory}/meta/{key}.
+ * Every write goes to a temp file that is moved into place atomically, so readers never see partial content.
+ * Multipart parts are files under uploads/{uploadId}/ and are concatenated with FileChannel.transferTo
+ * (copy_file_range on Linux); PUT uploads are written with transferFrom.
+ *
+ * Signed URLs point at {@link LocalBlobController} and carry an HMAC-SHA256 over the method, key, expiry and
+ * the parameters the request must match (download filename; upload content type and length). The key
+ * (LOCAL_STORAGE_SIGNING_KEY) is required and must differ from the JWT secret.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.storage.type", havingValue = "local")
+public class LocalBlobStore implements BlobStore {
+    static final String OBJECTS_PATH = "/api/storage/objects";
+    private static final String DEFAULT_CONTENT_TYPE = "application/octet-stream";
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final Path objectsRoot;
+    private final Path metaRoot;
+    private final Path uploadsRoot;
+    private final Path tempRoot;
+    private final String baseUrl;
+    private final SecretKeySpec signingKey;
+    private final Clock clock;
+
+    public LocalBlobStore(
+        @Value("${app.storage.local.directory}") String directory,
+        @Value("${app.storage.local.base-url:http://localhost:8080}") String baseUrl,
+        @Value("${app.storage.local.signing-key:}") String signingKey,
+        @Value("${jwt.secret}") String jwtSecret
+    ) throws IOException {
+        this(Path.of(directory), baseUrl, requireSigningKey(signingKey, jwtSecret), Clock.systemUTC());
+    }
+
+    LocalBlobStore(Path directory, String baseUrl, String signingKey, Clock clock) throws IOException {
+        Path root = directory.toAbsolutePath().normalize();
+        this.objectsRoot = Files.createDirectories(root.resolve("objects"));
+        this.metaRoot = Files.createDirectories(root.resolve("meta"));
+        this.uploadsRoot = Files.createDirectories(root.resolve("uploads"));
+        this.tempRoot = Files.createDirectories(root.resolve("tmp"));
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.signingKey = new SecretKeySpec(signingKey.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM);
+        this.clock = clock;
+
+        // Temp files of writes interrupted by a restart are never moved into place
+        deleteRecursively(tempRoot);
+        Files.createDirectories(tempRoot);
+        log.info("Local blob store at {}", root);
+    }
+
+    /** Fail at startup without a dedicated key: URLs must not be signed with the JWT secret. */
+    static String requireSigningKey(String signingKey, String jwtSecret) {
+        if (signingKey == null || signingKey.isBlank()) {
+            throw new IllegalStateException("LOCAL_STORAGE_SIGNING_KEY must be set when app.storage.type=local");
+        }
+        if (signingKey.equals(jwtSecret)) {
+            throw new IllegalStateException("LOCAL_STORAGE_SIGNING_KEY must differ from JWT_SECRET");
+        }
+        return signingKey;
+    }
+
+    @Override
+    public void uploadFile(String key, byte[] buffer, int length, String contentType) {
+        Path target = resolve(objectsRoot, key);
+        try {
+            Path temp = writeTemp(ByteBuffer.wrap(buffer, 0, length));
+            commit(temp, target, key, contentType);
+            log.debug("Stored {} ({} bytes)", key, length);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to store " + key, e);
+        }
+    }
+
+    /**
+     * Store exactly {@code length} bytes read from the stream (signed PUT uploads).
+     *
+     * @throws IllegalArgumentException if the stream ends early
+     */
+    public void write(String key, InputStream content, long length, String contentType) throws IOException {
+        Path target = resolve(objectsRoot, key);
+        Path temp = Files.createTempFile(tempRoot, "put-", ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE);
+             ReadableByteChannel source = Channels.newChannel(content)) {
+            long position = 0;
+            while (position < length) {
+                long read = channel.transferFrom(source, position, length - position);
+                if (read <= 0) {
+                    throw new IllegalArgumentException(
+                        String.format("Upload ended after %d of %d bytes", position, length)
+                    );
+                }
+                position += read;
+            }
+            channel.force(false);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        commit(temp, target, key, contentType);
+        log.debug("Stored {} from upload ({} bytes)", key, length);
+    }
+
+    @Override
+    public String createMultipartUpload(String key, String contentType) {
+        resolve(objectsRoot, key);
+        String uploadId = UUID.randomUUID().toString();
+        try {
+            Path upload = Files.createDirectory(uploadsRoot.resolve(uploadId));
+            Files.writeString(upload.resolve("key"), key);
+            Files.writeString(upload.resolve("content-type"), contentType);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to start upload for " + key, e);
+        }
+        log.debug("Started multipart upload for {}: {}", key, uploadId);
+        return uploadId;
+    }
+
+    @Override
+    public Part uploadPart(String key, String uploadId, int partNumber, byte[] buffer, int length) {
+        Path upload = findUpload(key, uploadId);
+        try {
+            Path temp = writeTemp(ByteBuffer.wrap(buffer, 0, length));
+            Files.move(temp, upload.resolve(partNumber + ".part"), StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to store part " + partNumber + " of " + key, e);
+        }
+        CRC32C checksum = new CRC32C();
+        checksum.update(buffer, 0, length);
+        log.debug("Stored part {} of {} ({} bytes)", partNumber, key, length);
+        return new Part(partNumber, Long.toHexString(checksum.getValue()));
+    }
+
+    @Override
+    public void completeMultipartUpload(String key, String uploadId, List<Part> parts) {
+        Path upload = findUpload(key, uploadId);
+        Path target = resolve(objectsRoot, key);
+        try {
+            Path temp = Files.createTempFile(tempRoot, "multipart-", ".tmp");
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                for (Part part : parts) {
+                    try (FileChannel in = FileChannel.open(upload.resolve(part.partNumber() + ".part"))) {
+                        transfer(in, 0, in.size(), out);
+                    }
+                }
+                out.force(false);
+            } catch (IOException e) {
+                Files.deleteIfExists(temp);
+                throw e;
+            }
+            commit(temp, target, key, Files.readString(upload.resolve("content-type")));
+            deleteRecursively(upload);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to complete upload of " + key, e);
+        }
+        log.debug("Completed multipart upload for {} ({} parts)", key, parts.size());
+    }
+
+    @Override
+    public void abortMultipartUpload(String key, String uploadId) {
+        try {
+            deleteRecursively(findUpload(key, uploadId));
+            log.debug("Aborted multipart upload for {}: {}", key, uploadId);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to abort multipart upload for {} ({}): {}", key, uploadId, e.getMessage());
+        }
+    }
+
+    @Override
+    public void abortIncompleteUploads(String key) {
+        try (DirectoryStream<Path> uploads = Files.newDirectoryStream(uploadsRoot)) {
+            for (Path upload : uploads) {
+                if (key.equals(readKey(upload))) {
+                    abortMultipartUpload(key, upload.getFileName().toString());
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Failed to list incomplete multipart uploads for {}: {}", key, e.getMessage());
+        }
+    }
+
+    @Override
+    public void deleteFile(String key) {
+        try {
+            Files.deleteIfExists(resolve(objectsRoot, key));
+            Files.deleteIfExists(resolve(metaRoot, key));
+            log.debug("Deleted {}", key);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to delete " + key, e);
+        }
+    }
+
+    @Override
+    public Map<String, String> deleteFiles(List<String> keys) {
+        if (keys.size() > MAX_DELETE_BATCH) {
+            throw new IllegalArgumentException("Delete accepts at most " + MAX_DELETE_BATCH + " keys");
+        }
+        Map<String, String> failures = new HashMap<>();
+        for (String key : keys) {
+            try {
+                deleteFile(key);
+            } catch (RuntimeException e) {
+                failures.put(key, e.getMessage());
+            }
+        }
+        return failures;
+    }
+
+    @Override
+    public Optional<ObjectInfo> headObject(String key) {
+        Path path = resolve(objectsRoot, key);
+        try {
+            long size = Files.size(path);
+            return Optional.of(new ObjectInfo(size, readContentType(key)));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read metadata of " + key, e);
+        }
+    }
+
+    @Override
+    public InputStream openObject(String key) {
+        try {
+            return Files.newInputStream(resolve(objectsRoot, key));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open " + key, e);
+        }
+    }
+
+    @Override
+    public InputStream openObject(String key, long start, long end) {
+        try {
+            FileChannel channel = FileChannel.open(resolve(objectsRoot, key));
+            channel.position(start);
+            return new RangeInputStream(Channels.newInputStream(channel), end - start + 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open " + key, e);
+        }
+    }
+
+    @Override
+    public Optional<Path> localPath(String key) {
+        Path path = resolve(objectsRoot, key);
+        return Files.isRegularFile(path) ? Optional.of(path) : Optional.empty();
+    }
+
+    /**
+     * Walks the deepest directory covered by the prefix; keys are sorted in memory, which is fine at
+     * self-hosted scale (S3 handles large buckets).
+     */
+    @Override
+    public ObjectPage listObjectsPage(String prefix, String startAfter, int maxKeys) {
+        Path directory = prefix.contains("/")
+            ? resolve(objectsRoot, prefix.substring(0, prefix.lastIndexOf('/')))
+            : objectsRoot;
+        if (!Files.isDirectory(directory)) {
+            return new ObjectPage(List.of(), false);
+        }
+
+        try (Stream<Path> paths = Files.walk(directory)) {
+            List<ObjectSummary> objects = paths
+                .filter(Files::isRegularFile)
+                .map(this::keyOf)
+                .filter(key -> key.startsWith(prefix))
+                .filter(key -> startAfter == null || OrphanReconciliationService.compareKeys(key, startAfter) > 0)
+                .sorted(OrphanReconciliationService::compareKeys)
+                .limit(maxKeys + 1L)
+                .map(this::summarize)
+                .toList();
+            boolean truncated = objects.size() > maxKeys;
+            return new ObjectPage(truncated ? objects.subList(0, maxKeys) : objects, truncated);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list " + prefix, e);
+        }
+    }
+
+    @Override
+    public PresignedUrl presignDownload(String key, String filename, String contentEncoding, Duration expiration) {
+        long expires = expiry(expiration);
+        UriComponentsBuilder url = UriComponentsBuilder.fromHttpUrl(baseUrl + OBJECTS_PATH)
+            .queryParam("key", key)
+            .queryParam("filename", filename);
+        if (contentEncoding != null) {
+            url.queryParam("encoding", contentEncoding);
+        }
+        url.queryParam("expires", expires)
+            .queryParam("signature", sign("GET", key, String.valueOf(expires), filename, nullToEmpty(contentEncoding)));
+        return new PresignedUrl(url.encode().toUriString(), Map.of(), Instant.ofEpochSecond(expires));
+    }
+
+    @Override
+    public PresignedUrl generatePresignedUploadUrl(
+        String key, String contentType, long contentLength, Duration expiration
+    ) {
+        long expires = expiry(expiration);
+        String url = UriComponentsBuilder.fromHttpUrl(baseUrl + OBJECTS_PATH)
+            .queryParam("key", key)
+            .queryParam("contentType", contentType)
+            .queryParam("length", contentLength)
+            .queryParam("expires", expires)
+            .queryParam("signature", sign(
+                "PUT", key, String.valueOf(expires), contentType, String.valueOf(contentLength)
+            ))
+            .encode()
+            .toUriString();
+        return new PresignedUrl(url, Map.of("Content-Type", List.of(contentType)), Instant.ofEpochSecond(expires));
+    }
+
+    /**
+     * Check a download URL's signature and expiry.
+     */
+    boolean verifyDownload(String key, String filename, String contentEncoding, long expires, String signature) {
+        return verify(signature, expires, "GET", key, String.valueOf(expires), filename, nullToEmpty(contentEncoding));
+    }
+
+    /**
+     * Check an upload URL's signature and expiry.
+     */
+    boolean verifyUpload(String key, String contentType, long length, long expires, String signature) {
+        return verify(signature, expires, "PUT", key, String.valueOf(expires), contentType, String.valueOf(length));
+    }
+
+    String readContentType(String key) throws IOException {
+        try {
+            return Files.readString(resolve(metaRoot, key));
+        } catch (NoSuchFileException e) {
+            return DEFAULT_CONTENT_TYPE;
+        }
+    }
+
+    /**
+     * Map a key to a path under root; keys must not escape it.
+     */
+    private static Path resolve(Path root, String key) {
+        if (key == null || key.isEmpty() || key.startsWith("/") || key.indexOf('\\') >= 0 || key.indexOf('\0') >= 0) {
+            throw new IllegalArgumentException("Invalid object key");
+        }
+        Path path = root.resolve(key).normalize();
+        if (!path.startsWith(root) || path.equals(root)) {
+            throw new IllegalArgumentException("Invalid object key");
+        }
+        return path;
+    }
+
+    private Path findUpload(String key, String uploadId) {
+        Path upload = uploadsRoot.resolve(uploadId).normalize();
+        if (!upload.getParent().equals(uploadsRoot) || !key.equals(readKey(upload))) {
+            throw new IllegalStateException("No such upload: " + uploadId);
+        }
+        return upload;
+    }
+
+    private static String readKey(Path upload) {
+        try {
+            return Files.readString(upload.resolve("key"));
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private Path writeTemp(ByteBuffer content) throws IOException {
+        Path temp = Files.createTempFile(tempRoot, "put-", ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            while (content.hasRemaining()) {
+                channel.write(content);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        return temp;
+    }
+
+    /** Content type first, then the content itself, each with an atomic rename. */
+    private void commit(Path temp, Path target, String key, String contentType) throws IOException {
+        Path metaTemp = Files.createTempFile(tempRoot, "meta-", ".tmp");
+        Files.writeString(metaTemp, contentType != null ? contentType : DEFAULT_CONTENT_TYPE);
+        Path meta = resolve(metaRoot, key);
+        Files.createDirectories(meta.getParent());
+        Files.move(metaTemp, meta, StandardCopyOption.ATOMIC_MOVE);
+        Files.createDirectories(target.getParent());
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void transfer(FileChannel in, long position, long count, FileChannel out) throws IOException {
+        long remaining = count;
+        while (remaining > 0) {
+            long sent = in.transferTo(position, remaining, out);
+            if (sent <= 0) {
+                throw new EOFException("Part ended " + remaining + " bytes early");
+            }
+            position += sent;
+            remaining -= sent;
+        }
+    }
+
+    private String keyOf(Path path) {
+        return objectsRoot.relativize(path).toString().replace(path.getFileSystem().getSeparator(), "/");
+    }
+
+    private ObjectSummary summarize(String key) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(resolve(objectsRoot, key), BasicFileAttributes.class);
+            return new ObjectSummary(key, attributes.size(), attributes.lastModifiedTime().toInstant());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read " + key, e);
+        }
+    }
+
+    private long expiry(Duration expiration) {
+        return clock.instant().plus(expiration).truncatedTo(ChronoUnit.SECONDS).getEpochSecond();
+    }
+
+    private boolean verify(String signature, long expires, String... fields) {
+        if (signature == null || clock.instant().getEpochSecond() > expires) {
+            return false;
+        }
+        return MessageDigest.isEqual(
+            sign(fields).getBytes(StandardCharsets.US_ASCII), signature.getBytes(StandardCharsets.US_ASCII)
+        );
+    }
+
+    private String sign(String... fields) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(signingKey);
+            byte[] digest = mac.doFinal(String.join("\n", fields).getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+    }
+
+    private static String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    /** Reads at most the requested range of a file. */
+    private static final class RangeInputStream extends FilterInputStream {
+        private long remaining;
+
+        RangeInputStream(InputStream in, long length) {
+            super(in);
+            this.remaining = length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int b = super.read();
+            if (b >= 0) {
+                remaining--;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int read = super.read(b, off, (int) Math.min(len, remaining));
+            if (read > 0) {
+                remaining -= read;
+            }
+            return read;
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package com.starter.feature.files;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Optional on-disk LRU cache of hot S3 objects for the content proxy ({@link FileContentService}),
+ * meant for local NVMe. Disabled by default.
+ *
+ * An object is admitted on its second request (one-off downloads never touch the disk) if it is at most
+ * max-object-size. That request is still served from S3 while the object is copied to disk in the background,
+ * at most one fill per key on fill-threads threads (fills beyond the queue are skipped, the object is admitted on
+ * a later request). The cache is bounded by max-size; least recently used objects are evicted. Keys are S3 keys,
+ * whose content never changes, so entries never go stale; entries of deleted files are unreachable (ownership
+ * is checked first) and age out. Cached files are removed on startup.
+ */
+@Slf4j
+@Component
+public class LocalContentCache {
+    /** Keys requested once, remembered for admission. */
+    private static final int ADMISSION_HISTORY = 10_000;
+    private static final String FILE_PREFIX = "object-";
+    private static final int FILL_QUEUE_CAPACITY = 64;
+
+    private final BlobStore blobStore;
+    private final boolean enabled;
+    private final Path directory;
+    private final long maxBytes;
+    private final long maxObjectBytes;
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Boolean> requestedOnce = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            return size() > ADMISSION_HISTORY;
+        }
+    };
+    /** Keys being copied to disk, guarded by the entries lock. */
+    private final Set<String> filling = new HashSet<>();
+    private final Executor fillExecutor;
+    private final AtomicLong usedBytes = new AtomicLong();
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public LocalContentCache(
+        BlobStore blobStore,
+        MeterRegistry meterRegistry,
+        @Value("${app.storage.content.cache.enabled:false}") boolean enabled,
+        @Value("${app.storage.content.cache.directory:${java.io.tmpdir}/starter-content-cache}") Path directory,
+        @Value("${app.storage.content.cache.max-size:10737418240}") long maxBytes,
+        @Value("${app.storage.content.cache.max-object-size:104857600}") long maxObjectBytes,
+        @Value("${app.storage.content.cache.fill-threads:2}") int fillThreads
+    ) {
+        this(blobStore, meterRegistry, enabled, directory, maxBytes, maxObjectBytes, newFillExecutor(fillThreads));
+    }
+
+    LocalContentCache(
+        BlobStore blobStore,
+        MeterRegistry meterRegistry,
+        boolean enabled,
+        Path directory,
+        long maxBytes,
+        long maxObjectBytes,
+        Executor fillExecutor
+    ) {
+        this.blobStore = blobStore;
+        this.fillExecutor = fillExecutor;
+        this.enabled = enabled;
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.maxObjectBytes = Math.min(maxObjectBytes, maxBytes);
+        this.hits = Counter.builder("files.content.cache.requests")
+            .tag("result", "hit")
+            .description("Content requests served from the local disk cache")
+            .register(meterRegistry);
+        this.misses = Counter.builder("files.content.cache.requests")
+            .tag("result", "miss")
+            .description("Cacheable content requests not in the local disk cache")
+            .register(meterRegistry);
+        this.evictions = Counter.builder("files.content.cache.evictions")
+            .description("Objects evicted from the local disk cache")
+            .register(meterRegistry);
+        Gauge.builder("files.content.cache.size", usedBytes, AtomicLong::get)
+            .description("Bytes held by the local disk cache")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void init() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Files.createDirectories(directory);
+        // Only our own files, in case the directory is shared
+        try (Stream<Path> leftovers = Files.list(directory)) {
+            leftovers
+                .filter(path -> path.getFileName().toString().startsWith(FILE_PREFIX))
+                .forEach(LocalContentCache::deleteQuietly);
+        }
+        log.info("Local content cache enabled: {} (max {} bytes)", directory, maxBytes);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        // Temp files of interrupted fills are removed on the next startup
+        if (fillExecutor instanceof ExecutorService executor) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Open the cached copy of an object; on its second request start copying it to disk in the background.
+     *
+     * @return a channel positioned anywhere (use absolute positions), or empty to read from S3 instead
+     */
+    public Optional<FileChannel> open(String s3Key, long sizeBytes) throws IOException {
+        if (!enabled || sizeBytes > maxObjectBytes) {
+            return Optional.empty();
+        }
+
+        synchronized (entries) {
+            Entry entry = entries.get(s3Key);
+            if (entry != null) {
+                hits.increment();
+                // Opened under the lock: an eviction may unlink the file afterwards, the open channel stays readable
+                return Optional.of(FileChannel.open(entry.path(), StandardOpenOption.READ));
+            }
+            misses.increment();
+            if (filling.contains(s3Key)) {
+                return Optional.empty();
+            }
+            if (requestedOnce.remove(s3Key) == null) {
+                requestedOnce.put(s3Key, Boolean.TRUE);
+                return Optional.empty();
+            }
+            filling.add(s3Key);
+        }
+
+        try {
+            fillExecutor.execute(() -> fill(s3Key, sizeBytes));
+        } catch (RejectedExecutionException e) {
+            log.debug("Not caching {}: fill queue full", s3Key);
+            synchronized (entries) {
+                filling.remove(s3Key);
+            }
+        }
+        return Optional.empty();
+    }
+
+    long usedBytes() {
+        return usedBytes.get();
+    }
+
+    private void fill(String s3Key, long sizeBytes) {
+        try {
+            Path path = fetch(s3Key, sizeBytes);
+            if (path != null) {
+                install(s3Key, new Entry(path, sizeBytes));
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to cache {}: {}", s3Key, e.getMessage());
+        } finally {
+            synchronized (entries) {
+                filling.remove(s3Key);
+            }
+        }
+    }
+
+    private Path fetch(String s3Key, long sizeBytes) throws IOException {
+        Path path = Files.createTempFile(directory, FILE_PREFIX, ".bin");
+        try (InputStream content = blobStore.openObject(s3Key)) {
+            Files.copy(content, path, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            deleteQuietly(path);
+            throw e;
+        }
+        if (Files.size(path) != sizeBytes) {
+            log.warn("Not caching {}: expected {} bytes, got {}", s3Key, sizeBytes, Files.size(path));
+            deleteQuietly(path);
+            return null;
+        }
+        return path;
+    }
+
+    private void install(String s3Key, Entry entry) {
+        List<Path> unlinked = new ArrayList<>();
+        synchronized (entries) {
+            if (entries.putIfAbsent(s3Key, entry) != null) {
+                unlinked.add(entry.path());
+            } else {
+                long used = usedBytes.addAndGet(entry.sizeBytes());
+                Iterator<Entry> eldest = entries.values().iterator();
+                while (used > maxBytes && eldest.hasNext()) {
+                    Entry evicted = eldest.next();
+                    eldest.remove();
+                    used = usedBytes.addAndGet(-evicted.sizeBytes());
+                    unlinked.add(evicted.path());
+                    evictions.increment();
+                }
+            }
+        }
+        unlinked.forEach(LocalContentCache::deleteQuietly);
+    }
+
+    private static ExecutorService newFillExecutor(int threads) {
+        AtomicInteger threadCounter = new AtomicInteger();
+        return new ThreadPoolExecutor(
+            threads, threads, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(FILL_QUEUE_CAPACITY),
+            runnable -> {
+                Thread thread = new Thread(runnable, "content-cache-fill-" + threadCounter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        );
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Failed to delete cached object {}", path, e);
+        }
+    }
+
+    private record Entry(Path path, long sizeBytes) {
+    }
+}
@@ -0,0 +1,318 @@
+package com.starter.feature.files;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Finds S3 objects without a user_files row (orphans) and ACTIVE rows without an object (dangling rows).
+ *
+ * Both sides are read page by page in byte order - S3 lists keys in UTF-8 byte order, and the database side
+ * sorts with COLLATE "C" - and compared with a merge-join, so memory stays constant regardless of bucket size.
+ * S3 list requests are rate limited. Progress is checkpointed after every page, and a failed or
+ * interrupted run resumes after its last key.
+ *
+ * Dry runs only report. Otherwise orphans older than min-orphan-age are enqueued to the S3 delete outbox;
+ * the age guard keeps objects of uploads that are still being written. Dangling rows are always only reported.
+ */
+@Slf4j
+@Service
+public class OrphanReconciliationService {
+    /** Only keys written by the application can be reconciled (and deleted). */
+    private static final Pattern PREFIX_PATTERN = Pattern.compile("users/(\\d+/)?|blobs/");
+    private static final int SAMPLE_SIZE = 100;
+
+    private final BlobStore blobStore;
+    private final FileRepository fileRepository;
+    private final S3OutboxRepository outboxRepository;
+    private final S3ReconciliationRunRepository runRepository;
+    private final int pageSize;
+    private final long minListIntervalNanos;
+    private final Duration minOrphanAge;
+    private final Duration staleAfter;
+    private final ExecutorService reconciliationExecutor;
+    private long lastListRequestNanos;
+    private volatile boolean stopping;
+
+    public OrphanReconciliationService(
+        BlobStore blobStore,
+        FileRepository fileRepository,
+        S3OutboxRepository outboxRepository,
+        S3ReconciliationRunRepository runRepository,
+        @Value("${app.storage.reconciliation.page-size:1000}") int pageSize,
+        @Value("${app.storage.reconciliation.max-list-requests-per-second:10}") double maxListRequestsPerSecond,
+        @Value("${app.storage.reconciliation.min-orphan-age-hours:24}") long minOrphanAgeHours,
+        @Value("${app.storage.reconciliation.stale-after-minutes:15}") long staleAfterMinutes
+    ) {
+        this.blobStore = blobStore;
+        this.fileRepository = fileRepository;
+        this.outboxRepository = outboxRepository;
+        this.runRepository = runRepository;
+        this.pageSize = pageSize;
+        this.minListIntervalNanos = (long) (1_000_000_000L / maxListRequestsPerSecond);
+        this.minOrphanAge = Duration.ofHours(minOrphanAgeHours);
+        this.staleAfter = Duration.ofMinutes(staleAfterMinutes);
+        this.reconciliationExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "s3-reconciliation");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        stopping = true;
+        reconciliationExecutor.shutdown();
+    }
+
+    /**
+     * Optional periodic dry run over the whole bucket; disabled unless a cron is configured.
+     */
+    @Scheduled(cron = "${app.storage.reconciliation.cron:-}")
+    public void scheduledRun() {
+        try {
+            start("users/", true);
+        } catch (IllegalArgumentException e) {
+            log.info("Skipping scheduled S3 reconciliation: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Start (or resume) a run in the background.
+     * A FAILED run, or a RUNNING run that stopped checkpointing, with the same parameters is resumed.
+     *
+     * @param prefix "users/", "users/{id}/" or "blobs/"
+     * @throws IllegalArgumentException if the prefix is invalid or another run is in progress
+     */
+    public synchronized S3ReconciliationRun start(String prefix, boolean dryRun) {
+        if (prefix == null || !PREFIX_PATTERN.matcher(prefix).matches()) {
+            throw new IllegalArgumentException("Prefix must be 'users/', 'users/{id}/' or 'blobs/'");
+        }
+
+        S3ReconciliationRun run = claimResumable(prefix, dryRun).orElseGet(() -> create(prefix, dryRun));
+        reconciliationExecutor.execute(() -> execute(run));
+        return run;
+    }
+
+    public Optional<S3ReconciliationRun> getLatestRun() {
+        return runRepository.findLatest();
+    }
+
+    /**
+     * Merge-join both key streams from the run's checkpoint to the end of the prefix.
+     */
+    void execute(S3ReconciliationRun run) {
+        log.info(
+            "S3 reconciliation {} started: prefix={}, dryRun={}, resuming after {}",
+            run.getId(), run.getPrefix(), run.isDryRun(), run.getLastKey()
+        );
+        Instant orphanCutoff = Instant.now().minus(minOrphanAge);
+        PagedCursor<BlobStore.ObjectSummary> objects = new PagedCursor<>(
+            run.getLastKey(), BlobStore.ObjectSummary::key, after -> listObjects(run.getPrefix(), after)
+        );
+        PagedCursor<FileRepository.ContentKey> rows = new PagedCursor<>(
+            run.getLastKey(), FileRepository.ContentKey::key,
+            after -> {
+                List<FileRepository.ContentKey> page = fileRepository.findContentKeysAfter(run.getPrefix(), after, pageSize);
+                return new Page<>(page, page.size() < pageSize);
+            }
+        );
+        List<String> orphanBatch = new ArrayList<>();
+        int sinceCheckpoint = 0;
+
+        try {
+            while (!stopping) {
+                BlobStore.ObjectSummary object = objects.peek();
+                FileRepository.ContentKey row = rows.peek();
+                if (object == null && row == null) {
+                    break;
+                }
+
+                int order = object == null ? 1 : row == null ? -1 : compareKeys(object.key(), row.key());
+                if (order <= 0) {
+                    run.setObjectsScanned(run.getObjectsScanned() + 1);
+                    run.setLastKey(object.key());
+                    objects.advance();
+                }
+                if (order >= 0) {
+                    run.setRowsScanned(run.getRowsScanned() + 1);
+                    run.setLastKey(row.key());
+                    rows.advance();
+                }
+
+                if (order < 0 && object.lastModified().isBefore(orphanCutoff)) {
+                    recordOrphan(run, object);
+                    orphanBatch.add(object.key());
+                } else if (order > 0 && row.active()) {
+                    run.setDanglingRows(run.getDanglingRows() + 1);
+                    addSample(run.getSampleDangling(), row.key());
+                }
+
+                if (++sinceCheckpoint >= pageSize) {
+                    checkpoint(run, orphanBatch);
+                    sinceCheckpoint = 0;
+                }
+            }
+
+            checkpoint(run, orphanBatch);
+            if (stopping) {
+                runRepository.finish(run.getId(), S3ReconciliationRun.Status.FAILED, "Interrupted by shutdown");
+                log.info("S3 reconciliation {} interrupted after {}", run.getId(), run.getLastKey());
+                return;
+            }
+            runRepository.finish(run.getId(), S3ReconciliationRun.Status.COMPLETED, null);
+            log.info(
+                "S3 reconciliation {} completed: {} objects, {} rows, {} orphans ({} bytes{}), {} dangling rows",
+                run.getId(), run.getObjectsScanned(), run.getRowsScanned(), run.getOrphanedObjects(),
+                run.getOrphanedBytes(), run.isDryRun() ? ", dry run" : " enqueued for deletion", run.getDanglingRows()
+            );
+        } catch (Exception e) {
+            log.error("S3 reconciliation {} failed after {}", run.getId(), run.getLastKey(), e);
+            runRepository.finish(run.getId(), S3ReconciliationRun.Status.FAILED, e.getMessage());
+        }
+    }
+
+    /**
+     * Compare keys by Unicode code point, which matches UTF-8 byte order (String.compareTo uses UTF-16 units).
+     */
+    static int compareKeys(String a, String b) {
+        int i = 0;
+        int j = 0;
+        while (i < a.length() && j < b.length()) {
+            int ca = a.codePointAt(i);
+            int cb = b.codePointAt(j);
+            if (ca != cb) {
+                return Integer.compare(ca, cb);
+            }
+            i += Character.charCount(ca);
+            j += Character.charCount(cb);
+        }
+        return Boolean.compare(i < a.length(), j < b.length());
+    }
+
+    private Optional<S3ReconciliationRun> claimResumable(String prefix, boolean dryRun) {
+        Instant staleBefore = Instant.now().minus(staleAfter);
+        Optional<S3ReconciliationRun> running = runRepository.findRunning();
+        if (running.isPresent()) {
+            S3ReconciliationRun run = running.get();
+            if (run.getUpdatedAt().isAfter(staleBefore)) {
+                throw new IllegalArgumentException("A reconciliation run is already in progress");
+            }
+            if (matches(run, prefix, dryRun) && runRepository.resume(run.getId(), staleBefore)) {
+                return Optional.of(run);
+            }
+            runRepository.abandon(run.getId(), staleBefore);
+            return Optional.empty();
+        }
+
+        return runRepository.findLatest()
+            .filter(run -> run.getStatus() == S3ReconciliationRun.Status.FAILED && matches(run, prefix, dryRun))
+            .filter(run -> runRepository.resume(run.getId(), staleBefore));
+    }
+
+    private S3ReconciliationRun create(String prefix, boolean dryRun) {
+        try {
+            return runRepository.create(prefix, dryRun);
+        } catch (DuplicateKeyException e) {
+            throw new IllegalArgumentException("A reconciliation run is already in progress");
+        }
+    }
+
+    private static boolean matches(S3ReconciliationRun run, String prefix, boolean dryRun) {
+        return run.getPrefix().equals(prefix) && run.isDryRun() == dryRun;
+    }
+
+    private Page<BlobStore.ObjectSummary> listObjects(String prefix, String startAfter) {
+        throttle();
+        BlobStore.ObjectPage page = blobStore.listObjectsPage(prefix, startAfter, pageSize);
+        return new Page<>(page.objects(), !page.truncated());
+    }
+
+    /** Space S3 list requests at least minListInterval apart. */
+    private void throttle() {
+        long wait = lastListRequestNanos + minListIntervalNanos - System.nanoTime();
+        if (wait > 0) {
+            try {
+                Thread.sleep(Duration.ofNanos(wait));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while rate limiting", e);
+            }
+        }
+        lastListRequestNanos = System.nanoTime();
+    }
+
+    private void recordOrphan(S3ReconciliationRun run, BlobStore.ObjectSummary object) {
+        run.setOrphanedObjects(run.getOrphanedObjects() + 1);
+        run.setOrphanedBytes(run.getOrphanedBytes() + object.size());
+        addSample(run.getSampleOrphans(), object.key());
+    }
+
+    /** Enqueue found orphans before moving the checkpoint past them, so a resumed run never loses any. */
+    private void checkpoint(S3ReconciliationRun run, List<String> orphanBatch) {
+        if (!run.isDryRun() && !orphanBatch.isEmpty()) {
+            outboxRepository.enqueue(List.copyOf(orphanBatch), Instant.now());
+        }
+        orphanBatch.clear();
+        runRepository.checkpoint(run);
+    }
+
+    private static void addSample(List<String> sample, String key) {
+        if (sample.size() < SAMPLE_SIZE) {
+            sample.add(key);
+        }
+    }
+
+    private record Page<T>(List<T> items, boolean last) {
+    }
+
+    /** One side of the merge: holds a single page and loads the next one after the last key seen. */
+    private static final class PagedCursor<T> {
+        private final Function<T, String> keyOf;
+        private final Function<String, Page<T>> loader;
+        private String after;
+        private Iterator<T> page = Collections.emptyIterator();
+        private boolean lastPage;
+        private T head;
+
+        PagedCursor(String after, Function<T, String> keyOf, Function<String, Page<T>> loader) {
+            this.after = after;
+            this.keyOf = keyOf;
+            this.loader = loader;
+        }
+
+        T peek() {
+            while (head == null && (page.hasNext() || !lastPage)) {
+                if (!page.hasNext()) {
+                    Page<T> next = loader.apply(after);
+                    page = next.items().iterator();
+                    lastPage = next.last();
+                } else {
+                    head = page.next();
+                    after = keyOf.apply(head);
+                }
+            }
+            return head;
+        }
+
+        void advance() {
+            head = null;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.starter.feature.files;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Removes stuck uploads - expired PENDING rows (abandoned direct uploads, server crashes mid-transfer)
+ * and FAILED rows - together with their content and incomplete multipart uploads in S3,
+ * releasing the quota and filename they reserved.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PendingUploadSweeper {
+    private final UploadStateService uploadStateService;
+    private final BlobStore blobStore;
+
+    @Value("${app.storage.direct-upload.sweep-batch-size:500}")
+    private int batchSize;
+
+    @Scheduled(
+        fixedDelayString = "${app.storage.direct-upload.sweep-interval-ms:300000}",
+        initialDelayString = "${app.storage.direct-upload.sweep-interval-ms:300000}"
+    )
+    public void sweepExpiredReservations() {
+        int swept = 0;
+        List<UserFile> expired;
+        do {
+            // Each call deletes one batch, releases its quota and enqueues its S3 deletes in its own transaction
+            expired = uploadStateService.expire(Instant.now(), batchSize);
+            // Objects are deleted through the outbox; parts of interrupted multipart uploads are not objects
+            expired.forEach(file -> blobStore.abortIncompleteUploads(file.getS3Key()));
+            swept += expired.size();
+        } while (expired.size() == batchSize);
+
+        if (swept > 0) {
+            log.info("Swept {} expired or failed uploads", swept);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.starter.feature.files;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * One S3 object being read ahead of its consumer into a small bounded queue of chunks.
+ *
+ * The fetch blocks once maxChunks chunks are waiting, so a slow client never buffers more than that per object.
+ * The consumer waits at most takeTimeoutMillis for each chunk; then the object counts as failed, like an S3 error.
+ * Closing stops the fetch (also when it is still queued) and drops the buffered chunks.
+ */
+final class PrefetchedObject implements Closeable {
+    private static final byte[] END = new byte[0];
+    private static final long OFFER_TIMEOUT_MS = 100;
+
+    private final UserFile file;
+    private final int chunkSize;
+    private final long takeTimeoutMillis;
+    private final BlockingQueue<byte[]> chunks;
+    private Future<?> fetch;
+    private byte[] head;
+    private volatile boolean closed;
+    private volatile Exception failure;
+
+    private PrefetchedObject(UserFile file, int chunkSize, int maxChunks, long takeTimeoutMillis) {
+        this.file = file;
+        this.chunkSize = chunkSize;
+        this.takeTimeoutMillis = takeTimeoutMillis;
+        this.chunks = new ArrayBlockingQueue<>(maxChunks);
+    }
+
+    /**
+     * Start reading the file's content on the executor.
+     */
+    static PrefetchedObject start(
+        UserFile file,
+        BlobStore blobStore,
+        int chunkSize,
+        int maxChunks,
+        long takeTimeoutMillis,
+        ExecutorService executor
+    ) {
+        PrefetchedObject object = new PrefetchedObject(file, chunkSize, maxChunks, takeTimeoutMillis);
+        object.fetch = executor.submit(() -> object.fetch(blobStore));
+        return object;
+    }
+
+    UserFile getFile() {
+        return file;
+    }
+
+    /**
+     * Wait for the first chunk.
+     *
+     * @return false if the object could not be read at all (nothing was consumed yet, so it can be skipped)
+     */
+    boolean awaitContent() throws InterruptedIOException {
+        if (head == null) {
+            head = take();
+        }
+        return head != END || failure == null;
+    }
+
+    /**
+     * Write the remaining content to out.
+     *
+     * @throws IOException if S3 failed mid-object or out failed
+     */
+    long transferTo(OutputStream out) throws IOException {
+        byte[] chunk = head != null ? head : take();
+        head = null;
+        long written = 0;
+        while (chunk != END) {
+            out.write(chunk);
+            written += chunk.length;
+            chunk = take();
+        }
+        if (failure != null) {
+            throw new IOException("Failed to read " + file.getS3Key(), failure);
+        }
+        return written;
+    }
+
+    Exception getFailure() {
+        return failure;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        fetch.cancel(true);
+        chunks.clear();
+    }
+
+    private void fetch(BlobStore blobStore) {
+        try (InputStream in = StorageCodec.openDecoded(blobStore, file)) {
+            byte[] chunk = in.readNBytes(chunkSize);
+            while (chunk.length > 0 && put(chunk)) {
+                chunk = in.readNBytes(chunkSize);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (Exception e) {
+            failure = e;
+        }
+        try {
+            put(END);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Returns false once the consumer has gone away. */
+    private boolean put(byte[] chunk) throws InterruptedException {
+        while (!closed) {
+            if (chunks.offer(chunk, OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private byte[] take() throws InterruptedIOException {
+        try {
+            byte[] chunk = chunks.poll(takeTimeoutMillis, TimeUnit.MILLISECONDS);
+            if (chunk == null) {
+                failure = new TimeoutException("No data for " + takeTimeoutMillis + " ms");
+                close();
+                return END;
+            }
+            return chunk;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for " + file.getS3Key());
+        }
+    }
+}
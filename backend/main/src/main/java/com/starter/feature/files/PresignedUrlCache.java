@@ -0,0 +1,144 @@
+package com.starter.feature.files;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU cache of presigned download URLs, keyed by S3 key and filename
+ * (shared blob content is downloaded under each owner's filename).
+ *
+ * A URL is reused while at least half of its lifetime remains, so every URL handed out is valid for at least
+ * half of presigned-url-expiration-minutes. Signing is cheap but not free, and stable URLs let browsers
+ * cache the downloaded content. Callers must check ownership before asking for a URL.
+ */
+@Component
+public class PresignedUrlCache {
+    private final BlobStore blobStore;
+    private final Duration expiration;
+    private final Duration minRemaining;
+    private final Clock clock;
+    private final Map<String, CachedUrl> urls;
+    private final Counter hits;
+    private final Counter misses;
+
+    public PresignedUrlCache(
+        BlobStore blobStore,
+        MeterRegistry meterRegistry,
+        @Value("${app.storage.presigned-url-expiration-minutes:60}") long expirationMinutes,
+        @Value("${app.storage.download-url-cache.max-entries:10000}") int maxEntries
+    ) {
+        this(blobStore, meterRegistry, Duration.ofMinutes(expirationMinutes), maxEntries, Clock.systemUTC());
+    }
+
+    PresignedUrlCache(BlobStore blobStore, MeterRegistry meterRegistry, Duration expiration, int maxEntries, Clock clock) {
+        this.blobStore = blobStore;
+        this.expiration = expiration;
+        this.minRemaining = expiration.dividedBy(2);
+        this.clock = clock;
+        this.urls = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedUrl> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        Counter hitCounter = Counter.builder("s3.presigned.cache.requests")
+            .tag("result", "hit")
+            .description("Download URL requests served from the presigned URL cache")
+            .register(meterRegistry);
+        Counter missCounter = Counter.builder("s3.presigned.cache.requests")
+            .tag("result", "miss")
+            .description("Download URL requests that had to sign a new URL")
+            .register(meterRegistry);
+        this.hits = hitCounter;
+        this.misses = missCounter;
+        Gauge.builder("s3.presigned.cache.size", urls, Map::size)
+            .description("Presigned download URLs in the cache")
+            .register(meterRegistry);
+        Gauge.builder("s3.presigned.cache.hit.ratio", hitCounter, h -> hitRatio(h.count(), missCounter.count()))
+            .description("Share of download URL requests served from the cache since startup")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Get a download URL valid for at least half of the configured expiration.
+     */
+    public String getDownloadUrl(UserFile file) {
+        String contentEncoding = file.getCodec() != null ? file.getCodec().contentEncoding() : null;
+        return getUrl(file.getS3Key(), file.getFilename(), contentEncoding);
+    }
+
+    /**
+     * Get a URL for any owned object (content or rendition), served under the given filename.
+     */
+    public String getUrl(String s3Key, String filename) {
+        return getUrl(s3Key, filename, null);
+    }
+
+    /**
+     * The coding of an object never changes, so it is not part of the cache key.
+     */
+    private String getUrl(String s3Key, String filename, String contentEncoding) {
+        String key = cacheKey(s3Key, filename);
+        Instant now = clock.instant();
+        synchronized (urls) {
+            CachedUrl cached = urls.get(key);
+            if (cached != null && !cached.expiresAt().minus(minRemaining).isBefore(now)) {
+                hits.increment();
+                return cached.url();
+            }
+        }
+
+        // Sign outside the lock; a concurrent miss for the same key just signs twice
+        misses.increment();
+        BlobStore.PresignedUrl presigned = blobStore.presignDownload(s3Key, filename, contentEncoding, expiration);
+        synchronized (urls) {
+            urls.put(key, new CachedUrl(presigned.url(), presigned.expiration()));
+        }
+        return presigned.url();
+    }
+
+    /**
+     * Drop URLs of deleted files and their renditions.
+     */
+    public void invalidate(Collection<UserFile> files) {
+        synchronized (urls) {
+            for (UserFile file : files) {
+                urls.remove(cacheKey(file.getS3Key(), file.getFilename()));
+                if (file.getThumbnailS3Key() != null) {
+                    urls.remove(cacheKey(file.getThumbnailS3Key(), file.getFilename()));
+                }
+                if (file.getPreviewS3Key() != null) {
+                    urls.remove(cacheKey(file.getPreviewS3Key(), file.getFilename()));
+                }
+            }
+        }
+    }
+
+    int size() {
+        synchronized (urls) {
+            return urls.size();
+        }
+    }
+
+    private static String cacheKey(String s3Key, String filename) {
+        return s3Key + '\n' + filename;
+    }
+
+    private static double hitRatio(double hits, double misses) {
+        double total = hits + misses;
+        return total == 0 ? 0 : hits / total;
+    }
+
+    private record CachedUrl(String url, Instant expiresAt) {
+    }
+}
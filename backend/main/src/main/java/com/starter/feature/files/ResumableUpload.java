@@ -0,0 +1,11 @@
+package com.starter.feature.files;
+
+import java.util.List;
+
+/**
+ * State of a resumable upload: the S3 multipart upload behind a PENDING file and the bytes received so far.
+ */
+public record ResumableUpload(
+    long fileId, String s3UploadId, long uploadLength, int chunkSize, long uploadOffset, List<String> partEtags
+) {
+}
@@ -0,0 +1,84 @@
+package com.starter.feature.files;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Repository for resumable upload state (resumable_uploads). Ownership is checked on the user_files row.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ResumableUploadRepository {
+    private final JdbcClient jdbcClient;
+    private static final RowMapper<ResumableUpload> UPLOAD_MAPPER = (rs, rowNum) -> new ResumableUpload(
+        rs.getLong("file_id"),
+        rs.getString("s3_upload_id"),
+        rs.getLong("upload_length"),
+        rs.getInt("chunk_size"),
+        rs.getLong("upload_offset"),
+        Arrays.asList((String[]) rs.getArray("part_etags").getArray())
+    );
+
+    public void create(long fileId, String s3UploadId, long uploadLength, int chunkSize) {
+        jdbcClient
+            .sql("""
+                INSERT INTO resumable_uploads (file_id, s3_upload_id, upload_length, chunk_size)
+                VALUES (:fileId, :s3UploadId, :uploadLength, :chunkSize)
+                """)
+            .param("fileId", fileId)
+            .param("s3UploadId", s3UploadId)
+            .param("uploadLength", uploadLength)
+            .param("chunkSize", chunkSize)
+            .update();
+    }
+
+    public Optional<ResumableUpload> findByFileId(long fileId) {
+        return jdbcClient
+            .sql("""
+                SELECT file_id, s3_upload_id, upload_length, chunk_size, upload_offset, part_etags
+                FROM resumable_uploads
+                WHERE file_id = :fileId
+                """)
+            .param("fileId", fileId)
+            .query(UPLOAD_MAPPER)
+            .optional();
+    }
+
+    /**
+     * Record the next chunk and extend the upload's lease, if the upload is still at {@code offset}
+     * and has not expired. Both rows change in one statement.
+     *
+     * @return false if another request appended first or the upload expired
+     */
+    public boolean advance(long fileId, long offset, long newOffset, String partEtag, Instant now, Instant expiresAt) {
+        return jdbcClient
+            .sql("""
+                WITH advanced AS (
+                    UPDATE resumable_uploads
+                    SET upload_offset = :newOffset, part_etags = array_append(part_etags, :partEtag), updated_at = :now
+                    WHERE file_id = :fileId AND upload_offset = :offset
+                      AND EXISTS (
+                          SELECT 1 FROM user_files
+                          WHERE id = :fileId AND status = 'PENDING' AND upload_expires_at > :now
+                      )
+                    RETURNING file_id
+                )
+                UPDATE user_files SET upload_expires_at = :expiresAt, updated_at = :now
+                WHERE id IN (SELECT file_id FROM advanced)
+                """)
+            .param("fileId", fileId)
+            .param("offset", offset)
+            .param("newOffset", newOffset)
+            .param("partEtag", partEtag)
+            .param("now", Timestamp.from(now))
+            .param("expiresAt", Timestamp.from(expiresAt))
+            .update() == 1;
+    }
+}
@@ -0,0 +1,206 @@
+package com.starter.feature.files;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.starter.core.exception.FileTooLargeException;
+import com.starter.core.exception.ResourceNotFoundException;
+import com.starter.feature.files.dto.CreateUploadRequest;
+import com.starter.feature.files.dto.FileDto;
+import com.starter.feature.files.dto.ResumableUploadResponse;
+import com.starter.feature.files.exception.UploadOffsetMismatchException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resumable uploads in the style of tus, for large files over unreliable connections.
+ *
+ * Flow:
+ * 1. Create: validate, insert PENDING row (reserves quota and filename), start an S3 multipart upload
+ * 2. Append chunks at the current offset; every chunk is uploaded as one S3 part and recorded in Postgres
+ * 3. Query the offset after a dropped connection and continue from there - on any instance, also after a restart
+ * 4. Complete: assemble the parts and flip the row to ACTIVE (quota is settled in the same transaction)
+ * Chunks have a fixed size because S3 parts (except the last) must be at least 5MB; a chunk cut off mid-transfer
+ * is not stored and has to be sent again. Every chunk extends the upload's lease; expired uploads are removed,
+ * and their parts aborted, by {@link PendingUploadSweeper}.
+ */
+@Slf4j
+@Service
+public class ResumableUploadService {
+    private final FileRepository fileRepository;
+    private final ResumableUploadRepository uploadRepository;
+    private final FileService fileService;
+    private final UploadStateService uploadStateService;
+    private final BlobStore blobStore;
+    private final UploadBufferPool bufferPool;
+    private final long maxFileSizeBytes;
+    private final Duration lease;
+
+    public ResumableUploadService(
+        FileRepository fileRepository,
+        ResumableUploadRepository uploadRepository,
+        FileService fileService,
+        UploadStateService uploadStateService,
+        BlobStore blobStore,
+        UploadBufferPool bufferPool,
+        @Value("${app.storage.max-file-size}") long maxFileSizeBytes,
+        @Value("${app.storage.resumable.lease-hours:24}") long leaseHours
+    ) {
+        this.fileRepository = fileRepository;
+        this.uploadRepository = uploadRepository;
+        this.fileService = fileService;
+        this.uploadStateService = uploadStateService;
+        this.blobStore = blobStore;
+        this.bufferPool = bufferPool;
+        this.maxFileSizeBytes = maxFileSizeBytes;
+        this.lease = Duration.ofHours(leaseHours);
+    }
+
+    /**
+     * Reserve quota and filename and start the upload.
+     */
+    public ResumableUploadResponse create(Long userId, CreateUploadRequest request) {
+        long size = request.getSizeBytes();
+        if (size > maxFileSizeBytes) {
+            throw new FileTooLargeException(size, maxFileSizeBytes);
+        }
+
+        String contentType = fileService.resolveContentType(request.getContentType());
+        String filename = fileService.resolveFilename(request.getFilename());
+        fileService.ensureFilenameAvailable(userId, filename);
+
+        String s3Key = fileService.buildS3Key(userId, filename);
+        UserFile pending = uploadStateService.begin(userId, filename, s3Key, contentType, size, lease);
+        int chunkSize = bufferPool.getBufferSize();
+        try {
+            String s3UploadId = blobStore.createMultipartUpload(s3Key, contentType);
+            uploadRepository.create(pending.getId(), s3UploadId, size, chunkSize);
+        } catch (RuntimeException e) {
+            log.error("Failed to start resumable upload {}, discarding it", pending.getId(), e);
+            uploadStateService.fail(pending);
+            throw e;
+        }
+
+        log.info("Created resumable upload {} for user {} ({} bytes)", pending.getId(), userId, size);
+        return toResponse(pending, new ResumableUpload(pending.getId(), null, size, chunkSize, 0, List.of()));
+    }
+
+    /**
+     * Current offset and expiry of an upload.
+     *
+     * @throws ResourceNotFoundException if there is no such upload in progress
+     */
+    public ResumableUploadResponse getStatus(Long userId, Long fileId) {
+        UserFile file = findPendingFile(userId, fileId);
+        return toResponse(file, findUpload(fileId));
+    }
+
+    /**
+     * Append the chunk that starts at {@code offset}.
+     *
+     * @param contentLength declared length of the body, or -1 if unknown
+     * @return the new offset
+     * @throws UploadOffsetMismatchException if the upload is at a different offset
+     * @throws IllegalArgumentException      if the body is not exactly one chunk long
+     */
+    public long append(Long userId, Long fileId, long offset, long contentLength, InputStream body)
+        throws IOException {
+        UserFile file = findPendingFile(userId, fileId);
+        ResumableUpload upload = findUpload(fileId);
+        if (offset != upload.uploadOffset()) {
+            throw new UploadOffsetMismatchException(offset, upload.uploadOffset());
+        }
+        if (offset == upload.uploadLength()) {
+            throw new IllegalArgumentException("All content has been received; complete the upload");
+        }
+
+        int expected = (int) Math.min(upload.chunkSize(), upload.uploadLength() - offset);
+        String chunkSizeError = String.format("Chunk at offset %d must be exactly %d bytes", offset, expected);
+        if (contentLength >= 0 && contentLength != expected) {
+            throw new IllegalArgumentException(chunkSizeError);
+        }
+
+        // Chunk size is fixed at creation; a changed part-size setting only affects new uploads
+        byte[] buffer = expected <= bufferPool.getBufferSize() ? bufferPool.acquire() : new byte[expected];
+        try {
+            int length = body.readNBytes(buffer, 0, expected);
+            if (length != expected || body.read() != -1) {
+                throw new IllegalArgumentException(chunkSizeError);
+            }
+
+            int partNumber = upload.partEtags().size() + 1;
+            BlobStore.Part part = blobStore.uploadPart(file.getS3Key(), upload.s3UploadId(), partNumber, buffer, length);
+            Instant now = Instant.now();
+            if (!uploadRepository.advance(fileId, offset, offset + length, part.eTag(), now, now.plus(lease))) {
+                ResumableUpload current = findUpload(fileId);
+                throw new UploadOffsetMismatchException(offset, current.uploadOffset());
+            }
+            log.debug("Resumable upload {}: part {} stored, {} of {} bytes", fileId, partNumber, offset + length,
+                upload.uploadLength());
+            return offset + length;
+        } finally {
+            bufferPool.release(buffer);
+        }
+    }
+
+    /**
+     * Assemble the parts and activate the file. Safe to retry if the activation failed after S3 completed.
+     *
+     * @throws IllegalArgumentException if not all content has been received
+     */
+    public FileDto complete(Long userId, Long fileId) {
+        UserFile file = findPendingFile(userId, fileId);
+        ResumableUpload upload = findUpload(fileId);
+        if (upload.uploadOffset() != upload.uploadLength()) {
+            throw new IllegalArgumentException(String.format(
+                "Upload is incomplete: %d of %d bytes received", upload.uploadOffset(), upload.uploadLength()
+            ));
+        }
+
+        List<BlobStore.Part> parts = new ArrayList<>(upload.partEtags().size());
+        for (int i = 0; i < upload.partEtags().size(); i++) {
+            parts.add(new BlobStore.Part(i + 1, upload.partEtags().get(i)));
+        }
+        try {
+            blobStore.completeMultipartUpload(file.getS3Key(), upload.s3UploadId(), parts);
+        } catch (RuntimeException e) {
+            // Completed by an earlier attempt whose activation did not go through (the upload no longer exists)
+            long stored = blobStore.headObject(file.getS3Key()).map(BlobStore.ObjectInfo::contentLength).orElse(-1L);
+            if (stored != upload.uploadLength()) {
+                throw e;
+            }
+        }
+
+        UserFile activated = uploadStateService.activate(file, upload.uploadLength());
+        log.info("Resumable upload completed: {} for user {} ({} bytes)", file.getFilename(), userId,
+            upload.uploadLength());
+        return fileService.toDto(activated);
+    }
+
+    private UserFile findPendingFile(Long userId, Long fileId) {
+        return fileRepository.findPendingByIdAndUserId(fileId, userId)
+            .orElseThrow(() -> new ResourceNotFoundException("Upload", fileId));
+    }
+
+    private ResumableUpload findUpload(Long fileId) {
+        return uploadRepository.findByFileId(fileId)
+            .orElseThrow(() -> new ResourceNotFoundException("Upload", fileId));
+    }
+
+    private static ResumableUploadResponse toResponse(UserFile file, ResumableUpload upload) {
+        return ResumableUploadResponse.builder()
+            .fileId(file.getId())
+            .filename(file.getFilename())
+            .uploadLength(upload.uploadLength())
+            .uploadOffset(upload.uploadOffset())
+            .chunkSize(upload.chunkSize())
+            .expiresAt(file.getUploadExpiresAt())
+            .build();
+    }
+}
@@ -0,0 +1,234 @@
+package com.starter.feature.files;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.starter.core.exception.FileTooLargeException;
+
+import jakarta.annotation.PreDestroy;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Streams an InputStream of unknown length into S3 using multipart upload.
+ *
+ * Parts are read into buffers from {@link UploadBufferPool} and uploaded on a dedicated thread pool,
+ * with at most {@code max-parts-in-flight} parts per upload in flight. Reading from the client blocks
+ * while that limit is reached, so heap use per upload is bounded by
+ * {@code part-size * (max-parts-in-flight + 1)} regardless of file size.
+ *
+ * Objects that fit into a single part are sent with a plain PUT instead.
+ */
+@Slf4j
+@Component
+public class S3MultipartUploader {
+    private final BlobStore blobStore;
+    private final UploadBufferPool bufferPool;
+    private final int maxPartsInFlight;
+    private final ExecutorService partExecutor;
+
+    public S3MultipartUploader(
+        BlobStore blobStore,
+        UploadBufferPool bufferPool,
+        @Value("${app.storage.streaming.max-parts-in-flight:3}") int maxPartsInFlight,
+        @Value("${app.storage.streaming.upload-threads:8}") int uploadThreads
+    ) {
+        this.blobStore = blobStore;
+        this.bufferPool = bufferPool;
+        this.maxPartsInFlight = maxPartsInFlight;
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.partExecutor = Executors.newFixedThreadPool(uploadThreads, runnable -> {
+            Thread thread = new Thread(runnable, "s3-part-upload-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        partExecutor.shutdown();
+    }
+
+    /**
+     * Upload the stream to S3 under the given key.
+     *
+     * On any failure (S3 error, client disconnect, size limit) the multipart upload is aborted so no
+     * parts are left behind, and the exception is rethrown.
+     *
+     * @param s3Key       Target object key
+     * @param contentType Content type stored with the object
+     * @param in          Source stream, read until EOF (not closed)
+     * @param maxBytes    Maximum accepted object size
+     * @return Number of bytes uploaded
+     * @throws FileTooLargeException    if the stream is longer than {@code maxBytes}
+     * @throws IllegalArgumentException if the stream is empty
+     */
+    public long upload(String s3Key, String contentType, InputStream in, long maxBytes) throws IOException {
+        byte[] first = bufferPool.acquire();
+        // Released here on every path except the handoff to uploadParts, which then owns the buffer
+        boolean handedOff = false;
+        try {
+            int firstLength = in.readNBytes(first, 0, first.length);
+            if (firstLength == 0) {
+                throw new IllegalArgumentException("File cannot be empty");
+            }
+            checkLimit(firstLength, maxBytes);
+
+            // Whole object fits into one buffer - a single PUT is cheaper than a multipart upload
+            if (firstLength < first.length) {
+                blobStore.uploadFile(s3Key, first, firstLength, contentType);
+                return firstLength;
+            }
+
+            String uploadId = blobStore.createMultipartUpload(s3Key, contentType);
+            handedOff = true;
+            return uploadParts(s3Key, uploadId, in, maxBytes, first, firstLength);
+        } finally {
+            if (!handedOff) {
+                bufferPool.release(first);
+            }
+        }
+    }
+
+    private long uploadParts(
+        String s3Key, String uploadId, InputStream in, long maxBytes, byte[] first, int firstLength
+    ) throws IOException {
+        Semaphore inFlight = new Semaphore(maxPartsInFlight);
+        AtomicBoolean aborted = new AtomicBoolean(false);
+        List<Future<BlobStore.Part>> parts = new ArrayList<>();
+
+        byte[] buffer = first;
+        int length = firstLength;
+        long total = 0;
+
+        try {
+            while (true) {
+                total += length;
+                checkLimit(total, maxBytes);
+                failFast(parts);
+
+                acquirePermit(inFlight);
+                parts.add(submitPart(s3Key, uploadId, parts.size() + 1, buffer, length, inFlight, aborted));
+                buffer = null;
+
+                // Short read means EOF
+                if (length < bufferPool.getBufferSize()) {
+                    break;
+                }
+
+                buffer = bufferPool.acquire();
+                length = in.readNBytes(buffer, 0, buffer.length);
+                if (length == 0) {
+                    bufferPool.release(buffer);
+                    buffer = null;
+                    break;
+                }
+            }
+
+            List<BlobStore.Part> completed = new ArrayList<>(parts.size());
+            for (Future<BlobStore.Part> part : parts) {
+                completed.add(await(part));
+            }
+            blobStore.completeMultipartUpload(s3Key, uploadId, completed);
+            log.debug("Streamed {} bytes to {} in {} parts", total, s3Key, completed.size());
+            return total;
+        } catch (IOException | RuntimeException e) {
+            if (buffer != null) {
+                bufferPool.release(buffer);
+            }
+            abort(s3Key, uploadId, parts, aborted);
+            throw e;
+        }
+    }
+
+    private Future<BlobStore.Part> submitPart(
+        String s3Key, String uploadId, int partNumber, byte[] buffer, int length,
+        Semaphore inFlight, AtomicBoolean aborted
+    ) {
+        try {
+            return partExecutor.submit(() -> {
+                try {
+                    if (aborted.get()) {
+                        throw new IllegalStateException("Upload aborted");
+                    }
+                    return blobStore.uploadPart(s3Key, uploadId, partNumber, buffer, length);
+                } finally {
+                    bufferPool.release(buffer);
+                    inFlight.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            bufferPool.release(buffer);
+            inFlight.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Wait for parts still in flight (they skip the upload once aborted) and abort the multipart upload,
+     * so S3 does not keep parts that complete after the abort.
+     */
+    private void abort(String s3Key, String uploadId, List<Future<BlobStore.Part>> parts, AtomicBoolean aborted) {
+        aborted.set(true);
+        for (Future<BlobStore.Part> part : parts) {
+            try {
+                part.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                // Already handled by the caller - the upload is being aborted anyway
+            }
+        }
+        log.warn("Aborting multipart upload for {} after {} parts", s3Key, parts.size());
+        blobStore.abortMultipartUpload(s3Key, uploadId);
+    }
+
+    private void failFast(List<Future<BlobStore.Part>> parts) throws IOException {
+        for (Future<BlobStore.Part> part : parts) {
+            if (part.isDone()) {
+                await(part);
+            }
+        }
+    }
+
+    private BlobStore.Part await(Future<BlobStore.Part> part) throws IOException {
+        try {
+            return part.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for part upload");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IOException("Part upload failed", e.getCause());
+        }
+    }
+
+    private static void acquirePermit(Semaphore inFlight) throws InterruptedIOException {
+        try {
+            inFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for part upload slot");
+        }
+    }
+
+    private static void checkLimit(long total, long maxBytes) {
+        if (total > maxBytes) {
+            throw new FileTooLargeException(total, maxBytes);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.starter.feature.files;
+
+/**
+ * Claimed s3_outbox row.
+ *
+ * @param attempts delivery attempts including the current one
+ */
+public record S3OutboxEntry(long id, String s3Key, int attempts) {
+}
@@ -0,0 +1,133 @@
+package com.starter.feature.files;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository for the S3 delete outbox (s3_outbox).
+ * Enqueue methods must run in the transaction that removes the metadata.
+ */
+@Repository
+@RequiredArgsConstructor
+public class S3OutboxRepository {
+    private final JdbcClient jdbcClient;
+    private static final RowMapper<S3OutboxEntry> ENTRY_MAPPER =
+        (rs, rowNum) -> new S3OutboxEntry(rs.getLong("id"), rs.getString("s3_key"), rs.getInt("attempts"));
+
+    /**
+     * Enqueue keys for deletion.
+     *
+     * @param notBefore earliest delivery; later than now when the caller attempts the delete itself first
+     * @return the new rows
+     */
+    public List<S3OutboxEntry> enqueue(Collection<String> s3Keys, Instant notBefore) {
+        if (s3Keys.isEmpty()) {
+            return List.of();
+        }
+        return jdbcClient
+            .sql("""
+                INSERT INTO s3_outbox (s3_key, next_attempt_at)
+                SELECT unnest(CAST(:keys AS varchar[])), :notBefore
+                RETURNING id, s3_key, attempts
+                """)
+            .param("keys", s3Keys.toArray(String[]::new))
+            .param("notBefore", Timestamp.from(notBefore))
+            .query(ENTRY_MAPPER)
+            .list();
+    }
+
+    /**
+     * Enqueue every owned object, thumbnail and preview of a user in one statement (before the user is hard-deleted).
+     * Shared blob content is released through {@link FileBlobRepository#releaseAllForUser}.
+     *
+     * @return number of enqueued keys
+     */
+    public int enqueueAllForUser(Long userId) {
+        return jdbcClient
+            .sql("""
+                INSERT INTO s3_outbox (s3_key)
+                SELECT s3_key FROM user_files WHERE user_id = :userId AND blob_id IS NULL
+                UNION ALL
+                SELECT thumbnail_s3_key FROM user_files WHERE user_id = :userId AND thumbnail_s3_key IS NOT NULL
+                UNION ALL
+                SELECT preview_s3_key FROM user_files WHERE user_id = :userId AND preview_s3_key IS NOT NULL
+                """)
+            .param("userId", userId)
+            .update();
+    }
+
+    /**
+     * Claim due rows by leasing them: next_attempt_at moves past the lease, so the claim commits immediately
+     * and no transaction is held during the S3 call. A worker that dies leaves rows to be re-claimed after the lease.
+     * SKIP LOCKED lets workers on several instances claim concurrently without blocking each other.
+     */
+    public List<S3OutboxEntry> claim(Instant now, Duration lease, int limit) {
+        return jdbcClient
+            .sql("""
+                UPDATE s3_outbox
+                SET attempts = attempts + 1, next_attempt_at = :leaseUntil
+                WHERE id IN (
+                    SELECT id FROM s3_outbox
+                    WHERE next_attempt_at <= :now
+                    ORDER BY next_attempt_at
+                    LIMIT :limit
+                    FOR UPDATE SKIP LOCKED
+                )
+                RETURNING id, s3_key, attempts
+                """)
+            .param("now", Timestamp.from(now))
+            .param("leaseUntil", Timestamp.from(now.plus(lease)))
+            .param("limit", limit)
+            .query(ENTRY_MAPPER)
+            .list();
+    }
+
+    /**
+     * Remove delivered rows.
+     */
+    public void delete(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        jdbcClient
+            .sql("DELETE FROM s3_outbox WHERE id = ANY(CAST(:ids AS bigint[]))")
+            .param("ids", ids.toArray(Long[]::new))
+            .update();
+    }
+
+    /**
+     * Schedule the next attempt of a failed row.
+     */
+    public void reschedule(long id, Instant nextAttemptAt, String error) {
+        jdbcClient
+            .sql("UPDATE s3_outbox SET next_attempt_at = :nextAttemptAt, last_error = :error WHERE id = :id")
+            .param("id", id)
+            .param("nextAttemptAt", Timestamp.from(nextAttemptAt))
+            .param("error", error)
+            .update();
+    }
+
+    public long count() {
+        return jdbcClient.sql("SELECT COUNT(*) FROM s3_outbox").query(Long.class).single();
+    }
+
+    /**
+     * Creation time of the oldest queued row (empty when the queue is empty).
+     */
+    public Optional<Instant> findOldestCreatedAt() {
+        return jdbcClient
+            .sql("SELECT MIN(created_at) FROM s3_outbox")
+            .query(Timestamp.class)
+            .optional()
+            .map(Timestamp::toInstant);
+    }
+}
@@ -0,0 +1,114 @@
+package com.starter.feature.files;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Delivers the S3 delete outbox: claims due rows, deletes their keys with DeleteObjects batches
+ * (in parallel via {@link BulkObjectDeleter}) and retries failures with exponential backoff.
+ * Publishes queue depth and age of the oldest row as gauges.
+ */
+@Slf4j
+@Component
+public class S3OutboxWorker {
+    private final S3OutboxRepository outboxRepository;
+    private final BulkObjectDeleter bulkObjectDeleter;
+    private final int claimSize;
+    private final Duration lease;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final AtomicLong queueDepth = new AtomicLong();
+    private final AtomicLong oldestAgeSeconds = new AtomicLong();
+
+    public S3OutboxWorker(
+        S3OutboxRepository outboxRepository,
+        BulkObjectDeleter bulkObjectDeleter,
+        MeterRegistry meterRegistry,
+        @Value("${app.storage.outbox.claim-size:4000}") int claimSize,
+        @Value("${app.storage.outbox.lease-seconds:300}") long leaseSeconds,
+        @Value("${app.storage.outbox.initial-backoff-seconds:10}") long initialBackoffSeconds,
+        @Value("${app.storage.outbox.max-backoff-seconds:3600}") long maxBackoffSeconds
+    ) {
+        this.outboxRepository = outboxRepository;
+        this.bulkObjectDeleter = bulkObjectDeleter;
+        this.claimSize = claimSize;
+        this.lease = Duration.ofSeconds(leaseSeconds);
+        this.initialBackoff = Duration.ofSeconds(initialBackoffSeconds);
+        this.maxBackoff = Duration.ofSeconds(maxBackoffSeconds);
+        Gauge.builder("s3.outbox.depth", queueDepth, AtomicLong::get)
+            .description("S3 deletes waiting in the outbox")
+            .register(meterRegistry);
+        Gauge.builder("s3.outbox.oldest.age", oldestAgeSeconds, AtomicLong::get)
+            .description("Age of the oldest S3 delete waiting in the outbox")
+            .baseUnit("seconds")
+            .register(meterRegistry);
+    }
+
+    @Scheduled(
+        fixedDelayString = "${app.storage.outbox.poll-interval-ms:5000}",
+        initialDelayString = "${app.storage.outbox.poll-interval-ms:5000}"
+    )
+    public void poll() {
+        int delivered;
+        do {
+            delivered = deliverBatch(Instant.now());
+        } while (delivered == claimSize);
+        refreshMetrics(Instant.now());
+    }
+
+    /**
+     * Claim and process one batch of due rows.
+     *
+     * @return number of claimed rows
+     */
+    int deliverBatch(Instant now) {
+        List<S3OutboxEntry> entries = outboxRepository.claim(now, lease, claimSize);
+        if (entries.isEmpty()) {
+            return 0;
+        }
+
+        Map<String, String> failures = bulkObjectDeleter.delete(entries.stream().map(S3OutboxEntry::s3Key).toList());
+        List<Long> deliveredIds = new ArrayList<>();
+        for (S3OutboxEntry entry : entries) {
+            String error = failures.get(entry.s3Key());
+            if (error == null) {
+                deliveredIds.add(entry.id());
+            } else {
+                Duration backoff = backoff(entry.attempts());
+                log.warn("S3 delete of {} failed (attempt {}), retrying in {}: {}", entry.s3Key(), entry.attempts(), backoff, error);
+                outboxRepository.reschedule(entry.id(), now.plus(backoff), error);
+            }
+        }
+        outboxRepository.delete(deliveredIds);
+
+        log.debug("S3 outbox: {} delivered, {} rescheduled", deliveredIds.size(), entries.size() - deliveredIds.size());
+        return entries.size();
+    }
+
+    /** initialBackoff * 2^(attempts - 1), capped at maxBackoff. */
+    Duration backoff(int attempts) {
+        int exponent = Math.min(Math.max(attempts - 1, 0), 30);
+        Duration backoff = initialBackoff.multipliedBy(1L << exponent);
+        return backoff.compareTo(maxBackoff) > 0 ? maxBackoff : backoff;
+    }
+
+    private void refreshMetrics(Instant now) {
+        queueDepth.set(outboxRepository.count());
+        oldestAgeSeconds.set(
+            outboxRepository.findOldestCreatedAt()
+                .map(createdAt -> Math.max(0, Duration.between(createdAt, now).toSeconds()))
+                .orElse(0L)
+        );
+    }
+}
@@ -0,0 +1,43 @@
+package com.starter.feature.files;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Progress and report of one orphan reconciliation run (s3_reconciliation_runs).
+ * lastKey is the checkpoint: every key up to it has been compared on both sides.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class S3ReconciliationRun {
+    public enum Status {
+        RUNNING, COMPLETED, FAILED, ABANDONED
+    }
+
+    private Long id;
+    private String prefix;
+    private boolean dryRun;
+    private Status status;
+    private String lastKey;
+    private long objectsScanned;
+    private long rowsScanned;
+    private long orphanedObjects;   // In S3, not referenced by any row
+    private long orphanedBytes;
+    private long danglingRows;      // ACTIVE rows whose object is missing
+    @Builder.Default
+    private List<String> sampleOrphans = new ArrayList<>();
+    @Builder.Default
+    private List<String> sampleDangling = new ArrayList<>();
+    private String error;
+    private Instant startedAt;
+    private Instant updatedAt;
+    private Instant finishedAt;
+}
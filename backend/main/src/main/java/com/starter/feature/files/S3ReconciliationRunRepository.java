@@ -0,0 +1,160 @@
+package com.starter.feature.files;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository for orphan reconciliation runs (s3_reconciliation_runs).
+ * A unique partial index allows a single RUNNING row, which serializes runs across instances.
+ */
+@Repository
+@RequiredArgsConstructor
+public class S3ReconciliationRunRepository {
+    private final JdbcClient jdbcClient;
+    private static final RowMapper<S3ReconciliationRun> ROW_MAPPER = (rs, rowNum) -> S3ReconciliationRun.builder()
+        .id(rs.getLong("id"))
+        .prefix(rs.getString("prefix"))
+        .dryRun(rs.getBoolean("dry_run"))
+        .status(S3ReconciliationRun.Status.valueOf(rs.getString("status")))
+        .lastKey(rs.getString("last_key"))
+        .objectsScanned(rs.getLong("objects_scanned"))
+        .rowsScanned(rs.getLong("rows_scanned"))
+        .orphanedObjects(rs.getLong("orphaned_objects"))
+        .orphanedBytes(rs.getLong("orphaned_bytes"))
+        .danglingRows(rs.getLong("dangling_rows"))
+        .sampleOrphans(splitSample(rs.getString("sample_orphans")))
+        .sampleDangling(splitSample(rs.getString("sample_dangling")))
+        .error(rs.getString("error"))
+        .startedAt(toInstant(rs.getTimestamp("started_at")))
+        .updatedAt(toInstant(rs.getTimestamp("updated_at")))
+        .finishedAt(toInstant(rs.getTimestamp("finished_at")))
+        .build();
+
+    /**
+     * Insert a new RUNNING run.
+     *
+     * @throws org.springframework.dao.DuplicateKeyException if another run is in progress
+     */
+    public S3ReconciliationRun create(String prefix, boolean dryRun) {
+        return jdbcClient
+            .sql("""
+                INSERT INTO s3_reconciliation_runs (prefix, dry_run)
+                VALUES (:prefix, :dryRun)
+                RETURNING *
+                """)
+            .param("prefix", prefix)
+            .param("dryRun", dryRun)
+            .query(ROW_MAPPER)
+            .single();
+    }
+
+    public Optional<S3ReconciliationRun> findLatest() {
+        return jdbcClient
+            .sql("SELECT * FROM s3_reconciliation_runs ORDER BY id DESC LIMIT 1")
+            .query(ROW_MAPPER)
+            .optional();
+    }
+
+    public Optional<S3ReconciliationRun> findRunning() {
+        return jdbcClient
+            .sql("SELECT * FROM s3_reconciliation_runs WHERE status = 'RUNNING'")
+            .query(ROW_MAPPER)
+            .optional();
+    }
+
+    /**
+     * Take over a FAILED run, or a RUNNING run whose owner stopped checkpointing (instance died).
+     *
+     * @return true if this caller now owns the run
+     */
+    public boolean resume(long id, Instant staleBefore) {
+        return jdbcClient
+            .sql("""
+                UPDATE s3_reconciliation_runs
+                SET status = 'RUNNING', error = NULL, updated_at = CURRENT_TIMESTAMP
+                WHERE id = :id AND (status = 'FAILED' OR (status = 'RUNNING' AND updated_at < :staleBefore))
+                """)
+            .param("id", id)
+            .param("staleBefore", Timestamp.from(staleBefore))
+            .update() == 1;
+    }
+
+    /**
+     * Mark a stale RUNNING run as abandoned so a run with different parameters can start.
+     */
+    public boolean abandon(long id, Instant staleBefore) {
+        return jdbcClient
+            .sql("""
+                UPDATE s3_reconciliation_runs
+                SET status = 'ABANDONED', finished_at = CURRENT_TIMESTAMP
+                WHERE id = :id AND status = 'RUNNING' AND updated_at < :staleBefore
+                """)
+            .param("id", id)
+            .param("staleBefore", Timestamp.from(staleBefore))
+            .update() == 1;
+    }
+
+    /**
+     * Store progress: checkpoint key, counters and samples.
+     */
+    public void checkpoint(S3ReconciliationRun run) {
+        jdbcClient
+            .sql("""
+                UPDATE s3_reconciliation_runs SET
+                    last_key = :lastKey,
+                    objects_scanned = :objectsScanned,
+                    rows_scanned = :rowsScanned,
+                    orphaned_objects = :orphanedObjects,
+                    orphaned_bytes = :orphanedBytes,
+                    dangling_rows = :danglingRows,
+                    sample_orphans = :sampleOrphans,
+                    sample_dangling = :sampleDangling,
+                    updated_at = CURRENT_TIMESTAMP
+                WHERE id = :id
+                """)
+            .param("id", run.getId())
+            .param("lastKey", run.getLastKey())
+            .param("objectsScanned", run.getObjectsScanned())
+            .param("rowsScanned", run.getRowsScanned())
+            .param("orphanedObjects", run.getOrphanedObjects())
+            .param("orphanedBytes", run.getOrphanedBytes())
+            .param("danglingRows", run.getDanglingRows())
+            .param("sampleOrphans", joinSample(run.getSampleOrphans()))
+            .param("sampleDangling", joinSample(run.getSampleDangling()))
+            .update();
+    }
+
+    public void finish(long id, S3ReconciliationRun.Status status, String error) {
+        jdbcClient
+            .sql("""
+                UPDATE s3_reconciliation_runs
+                SET status = :status, error = :error, updated_at = CURRENT_TIMESTAMP, finished_at = CURRENT_TIMESTAMP
+                WHERE id = :id
+                """)
+            .param("id", id)
+            .param("status", status.name())
+            .param("error", error)
+            .update();
+    }
+
+    private static List<String> splitSample(String sample) {
+        return sample == null || sample.isEmpty() ? new ArrayList<>() : new ArrayList<>(Arrays.asList(sample.split("\n")));
+    }
+
+    private static String joinSample(List<String> sample) {
+        return sample.isEmpty() ? null : String.join("\n", sample);
+    }
+
+    private static Instant toInstant(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toInstant() : null;
+    }
+}
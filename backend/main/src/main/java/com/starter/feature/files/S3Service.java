@@ -2,30 +2,58 @@ package com.starter.feature.files;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ContentDisposition;
 import org.springframework.retry.annotation.Backoff;
 import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Service;
+import software.amazon.awssdk.awscore.presigner.PresignedRequest;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
 import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.*;
 import software.amazon.awssdk.services.s3.presigner.S3Presigner;
-import software.amazon.awssdk.services.s3.presigner.model.PresignedGetObjectRequest;
 
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 /**
- * Service for S3 operations with retry logic.
+ * S3 implementation of {@link BlobStore} with retry logic (app.storage.type=s3, the default).
+ *
+ * The *Async methods return CompletableFutures. With app.storage.s3-client.mode=async they use S3AsyncClient
+ * and hold no thread while waiting for S3; otherwise they run the blocking client on virtual threads.
+ * They rely on the SDK retry policy, since Spring Retry only wraps blocking calls.
  */
 @Slf4j
 @Service
+@ConditionalOnProperty(name = "app.storage.type", havingValue = "s3", matchIfMissing = true)
 @RequiredArgsConstructor
-public class S3Service {
+public class S3Service implements BlobStore {
     private final S3Client s3Client;
     private final S3Presigner s3Presigner;
+    private final ObjectProvider<S3AsyncClient> s3AsyncClientProvider;
+    private final ExecutorService blockingExecutor = Executors.newThreadPerTaskExecutor(
+        Thread.ofVirtual().name("s3-blocking-", 0).factory()
+    );
+    private S3AsyncClient s3AsyncClient;
 
     @Value("${app.storage.s3-bucket-name}")
     private String bucketName;
@@ -39,7 +67,16 @@ public class S3Service {
                 "S3 bucket name is not configured. Set S3_BUCKET_NAME environment variable."
             );
         }
-        log.info("S3Service initialized successfully with bucket: {}", bucketName);
+        s3AsyncClient = s3AsyncClientProvider.getIfAvailable();
+        log.info(
+            "S3Service initialized successfully with bucket: {} ({} client)",
+            bucketName, s3AsyncClient != null ? "async" : "sync"
+        );
+    }
+
+    @PreDestroy
+    void shutdown() {
+        blockingExecutor.shutdown();
     }
 
     /**
@@ -50,23 +87,173 @@ public class S3Service {
         backoff = @Backoff(delay = 1000, multiplier = 2),
         retryFor = {S3Exception.class}
     )
+    @Override
     public void uploadFile(String s3Key, byte[] content, String contentType) {
+        uploadFile(s3Key, content, content.length, contentType);
+    }
+
+    /**
+     * Upload the first {@code length} bytes of a buffer to S3 with retry logic.
+     * Streams straight from the buffer instead of copying it into the request body.
+     */
+    @Retryable(
+        maxAttempts = 3,
+        backoff = @Backoff(delay = 1000, multiplier = 2),
+        retryFor = {S3Exception.class}
+    )
+    @Override
+    public void uploadFile(String s3Key, byte[] buffer, int length, String contentType) {
         try {
             PutObjectRequest request = PutObjectRequest.builder()
                 .bucket(bucketName)
                 .key(s3Key)
                 .contentType(contentType)
-                .contentLength((long) content.length)
+                .contentLength((long) length)
                 .build();
 
-            s3Client.putObject(request, RequestBody.fromBytes(content));
-            log.debug("Uploaded file to S3: {} ({} bytes)", s3Key, content.length);
+            s3Client.putObject(
+                request,
+                RequestBody.fromInputStream(new ByteArrayInputStream(buffer, 0, length), length)
+            );
+            log.debug("Uploaded file to S3: {} ({} bytes)", s3Key, length);
         } catch (S3Exception e) {
             log.error("Failed to upload file to S3: {} - {}", s3Key, e.getMessage());
             throw e;
         }
     }
 
+    /**
+     * Upload content without blocking the caller.
+     */
+    public CompletableFuture<Void> uploadFileAsync(String s3Key, byte[] content, String contentType) {
+        PutObjectRequest request = PutObjectRequest.builder()
+            .bucket(bucketName)
+            .key(s3Key)
+            .contentType(contentType)
+            .contentLength((long) content.length)
+            .build();
+        return async(
+            client -> client.putObject(request, AsyncRequestBody.fromBytes(content)),
+            () -> s3Client.putObject(request, RequestBody.fromBytes(content))
+        ).thenAccept(response -> log.debug("Uploaded file to S3: {} ({} bytes)", s3Key, content.length));
+    }
+
+    /**
+     * Start an S3 multipart upload.
+     *
+     * @return upload ID used by subsequent part, complete and abort calls
+     */
+    @Retryable(
+        maxAttempts = 3,
+        backoff = @Backoff(delay = 1000, multiplier = 2),
+        retryFor = {S3Exception.class}
+    )
+    @Override
+    public String createMultipartUpload(String s3Key, String contentType) {
+        CreateMultipartUploadRequest request = CreateMultipartUploadRequest.builder()
+            .bucket(bucketName)
+            .key(s3Key)
+            .contentType(contentType)
+            .build();
+
+        String uploadId = s3Client.createMultipartUpload(request).uploadId();
+        log.debug("Started multipart upload for {}: {}", s3Key, uploadId);
+        return uploadId;
+    }
+
+    /**
+     * Upload a single part of a multipart upload with retry logic.
+     * Streams straight from the caller's buffer, so a retry re-reads the same bytes without copying.
+     */
+    @Retryable(
+        maxAttempts = 3,
+        backoff = @Backoff(delay = 1000, multiplier = 2),
+        retryFor = {S3Exception.class}
+    )
+    @Override
+    public Part uploadPart(String s3Key, String uploadId, int partNumber, byte[] buffer, int length) {
+        UploadPartRequest request = UploadPartRequest.builder()
+            .bucket(bucketName)
+            .key(s3Key)
+            .uploadId(uploadId)
+            .partNumber(partNumber)
+            .contentLength((long) length)
+            .build();
+
+        UploadPartResponse response = s3Client.uploadPart(
+            request,
+            RequestBody.fromInputStream(new ByteArrayInputStream(buffer, 0, length), length)
+        );
+        log.debug("Uploaded part {} of {} ({} bytes)", partNumber, s3Key, length);
+        return new Part(partNumber, response.eTag());
+    }
+
+    /**
+     * Complete a multipart upload. Parts must be ordered by part number.
+     */
+    @Retryable(
+        maxAttempts = 3,
+        backoff = @Backoff(delay = 1000, multiplier = 2),
+        retryFor = {S3Exception.class}
+    )
+    @Override
+    public void completeMultipartUpload(String s3Key, String uploadId, List<Part> parts) {
+        List<CompletedPart> completedParts = parts.stream()
+            .map(part -> CompletedPart.builder().partNumber(part.partNumber()).eTag(part.eTag()).build())
+            .toList();
+        CompleteMultipartUploadRequest request = CompleteMultipartUploadRequest.builder()
+            .bucket(bucketName)
+            .key(s3Key)
+            .uploadId(uploadId)
+            .multipartUpload(CompletedMultipartUpload.builder().parts(completedParts).build())
+            .build();
+
+        s3Client.completeMultipartUpload(request);
+        log.debug("Completed multipart upload for {} ({} parts)", s3Key, parts.size());
+    }
+
+    /**
+     * Abort a multipart upload so S3 discards the already uploaded parts.
+     * Best effort: failures are logged, never thrown.
+     */
+    @Override
+    public void abortMultipartUpload(String s3Key, String uploadId) {
+        try {
+            AbortMultipartUploadRequest request = AbortMultipartUploadRequest.builder()
+                .bucket(bucketName)
+                .key(s3Key)
+                .uploadId(uploadId)
+                .build();
+
+            s3Client.abortMultipartUpload(request);
+            log.debug("Aborted multipart upload for {}: {}", s3Key, uploadId);
+        } catch (S3Exception e) {
+            log.warn("Failed to abort multipart upload for {} ({}): {}", s3Key, uploadId, e.getMessage());
+        }
+    }
+
+    /**
+     * Abort all incomplete multipart uploads for a key (parts of uploads interrupted by a crash).
+     * Best effort: failures are logged, never thrown.
+     */
+    @Override
+    public void abortIncompleteUploads(String s3Key) {
+        try {
+            ListMultipartUploadsRequest request = ListMultipartUploadsRequest.builder()
+                .bucket(bucketName)
+                .prefix(s3Key)
+                .build();
+
+            for (MultipartUpload upload : s3Client.listMultipartUploads(request).uploads()) {
+                if (upload.key().equals(s3Key)) {
+                    abortMultipartUpload(s3Key, upload.uploadId());
+                }
+            }
+        } catch (S3Exception e) {
+            log.warn("Failed to list incomplete multipart uploads for {}: {}", s3Key, e.getMessage());
+        }
+    }
+
     /**
      * Delete file from S3 with retry logic.
      */
@@ -75,6 +262,7 @@ public class S3Service {
         backoff = @Backoff(delay = 1000, multiplier = 2),
         retryFor = {S3Exception.class}
     )
+    @Override
     public void deleteFile(String s3Key) {
         try {
             DeleteObjectRequest request = DeleteObjectRequest.builder()
@@ -91,36 +279,197 @@ public class S3Service {
     }
 
     /**
-     * Generate presigned URL for downloading file.
+     * Delete up to {@value #MAX_DELETE_BATCH} objects in one DeleteObjects call with retry logic.
+     * Retries only when the whole call fails; per-key failures are returned.
+     *
+     * @return key -> error message for keys that could not be deleted
      */
-    public String generatePresignedDownloadUrl(String s3Key, Duration expiration) {
+    @Retryable(
+        maxAttempts = 3,
+        backoff = @Backoff(delay = 1000, multiplier = 2),
+        retryFor = {S3Exception.class}
+    )
+    @Override
+    public Map<String, String> deleteFiles(List<String> s3Keys) {
+        DeleteObjectsResponse response = s3Client.deleteObjects(deleteObjectsRequest(s3Keys));
+        log.debug("Deleted {} objects from S3 ({} failed)", s3Keys.size(), response.errors().size());
+        return deleteErrors(response);
+    }
+
+    /**
+     * {@link #deleteFiles} without blocking the caller; the future fails only when the whole call fails.
+     */
+    @Override
+    public CompletableFuture<Map<String, String>> deleteFilesAsync(List<String> s3Keys) {
+        DeleteObjectsRequest request = deleteObjectsRequest(s3Keys);
+        return async(client -> client.deleteObjects(request), () -> s3Client.deleteObjects(request))
+            .thenApply(response -> {
+                log.debug("Deleted {} objects from S3 ({} failed)", s3Keys.size(), response.errors().size());
+                return deleteErrors(response);
+            });
+    }
+
+    private DeleteObjectsRequest deleteObjectsRequest(List<String> s3Keys) {
+        if (s3Keys.size() > MAX_DELETE_BATCH) {
+            throw new IllegalArgumentException("DeleteObjects accepts at most " + MAX_DELETE_BATCH + " keys");
+        }
+        return DeleteObjectsRequest.builder()
+            .bucket(bucketName)
+            .delete(Delete.builder()
+                .objects(s3Keys.stream().map(key -> ObjectIdentifier.builder().key(key).build()).toList())
+                .quiet(true)  // response lists failures only
+                .build())
+            .build();
+    }
+
+    private static Map<String, String> deleteErrors(DeleteObjectsResponse response) {
+        return response.errors().stream()
+            .collect(Collectors.toMap(S3Error::key, error -> error.code() + ": " + error.message(), (a, b) -> a));
+    }
+
+    /**
+     * Generate presigned URL for downloading file (cached by {@link PresignedUrlCache}).
+     * The filename is signed into the response Content-Disposition, since shared blob keys do not contain it.
+     */
+    @Override
+    public PresignedUrl presignDownload(
+        String s3Key, String filename, String contentEncoding, Duration expiration
+    ) {
         GetObjectRequest request = GetObjectRequest.builder()
             .bucket(bucketName)
             .key(s3Key)
+            .responseContentDisposition(
+                ContentDisposition.inline().filename(filename, StandardCharsets.UTF_8).build().toString()
+            )
+            .responseContentEncoding(contentEncoding)
             .build();
 
-        PresignedGetObjectRequest presignedRequest = s3Presigner.presignGetObject(
+        return toPresignedUrl(s3Presigner.presignGetObject(
             presignerBuilder -> presignerBuilder
                 .getObjectRequest(request)
                 .signatureDuration(expiration)
-        );
+        ));
+    }
 
-        return presignedRequest.url().toString();
+    /**
+     * Generate presigned URL for uploading an object directly to S3 with PUT.
+     * Content type and length are part of the signature, so S3 rejects uploads that differ.
+     * The client must send the returned signed headers unchanged.
+     */
+    @Override
+    public PresignedUrl generatePresignedUploadUrl(
+        String s3Key, String contentType, long contentLength, Duration expiration
+    ) {
+        PutObjectRequest request = PutObjectRequest.builder()
+            .bucket(bucketName)
+            .key(s3Key)
+            .contentType(contentType)
+            .contentLength(contentLength)
+            .build();
+
+        return toPresignedUrl(s3Presigner.presignPutObject(
+            presignerBuilder -> presignerBuilder
+                .putObjectRequest(request)
+                .signatureDuration(expiration)
+        ));
     }
 
     /**
-     * List all objects in S3 bucket (for cleanup - if needed in future).
+     * Get object metadata (HEAD), empty if the object does not exist.
      */
-    public List<String> listAllObjectKeys(String prefix) {
+    @Override
+    public Optional<ObjectInfo> headObject(String s3Key) {
+        try {
+            HeadObjectRequest request = HeadObjectRequest.builder()
+                .bucket(bucketName)
+                .key(s3Key)
+                .build();
+            return Optional.of(toObjectInfo(s3Client.headObject(request)));
+        } catch (NoSuchKeyException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * {@link #headObject} without blocking the caller.
+     */
+    public CompletableFuture<Optional<ObjectInfo>> headObjectAsync(String s3Key) {
+        HeadObjectRequest request = HeadObjectRequest.builder()
+            .bucket(bucketName)
+            .key(s3Key)
+            .build();
+        return async(client -> client.headObject(request), () -> s3Client.headObject(request))
+            .thenApply(response -> Optional.of(toObjectInfo(response)))
+            .exceptionally(e -> {
+                Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+                if (cause instanceof NoSuchKeyException) {
+                    return Optional.empty();
+                }
+                throw e instanceof CompletionException completion ? completion : new CompletionException(cause);
+            });
+    }
+
+    /**
+     * Open an object for reading; the caller must close the stream.
+     */
+    @Retryable(
+        maxAttempts = 3,
+        backoff = @Backoff(delay = 1000, multiplier = 2),
+        retryFor = {S3Exception.class}
+    )
+    @Override
+    public InputStream openObject(String s3Key) {
+        GetObjectRequest request = GetObjectRequest.builder()
+            .bucket(bucketName)
+            .key(s3Key)
+            .build();
+        return s3Client.getObject(request);
+    }
+
+    /**
+     * Open a byte range of an object (both ends inclusive); the caller must close the stream.
+     */
+    @Retryable(
+        maxAttempts = 3,
+        backoff = @Backoff(delay = 1000, multiplier = 2),
+        retryFor = {S3Exception.class}
+    )
+    @Override
+    public InputStream openObject(String s3Key, long start, long end) {
+        GetObjectRequest request = GetObjectRequest.builder()
+            .bucket(bucketName)
+            .key(s3Key)
+            .range("bytes=" + start + "-" + end)
+            .build();
+        return s3Client.getObject(request);
+    }
+
+    /**
+     * List one page of objects under a prefix, in S3's (UTF-8 byte) key order.
+     * Paging by startAfter instead of a continuation token lets a caller resume from a stored key.
+     *
+     * @param startAfter exclusive lower bound, or null to start at the beginning of the prefix
+     */
+    @Retryable(
+        maxAttempts = 3,
+        backoff = @Backoff(delay = 1000, multiplier = 2),
+        retryFor = {S3Exception.class}
+    )
+    @Override
+    public ObjectPage listObjectsPage(String prefix, String startAfter, int maxKeys) {
         ListObjectsV2Request request = ListObjectsV2Request.builder()
             .bucket(bucketName)
             .prefix(prefix)
+            .startAfter(startAfter)
+            .maxKeys(maxKeys)
             .build();
-
         ListObjectsV2Response response = s3Client.listObjectsV2(request);
-        return response.contents().stream()
-            .map(S3Object::key)
-            .toList();
+        return new ObjectPage(
+            response.contents().stream()
+                .map(object -> new ObjectSummary(object.key(), object.size(), object.lastModified()))
+                .toList(),
+            Boolean.TRUE.equals(response.isTruncated())
+        );
     }
 
     /**
@@ -141,4 +490,22 @@ public class S3Service {
             return false;
         }
     }
+
+    private static ObjectInfo toObjectInfo(HeadObjectResponse response) {
+        return new ObjectInfo(response.contentLength(), response.contentType());
+    }
+
+    private static PresignedUrl toPresignedUrl(PresignedRequest presigned) {
+        return new PresignedUrl(presigned.url().toString(), presigned.signedHeaders(), presigned.expiration());
+    }
+
+    /** Use the non-blocking client when configured, otherwise the blocking one on a virtual thread. */
+    private <T> CompletableFuture<T> async(
+        Function<S3AsyncClient, CompletableFuture<T>> nonBlocking, Supplier<T> blocking
+    ) {
+        if (s3AsyncClient != null) {
+            return nonBlocking.apply(s3AsyncClient);
+        }
+        return CompletableFuture.supplyAsync(blocking, blockingExecutor);
+    }
 }
@@ -0,0 +1,49 @@
+package com.starter.feature.files;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.starter.core.exception.ResourceNotFoundException;
+
+/** REST controller for admin storage maintenance. */
+@RestController
+@RequestMapping("/api/admin/storage")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+@SecurityRequirement(name = "bearerAuth")
+@Tag(name = "Admin", description = "Admin operations for user management")
+public class StorageAdminController {
+
+    private final OrphanReconciliationService reconciliationService;
+
+    @PostMapping("/reconciliation")
+    @Operation(
+        summary = "Start S3 orphan reconciliation",
+        description = "Compare S3 objects under the prefix with file metadata in the background. " +
+            "A dry run only reports; otherwise orphaned objects older than the grace age are deleted. " +
+            "A failed or interrupted run with the same parameters resumes from its checkpoint."
+    )
+    public ResponseEntity<S3ReconciliationRun> startReconciliation(
+        @RequestParam(defaultValue = "users/") String prefix,
+        @RequestParam(defaultValue = "true") boolean dryRun
+    ) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(reconciliationService.start(prefix, dryRun));
+    }
+
+    @GetMapping("/reconciliation")
+    @Operation(summary = "Get the latest S3 orphan reconciliation report")
+    public S3ReconciliationRun getLatestReconciliation() {
+        return reconciliationService.getLatestRun()
+            .orElseThrow(() -> new ResourceNotFoundException("No reconciliation run found"));
+    }
+}
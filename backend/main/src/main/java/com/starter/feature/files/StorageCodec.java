@@ -0,0 +1,174 @@
+package com.starter.feature.files;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterInputStream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Encoding of stored object content (user_files.codec); files without a codec are stored as uploaded.
+ *
+ * Encoded objects are valid HTTP content codings, so they can be sent as-is with Content-Encoding to clients
+ * that accept it and decoded while streaming for the rest. size_bytes always holds the logical size.
+ */
+public enum StorageCodec {
+    GZIP("gzip");
+
+    private static final int DECODE_BUFFER_SIZE = 8192;
+
+    private final String contentEncoding;
+
+    StorageCodec(String contentEncoding) {
+        this.contentEncoding = contentEncoding;
+    }
+
+    /**
+     * HTTP Content-Encoding token of the stored bytes.
+     */
+    public String contentEncoding() {
+        return contentEncoding;
+    }
+
+    /**
+     * Whether an Accept-Encoding header allows sending the stored bytes unchanged.
+     */
+    public boolean isAcceptedBy(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Boolean wildcard = null;
+        for (String candidate : acceptEncoding.split(",")) {
+            String[] parts = candidate.trim().split(";");
+            String coding = parts[0].trim();
+            if (coding.equalsIgnoreCase(contentEncoding)) {
+                return !isRefused(parts);
+            }
+            if (coding.equals("*")) {
+                wildcard = !isRefused(parts);
+            }
+        }
+        return Boolean.TRUE.equals(wildcard);
+    }
+
+    /**
+     * Encode a stream while it is read; the source is read until EOF and closed with the returned stream.
+     */
+    InputStream encode(InputStream content, int level) {
+        return new GzipEncodingInputStream(content, level);
+    }
+
+    /**
+     * Decode stored content while it is read; closing the returned stream closes the source.
+     */
+    InputStream decode(InputStream stored) throws IOException {
+        return new GZIPInputStream(stored, DECODE_BUFFER_SIZE);
+    }
+
+    static StorageCodec fromColumn(String value) {
+        return value != null ? valueOf(value) : null;
+    }
+
+    /**
+     * Open a file's content as it was uploaded, decoding it if it is stored encoded.
+     */
+    static InputStream openDecoded(BlobStore blobStore, UserFile file) throws IOException {
+        InputStream stored = blobStore.openObject(file.getS3Key());
+        if (file.getCodec() == null) {
+            return stored;
+        }
+        try {
+            return file.getCodec().decode(stored);
+        } catch (IOException | RuntimeException e) {
+            stored.close();
+            throw e;
+        }
+    }
+
+    private static boolean isRefused(String[] parameters) {
+        for (int i = 1; i < parameters.length; i++) {
+            String parameter = parameters[i].trim();
+            if (parameter.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2)) <= 0;
+                } catch (NumberFormatException e) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Pull-based gzip (RFC 1952): header, raw deflate of the source, then CRC-32 and length of the input.
+     * Lets an encoder sit in front of readers such as {@link S3MultipartUploader} without a pipe thread.
+     */
+    private static final class GzipEncodingInputStream extends InputStream {
+        private static final byte[] HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+        private final CRC32 crc = new CRC32();
+        private final Deflater deflater;
+        private final InputStream body;
+        private byte[] pending = HEADER;
+        private int position;
+        private boolean finished;
+
+        GzipEncodingInputStream(InputStream content, int level) {
+            this.deflater = new Deflater(level, true);
+            this.body = new DeflaterInputStream(new CheckedInputStream(content, crc), deflater);
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) < 0 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            while (true) {
+                if (position < pending.length) {
+                    int count = Math.min(length, pending.length - position);
+                    System.arraycopy(pending, position, buffer, offset, count);
+                    position += count;
+                    return count;
+                }
+                if (finished) {
+                    return -1;
+                }
+                int read = body.read(buffer, offset, length);
+                if (read >= 0) {
+                    return read;
+                }
+                pending = trailer();
+                position = 0;
+                finished = true;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                body.close();
+            } finally {
+                deflater.end();
+            }
+        }
+
+        private byte[] trailer() {
+            long checksum = crc.getValue();
+            long inputSize = deflater.getBytesRead();
+            byte[] trailer = new byte[8];
+            for (int i = 0; i < 4; i++) {
+                trailer[i] = (byte) (checksum >>> (8 * i));
+                trailer[4 + i] = (byte) (inputSize >>> (8 * i));
+            }
+            return trailer;
+        }
+    }
+}
@@ -8,49 +8,125 @@ import org.springframework.transaction.annotation.Transactional;
 
 import com.starter.feature.files.exception.StorageQuotaExceededException;
 
+import java.util.List;
+import java.util.Optional;
+
 /**
  * Service for managing storage quota with race condition prevention.
+ *
+ * Usage is kept in per-user counters (user_storage_usage) that must change in the same transaction
+ * as the user_files rows they describe. Reservations are a single conditional upsert that locks one row,
+ * so concurrent uploads can't overbook and no query aggregates the user's files.
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class StorageQuotaService {
-    private final FileRepository fileRepository;
+    private final StorageUsageRepository usageRepository;
+    private final ContentFacetRepository facetRepository;
 
     @Value("${app.storage.max-total-size}")
     private long maxTotalSizeBytes;
 
     /**
-     * Check quota with lock to prevent race conditions.
-     * Uses SELECT FOR UPDATE to lock user's files during transaction.
+     * Reserve quota for a new ACTIVE file.
+     * Must run in the transaction that inserts the file, so a rollback releases the quota.
      *
      * @param userId        User ID
      * @param fileSizeBytes Size of file to upload
      * @throws StorageQuotaExceededException if quota would be exceeded
      */
     @Transactional
-    public void checkQuotaWithLock(Long userId, long fileSizeBytes) {
-        // SELECT FOR UPDATE locks rows until transaction commits
-        long currentUsage = fileRepository.getTotalSizeWithLock(userId);
+    public void reserveForFile(Long userId, long fileSizeBytes) {
+        reserve(userId, fileSizeBytes, 1, 0);
+    }
+
+    /**
+     * Reserve quota for a PENDING upload (direct upload); the file is not counted until activated.
+     *
+     * @throws StorageQuotaExceededException if quota would be exceeded
+     */
+    @Transactional
+    public void reserveForPendingUpload(Long userId, long fileSizeBytes) {
+        reserve(userId, 0, 0, fileSizeBytes);
+    }
 
-        if (currentUsage + fileSizeBytes > maxTotalSizeBytes) {
+    /**
+     * Move a PENDING upload's reservation to the user's ACTIVE files.
+     * Uploads of unknown length reserve less than their final size; the difference is checked against the quota.
+     *
+     * @throws StorageQuotaExceededException if the final size exceeds the reservation and the quota
+     */
+    @Transactional
+    public void activatePendingUpload(Long userId, long reservedBytes, long fileSizeBytes) {
+        if (fileSizeBytes <= reservedBytes) {
+            usageRepository.adjust(userId, fileSizeBytes, 1, -reservedBytes);
+        } else {
+            reserve(userId, fileSizeBytes, 1, -reservedBytes);
+        }
+    }
+
+    /**
+     * Move the reservations of PENDING uploads that completed with their reserved size (batch uploads).
+     */
+    @Transactional
+    public void activatePendingUploads(Long userId, long totalSizeBytes, long fileCount) {
+        usageRepository.adjust(userId, totalSizeBytes, fileCount, -totalSizeBytes);
+    }
+
+    /**
+     * Release the reservation of PENDING uploads that were abandoned.
+     */
+    @Transactional
+    public void releasePendingUpload(Long userId, long fileSizeBytes) {
+        usageRepository.adjust(userId, 0, 0, -fileSizeBytes);
+    }
+
+    /**
+     * Release quota of deleted ACTIVE files.
+     */
+    @Transactional
+    public void releaseFiles(Long userId, long totalSizeBytes, long fileCount) {
+        usageRepository.adjust(userId, -totalSizeBytes, -fileCount, 0);
+    }
+
+    private void reserve(Long userId, long bytes, long files, long reservedBytes) {
+        long requested = bytes + reservedBytes;
+        // The first upload of a user inserts the row without the quota condition
+        if (requested > maxTotalSizeBytes
+            || !usageRepository.tryAdd(userId, bytes, files, reservedBytes, maxTotalSizeBytes)) {
+            long currentUsage = getUsage(userId);
             log.warn(
                 "Storage quota exceeded for user {}: {} + {} > {}",
-                userId, currentUsage, fileSizeBytes, maxTotalSizeBytes
+                userId, currentUsage, requested, maxTotalSizeBytes
             );
             throw new StorageQuotaExceededException(
                 currentUsage,
                 maxTotalSizeBytes,
-                fileSizeBytes
+                requested
             );
         }
     }
 
     /**
-     * Get current storage usage (without lock, for display).
+     * Get the user's counters (without lock, for display).
+     */
+    public StorageUsage getStorageUsage(Long userId) {
+        return usageRepository.findByUserId(userId).orElseGet(() -> StorageUsage.empty(userId));
+    }
+
+    /**
+     * Get current storage usage, including pending reservations (without lock, for display).
      */
     public long getUsage(Long userId) {
-        return fileRepository.getTotalSizeByUserId(userId);
+        return getStorageUsage(userId).quotaBytes();
+    }
+
+    /**
+     * Quota still available, including pending reservations (without lock; reserve to be sure).
+     */
+    public long getRemaining(Long userId) {
+        return Math.max(0, maxTotalSizeBytes - getUsage(userId));
     }
 
     /**
@@ -65,6 +141,41 @@ public class StorageQuotaService {
             .build();
     }
 
+    /**
+     * Recompute the user's counters from user_files under the counter row lock and repair any drift.
+     *
+     * @return the counters before repair, if they had drifted
+     */
+    @Transactional
+    public Optional<StorageUsage> reconcile(Long userId) {
+        StorageUsage recorded = usageRepository.lockByUserId(userId);
+        StorageUsage actual = usageRepository.computeFromFiles(userId);
+        if (recorded.getBytesUsed() == actual.getBytesUsed()
+            && recorded.getFileCount() == actual.getFileCount()
+            && recorded.getReservedBytes() == actual.getReservedBytes()) {
+            return Optional.empty();
+        }
+        usageRepository.overwrite(actual);
+        return Optional.of(recorded);
+    }
+
+    /**
+     * Recompute the user's content-type facets from user_files under the counter row lock and repair any drift.
+     *
+     * @return the facets before repair, if they had drifted
+     */
+    @Transactional
+    public Optional<List<ContentFacet>> reconcileFacets(Long userId) {
+        usageRepository.lockByUserId(userId);
+        List<ContentFacet> recorded = facetRepository.findByUserId(userId);
+        List<ContentFacet> actual = facetRepository.computeFromFiles(userId);
+        if (recorded.equals(actual)) {
+            return Optional.empty();
+        }
+        facetRepository.replace(userId, actual);
+        return Optional.of(recorded);
+    }
+
     @lombok.Data
     @lombok.Builder
     public static class StorageUsageInfo {
@@ -0,0 +1,30 @@
+package com.starter.feature.files;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Per-user storage counters, maintained incrementally in the same transaction as every file change.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StorageUsage {
+    private Long userId;
+    private long bytesUsed;      // ACTIVE files
+    private long fileCount;      // ACTIVE files
+    private long reservedBytes;  // PENDING uploads (count towards quota, not shown in stats)
+    private long version;        // Incremented on every change
+
+    public static StorageUsage empty(Long userId) {
+        return StorageUsage.builder().userId(userId).build();
+    }
+
+    /** Bytes counted against the quota. */
+    public long quotaBytes() {
+        return bytesUsed + reservedBytes;
+    }
+}
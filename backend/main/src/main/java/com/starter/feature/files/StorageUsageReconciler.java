@@ -0,0 +1,83 @@
+package com.starter.feature.files;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Rebuilds storage counters and content-type facets from user_files and reports drift.
+ * Drift should never happen; a non-zero count points to a write path that bypasses {@link StorageQuotaService}
+ * or {@link ContentFacetRepository}.
+ */
+@Slf4j
+@Component
+public class StorageUsageReconciler {
+    private final StorageUsageRepository usageRepository;
+    private final ContentFacetRepository facetRepository;
+    private final StorageQuotaService quotaService;
+    private final Counter driftCounter;
+    private final Counter facetDriftCounter;
+
+    public StorageUsageReconciler(
+        StorageUsageRepository usageRepository,
+        ContentFacetRepository facetRepository,
+        StorageQuotaService quotaService,
+        MeterRegistry meterRegistry
+    ) {
+        this.usageRepository = usageRepository;
+        this.facetRepository = facetRepository;
+        this.quotaService = quotaService;
+        this.driftCounter = Counter.builder("storage.usage.drift")
+            .description("Users whose storage counters were repaired by reconciliation")
+            .register(meterRegistry);
+        this.facetDriftCounter = Counter.builder("storage.facets.drift")
+            .description("Users whose content-type facets were repaired by reconciliation")
+            .register(meterRegistry);
+    }
+
+    /**
+     * @return number of repairs (users whose counters or facets had drifted)
+     */
+    @Scheduled(cron = "${app.storage.usage-reconciliation-cron:0 30 3 * * *}")
+    public int reconcile() {
+        List<Long> candidates = usageRepository.findDriftCandidates();
+        int repaired = 0;
+        for (Long userId : candidates) {
+            Optional<StorageUsage> drifted = quotaService.reconcile(userId);
+            if (drifted.isPresent()) {
+                StorageUsage before = drifted.get();
+                log.warn(
+                    "Storage usage drift for user {}: counters had {} bytes / {} files / {} reserved bytes, repaired from user_files",
+                    userId, before.getBytesUsed(), before.getFileCount(), before.getReservedBytes()
+                );
+                driftCounter.increment();
+                repaired++;
+            }
+        }
+        log.info("Storage usage reconciliation: {} candidates, {} repaired", candidates.size(), repaired);
+        return repaired + reconcileFacets();
+    }
+
+    private int reconcileFacets() {
+        List<Long> candidates = facetRepository.findDriftCandidates();
+        int repaired = 0;
+        for (Long userId : candidates) {
+            Optional<List<ContentFacet>> drifted = quotaService.reconcileFacets(userId);
+            if (drifted.isPresent()) {
+                log.warn(
+                    "Content facet drift for user {}: facets were {}, repaired from user_files",
+                    userId, drifted.get()
+                );
+                facetDriftCounter.increment();
+                repaired++;
+            }
+        }
+        log.info("Content facet reconciliation: {} candidates, {} repaired", candidates.size(), repaired);
+        return repaired;
+    }
+}
@@ -0,0 +1,173 @@
+package com.starter.feature.files;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository for per-user storage counters (user_storage_usage).
+ * Every change touches a single row, so quota checks lock one row instead of all of the user's files.
+ */
+@Repository
+@RequiredArgsConstructor
+public class StorageUsageRepository {
+    private final JdbcClient jdbcClient;
+    private static final RowMapper<StorageUsage> ROW_MAPPER = (rs, rowNum) -> StorageUsage.builder()
+        .userId(rs.getLong("user_id"))
+        .bytesUsed(rs.getLong("bytes_used"))
+        .fileCount(rs.getLong("file_count"))
+        .reservedBytes(rs.getLong("reserved_bytes"))
+        .version(rs.getLong("version"))
+        .build();
+
+    /**
+     * Add to the counters only if the result stays within the quota (single statement, row-locked upsert).
+     * The first upload of a user creates the row; callers ensure a single addition never exceeds the quota.
+     *
+     * @return true if added, false if the quota would be exceeded
+     */
+    public boolean tryAdd(Long userId, long bytes, long files, long reservedBytes, long maxQuotaBytes) {
+        return jdbcClient
+            .sql("""
+                INSERT INTO user_storage_usage AS u (user_id, bytes_used, file_count, reserved_bytes, version)
+                VALUES (:userId, :bytes, :files, :reservedBytes, 1)
+                ON CONFLICT (user_id) DO UPDATE SET
+                    bytes_used = u.bytes_used + EXCLUDED.bytes_used,
+                    file_count = u.file_count + EXCLUDED.file_count,
+                    reserved_bytes = u.reserved_bytes + EXCLUDED.reserved_bytes,
+                    version = u.version + 1,
+                    updated_at = CURRENT_TIMESTAMP
+                WHERE u.bytes_used + u.reserved_bytes + :bytes + :reservedBytes <= :maxQuotaBytes
+                RETURNING u.version
+                """)
+            .param("userId", userId)
+            .param("bytes", bytes)
+            .param("files", files)
+            .param("reservedBytes", reservedBytes)
+            .param("maxQuotaBytes", maxQuotaBytes)
+            .query(Long.class)
+            .optional()
+            .isPresent();
+    }
+
+    /**
+     * Apply deltas unconditionally (deletes, activation of reservations).
+     * Clamped at zero so a drifted counter never blocks a delete; reconciliation repairs the drift.
+     */
+    public void adjust(Long userId, long bytesDelta, long filesDelta, long reservedDelta) {
+        jdbcClient
+            .sql("""
+                UPDATE user_storage_usage SET
+                    bytes_used = GREATEST(bytes_used + :bytesDelta, 0),
+                    file_count = GREATEST(file_count + :filesDelta, 0),
+                    reserved_bytes = GREATEST(reserved_bytes + :reservedDelta, 0),
+                    version = version + 1,
+                    updated_at = CURRENT_TIMESTAMP
+                WHERE user_id = :userId
+                """)
+            .param("userId", userId)
+            .param("bytesDelta", bytesDelta)
+            .param("filesDelta", filesDelta)
+            .param("reservedDelta", reservedDelta)
+            .update();
+    }
+
+    public Optional<StorageUsage> findByUserId(Long userId) {
+        return jdbcClient
+            .sql("SELECT user_id, bytes_used, file_count, reserved_bytes, version FROM user_storage_usage WHERE user_id = :userId")
+            .param("userId", userId)
+            .query(ROW_MAPPER)
+            .optional();
+    }
+
+    /**
+     * Lock the user's counter row, creating it first if missing.
+     * Every writer updates this row in its user_files transaction, so once the lock is held
+     * all committed file changes are reflected in the counters and later ones wait for it.
+     */
+    public StorageUsage lockByUserId(Long userId) {
+        jdbcClient
+            .sql("INSERT INTO user_storage_usage (user_id) VALUES (:userId) ON CONFLICT (user_id) DO NOTHING")
+            .param("userId", userId)
+            .update();
+        return jdbcClient
+            .sql("""
+                SELECT user_id, bytes_used, file_count, reserved_bytes, version
+                FROM user_storage_usage
+                WHERE user_id = :userId
+                FOR UPDATE
+                """)
+            .param("userId", userId)
+            .query(ROW_MAPPER)
+            .single();
+    }
+
+    /**
+     * Overwrite the counters with recomputed values (reconciliation).
+     */
+    public void overwrite(StorageUsage actual) {
+        jdbcClient
+            .sql("""
+                UPDATE user_storage_usage SET
+                    bytes_used = :bytesUsed,
+                    file_count = :fileCount,
+                    reserved_bytes = :reservedBytes,
+                    version = version + 1,
+                    updated_at = CURRENT_TIMESTAMP
+                WHERE user_id = :userId
+                """)
+            .param("userId", actual.getUserId())
+            .param("bytesUsed", actual.getBytesUsed())
+            .param("fileCount", actual.getFileCount())
+            .param("reservedBytes", actual.getReservedBytes())
+            .update();
+    }
+
+    /**
+     * Recompute a user's counters from user_files (source of truth).
+     */
+    public StorageUsage computeFromFiles(Long userId) {
+        return jdbcClient
+            .sql("""
+                SELECT :userId AS user_id,
+                       COALESCE(SUM(size_bytes) FILTER (WHERE status = 'ACTIVE'), 0) AS bytes_used,
+                       COUNT(*) FILTER (WHERE status = 'ACTIVE') AS file_count,
+                       COALESCE(SUM(size_bytes) FILTER (WHERE status = 'PENDING'), 0) AS reserved_bytes,
+                       0 AS version
+                FROM user_files
+                WHERE user_id = :userId
+                """)
+            .param("userId", userId)
+            .query(ROW_MAPPER)
+            .single();
+    }
+
+    /**
+     * Users whose counters differ from user_files (one aggregate pass, no locks).
+     * Candidates only - in-flight transactions can cause false positives, so each is re-checked under lock.
+     */
+    public List<Long> findDriftCandidates() {
+        return jdbcClient
+            .sql("""
+                SELECT COALESCE(f.user_id, u.user_id)
+                FROM (
+                    SELECT user_id,
+                           COALESCE(SUM(size_bytes) FILTER (WHERE status = 'ACTIVE'), 0) AS bytes_used,
+                           COUNT(*) FILTER (WHERE status = 'ACTIVE') AS file_count,
+                           COALESCE(SUM(size_bytes) FILTER (WHERE status = 'PENDING'), 0) AS reserved_bytes
+                    FROM user_files
+                    GROUP BY user_id
+                ) f
+                FULL OUTER JOIN user_storage_usage u ON u.user_id = f.user_id
+                WHERE COALESCE(f.bytes_used, 0) <> COALESCE(u.bytes_used, 0)
+                   OR COALESCE(f.file_count, 0) <> COALESCE(u.file_count, 0)
+                   OR COALESCE(f.reserved_bytes, 0) <> COALESCE(u.reserved_bytes, 0)
+                """)
+            .query(Long.class)
+            .list();
+    }
+}
@@ -0,0 +1,205 @@
+package com.starter.feature.files;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.fileupload2.core.DiskFileItem;
+import org.apache.commons.fileupload2.core.DiskFileItemFactory;
+import org.apache.commons.fileupload2.core.FileItemInput;
+import org.apache.commons.fileupload2.core.FileItemInputIterator;
+import org.apache.commons.fileupload2.jakarta.servlet6.JakartaServletFileUpload;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.starter.core.exception.FileTooLargeException;
+import com.starter.feature.files.dto.FileDto;
+import com.starter.feature.files.exception.StorageQuotaExceededException;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Constant-memory upload path: parses the multipart request body as a stream (no temp file, no
+ * in-memory copy) and pipes the file part straight into an S3 multipart upload.
+ *
+ * Strategy: PENDING row, then S3, then ACTIVE - each DB step is its own short transaction, so nothing
+ * holds a DB connection during the transfer. Failed uploads are discarded (see {@link UploadStateService}).
+ * The SHA-256 is computed in the same pass; since it is only known at the end, content that turns out to be
+ * stored already is deduplicated on activation (the new copy is deleted) rather than skipped.
+ *
+ * With app.storage.compression.enabled, compressible content types are gzip-compressed on the way to storage
+ * ({@link StorageCodec}); limits, quota and the digest still apply to the uploaded (logical) bytes.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StreamingUploadService {
+    private static final String FILE_FIELD = "file";
+
+    private final FileService fileService;
+    private final StorageQuotaService quotaService;
+    private final UploadStateService uploadStateService;
+    private final S3MultipartUploader multipartUploader;
+
+    @Value("${app.storage.max-file-size}")
+    private long maxFileSizeBytes;
+
+    @Value("${app.storage.upload-lease-minutes:30}")
+    private int uploadLeaseMinutes;
+
+    @Value("${app.storage.compression.enabled:false}")
+    private boolean compressionEnabled;
+
+    @Value("${app.storage.compression.content-types:text/*,application/json}")
+    private List<String> compressibleContentTypes;
+
+    @Value("${app.storage.compression.level:6}")
+    private int compressionLevel;
+
+    /**
+     * Upload the "file" part of a multipart/form-data request.
+     * Form fields before the file part are skipped; parts after it are never read.
+     */
+    public FileDto upload(Long userId, HttpServletRequest request) throws IOException {
+        if (!JakartaServletFileUpload.isMultipartContent(request)) {
+            throw new IllegalArgumentException("Request must be multipart/form-data");
+        }
+
+        JakartaServletFileUpload<DiskFileItem, DiskFileItemFactory> upload = new JakartaServletFileUpload<>();
+        FileItemInputIterator items = upload.getItemIterator(request);
+        while (items.hasNext()) {
+            FileItemInput item = items.next();
+            if (!item.isFormField() && FILE_FIELD.equals(item.getFieldName())) {
+                try (InputStream content = item.getInputStream()) {
+                    return upload(userId, item.getName(), item.getContentType(), content);
+                }
+            }
+        }
+        throw new IllegalArgumentException("Missing multipart part 'file'");
+    }
+
+    /**
+     * Upload a file from a stream of unknown length.
+     */
+    public FileDto upload(Long userId, String originalFilename, String contentType, InputStream content)
+        throws IOException {
+        // 1. Validate everything that is known before the first byte arrives
+        String resolvedContentType = fileService.resolveContentType(contentType);
+        String filename = fileService.resolveFilename(originalFilename);
+        fileService.ensureFilenameAvailable(userId, filename);
+
+        // 2. Stop reading as soon as the file exceeds per-file limit or remaining quota
+        StorageQuotaService.StorageUsageInfo usage = quotaService.getUsageInfo(userId);
+        long remainingQuota = Math.max(0, usage.getMaxBytes() - usage.getUsedBytes());
+        long limit = Math.min(maxFileSizeBytes, remainingQuota);
+
+        // 3. Reserve the filename in a PENDING row; length is unknown, so quota is reserved on activation
+        String s3Key = fileService.buildBlobKey();
+        StorageCodec codec = codecFor(resolvedContentType);
+        UserFile pending = uploadStateService.begin(
+            userId, filename, s3Key, resolvedContentType, codec, 0, Duration.ofMinutes(uploadLeaseMinutes)
+        );
+
+        // 4. Stream to S3 (no DB connection held), hashing on the way
+        MessageDigest digest = FileService.newSha256();
+        long size;
+        Long storedSize = null;
+        try {
+            InputStream hashed = new DigestInputStream(content, digest);
+            if (codec == null) {
+                size = multipartUploader.upload(s3Key, resolvedContentType, hashed, limit);
+            } else {
+                // Limits apply to the uploaded bytes, before encoding
+                LimitedInputStream logical = new LimitedInputStream(hashed, limit);
+                try (InputStream encoded = codec.encode(logical, compressionLevel)) {
+                    storedSize = multipartUploader.upload(s3Key, resolvedContentType, encoded, Long.MAX_VALUE);
+                }
+                size = logical.getCount();
+                if (size == 0) {
+                    throw new IllegalArgumentException("File cannot be empty");
+                }
+            }
+        } catch (FileTooLargeException e) {
+            fileService.discardUpload(pending);
+            if (limit < maxFileSizeBytes) {
+                throw new StorageQuotaExceededException(usage.getUsedBytes(), usage.getMaxBytes(), e.getFileSize());
+            }
+            throw e;
+        } catch (IOException | RuntimeException e) {
+            fileService.discardUpload(pending);
+            throw e;
+        }
+
+        // 5. Activate in a short transaction (re-checks quota with the final size, deduplicates content)
+        UserFile saved = fileService.activateUpload(
+            pending, size, storedSize, HexFormat.of().formatHex(digest.digest())
+        );
+        log.info("File uploaded successfully: {} for user {} ({} bytes)", filename, userId, size);
+        if (storedSize != null) {
+            log.debug("Stored {} with {}: {} of {} bytes", s3Key, codec, storedSize, size);
+        }
+        return fileService.toDto(saved);
+    }
+
+    /**
+     * Codec to store content of this type with, or null to store it as uploaded.
+     */
+    StorageCodec codecFor(String contentType) {
+        if (!compressionEnabled) {
+            return null;
+        }
+        String mediaType = contentType.split(";", 2)[0].trim();
+        boolean compressible = compressibleContentTypes.stream()
+            .anyMatch(pattern -> ContentTypeValidator.matchesPattern(mediaType, pattern.trim()));
+        return compressible ? StorageCodec.GZIP : null;
+    }
+
+    /**
+     * Counts the bytes read and fails once there are more than the limit.
+     */
+    private static final class LimitedInputStream extends FilterInputStream {
+        private final long limit;
+        private long count;
+
+        LimitedInputStream(InputStream in, long limit) {
+            super(in);
+            this.limit = limit;
+        }
+
+        long getCount() {
+            return count;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                advance(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                advance(read);
+            }
+            return read;
+        }
+
+        private void advance(long read) {
+            count += read;
+            if (count > limit) {
+                throw new FileTooLargeException(count, limit);
+            }
+        }
+    }
+}
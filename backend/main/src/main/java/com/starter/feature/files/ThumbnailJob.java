@@ -0,0 +1,7 @@
+package com.starter.feature.files;
+
+/**
+ * Claimed thumbnail job: an image file whose renditions are to be generated.
+ */
+public record ThumbnailJob(long fileId, long userId, String s3Key, int attempts) {
+}
@@ -0,0 +1,104 @@
+package com.starter.feature.files;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Thumbnail queue on user_files (thumbnail_state = 'PENDING'), filled when image files become ACTIVE.
+ * Claiming works like the S3 outbox: a lease moves thumbnail_next_attempt_at forward and commits immediately.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ThumbnailJobRepository {
+    private final JdbcClient jdbcClient;
+    private static final RowMapper<ThumbnailJob> JOB_MAPPER = (rs, rowNum) -> new ThumbnailJob(
+        rs.getLong("id"), rs.getLong("user_id"), rs.getString("s3_key"), rs.getInt("thumbnail_attempts")
+    );
+
+    public List<ThumbnailJob> claim(Instant now, Duration lease, int limit) {
+        return jdbcClient
+            .sql("""
+                UPDATE user_files
+                SET thumbnail_attempts = thumbnail_attempts + 1, thumbnail_next_attempt_at = :leaseUntil
+                WHERE id IN (
+                    SELECT id FROM user_files
+                    WHERE thumbnail_state = 'PENDING' AND thumbnail_next_attempt_at <= :now
+                    ORDER BY thumbnail_next_attempt_at
+                    LIMIT :limit
+                    FOR UPDATE SKIP LOCKED
+                )
+                RETURNING id, user_id, s3_key, thumbnail_attempts
+                """)
+            .param("now", Timestamp.from(now))
+            .param("leaseUntil", Timestamp.from(now.plus(lease)))
+            .param("limit", limit)
+            .query(JOB_MAPPER)
+            .list();
+    }
+
+    /**
+     * Store the renditions of a job.
+     *
+     * @return false if the file was deleted meanwhile (the caller then deletes the renditions)
+     */
+    public boolean complete(long fileId, String thumbnailS3Key, String previewS3Key) {
+        return jdbcClient
+            .sql("""
+                UPDATE user_files
+                SET thumbnail_s3_key = :thumbnailS3Key, preview_s3_key = :previewS3Key,
+                    thumbnail_state = 'DONE', thumbnail_next_attempt_at = NULL
+                WHERE id = :id AND status = 'ACTIVE' AND thumbnail_state = 'PENDING'
+                """)
+            .param("id", fileId)
+            .param("thumbnailS3Key", thumbnailS3Key)
+            .param("previewS3Key", previewS3Key)
+            .update() == 1;
+    }
+
+    public void reschedule(long fileId, Instant nextAttemptAt) {
+        jdbcClient
+            .sql("UPDATE user_files SET thumbnail_next_attempt_at = :nextAttemptAt WHERE id = :id")
+            .param("id", fileId)
+            .param("nextAttemptAt", Timestamp.from(nextAttemptAt))
+            .update();
+    }
+
+    /**
+     * Give up on a job (unreadable image or out of attempts); the UI keeps showing the generic icon.
+     */
+    public void markFailed(long fileId) {
+        jdbcClient
+            .sql("""
+                UPDATE user_files SET thumbnail_state = 'FAILED', thumbnail_next_attempt_at = NULL
+                WHERE id = :id AND thumbnail_state = 'PENDING'
+                """)
+            .param("id", fileId)
+            .update();
+    }
+
+    public long countPending() {
+        return jdbcClient
+            .sql("SELECT COUNT(*) FROM user_files WHERE thumbnail_state = 'PENDING'")
+            .query(Long.class)
+            .single();
+    }
+
+    /**
+     * Request time of the oldest pending job (empty when the queue is empty).
+     */
+    public Optional<Instant> findOldestRequestedAt() {
+        return jdbcClient
+            .sql("SELECT MIN(thumbnail_requested_at) FROM user_files WHERE thumbnail_state = 'PENDING'")
+            .query(Timestamp.class)
+            .optional()
+            .map(Timestamp::toInstant);
+    }
+}
@@ -0,0 +1,132 @@
+package com.starter.feature.files;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Renders JPEG renditions that fit into square bounding boxes.
+ *
+ * The source is decoded once, with source subsampling chosen for the largest rendition, so a 50 MP photo is never
+ * held in memory at full resolution. Renditions are then scaled down in halving steps (bilinear) to avoid aliasing.
+ * Transparent pixels are flattened onto white.
+ */
+@Component
+public class ThumbnailRenderer {
+    private final long maxSourcePixels;
+    private final float jpegQuality;
+
+    public ThumbnailRenderer(
+        @Value("${app.storage.thumbnails.max-source-pixels:100000000}") long maxSourcePixels,
+        @Value("${app.storage.thumbnails.jpeg-quality:0.85}") float jpegQuality
+    ) {
+        this.maxSourcePixels = maxSourcePixels;
+        this.jpegQuality = jpegQuality;
+    }
+
+    /**
+     * Render one JPEG per bounding box size, in the given order. Images smaller than a box are not upscaled.
+     *
+     * @throws IllegalArgumentException if the content is not a readable image or is too large; retrying won't help
+     * @throws IOException if the content cannot be read
+     */
+    public List<byte[]> render(InputStream content, List<Integer> sizes) throws IOException {
+        BufferedImage source = read(content, Collections.max(sizes));
+        List<byte[]> renditions = new ArrayList<>(sizes.size());
+        for (int size : sizes) {
+            renditions.add(writeJpeg(scale(source, size)));
+        }
+        return renditions;
+    }
+
+    /** Decode the first image, subsampled to keep at least twice the largest box on the longer side. */
+    private BufferedImage read(InputStream content, int largestSize) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(content)) {
+            Iterator<ImageReader> readers = input == null ? Collections.emptyIterator() : ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                throw new IllegalArgumentException("Unsupported image format");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxSourcePixels) {
+                    throw new IllegalArgumentException("Image too large: " + width + "x" + height);
+                }
+
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = subsampling(width, height, largestSize);
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    static int subsampling(int width, int height, int largestSize) {
+        return Math.max(1, Math.max(width, height) / (2 * largestSize));
+    }
+
+    /** Fit into size x size, at most halving per pass; the first pass also flattens onto an opaque RGB canvas. */
+    private static BufferedImage scale(BufferedImage source, int size) {
+        double ratio = Math.min(1.0, (double) size / Math.max(source.getWidth(), source.getHeight()));
+        int targetWidth = Math.max(1, (int) Math.round(source.getWidth() * ratio));
+        int targetHeight = Math.max(1, (int) Math.round(source.getHeight() * ratio));
+
+        BufferedImage current = source;
+        do {
+            int width = Math.max(targetWidth, current.getWidth() / 2);
+            int height = Math.max(targetHeight, current.getHeight() / 2);
+            BufferedImage next = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = next.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                graphics.setColor(Color.WHITE);
+                graphics.fillRect(0, 0, width, height);
+                graphics.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = next;
+        } while (current.getWidth() != targetWidth || current.getHeight() != targetHeight);
+        return current;
+    }
+
+    private byte[] writeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(jpegQuality);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,183 @@
+package com.starter.feature.files;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates thumbnail and preview renditions of image files in the background.
+ *
+ * Jobs are claimed from user_files with a lease and rendered on a fixed pool with a bounded queue.
+ * Backpressure: a poll only claims as many jobs as there are free threads and queue slots, so unclaimed
+ * jobs stay in the database (where other instances can take them) instead of piling up on the heap.
+ * Failed jobs are retried with a growing delay and marked FAILED after max-attempts;
+ * unreadable images fail immediately. Publishes throughput, render time, queue depth and queue lag.
+ */
+@Slf4j
+@Component
+public class ThumbnailWorker {
+    private static final String RENDITION_CONTENT_TYPE = "image/jpeg";
+
+    private final ThumbnailJobRepository jobRepository;
+    private final BlobStore blobStore;
+    private final S3OutboxRepository outboxRepository;
+    private final ThumbnailRenderer renderer;
+    private final List<Integer> sizes;
+    private final int capacity;
+    private final Duration lease;
+    private final int maxAttempts;
+    private final Duration retryDelay;
+    private final ThreadPoolExecutor renderExecutor;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Counter generated;
+    private final Counter failed;
+    private final Timer renderTimer;
+    private final AtomicLong queueDepth = new AtomicLong();
+    private final AtomicLong queueLagSeconds = new AtomicLong();
+
+    public ThumbnailWorker(
+        ThumbnailJobRepository jobRepository,
+        BlobStore blobStore,
+        S3OutboxRepository outboxRepository,
+        ThumbnailRenderer renderer,
+        MeterRegistry meterRegistry,
+        @Value("${app.storage.thumbnails.thumbnail-size:256}") int thumbnailSize,
+        @Value("${app.storage.thumbnails.preview-size:1024}") int previewSize,
+        @Value("${app.storage.thumbnails.threads:2}") int threads,
+        @Value("${app.storage.thumbnails.queue-capacity:16}") int queueCapacity,
+        @Value("${app.storage.thumbnails.lease-seconds:600}") long leaseSeconds,
+        @Value("${app.storage.thumbnails.max-attempts:3}") int maxAttempts,
+        @Value("${app.storage.thumbnails.retry-delay-seconds:60}") long retryDelaySeconds
+    ) {
+        this.jobRepository = jobRepository;
+        this.blobStore = blobStore;
+        this.outboxRepository = outboxRepository;
+        this.renderer = renderer;
+        this.sizes = List.of(thumbnailSize, previewSize);
+        this.capacity = threads + queueCapacity;
+        this.lease = Duration.ofSeconds(leaseSeconds);
+        this.maxAttempts = maxAttempts;
+        this.retryDelay = Duration.ofSeconds(retryDelaySeconds);
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.renderExecutor = new ThreadPoolExecutor(
+            threads, threads, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+                Thread thread = new Thread(runnable, "thumbnail-render-" + threadCounter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        );
+        this.generated = Counter.builder("thumbnails.generated")
+            .description("Image files whose thumbnail and preview were generated")
+            .register(meterRegistry);
+        this.failed = Counter.builder("thumbnails.failed")
+            .description("Image files given up on (unreadable or out of attempts)")
+            .register(meterRegistry);
+        this.renderTimer = Timer.builder("thumbnails.render")
+            .description("Time to download, decode and render one image")
+            .register(meterRegistry);
+        Gauge.builder("thumbnails.queue.depth", queueDepth, AtomicLong::get)
+            .description("Image files waiting for thumbnails")
+            .register(meterRegistry);
+        Gauge.builder("thumbnails.queue.lag", queueLagSeconds, AtomicLong::get)
+            .description("Time the oldest waiting image file has been waiting for thumbnails")
+            .baseUnit("seconds")
+            .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        // Jobs still queued are claimed again once their lease expires
+        renderExecutor.shutdownNow();
+    }
+
+    @Scheduled(
+        fixedDelayString = "${app.storage.thumbnails.poll-interval-ms:2000}",
+        initialDelayString = "${app.storage.thumbnails.poll-interval-ms:2000}"
+    )
+    public void poll() {
+        Instant now = Instant.now();
+        int free = capacity - inFlight.get();
+        if (free > 0) {
+            for (ThumbnailJob job : jobRepository.claim(now, lease, free)) {
+                inFlight.incrementAndGet();
+                renderExecutor.execute(() -> {
+                    try {
+                        process(job);
+                    } finally {
+                        inFlight.decrementAndGet();
+                    }
+                });
+            }
+        }
+        refreshMetrics(now);
+    }
+
+    /**
+     * Render, upload and record the renditions of one file.
+     */
+    void process(ThumbnailJob job) {
+        try {
+            List<byte[]> renditions = renderTimer.recordCallable(() -> {
+                try (InputStream content = blobStore.openObject(job.s3Key())) {
+                    return renderer.render(content, sizes);
+                }
+            });
+            String thumbnailKey = buildRenditionKey(job, sizes.get(0));
+            String previewKey = buildRenditionKey(job, sizes.get(1));
+            blobStore.uploadFile(thumbnailKey, renditions.get(0), RENDITION_CONTENT_TYPE);
+            blobStore.uploadFile(previewKey, renditions.get(1), RENDITION_CONTENT_TYPE);
+
+            if (!jobRepository.complete(job.fileId(), thumbnailKey, previewKey)) {
+                // File deleted while rendering; its delete did not know about the renditions
+                outboxRepository.enqueue(List.of(thumbnailKey, previewKey), Instant.now());
+                return;
+            }
+            generated.increment();
+        } catch (IllegalArgumentException e) {
+            log.info("No thumbnail for file {}: {}", job.fileId(), e.getMessage());
+            jobRepository.markFailed(job.fileId());
+            failed.increment();
+        } catch (Exception e) {
+            if (job.attempts() >= maxAttempts) {
+                log.warn("Thumbnail generation for file {} failed {} times, giving up", job.fileId(), job.attempts(), e);
+                jobRepository.markFailed(job.fileId());
+                failed.increment();
+            } else {
+                log.warn("Thumbnail generation for file {} failed (attempt {}): {}", job.fileId(), job.attempts(), e.getMessage());
+                jobRepository.reschedule(job.fileId(), Instant.now().plus(retryDelay.multipliedBy(job.attempts())));
+            }
+        }
+    }
+
+    /** Stable per file and size, so a retry overwrites a partial upload instead of orphaning it. */
+    static String buildRenditionKey(ThumbnailJob job, int size) {
+        return "users/" + job.userId() + "/thumbnails/" + job.fileId() + "-" + size + ".jpg";
+    }
+
+    private void refreshMetrics(Instant now) {
+        queueDepth.set(jobRepository.countPending());
+        queueLagSeconds.set(
+            jobRepository.findOldestRequestedAt()
+                .map(requestedAt -> Math.max(0, Duration.between(requestedAt, now).toSeconds()))
+                .orElse(0L)
+        );
+    }
+}
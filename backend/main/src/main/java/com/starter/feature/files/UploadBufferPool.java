@@ -0,0 +1,84 @@
+package com.starter.feature.files;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded pool of reusable part buffers for streaming uploads.
+ *
+ * Buffers are allocated lazily up to {@code buffer-pool-size} and then recycled, so the heap used by
+ * all concurrent streaming uploads together never exceeds {@code part-size * buffer-pool-size}.
+ */
+@Slf4j
+@Component
+public class UploadBufferPool {
+    private final int bufferSize;
+    private final int maxBuffers;
+    private final long acquireTimeoutMs;
+    private final BlockingQueue<byte[]> available;
+    private final AtomicInteger allocated = new AtomicInteger();
+
+    public UploadBufferPool(
+        @Value("${app.storage.streaming.part-size:8388608}") int bufferSize,
+        @Value("${app.storage.streaming.buffer-pool-size:32}") int maxBuffers,
+        @Value("${app.storage.streaming.buffer-acquire-timeout-ms:30000}") long acquireTimeoutMs
+    ) {
+        if (bufferSize < 5 * 1024 * 1024) {
+            throw new IllegalArgumentException("Streaming part size must be at least 5MB (S3 multipart minimum)");
+        }
+        this.bufferSize = bufferSize;
+        this.maxBuffers = maxBuffers;
+        this.acquireTimeoutMs = acquireTimeoutMs;
+        this.available = new ArrayBlockingQueue<>(maxBuffers);
+    }
+
+    /**
+     * Take a buffer from the pool, allocating a new one while below the limit.
+     * Blocks when all buffers are in use.
+     *
+     * @throws InterruptedIOException if no buffer became free within the acquire timeout
+     */
+    public byte[] acquire() throws InterruptedIOException {
+        byte[] buffer = available.poll();
+        if (buffer != null) {
+            return buffer;
+        }
+
+        if (allocated.incrementAndGet() <= maxBuffers) {
+            return new byte[bufferSize];
+        }
+        allocated.decrementAndGet();
+
+        try {
+            buffer = available.poll(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for upload buffer");
+        }
+        if (buffer == null) {
+            log.warn("Upload buffer pool exhausted ({} buffers of {} bytes)", maxBuffers, bufferSize);
+            throw new InterruptedIOException("Timed out waiting for upload buffer");
+        }
+        return buffer;
+    }
+
+    /**
+     * Return a buffer to the pool.
+     */
+    public void release(byte[] buffer) {
+        if (buffer.length == bufferSize && !available.offer(buffer)) {
+            allocated.decrementAndGet();
+        }
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+}
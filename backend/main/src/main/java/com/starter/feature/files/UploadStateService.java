@@ -0,0 +1,241 @@
+package com.starter.feature.files;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.starter.feature.files.exception.StorageQuotaExceededException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Short transactions of the upload lifecycle: PENDING -> ACTIVE, or PENDING -> FAILED.
+ *
+ * Every upload path commits a PENDING row (reserving filename and quota) before content is sent to S3,
+ * and flips it in a second transaction afterwards, so no DB connection or lock is held during the transfer.
+ * Rows left PENDING by a crash, and FAILED rows, are removed by {@link PendingUploadSweeper}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UploadStateService {
+    private final FileRepository fileRepository;
+    private final StorageQuotaService quotaService;
+    private final ContentFacetRepository facetRepository;
+    private final S3OutboxRepository outboxRepository;
+    private final FileBlobRepository blobRepository;
+
+    /**
+     * Insert a PENDING row, reserving the filename and {@code reservedBytes} of quota.
+     *
+     * @param lease how long the upload may take before the row is swept
+     * @throws IllegalArgumentException if the filename is already taken
+     */
+    @Transactional
+    public UserFile begin(
+        Long userId, String filename, String s3Key, String contentType, long reservedBytes, Duration lease
+    ) {
+        return begin(userId, filename, s3Key, contentType, null, reservedBytes, lease);
+    }
+
+    /**
+     * Insert a PENDING row whose content will be stored encoded with the given codec.
+     *
+     * @param codec encoding of the object, or null to store it as uploaded
+     * @throws IllegalArgumentException if the filename is already taken
+     */
+    @Transactional
+    public UserFile begin(
+        Long userId, String filename, String s3Key, String contentType, StorageCodec codec, long reservedBytes,
+        Duration lease
+    ) {
+        quotaService.reserveForPendingUpload(userId, reservedBytes);
+        try {
+            return fileRepository.save(
+                UserFile.builder()
+                    .userId(userId)
+                    .filename(filename)
+                    .s3Key(s3Key)
+                    .sizeBytes(reservedBytes)
+                    .contentType(contentType)
+                    .codec(codec)
+                    .status(UserFile.Status.PENDING)
+                    .uploadExpiresAt(Instant.now().plus(lease))
+                    .build()
+            );
+        } catch (DuplicateKeyException e) {
+            // Race condition: same filename reserved by a concurrent upload since the early check
+            throw new IllegalArgumentException(String.format("File with name '%s' already exists", filename));
+        }
+    }
+
+    /**
+     * Insert PENDING rows for a batch of uploads and reserve their total size with one quota check.
+     * Files whose name was taken since the caller's check are skipped.
+     *
+     * @return the inserted files; all or none are reserved
+     * @throws StorageQuotaExceededException if the inserted files together exceed the quota
+     */
+    @Transactional
+    public List<UserFile> beginAll(Long userId, List<UserFile> files, Duration lease) {
+        List<UserFile> inserted = fileRepository.insertPending(userId, files, Instant.now().plus(lease));
+        long totalBytes = inserted.stream().mapToLong(UserFile::getSizeBytes).sum();
+        if (totalBytes > 0) {
+            quotaService.reserveForPendingUpload(userId, totalBytes);
+        }
+        return inserted;
+    }
+
+    /**
+     * Flip a batch of PENDING uploads whose content is in S3 to ACTIVE, with their reserved sizes.
+     *
+     * @return the activated files (expired uploads are left to the sweeper)
+     */
+    @Transactional
+    @CacheEvict(value = "fileStats", key = "#userId")
+    public List<UserFile> activateAll(Long userId, List<UserFile> files) {
+        List<UserFile> activated = fileRepository.activateAll(
+            userId, files.stream().map(UserFile::getId).toList(), Instant.now()
+        );
+        if (!activated.isEmpty()) {
+            long totalBytes = activated.stream().mapToLong(UserFile::getSizeBytes).sum();
+            quotaService.activatePendingUploads(userId, totalBytes, activated.size());
+            facetRepository.add(userId, activated);
+        }
+        return activated;
+    }
+
+    /**
+     * Insert an ACTIVE file referencing already stored content with the same digest - no upload needed.
+     *
+     * @return the file, or empty if the content is not stored yet
+     * @throws IllegalArgumentException if the filename is already taken
+     */
+    @Transactional
+    @CacheEvict(value = "fileStats", key = "#userId")
+    public Optional<UserFile> createFromBlob(
+        Long userId, String filename, String contentType, String sha256, long sizeBytes
+    ) {
+        Optional<FileBlob> blob = blobRepository.acquire(sha256, sizeBytes);
+        if (blob.isEmpty()) {
+            return Optional.empty();
+        }
+        quotaService.reserveForFile(userId, sizeBytes);
+        facetRepository.add(userId, contentType, sizeBytes);
+        try {
+            return Optional.of(fileRepository.save(
+                UserFile.builder()
+                    .userId(userId)
+                    .filename(filename)
+                    .s3Key(blob.get().s3Key())
+                    .blobId(blob.get().id())
+                    .codec(blob.get().codec())
+                    .storedSizeBytes(blob.get().storedSizeBytes())
+                    .sizeBytes(sizeBytes)
+                    .contentType(contentType)
+                    .status(UserFile.Status.ACTIVE)
+                    .build()
+            ));
+        } catch (DuplicateKeyException e) {
+            throw new IllegalArgumentException(String.format("File with name '%s' already exists", filename));
+        }
+    }
+
+    /**
+     * Flip a PENDING upload to ACTIVE with its final size.
+     *
+     * @throws IllegalArgumentException if the upload has expired (and may already be swept)
+     */
+    @Transactional
+    @CacheEvict(value = "fileStats", key = "#file.userId")
+    public UserFile activate(UserFile file, long sizeBytes) {
+        return activate(file, sizeBytes, null);
+    }
+
+    /**
+     * Flip a PENDING upload to ACTIVE and register its content for deduplication.
+     * If the same content was stored meanwhile, the file references that blob and its own copy is deleted.
+     *
+     * @param sha256 hex digest of the content, or null to keep the object private to the file
+     * @throws IllegalArgumentException if the upload has expired (and may already be swept)
+     */
+    @Transactional
+    @CacheEvict(value = "fileStats", key = "#file.userId")
+    public UserFile activate(UserFile file, long sizeBytes, String sha256) {
+        return activate(file, sizeBytes, null, sha256);
+    }
+
+    /**
+     * Flip a PENDING upload to ACTIVE, as {@link #activate(UserFile, long, String)}, for an encoded object.
+     * Quota is charged the logical size; a duplicate blob brings its own codec along.
+     *
+     * @param storedSizeBytes size of the encoded object, or null if the content is stored as uploaded
+     */
+    @Transactional
+    @CacheEvict(value = "fileStats", key = "#file.userId")
+    public UserFile activate(UserFile file, long sizeBytes, Long storedSizeBytes, String sha256) {
+        Instant now = Instant.now();
+        if (!fileRepository.activate(file.getId(), sizeBytes, storedSizeBytes, now)) {
+            throw new IllegalArgumentException("Upload reservation has expired");
+        }
+        quotaService.activatePendingUpload(file.getUserId(), file.getSizeBytes(), sizeBytes);
+        facetRepository.add(file.getUserId(), file.getContentType(), sizeBytes);
+        file.setStoredSizeBytes(storedSizeBytes);
+
+        if (sha256 != null) {
+            FileBlob blob = blobRepository.register(
+                sha256, sizeBytes, file.getS3Key(), file.getCodec(), storedSizeBytes
+            );
+            if (!blob.s3Key().equals(file.getS3Key())) {
+                log.debug("Upload {} duplicates blob {}, dropping its copy", file.getId(), blob.id());
+                outboxRepository.enqueue(List.of(file.getS3Key()), now);
+            }
+            fileRepository.attachBlob(file.getId(), blob);
+            file.setBlobId(blob.id());
+            file.setS3Key(blob.s3Key());
+            file.setCodec(blob.codec());
+            file.setStoredSizeBytes(blob.storedSizeBytes());
+        }
+
+        file.setStatus(UserFile.Status.ACTIVE);
+        file.setSizeBytes(sizeBytes);
+        file.setUploadExpiresAt(null);
+        return file;
+    }
+
+    /**
+     * Flip a PENDING upload to FAILED and release its reserved quota.
+     * The row keeps the filename reserved until the caller or the sweeper has removed the content.
+     */
+    @Transactional
+    public void fail(UserFile file) {
+        if (fileRepository.markFailed(file.getId(), Instant.now())) {
+            quotaService.releasePendingUpload(file.getUserId(), file.getSizeBytes());
+            file.setStatus(UserFile.Status.FAILED);
+        }
+    }
+
+    /**
+     * Delete one batch of expired PENDING and FAILED uploads, release quota still reserved by them
+     * and enqueue their S3 content for deletion.
+     *
+     * @return the deleted uploads (incomplete multipart uploads for their keys still need aborting)
+     */
+    @Transactional
+    public List<UserFile> expire(Instant now, int limit) {
+        List<UserFile> expired = fileRepository.deleteExpiredUploads(now, limit);
+        expired.stream()
+            .filter(file -> file.getStatus() == UserFile.Status.PENDING)
+            .collect(Collectors.groupingBy(UserFile::getUserId, Collectors.summingLong(UserFile::getSizeBytes)))
+            .forEach(quotaService::releasePendingUpload);
+        outboxRepository.enqueue(expired.stream().map(UserFile::getS3Key).toList(), now);
+        return expired;
+    }
+}
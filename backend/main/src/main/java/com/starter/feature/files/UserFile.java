@@ -6,6 +6,8 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Entity representing a user's uploaded file.
@@ -19,10 +21,51 @@ public class UserFile {
     private Long id;
     private Long userId;
     private String filename;  // Sanitized filename
-    private String s3Key;     // Full S3 key: users/{userId}/files/{uuid}-{sanitizedFilename}
+    private String s3Key;     // users/{userId}/files/{uuid}-{sanitizedFilename}, or blobs/{uuid} for shared content
     private Long sizeBytes;
     private String contentType;
-    private String thumbnailS3Key;  // Optional: thumbnail for images
+    private String thumbnailS3Key;  // Optional: thumbnail for images (grid size)
+    private String previewS3Key;    // Optional: larger rendition for images
+    private Long blobId;      // Set when the content is deduplicated (file_blobs); the object is shared
+    private StorageCodec codec;     // Null if the object is stored as uploaded
+    private Long storedSizeBytes;   // Object size when encoded; sizeBytes stays the logical size
+    private Status status;
+    private Instant uploadExpiresAt;  // Only set while PENDING or FAILED
     private Instant createdAt;
     private Instant updatedAt;
+
+    /**
+     * Bytes of the stored object (less than sizeBytes when encoded).
+     */
+    public long storedSize() {
+        return storedSizeBytes != null ? storedSizeBytes : sizeBytes;
+    }
+
+    /**
+     * S3 keys owned by this file and deleted with it (object, thumbnail and preview, if any).
+     * Shared blob content is not included: it is released through the blob's reference count.
+     */
+    public List<String> contentKeys() {
+        List<String> keys = new ArrayList<>(3);
+        if (blobId == null) {
+            keys.add(s3Key);
+        }
+        if (thumbnailS3Key != null) {
+            keys.add(thumbnailS3Key);
+        }
+        if (previewS3Key != null) {
+            keys.add(previewS3Key);
+        }
+        return keys;
+    }
+
+    /**
+     * Upload lifecycle: PENDING -> ACTIVE, or PENDING -> FAILED.
+     * Only ACTIVE files are visible to the user; PENDING and FAILED rows are removed by the sweeper.
+     */
+    public enum Status {
+        PENDING,
+        ACTIVE,
+        FAILED
+    }
 }
@@ -3,29 +3,39 @@ package com.starter.feature.files.config;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.retry.annotation.EnableRetry;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.awscore.client.builder.AwsClientBuilder;
+import software.amazon.awssdk.core.retry.RetryMode;
+import software.amazon.awssdk.core.retry.RetryPolicy;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 
 import jakarta.annotation.PostConstruct;
 
 import java.net.URI;
+import java.time.Duration;
 
 /**
  * Configuration for AWS S3 client and presigner.
- * Enables Spring Retry for S3 operations.
  * Supports LocalStack for local development (when s3-endpoint is set).
+ *
+ * The blocking S3Client always exists. With app.storage.s3-client.mode=async an S3AsyncClient on Netty is
+ * created as well and backs the CompletableFuture methods of S3Service; in sync mode those run the blocking
+ * client on virtual threads.
  */
 @Slf4j
 @Configuration
-@EnableRetry
+@ConditionalOnProperty(name = "app.storage.type", havingValue = "s3", matchIfMissing = true)
 @ConfigurationProperties(prefix = "app.storage")
 @Data
 public class S3Config {
@@ -35,6 +45,21 @@ public class S3Config {
     @Value("${app.storage.s3-endpoint:}")
     private String s3Endpoint;
 
+    @Value("${app.storage.s3-client.max-connections:64}")
+    private int maxConnections;
+
+    @Value("${app.storage.s3-client.connection-acquisition-timeout-ms:10000}")
+    private long connectionAcquisitionTimeoutMs;
+
+    @Value("${app.storage.s3-client.async-max-concurrency:256}")
+    private int asyncMaxConcurrency;
+
+    @Value("${app.storage.s3-client.async-max-pending-acquires:10000}")
+    private int asyncMaxPendingAcquires;
+
+    @Value("${app.storage.s3-retry-max-attempts:3}")
+    private int retryMaxAttempts;
+
     @PostConstruct
     public void logConfiguration() {
         log.info(
@@ -60,44 +85,70 @@ public class S3Config {
             throw new IllegalStateException("S3_BUCKET_NAME must be set in environment variables");
         }
 
-        var builder = S3Client.builder()
+        S3Client client = configure(S3Client.builder())
+            .httpClientBuilder(ApacheHttpClient.builder()
+                .maxConnections(maxConnections)
+                .connectionAcquisitionTimeout(Duration.ofMillis(connectionAcquisitionTimeoutMs)))
+            .build();
+        log.info("S3Client created successfully for bucket: {}", s3BucketName);
+        return client;
+    }
+
+    /**
+     * Non-blocking client; concurrency is bounded by the Netty connection pool instead of request threads.
+     * Spring Retry does not apply to futures, so retries use the SDK policy with the same attempt count.
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "app.storage.s3-client.mode", havingValue = "async")
+    public S3AsyncClient s3AsyncClient() {
+        log.info(
+            "Creating S3AsyncClient bean - maxConcurrency: {}, maxPendingAcquires: {}",
+            asyncMaxConcurrency, asyncMaxPendingAcquires
+        );
+        return configure(S3AsyncClient.builder())
+            .httpClientBuilder(NettyNioAsyncHttpClient.builder()
+                .maxConcurrency(asyncMaxConcurrency)
+                .maxPendingConnectionAcquires(asyncMaxPendingAcquires)
+                .connectionAcquisitionTimeout(Duration.ofMillis(connectionAcquisitionTimeoutMs)))
+            .overrideConfiguration(override -> override.retryPolicy(
+                RetryPolicy.builder(RetryMode.STANDARD).numRetries(retryMaxAttempts - 1).build()
+            ))
+            .build();
+    }
+
+    @Bean
+    public S3Presigner s3Presigner() {
+        var builder = S3Presigner.builder()
             .region(Region.of(s3Region));
 
         // Use LocalStack if endpoint is configured (local development)
         if (s3Endpoint != null && !s3Endpoint.isBlank()) {
-            log.info("Using LocalStack S3 endpoint: {}", s3Endpoint);
+            log.info("Using LocalStack S3 presigner endpoint: {}", s3Endpoint);
             builder.endpointOverride(URI.create(s3Endpoint))
                 .credentialsProvider(
                     StaticCredentialsProvider.create(
                         AwsBasicCredentials.create("test", "test")
                     )
                 );
-        } else {
-            // Use default AWS credentials (production)
-            builder.credentialsProvider(DefaultCredentialsProvider.create());
         }
 
-        S3Client client = builder.build();
-        log.info("S3Client created successfully for bucket: {}", s3BucketName);
-        return client;
+        return builder.build();
     }
 
-    @Bean
-    public S3Presigner s3Presigner() {
-        var builder = S3Presigner.builder()
-            .region(Region.of(s3Region));
-
-        // Use LocalStack if endpoint is configured (local development)
+    /** Region, and LocalStack endpoint and credentials when configured (production uses the default chain). */
+    private <B extends AwsClientBuilder<B, ?>> B configure(B builder) {
+        builder.region(Region.of(s3Region));
         if (s3Endpoint != null && !s3Endpoint.isBlank()) {
-            log.info("Using LocalStack S3 presigner endpoint: {}", s3Endpoint);
+            log.info("Using LocalStack S3 endpoint: {}", s3Endpoint);
             builder.endpointOverride(URI.create(s3Endpoint))
                 .credentialsProvider(
                     StaticCredentialsProvider.create(
                         AwsBasicCredentials.create("test", "test")
                     )
                 );
+        } else {
+            builder.credentialsProvider(DefaultCredentialsProvider.create());
         }
-
-        return builder.build();
+        return builder;
     }
 }
@@ -0,0 +1,30 @@
+package com.starter.feature.files.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.multipart.MultipartResolver;
+import org.springframework.web.multipart.support.StandardServletMultipartResolver;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Replaces Spring Boot's default multipart resolver with one that leaves streaming upload requests
+ * untouched, so their body can be parsed as a stream instead of being spooled by the servlet container.
+ */
+@Configuration
+public class StreamingMultipartConfig {
+
+    /** Endpoints whose multipart body is parsed by the handler itself. */
+    public static final String STREAMING_UPLOAD_PATH = "/api/files/stream";
+
+    @Bean
+    public MultipartResolver multipartResolver() {
+        return new StandardServletMultipartResolver() {
+            @Override
+            public boolean isMultipart(HttpServletRequest request) {
+                String path = request.getRequestURI().substring(request.getContextPath().length());
+                return !path.equals(STREAMING_UPLOAD_PATH) && super.isMultipart(request);
+            }
+        };
+    }
+}
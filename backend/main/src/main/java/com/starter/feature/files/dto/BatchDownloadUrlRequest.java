@@ -0,0 +1,24 @@
+package com.starter.feature.files.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * Request DTO for download URLs of many files.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchDownloadUrlRequest {
+    @NotEmpty(message = "File IDs are required")
+    @Size(max = 200, message = "At most 200 files per request")
+    private List<Long> ids;
+}
@@ -0,0 +1,21 @@
+package com.starter.feature.files.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Response DTO for download URLs of many files.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchDownloadUrlResponse {
+    private Map<Long, String> downloadUrls;  // File ID -> presigned URL
+    private List<Long> missingIds;           // Not found or not owned by the user
+}
@@ -0,0 +1,33 @@
+package com.starter.feature.files.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Response DTO for a multi-file upload: one result per uploaded part, in request order.
+ * A result has either {@code file} (stored) or {@code error} (rejected or failed).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchUploadResponse {
+    private int uploadedCount;
+    private int failedCount;
+    private List<Result> results;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Result {
+        /** Filename as sent by the client. */
+        private String originalFilename;
+        private FileDto file;
+        private String error;
+    }
+}
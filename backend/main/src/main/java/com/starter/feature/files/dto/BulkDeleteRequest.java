@@ -0,0 +1,25 @@
+package com.starter.feature.files.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * Request DTO for bulk file deletion: either explicit IDs or a filter, not both.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkDeleteRequest {
+    @Size(max = 10000, message = "At most 10000 IDs per request")
+    private List<Long> ids;
+
+    private String contentType;  // Filter, e.g. image/*
+    private String search;       // Filter, filename substring
+}
@@ -0,0 +1,33 @@
+package com.starter.feature.files.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Response DTO for bulk file deletion.
+ * Files are always removed from the user's storage; failures only concern content left in S3,
+ * which is retried in the background.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkDeleteResponse {
+    private int deletedCount;
+    private long freedBytes;
+    private List<Failure> failures;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Failure {
+        private Long fileId;
+        private String filename;
+        private String error;
+    }
+}
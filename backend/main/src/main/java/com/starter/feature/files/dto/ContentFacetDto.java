@@ -0,0 +1,17 @@
+package com.starter.feature.files.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Data Transfer Object for the file count and size of one content type (e.g. image/*). */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ContentFacetDto {
+    private String contentType;
+    private long fileCount;
+    private long totalSizeBytes;
+}
@@ -0,0 +1,29 @@
+package com.starter.feature.files.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+/**
+ * Request DTO for reserving a direct-to-S3 upload.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreateUploadRequest {
+
+    @NotBlank(message = "Filename is required")
+    private String filename;
+
+    private String contentType;
+
+    @NotNull(message = "Size is required")
+    @Positive(message = "Size must be positive")
+    private Long sizeBytes;
+}
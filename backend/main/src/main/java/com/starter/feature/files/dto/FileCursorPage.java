@@ -0,0 +1,23 @@
+package com.starter.feature.files.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Response DTO for cursor (keyset) paginated file listing.
+ * Pass {@code nextCursor} back as {@code cursor} to fetch the next page; it is null on the last page.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FileCursorPage {
+    private List<FileDto> content;
+    private String nextCursor;
+    private boolean hasMore;
+    private Long totalElements;  // Only when requested with includeTotal=true
+}
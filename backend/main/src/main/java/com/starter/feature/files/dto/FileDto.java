@@ -20,4 +20,8 @@ public class FileDto {
     private Long sizeBytes;
     private String contentType;
     private Instant createdAt;
+    /** Presigned URL of the grid thumbnail; null until generated (and for non-images). */
+    private String thumbnailUrl;
+    /** Presigned URL of the larger preview rendition; null until generated. */
+    private String previewUrl;
 }
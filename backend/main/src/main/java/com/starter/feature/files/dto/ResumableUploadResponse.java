@@ -0,0 +1,26 @@
+package com.starter.feature.files.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Response DTO for a resumable upload.
+ * The client sends chunks of exactly {@code chunkSize} bytes (the last one may be shorter) starting at
+ * {@code uploadOffset}, then calls the complete endpoint with {@code fileId}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResumableUploadResponse {
+    private Long fileId;
+    private String filename;
+    private Long uploadLength;
+    private Long uploadOffset;
+    private Integer chunkSize;
+    private Instant expiresAt;
+}
@@ -0,0 +1,28 @@
+package com.starter.feature.files.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Response DTO for a reserved direct-to-S3 upload.
+ * The client sends the file with {@code method} to {@code uploadUrl} including all {@code headers},
+ * then calls the complete endpoint with {@code fileId}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadReservationResponse {
+    private Long fileId;
+    private String filename;
+    private String uploadUrl;
+    private String method;
+    private Map<String, List<String>> headers;
+    private Instant expiresAt;
+}
@@ -0,0 +1,18 @@
+package com.starter.feature.files.exception;
+
+/**
+ * Exception thrown when a resumable upload chunk does not start at the upload's current offset
+ * (a retried or concurrent chunk). The client should query the offset and continue from there.
+ */
+public class UploadOffsetMismatchException extends RuntimeException {
+    private final long currentOffset;
+
+    public UploadOffsetMismatchException(long requestedOffset, long currentOffset) {
+        super(String.format("Chunk offset %d does not match upload offset %d", requestedOffset, currentOffset));
+        this.currentOffset = currentOffset;
+    }
+
+    public long getCurrentOffset() {
+        return currentOffset;
+    }
+}
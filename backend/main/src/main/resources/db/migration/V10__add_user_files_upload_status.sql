@@ -0,0 +1,11 @@
+-- V10__add_user_files_upload_status.sql
+-- Upload lifecycle for user files: rows can be reserved (PENDING) before content reaches S3
+
+ALTER TABLE user_files ADD COLUMN status VARCHAR(20) NOT NULL DEFAULT 'ACTIVE';
+ALTER TABLE user_files ADD COLUMN upload_expires_at TIMESTAMP;
+
+-- Sweeper looks up expired reservations
+CREATE INDEX idx_user_files_pending_expiry ON user_files(upload_expires_at) WHERE status = 'PENDING';
+
+COMMENT ON COLUMN user_files.status IS 'PENDING = reserved, content not yet verified in S3; ACTIVE = visible to user';
+COMMENT ON COLUMN user_files.upload_expires_at IS 'When a PENDING reservation expires and is swept (NULL for ACTIVE files)';
@@ -0,0 +1,11 @@
+-- V11__add_user_files_keyset_indexes.sql
+-- Composite indexes for keyset (cursor) pagination of file listings.
+-- Each matches "WHERE user_id = ? AND status = 'ACTIVE' AND (col, id) < (?, ?) ORDER BY col, id",
+-- so a page is a bounded index range scan no matter how deep the cursor is.
+
+CREATE INDEX idx_user_files_user_created_id ON user_files(user_id, created_at, id) WHERE status = 'ACTIVE';
+CREATE INDEX idx_user_files_user_filename_id ON user_files(user_id, filename, id) WHERE status = 'ACTIVE';
+CREATE INDEX idx_user_files_user_size_id ON user_files(user_id, size_bytes, id) WHERE status = 'ACTIVE';
+
+-- Global created_at index is never used: every listing is scoped to a user
+DROP INDEX IF EXISTS idx_user_files_created_at;
@@ -0,0 +1,28 @@
+-- V12__add_user_storage_usage.sql
+-- Per-user storage counters, updated in the same transaction as user_files changes.
+-- Replaces SUM(size_bytes) ... FOR UPDATE over all of a user's files on every upload:
+-- the quota check is a single conditional upsert on one row.
+
+CREATE TABLE user_storage_usage (
+    user_id BIGINT PRIMARY KEY REFERENCES users(id) ON DELETE CASCADE,
+    bytes_used BIGINT NOT NULL DEFAULT 0,
+    file_count BIGINT NOT NULL DEFAULT 0,
+    reserved_bytes BIGINT NOT NULL DEFAULT 0,
+    version BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Backfill from existing files
+INSERT INTO user_storage_usage (user_id, bytes_used, file_count, reserved_bytes, version)
+SELECT user_id,
+       COALESCE(SUM(size_bytes) FILTER (WHERE status = 'ACTIVE'), 0),
+       COUNT(*) FILTER (WHERE status = 'ACTIVE'),
+       COALESCE(SUM(size_bytes) FILTER (WHERE status = 'PENDING'), 0),
+       1
+FROM user_files
+GROUP BY user_id;
+
+COMMENT ON TABLE user_storage_usage IS 'Incrementally maintained storage counters per user. user_files is the source of truth; StorageUsageReconciler repairs drift.';
+COMMENT ON COLUMN user_storage_usage.bytes_used IS 'Total size of ACTIVE files';
+COMMENT ON COLUMN user_storage_usage.reserved_bytes IS 'Total size of PENDING uploads (counts towards quota)';
+COMMENT ON COLUMN user_storage_usage.version IS 'Incremented on every change';
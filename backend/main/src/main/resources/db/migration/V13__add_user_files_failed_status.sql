@@ -0,0 +1,9 @@
+-- V13__add_user_files_failed_status.sql
+-- Server-side uploads are also tracked as PENDING rows while content is transferred to S3,
+-- and end as ACTIVE or FAILED. The sweeper removes expired PENDING and FAILED rows.
+
+DROP INDEX IF EXISTS idx_user_files_pending_expiry;
+CREATE INDEX idx_user_files_upload_expiry ON user_files(upload_expires_at) WHERE status IN ('PENDING', 'FAILED');
+
+COMMENT ON COLUMN user_files.status IS 'PENDING = content being transferred / not yet verified in S3; ACTIVE = visible to user; FAILED = upload failed, awaiting cleanup';
+COMMENT ON COLUMN user_files.upload_expires_at IS 'When a PENDING or FAILED row is swept (NULL for ACTIVE files)';
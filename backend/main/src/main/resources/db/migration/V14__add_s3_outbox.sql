@@ -0,0 +1,18 @@
+-- V14__add_s3_outbox.sql
+-- Transactional outbox for S3 deletes: keys are enqueued in the same transaction that removes
+-- the metadata, and S3OutboxWorker deletes them with retries. Nothing is orphaned when S3 is down.
+
+CREATE TABLE s3_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    s3_key VARCHAR(500) NOT NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    last_error TEXT,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Worker claims due rows in this order
+CREATE INDEX idx_s3_outbox_next_attempt ON s3_outbox(next_attempt_at);
+
+COMMENT ON TABLE s3_outbox IS 'S3 objects to delete, written in the same transaction as the metadata change';
+COMMENT ON COLUMN s3_outbox.next_attempt_at IS 'Claimed rows are leased by moving this forward; failures back off exponentially';
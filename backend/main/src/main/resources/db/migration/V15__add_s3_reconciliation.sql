@@ -0,0 +1,37 @@
+-- V15__add_s3_reconciliation.sql
+-- Orphan reconciliation between user_files and the S3 bucket.
+-- The job merge-joins S3 listings with user_files keys, both in S3's byte order (COLLATE "C").
+
+-- Keyset scans over keys in S3 order
+CREATE INDEX idx_user_files_s3_key_c ON user_files(s3_key COLLATE "C");
+CREATE INDEX idx_user_files_thumbnail_s3_key_c ON user_files(thumbnail_s3_key COLLATE "C")
+    WHERE thumbnail_s3_key IS NOT NULL;
+
+-- One row per run; last_key is the resume checkpoint
+CREATE TABLE s3_reconciliation_runs (
+    id BIGSERIAL PRIMARY KEY,
+    prefix VARCHAR(500) NOT NULL,
+    dry_run BOOLEAN NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'RUNNING',
+    last_key VARCHAR(500),
+    objects_scanned BIGINT NOT NULL DEFAULT 0,
+    rows_scanned BIGINT NOT NULL DEFAULT 0,
+    orphaned_objects BIGINT NOT NULL DEFAULT 0,
+    orphaned_bytes BIGINT NOT NULL DEFAULT 0,
+    dangling_rows BIGINT NOT NULL DEFAULT 0,
+    sample_orphans TEXT,
+    sample_dangling TEXT,
+    error TEXT,
+    started_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    finished_at TIMESTAMP
+);
+
+CREATE INDEX idx_s3_reconciliation_runs_prefix ON s3_reconciliation_runs(prefix, id DESC);
+
+COMMENT ON TABLE s3_reconciliation_runs IS 'S3 orphan reconciliation runs: progress checkpoint and report';
+COMMENT ON COLUMN s3_reconciliation_runs.last_key IS 'All keys <= last_key (byte order) are processed; an interrupted run resumes after it';
+COMMENT ON COLUMN s3_reconciliation_runs.sample_orphans IS 'First orphaned object keys found (newline separated, bounded)';
+
+-- At most one run in progress across all instances
+CREATE UNIQUE INDEX idx_s3_reconciliation_runs_running ON s3_reconciliation_runs((status)) WHERE status = 'RUNNING';
@@ -0,0 +1,27 @@
+-- V16__add_file_blobs.sql
+-- Content-addressed deduplication: identical content (same SHA-256) is stored once in S3 and
+-- shared by all user_files rows that reference it. Quota still charges every row its full size.
+
+CREATE TABLE file_blobs (
+    id BIGSERIAL PRIMARY KEY,
+    sha256 CHAR(64) NOT NULL,
+    size_bytes BIGINT NOT NULL,
+    s3_key VARCHAR(500) NOT NULL,
+    ref_count INT NOT NULL DEFAULT 0,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uq_file_blobs_sha256 UNIQUE (sha256),
+    CONSTRAINT uq_file_blobs_s3_key UNIQUE (s3_key),
+    CONSTRAINT chk_file_blobs_ref_count CHECK (ref_count >= 0)
+);
+
+-- Collector scans unreferenced blobs
+CREATE INDEX idx_file_blobs_unreferenced ON file_blobs(updated_at) WHERE ref_count = 0;
+
+-- Rows without a blob own their object (direct uploads, files from before deduplication)
+ALTER TABLE user_files ADD COLUMN blob_id BIGINT REFERENCES file_blobs(id);
+CREATE INDEX idx_user_files_blob_id ON user_files(blob_id) WHERE blob_id IS NOT NULL;
+
+COMMENT ON TABLE file_blobs IS 'Deduplicated file content; s3_key is blobs/{uuid}, unique per blob generation';
+COMMENT ON COLUMN file_blobs.ref_count IS 'Number of user_files rows referencing the blob; 0 = eligible for collection';
+COMMENT ON COLUMN user_files.blob_id IS 'Shared content; when set, s3_key is the blob key and the object is not owned by this row';
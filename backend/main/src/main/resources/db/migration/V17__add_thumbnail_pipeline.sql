@@ -0,0 +1,27 @@
+-- V17__add_thumbnail_pipeline.sql
+-- Background thumbnail generation for image files (ThumbnailWorker).
+-- Two renditions: thumbnail_s3_key (grid) and preview_s3_key (larger preview).
+-- The queue lives on user_files: rows are enqueued on activation and claimed with a lease.
+
+ALTER TABLE user_files
+    ADD COLUMN preview_s3_key VARCHAR(500),
+    ADD COLUMN thumbnail_state VARCHAR(20),
+    ADD COLUMN thumbnail_attempts INT NOT NULL DEFAULT 0,
+    ADD COLUMN thumbnail_requested_at TIMESTAMP,
+    ADD COLUMN thumbnail_next_attempt_at TIMESTAMP;
+
+-- Worker claims due jobs in this order
+CREATE INDEX idx_user_files_thumbnail_queue ON user_files(thumbnail_next_attempt_at)
+    WHERE thumbnail_state = 'PENDING';
+
+-- Orphan reconciliation scans preview keys in S3 order
+CREATE INDEX idx_user_files_preview_s3_key_c ON user_files(preview_s3_key COLLATE "C")
+    WHERE preview_s3_key IS NOT NULL;
+
+-- Existing images get thumbnails too
+UPDATE user_files
+SET thumbnail_state = 'PENDING', thumbnail_requested_at = CURRENT_TIMESTAMP, thumbnail_next_attempt_at = CURRENT_TIMESTAMP
+WHERE status = 'ACTIVE' AND content_type LIKE 'image/%' AND thumbnail_s3_key IS NULL;
+
+COMMENT ON COLUMN user_files.thumbnail_state IS 'NULL = not an image; PENDING = queued; DONE; FAILED = unreadable or out of attempts';
+COMMENT ON COLUMN user_files.thumbnail_next_attempt_at IS 'Claimed jobs are leased by moving this forward; failures back off';
@@ -0,0 +1,18 @@
+-- V18__add_resumable_uploads.sql
+-- Resumable (tus-style) uploads: a PENDING user_files row plus the state of its S3 multipart upload.
+-- Every chunk is one S3 part; offset and part ETags live here, so any instance can continue an upload,
+-- also after a restart. Rows go away with their user_files row (completion, expiry sweep, account delete).
+
+CREATE TABLE resumable_uploads (
+    file_id BIGINT PRIMARY KEY REFERENCES user_files(id) ON DELETE CASCADE,
+    s3_upload_id VARCHAR(1024) NOT NULL,
+    upload_length BIGINT NOT NULL CHECK (upload_length > 0),
+    chunk_size INT NOT NULL CHECK (chunk_size > 0),
+    upload_offset BIGINT NOT NULL DEFAULT 0,
+    part_etags TEXT[] NOT NULL DEFAULT '{}',
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CHECK (upload_offset BETWEEN 0 AND upload_length)
+);
+
+COMMENT ON COLUMN resumable_uploads.part_etags IS 'ETag of S3 part n at index n; chunk n covers bytes [(n-1) * chunk_size, n * chunk_size)';
@@ -0,0 +1,17 @@
+-- V19__add_storage_codec.sql
+-- Transparent compression of compressible uploads (text, JSON) on the streaming upload path.
+-- size_bytes stays the logical size (quota, listings, Content-Length of decoded downloads);
+-- stored_size_bytes is the size of the encoded object. Both are NULL for content stored as uploaded.
+-- Deduplicated content carries its codec on the blob, copied to every file that references it.
+
+ALTER TABLE user_files
+    ADD COLUMN codec VARCHAR(10),
+    ADD COLUMN stored_size_bytes BIGINT;
+
+ALTER TABLE file_blobs
+    ADD COLUMN codec VARCHAR(10),
+    ADD COLUMN stored_size_bytes BIGINT;
+
+COMMENT ON COLUMN user_files.codec IS 'NULL = stored as uploaded; GZIP = object is gzip-compressed (served with Content-Encoding or decoded)';
+COMMENT ON COLUMN user_files.stored_size_bytes IS 'Object size in storage when encoded; size_bytes is the logical size';
+COMMENT ON COLUMN file_blobs.codec IS 'Encoding of the blob object, see user_files.codec';
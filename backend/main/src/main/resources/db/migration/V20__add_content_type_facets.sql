@@ -0,0 +1,41 @@
+-- V20__add_content_type_facets.sql
+-- Content-type filters and facets without scanning the user's files.
+-- content_major / content_minor are the normalized halves of content_type (lower case, parameters dropped,
+-- missing type = application/octet-stream); generated, so every write path keeps them consistent.
+-- Adding STORED columns rewrites user_files once.
+
+ALTER TABLE user_files
+    ADD COLUMN content_major VARCHAR(100) GENERATED ALWAYS AS (
+        lower(btrim(split_part(COALESCE(content_type, 'application/octet-stream'), '/', 1)))
+    ) STORED,
+    ADD COLUMN content_minor VARCHAR(100) GENERATED ALWAYS AS (
+        lower(btrim(split_part(split_part(COALESCE(content_type, 'application/octet-stream'), ';', 1), '/', 2)))
+    ) STORED;
+
+-- Per-user type filter, newest first; id breaks ties for keyset paging
+CREATE INDEX idx_user_files_user_content_major ON user_files(user_id, content_major, created_at, id)
+WHERE status = 'ACTIVE';
+
+-- Not per-user, so the planner rarely used it
+DROP INDEX IF EXISTS idx_user_files_content_type;
+
+-- Per-user counters by major type, changed in the same transaction as user_files (like user_storage_usage)
+CREATE TABLE user_content_facets (
+    user_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    content_major VARCHAR(100) NOT NULL,
+    file_count BIGINT NOT NULL DEFAULT 0,
+    bytes_used BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (user_id, content_major)
+);
+
+INSERT INTO user_content_facets (user_id, content_major, file_count, bytes_used)
+SELECT user_id, content_major, COUNT(*), COALESCE(SUM(size_bytes), 0)
+FROM user_files
+WHERE status = 'ACTIVE'
+GROUP BY user_id, content_major;
+
+COMMENT ON COLUMN user_files.content_major IS 'Normalized major type of content_type (image in image/png)';
+COMMENT ON COLUMN user_files.content_minor IS 'Normalized subtype of content_type without parameters (png in image/png)';
+COMMENT ON TABLE user_content_facets IS 'ACTIVE file count and logical bytes per user and major type; rebuilt by StorageUsageReconciler on drift';
+COMMENT ON COLUMN user_content_facets.file_count IS 'Rows at zero are kept until reconciliation and hidden from the facets API';
@@ -0,0 +1,13 @@
+-- V21__add_filename_trigram_index.sql
+-- Filename search (ILIKE '%q%' substrings and fuzzy word matches with <%) served by a trigram index
+-- instead of reading every file of the user. btree_gin puts user_id in the same GIN index, so one user's
+-- matches are found without visiting other users' filenames.
+-- Both extensions ship with PostgreSQL (contrib) and are allowed on managed services (RDS, Cloud SQL).
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE EXTENSION IF NOT EXISTS btree_gin;
+
+CREATE INDEX idx_user_files_user_filename_trgm ON user_files USING gin (user_id, filename gin_trgm_ops)
+WHERE status = 'ACTIVE';
+
+COMMENT ON INDEX idx_user_files_user_filename_trgm IS 'Filename search of ACTIVE files (substring and similarity); see scripts/search-benchmark.sh';
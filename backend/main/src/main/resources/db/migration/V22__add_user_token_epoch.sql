@@ -0,0 +1,28 @@
+-- V22__add_user_token_epoch.sql
+-- Revoke a user's access tokens before they expire (role change, password reset, account deletion).
+-- Tokens carry the token_epoch they were issued with; incrementing it invalidates all earlier tokens.
+-- Instances keep the non-zero epochs in memory, updated by NOTIFY on commit and by polling token_epoch_changed_at.
+
+ALTER TABLE users
+    ADD COLUMN token_epoch INTEGER NOT NULL DEFAULT 0,
+    ADD COLUMN token_epoch_changed_at TIMESTAMP;
+
+-- Delta polling; users whose tokens were never revoked are not indexed
+CREATE INDEX idx_users_token_epoch_changed_at ON users(token_epoch_changed_at) WHERE token_epoch > 0;
+
+-- Payload "<user id>:<epoch>", delivered to listeners when the transaction commits
+CREATE FUNCTION notify_user_token_epoch() RETURNS trigger AS $$
+BEGIN
+    PERFORM pg_notify('user_token_epoch', NEW.id || ':' || NEW.token_epoch);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_users_token_epoch_notify
+    AFTER UPDATE OF token_epoch ON users
+    FOR EACH ROW
+    WHEN (NEW.token_epoch IS DISTINCT FROM OLD.token_epoch)
+    EXECUTE FUNCTION notify_user_token_epoch();
+
+COMMENT ON COLUMN users.token_epoch IS 'Access tokens issued with a lower epoch are rejected; only ever incremented';
+COMMENT ON COLUMN users.token_epoch_changed_at IS 'Last token_epoch increment, for instances polling for changes';
@@ -3,6 +3,8 @@ package com.starter.core.admin;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -10,13 +12,17 @@ import static org.mockito.Mockito.when;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import com.starter.core.admin.dto.AdminUserDto;
 import com.starter.core.exception.AdminOperationException;
+import com.starter.core.security.TokenEpochRepository;
 import com.starter.core.user.User;
 import com.starter.core.user.UserRepository;
+import com.starter.feature.files.FileService;
 
 import java.time.Instant;
 import java.util.List;
@@ -29,6 +35,9 @@ class AdminServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private TokenEpochRepository tokenEpochRepository;
+
     private AdminService adminService;
 
     private User testUser;
@@ -36,7 +45,7 @@ class AdminServiceTest {
 
     @BeforeEach
     void setUp() {
-        adminService = new AdminService(userRepository);
+        adminService = new AdminService(userRepository, tokenEpochRepository);
 
         testUser = User.builder()
             .id(1L)
@@ -84,6 +93,7 @@ class AdminServiceTest {
         AdminUserDto result = adminService.changeUserRole(1L, User.Role.ADMIN, 2L);
 
         verify(userRepository).updateRole(1L, User.Role.ADMIN);
+        verify(tokenEpochRepository).increment(1L);
         assertThat(result.getRole()).isEqualTo("ADMIN");
     }
 
@@ -128,6 +138,19 @@ class AdminServiceTest {
         verify(userRepository).deleteById(1L);
     }
 
+    @Test
+    void deleteUser_shouldEnqueueFileContent_beforeCascadeDelete() {
+        FileService fileService = mock(FileService.class);
+        ReflectionTestUtils.setField(adminService, "fileService", fileService);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+
+        adminService.deleteUser(1L, 2L);
+
+        InOrder inOrder = inOrder(fileService, userRepository);
+        inOrder.verify(fileService).enqueueAllContentDeletion(1L);
+        inOrder.verify(userRepository).deleteById(1L);
+    }
+
     @Test
     void deleteUser_shouldThrow_whenDeletingAdmin() {
         when(userRepository.findById(2L)).thenReturn(Optional.of(adminUser));
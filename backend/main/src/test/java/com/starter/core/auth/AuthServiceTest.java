@@ -2,15 +2,20 @@ package com.starter.core.auth;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.security.crypto.password.PasswordEncoder;
 
 import com.starter.core.admin.LoginHistoryService;
 import com.starter.core.auth.dto.AuthResponse;
@@ -19,14 +24,22 @@ import com.starter.core.auth.dto.RegisterRequest;
 import com.starter.core.config.SecurityTokenConfig;
 import com.starter.core.email.EmailService;
 import com.starter.core.exception.InvalidCredentialsException;
+import com.starter.core.exception.LoginThrottledException;
+import com.starter.core.exception.PasswordHashingOverloadedException;
 import com.starter.core.security.JwtUtil;
+import com.starter.core.security.PasswordHasher;
+import com.starter.core.security.PasswordHasher.Lane;
+import com.starter.core.security.TokenEpochRepository;
 import com.starter.core.user.User;
 import com.starter.core.user.UserRepository;
 import com.starter.core.user.UserService;
 import com.starter.shared.util.TokenGenerator;
 
+import java.time.Clock;
 import java.time.Instant;
+import java.time.ZoneOffset;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 /** Unit tests for AuthService. */
 @ExtendWith(MockitoExtension.class)
@@ -39,7 +52,7 @@ class AuthServiceTest {
     private UserRepository userRepository;
 
     @Mock
-    private PasswordEncoder passwordEncoder;
+    private PasswordHasher passwordHasher;
 
     @Mock
     private JwtUtil jwtUtil;
@@ -59,10 +72,17 @@ class AuthServiceTest {
     @Mock
     private LoginHistoryService loginHistoryService;
 
+    @Mock
+    private LoginThrottle loginThrottle;
+
+    @Mock
+    private TokenEpochRepository tokenEpochRepository;
+
     private AuthService authService;
 
     private static final String TEST_IP = "192.168.1.1";
     private static final String TEST_USER_AGENT = "Mozilla/5.0 Test";
+    private static final Instant NOW = Instant.parse("2024-01-01T10:00:00Z");
 
     @BeforeEach
     void setUp() {
@@ -70,13 +90,15 @@ class AuthServiceTest {
             new AuthService(
                 userService,
                 userRepository,
-                passwordEncoder,
+                passwordHasher,
                 jwtUtil,
                 emailVerificationService,
                 emailService,
                 tokenGenerator,
                 securityTokenConfig,
-                loginHistoryService
+                loginHistoryService,
+                loginThrottle,
+                tokenEpochRepository
             );
     }
 
@@ -98,7 +120,7 @@ class AuthServiceTest {
                 .updatedAt(now)
                 .build();
 
-        when(passwordEncoder.encode("password123")).thenReturn("hashedPassword");
+        when(passwordHasher.encode("password123", Lane.STANDARD)).thenReturn("hashedPassword");
         when(userService.createUser("new@example.com", "hashedPassword", User.Role.USER))
             .thenReturn(savedUser);
         when(jwtUtil.generateToken(savedUser)).thenReturn("jwt-token");
@@ -113,7 +135,7 @@ class AuthServiceTest {
         assertThat(response.getRole()).isEqualTo("USER");
         assertThat(response.isEmailVerified()).isFalse();
 
-        verify(passwordEncoder).encode("password123");
+        verify(passwordHasher).encode("password123", Lane.STANDARD);
         verify(userService).createUser("new@example.com", "hashedPassword", User.Role.USER);
         verify(emailVerificationService).sendVerificationEmail(savedUser);
         verify(jwtUtil).generateToken(savedUser);
@@ -138,7 +160,7 @@ class AuthServiceTest {
                 .build();
 
         when(userService.findByEmail("user@example.com")).thenReturn(Optional.of(user));
-        when(passwordEncoder.matches("password123", "hashedPassword")).thenReturn(true);
+        when(passwordHasher.matches("password123", "hashedPassword", Lane.STANDARD)).thenReturn(true);
         when(jwtUtil.generateToken(user)).thenReturn("jwt-token");
 
         // when
@@ -150,6 +172,121 @@ class AuthServiceTest {
         assertThat(response.getEmail()).isEqualTo("user@example.com");
         assertThat(response.getRole()).isEqualTo("USER");
         assertThat(response.isEmailVerified()).isTrue();
+        verify(loginThrottle).release("user@example.com", TEST_IP);
+    }
+
+    @Test
+    void login_shouldRehashInBackground_whenStoredHashIsOutdated() {
+        // given
+        LoginRequest request =
+            LoginRequest.builder().email("user@example.com").password("password123").build();
+        User user =
+            User.builder()
+                .id(1L)
+                .email("user@example.com")
+                .password("$2a$10$legacyHash")
+                .role(User.Role.USER)
+                .emailVerified(true)
+                .build();
+
+        when(userService.findByEmail("user@example.com")).thenReturn(Optional.of(user));
+        when(passwordHasher.matches("password123", "$2a$10$legacyHash", Lane.STANDARD)).thenReturn(true);
+        when(passwordHasher.needsRehash("$2a$10$legacyHash")).thenReturn(true);
+        when(passwordHasher.encodeAsync("password123", Lane.BACKGROUND))
+            .thenReturn(CompletableFuture.completedFuture("{bcrypt}$2a$12$newHash"));
+        when(jwtUtil.generateToken(user)).thenReturn("jwt-token");
+
+        // when
+        AuthResponse response = authService.login(request, TEST_IP, TEST_USER_AGENT);
+
+        // then
+        assertThat(response.getToken()).isEqualTo("jwt-token");
+        verify(userRepository, timeout(1000))
+            .replacePasswordHash(1L, "$2a$10$legacyHash", "{bcrypt}$2a$12$newHash");
+    }
+
+    @Test
+    void login_shouldSucceedWithoutRehash_whenHashingIsBusy() {
+        // given
+        LoginRequest request =
+            LoginRequest.builder().email("user@example.com").password("password123").build();
+        User user =
+            User.builder()
+                .id(1L)
+                .email("user@example.com")
+                .password("$2a$10$legacyHash")
+                .role(User.Role.USER)
+                .emailVerified(true)
+                .build();
+
+        when(userService.findByEmail("user@example.com")).thenReturn(Optional.of(user));
+        when(passwordHasher.matches("password123", "$2a$10$legacyHash", Lane.STANDARD)).thenReturn(true);
+        when(passwordHasher.needsRehash("$2a$10$legacyHash")).thenReturn(true);
+        when(passwordHasher.encodeAsync("password123", Lane.BACKGROUND))
+            .thenThrow(new PasswordHashingOverloadedException(2));
+        when(jwtUtil.generateToken(user)).thenReturn("jwt-token");
+
+        // when
+        AuthResponse response = authService.login(request, TEST_IP, TEST_USER_AGENT);
+
+        // then
+        assertThat(response.getToken()).isEqualTo("jwt-token");
+        verify(userRepository, never()).replacePasswordHash(any(), any(), any());
+    }
+
+    @Test
+    void login_shouldRefundThrottleAttempt_whenHashingIsOverloaded() {
+        // given - a real throttle allowing 2 attempts per email
+        LoginThrottle throttle =
+            new LoginThrottle(new SimpleMeterRegistry(), true, 900, 2, 50, 1000, Clock.fixed(NOW, ZoneOffset.UTC));
+        AuthService service =
+            new AuthService(
+                userService,
+                userRepository,
+                passwordHasher,
+                jwtUtil,
+                emailVerificationService,
+                emailService,
+                tokenGenerator,
+                securityTokenConfig,
+                loginHistoryService,
+                throttle,
+                tokenEpochRepository
+            );
+        LoginRequest request =
+            LoginRequest.builder().email("user@example.com").password("password123").build();
+        User user =
+            User.builder().id(1L).email("user@example.com").password("hash").role(User.Role.USER).build();
+
+        when(userService.findByEmail("user@example.com")).thenReturn(Optional.of(user));
+        when(passwordHasher.matches("password123", "hash", Lane.STANDARD))
+            .thenThrow(new PasswordHashingOverloadedException(2));
+
+        // when - more overloaded retries than the budget allows
+        for (int i = 0; i < 3; i++) {
+            assertThatThrownBy(() -> service.login(request, TEST_IP, TEST_USER_AGENT))
+                .isInstanceOf(PasswordHashingOverloadedException.class);
+        }
+
+        // then - the full budget is left, and nothing was recorded as a failed login
+        throttle.acquire("user@example.com", TEST_IP);
+        throttle.acquire("user@example.com", TEST_IP);
+        assertThatThrownBy(() -> throttle.acquire("user@example.com", TEST_IP))
+            .isInstanceOf(LoginThrottledException.class);
+        verifyNoInteractions(loginHistoryService);
+    }
+
+    @Test
+    void login_shouldRejectBeforeLookupAndHashing_whenThrottled() {
+        // given
+        LoginRequest request =
+            LoginRequest.builder().email("User@Example.com").password("password123").build();
+        doThrow(new LoginThrottledException(60)).when(loginThrottle).acquire("user@example.com", TEST_IP);
+
+        // when & then
+        assertThatThrownBy(() -> authService.login(request, TEST_IP, TEST_USER_AGENT))
+            .isInstanceOf(LoginThrottledException.class);
+        verifyNoInteractions(userService, passwordHasher, loginHistoryService);
     }
 
     @Test
@@ -183,7 +320,7 @@ class AuthServiceTest {
                 .build();
 
         when(userService.findByEmail("user@example.com")).thenReturn(Optional.of(user));
-        when(passwordEncoder.matches("wrongPassword", "hashedPassword")).thenReturn(false);
+        when(passwordHasher.matches("wrongPassword", "hashedPassword", Lane.STANDARD)).thenReturn(false);
 
         // when & then
         assertThatThrownBy(() -> authService.login(request, TEST_IP, TEST_USER_AGENT))
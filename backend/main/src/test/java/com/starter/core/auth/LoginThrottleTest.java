@@ -0,0 +1,148 @@
+package com.starter.core.auth;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.starter.core.exception.LoginThrottledException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/** Unit tests for LoginThrottle. */
+class LoginThrottleTest {
+
+    private static final Instant START = Instant.parse("2024-01-01T10:00:00Z");
+    private static final String IP = "203.0.113.7";
+
+    private SimpleMeterRegistry meterRegistry;
+    private MutableClock clock;
+    private LoginThrottle throttle;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        clock = new MutableClock(START);
+        // 3 attempts per email, 5 per IP, per 10 minutes
+        throttle = new LoginThrottle(meterRegistry, true, 600, 3, 5, 1000, clock);
+    }
+
+    @Test
+    void acquire_shouldThrottleEmail_afterMaxFailedAttempts() {
+        // given
+        for (int i = 0; i < 3; i++) {
+            throttle.acquire("user@example.com", IP);
+        }
+
+        // when / then
+        assertThatThrownBy(() -> throttle.acquire("user@example.com", IP))
+            .isInstanceOf(LoginThrottledException.class)
+            .satisfies(e -> assertThat(((LoginThrottledException) e).getRetryAfterSeconds()).isEqualTo(800));
+        assertThat(meterRegistry.get("auth.login.throttled").tag("key", "email").counter().count()).isEqualTo(1);
+        throttle.acquire("other@example.com", IP);
+    }
+
+    @Test
+    void release_shouldRefundAttempt() {
+        // given
+        throttle.acquire("user@example.com", IP);
+        throttle.acquire("user@example.com", IP);
+
+        // when
+        throttle.acquire("user@example.com", IP);
+        throttle.release("user@example.com", IP);
+
+        // then
+        throttle.acquire("user@example.com", IP);
+        assertThatThrownBy(() -> throttle.acquire("user@example.com", IP))
+            .isInstanceOf(LoginThrottledException.class);
+    }
+
+    @Test
+    void acquire_shouldLetOldAttemptsSlideOutOfTheWindow() {
+        // given
+        for (int i = 0; i < 3; i++) {
+            throttle.acquire("user@example.com", IP);
+        }
+
+        // when - half of the previous window still overlaps: 3 * 0.5 = 1.5 attempts
+        clock.now = START.plus(Duration.ofMinutes(15));
+        throttle.acquire("user@example.com", IP);
+
+        // then - 1.5 + 1 attempts, a third would exceed the limit
+        assertThatThrownBy(() -> throttle.acquire("user@example.com", IP))
+            .isInstanceOf(LoginThrottledException.class);
+        clock.now = START.plus(Duration.ofMinutes(30));
+        throttle.acquire("user@example.com", IP);
+    }
+
+    @Test
+    void acquire_shouldThrottleIp_acrossEmails_withoutCountingTheEmail() {
+        // given
+        for (int i = 0; i < 5; i++) {
+            throttle.acquire("user" + i + "@example.com", IP);
+        }
+
+        // when / then
+        assertThatThrownBy(() -> throttle.acquire("victim@example.com", IP))
+            .isInstanceOf(LoginThrottledException.class);
+        assertThat(meterRegistry.get("auth.login.throttled").tag("key", "ip").counter().count()).isEqualTo(1);
+        for (int i = 0; i < 3; i++) {
+            throttle.acquire("victim@example.com", "198.51.100.1");
+        }
+    }
+
+    @Test
+    void acquire_shouldKeepMemoryBounded() {
+        // when
+        for (int i = 0; i < 10_000; i++) {
+            throttle.acquire("user" + i + "@example.com", null);
+        }
+
+        // then
+        assertThat(throttle.size()).isLessThanOrEqualTo(1000);
+    }
+
+    @Test
+    void acquire_shouldAllowEverything_whenDisabled() {
+        // given
+        LoginThrottle disabled = new LoginThrottle(meterRegistry, false, 600, 1, 1, 1000, clock);
+
+        // when
+        for (int i = 0; i < 10; i++) {
+            disabled.acquire("user@example.com", IP);
+        }
+
+        // then
+        assertThat(disabled.size()).isZero();
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.starter.core.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import com.starter.core.user.User;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.crypto.SecretKey;
+
+/**
+ * CPU time and allocation per authenticated request of the JWT filter path (JMH, {@code -prof gc}).
+ *
+ * freshParser is the path before the verified-token cache: a parser built per request, full verification and
+ * a principal with its own authority list. sharedParser is a cache miss now, cachedToken a hit, and
+ * cachedTokenContended a hit from 8 threads at once, each with its own token (lock contention on the cache;
+ * needs as many cores to mean anything). Compare {@code gc.alloc.rate.norm} (bytes per request) next to the
+ * time per operation. Not a test; run {@code ./gradlew :backend:main:jwtBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthenticationBenchmark {
+    private static final String SECRET = "benchmark-secret-key-with-at-least-32-characters";
+
+    private SecretKey secretKey;
+    private JwtUtil jwtUtil;
+    private VerifiedTokenCache tokenCache;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        secretKey = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        jwtUtil = new JwtUtil(SECRET, 3_600_000);
+        tokenCache = new VerifiedTokenCache(new SimpleMeterRegistry(), 10_000);
+        User user = User.builder()
+            .id(42L)
+            .email("benchmark@example.com")
+            .role(User.Role.USER)
+            .emailVerified(true)
+            .build();
+        token = jwtUtil.generateToken(user);
+        Claims claims = jwtUtil.validateToken(token);
+        tokenCache.put(token, principal(claims), claims.getExpiration().toInstant());
+    }
+
+    @Benchmark
+    public Object freshParser() {
+        Claims claims = Jwts.parser().verifyWith(secretKey).build().parseSignedClaims(token).getPayload();
+        UserPrincipal principal = principal(claims);
+        return List.of(new SimpleGrantedAuthority("ROLE_" + principal.getRole().name()));
+    }
+
+    @Benchmark
+    public Object sharedParser() {
+        return principal(jwtUtil.validateToken(token)).getAuthorities();
+    }
+
+    @Benchmark
+    public Object cachedToken() {
+        return tokenCache.get(token).getAuthorities();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Object cachedTokenContended(UserToken userToken) {
+        return tokenCache.get(userToken.token).getAuthorities();
+    }
+
+    /** A token per benchmark thread, as with many users signed in at once. */
+    @State(Scope.Thread)
+    public static class UserToken {
+        private static final AtomicLong USER_IDS = new AtomicLong(1000);
+
+        private String token;
+
+        @Setup
+        public void setUp(JwtAuthenticationBenchmark benchmark) {
+            User user = User.builder()
+                .id(USER_IDS.incrementAndGet())
+                .email("benchmark@example.com")
+                .role(User.Role.USER)
+                .emailVerified(true)
+                .build();
+            token = benchmark.jwtUtil.generateToken(user);
+            Claims claims = benchmark.jwtUtil.validateToken(token);
+            benchmark.tokenCache.put(token, principal(claims), claims.getExpiration().toInstant());
+        }
+    }
+
+    private static UserPrincipal principal(Claims claims) {
+        return UserPrincipal.builder()
+            .id(Long.parseLong(claims.getSubject()))
+            .email(claims.get("email", String.class))
+            .role(User.Role.valueOf(claims.get("role", String.class)))
+            .emailVerified(Boolean.TRUE.equals(claims.get("emailVerified", Boolean.class)))
+            .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+            .include(JwtAuthenticationBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .build()
+        ).run();
+    }
+}
@@ -2,10 +2,12 @@ package com.starter.core.security;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -17,6 +19,9 @@ import jakarta.servlet.FilterChain;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
+import java.time.Instant;
+import java.util.Date;
+
 /** Unit tests for JwtAuthenticationFilter. */
 @ExtendWith(MockitoExtension.class)
 class JwtAuthenticationFilterTest {
@@ -24,11 +29,17 @@ class JwtAuthenticationFilterTest {
     @Mock
     private JwtUtil jwtUtil;
 
+    @Mock
+    private TokenEpochRepository tokenEpochRepository;
+
+    private TokenEpochs tokenEpochs;
     private JwtAuthenticationFilter filter;
 
     @BeforeEach
     void setUp() {
-        filter = new JwtAuthenticationFilter(jwtUtil);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        tokenEpochs = new TokenEpochs(tokenEpochRepository, meterRegistry, 300);
+        filter = new JwtAuthenticationFilter(jwtUtil, new VerifiedTokenCache(meterRegistry, 100), tokenEpochs);
         SecurityContextHolder.clearContext();
     }
 
@@ -98,6 +109,46 @@ class JwtAuthenticationFilterTest {
         assertThat(principal.getRole().name()).isEqualTo("USER");
     }
 
+    @Test
+    void shouldReuseVerifiedPrincipal_whenSameTokenIsSentAgain() throws Exception {
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        FilterChain chain = mock(FilterChain.class);
+
+        Claims claims = createMockClaims("123", "test@example.com", "USER");
+
+        when(request.getHeader("Authorization")).thenReturn("Bearer valid-token");
+        when(jwtUtil.validateToken("valid-token")).thenReturn(claims);
+
+        filter.doFilterInternal(request, response, chain);
+        Object first = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        SecurityContextHolder.clearContext();
+        filter.doFilterInternal(request, response, chain);
+
+        verify(jwtUtil, times(1)).validateToken("valid-token");
+        assertThat(SecurityContextHolder.getContext().getAuthentication().getPrincipal()).isSameAs(first);
+    }
+
+    @Test
+    void shouldContinueWithoutAuth_whenCachedTokenWasRevoked() throws Exception {
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        FilterChain chain = mock(FilterChain.class);
+
+        Claims claims = createMockClaims("123", "test@example.com", "USER");
+
+        when(request.getHeader("Authorization")).thenReturn("Bearer valid-token");
+        when(jwtUtil.validateToken("valid-token")).thenReturn(claims);
+
+        filter.doFilterInternal(request, response, chain);
+        SecurityContextHolder.clearContext();
+        tokenEpochs.apply(123L, 1);
+        filter.doFilterInternal(request, response, chain);
+
+        verify(chain, times(2)).doFilter(request, response);
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+    }
+
     @Test
     void shouldContinueWithoutAuth_whenClaimsMissingEmail() throws Exception {
         HttpServletRequest request = mock(HttpServletRequest.class);
@@ -171,6 +222,8 @@ class JwtAuthenticationFilterTest {
         org.mockito.Mockito.lenient().when(claims.getSubject()).thenReturn(subject);
         org.mockito.Mockito.lenient().when(claims.get("email", String.class)).thenReturn(email);
         org.mockito.Mockito.lenient().when(claims.get("role", String.class)).thenReturn(role);
+        org.mockito.Mockito.lenient().when(claims.getExpiration())
+            .thenReturn(Date.from(Instant.now().plusSeconds(3600)));
         return claims;
     }
 }
@@ -0,0 +1,81 @@
+package com.starter.core.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+
+/** Unit tests for PasswordEncoderCalibrator. */
+class PasswordEncoderCalibratorTest {
+
+    private static final long MILLIS = 1_000_000L;
+    private static final Duration TARGET = Duration.ofMillis(200);
+
+    @Test
+    void scaleBcryptCost_shouldPickLargestCostWithinTarget() {
+        // 50 ms at cost 10: 100 ms at 11, 200 ms at 12, 400 ms at 13
+        assertThat(PasswordEncoderCalibrator.scaleBcryptCost(10, 50 * MILLIS, 200 * MILLIS)).isEqualTo(12);
+        assertThat(PasswordEncoderCalibrator.scaleBcryptCost(10, 50 * MILLIS, 199 * MILLIS)).isEqualTo(11);
+    }
+
+    @Test
+    void scaleBcryptCost_shouldStayWithinBounds() {
+        assertThat(PasswordEncoderCalibrator.scaleBcryptCost(10, 500 * MILLIS, 200 * MILLIS))
+            .isEqualTo(PasswordEncoderCalibrator.MIN_BCRYPT_COST);
+        assertThat(PasswordEncoderCalibrator.scaleBcryptCost(10, 1, 60_000 * MILLIS))
+            .isEqualTo(PasswordEncoderCalibrator.MAX_BCRYPT_COST);
+    }
+
+    @Test
+    void scaleArgon2Iterations_shouldScaleLinearlyWithinBounds() {
+        // 40 ms for 2 iterations = 20 ms each
+        assertThat(PasswordEncoderCalibrator.scaleArgon2Iterations(2, 40 * MILLIS, 200 * MILLIS)).isEqualTo(10);
+        assertThat(PasswordEncoderCalibrator.scaleArgon2Iterations(2, 40 * MILLIS, 130 * MILLIS)).isEqualTo(6);
+        assertThat(PasswordEncoderCalibrator.scaleArgon2Iterations(2, 400 * MILLIS, 200 * MILLIS))
+            .isEqualTo(PasswordEncoderCalibrator.MIN_ARGON2_ITERATIONS);
+    }
+
+    @Test
+    void create_shouldVerifyLegacyHashes_andReportWeakerOnesForRehash() {
+        // given
+        PasswordEncoder encoder = PasswordEncoderCalibrator.create("bcrypt", TARGET, 11, 1024, 2);
+        String legacyHash = new BCryptPasswordEncoder(10).encode("secret");
+
+        // when
+        String currentHash = encoder.encode("secret");
+
+        // then
+        assertThat(currentHash).startsWith("{bcrypt}$2a$11$");
+        assertThat(encoder.matches("secret", legacyHash)).isTrue();
+        assertThat(encoder.matches("secret", currentHash)).isTrue();
+        assertThat(encoder.upgradeEncoding(legacyHash)).isTrue();
+        assertThat(encoder.upgradeEncoding(currentHash)).isFalse();
+    }
+
+    @Test
+    void create_shouldHashWithArgon2id_andRehashBcrypt() {
+        // given
+        PasswordEncoder encoder = PasswordEncoderCalibrator.create("argon2id", TARGET, 0, 1024, 2);
+        String bcryptHash = "{bcrypt}" + new BCryptPasswordEncoder(10).encode("secret");
+
+        // when
+        String currentHash = encoder.encode("secret");
+
+        // then
+        assertThat(currentHash).startsWith("{argon2id}$argon2id$");
+        assertThat(encoder.matches("secret", currentHash)).isTrue();
+        assertThat(encoder.matches("secret", bcryptHash)).isTrue();
+        assertThat(encoder.upgradeEncoding(bcryptHash)).isTrue();
+        assertThat(encoder.upgradeEncoding(currentHash)).isFalse();
+    }
+
+    @Test
+    void create_shouldRejectUnknownAlgorithm() {
+        assertThatThrownBy(() -> PasswordEncoderCalibrator.create("md5", TARGET, 0, 1024, 0))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
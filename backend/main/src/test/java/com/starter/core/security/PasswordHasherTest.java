@@ -0,0 +1,139 @@
+package com.starter.core.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.starter.core.exception.PasswordHashingOverloadedException;
+import com.starter.core.security.PasswordHasher.Lane;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BooleanSupplier;
+
+/** Unit tests for PasswordHasher. */
+class PasswordHasherTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private BlockingEncoder encoder;
+    private ExecutorService callers;
+    private PasswordHasher hasher;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        encoder = new BlockingEncoder();
+        callers = Executors.newCachedThreadPool();
+        // One hashing thread, one standard queue slot, one priority slot
+        hasher = new PasswordHasher(encoder, meterRegistry, 1, 1, 1, 5);
+    }
+
+    @AfterEach
+    void tearDown() {
+        encoder.release.countDown();
+        callers.shutdownNow();
+        hasher.shutdown();
+    }
+
+    @Test
+    void encodeAndMatches_shouldDelegateOnHashingThread() {
+        // given
+        encoder.release.countDown();
+
+        // when
+        String hash = hasher.encode("secret", Lane.STANDARD);
+        boolean matches = hasher.matches("secret", hash, Lane.PRIORITY);
+
+        // then
+        assertThat(hash).isEqualTo("hashed:secret");
+        assertThat(matches).isTrue();
+        assertThat(encoder.threads).allMatch(name -> name.startsWith("password-hash-"));
+        assertThat(meterRegistry.get("password.hashing.latency").tag("operation", "encode").timer().count())
+            .isEqualTo(1);
+    }
+
+    @Test
+    void encode_shouldShedStandardLane_whenThreadsAndQueueAreFull() {
+        // given
+        CompletableFuture<String> running = encodeAsync("running", Lane.STANDARD);
+        waitUntil(() -> encoder.started.getCount() == 0);
+        CompletableFuture<String> queued = encodeAsync("queued", Lane.STANDARD);
+        waitUntil(() -> hasher.queued() == 1);
+
+        // when / then
+        assertThatThrownBy(() -> hasher.encode("shed", Lane.STANDARD))
+            .isInstanceOf(PasswordHashingOverloadedException.class)
+            .satisfies(e -> assertThat(((PasswordHashingOverloadedException) e).getRetryAfterSeconds()).isEqualTo(5));
+        assertThat(meterRegistry.get("password.hashing.rejected").tag("lane", "standard").counter().count())
+            .isEqualTo(1);
+
+        encoder.release.countDown();
+        assertThat(running.join()).isEqualTo("hashed:running");
+        assertThat(queued.join()).isEqualTo("hashed:queued");
+    }
+
+    @Test
+    void encode_shouldAdmitPriorityLaneAheadOfQueuedStandardWork() {
+        // given
+        CompletableFuture<String> running = encodeAsync("running", Lane.STANDARD);
+        waitUntil(() -> encoder.started.getCount() == 0);
+        CompletableFuture<String> standard = encodeAsync("standard", Lane.STANDARD);
+        waitUntil(() -> hasher.queued() == 1);
+
+        // when
+        CompletableFuture<String> priority = encodeAsync("priority", Lane.PRIORITY);
+        waitUntil(() -> hasher.queued() == 2);
+        encoder.release.countDown();
+
+        // then
+        CompletableFuture.allOf(running, standard, priority).join();
+        assertThat(encoder.order).containsExactly("running", "priority", "standard");
+    }
+
+    private CompletableFuture<String> encodeAsync(String rawPassword, Lane lane) {
+        return CompletableFuture.supplyAsync(() -> hasher.encode(rawPassword, lane), callers);
+    }
+
+    private static void waitUntil(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition not met within 5s").isLessThan(deadline);
+            Thread.onSpinWait();
+        }
+    }
+
+    /** Encoder whose hashes wait until released, recording order and threads. */
+    private static class BlockingEncoder implements PasswordEncoder {
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final List<String> order = new CopyOnWriteArrayList<>();
+        private final List<String> threads = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            order.add(rawPassword.toString());
+            threads.add(Thread.currentThread().getName());
+            return "hashed:" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encode(rawPassword).equals(encodedPassword);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.starter.core.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/** Unit tests for TokenEpochs. */
+@ExtendWith(MockitoExtension.class)
+class TokenEpochsTest {
+
+    private static final Instant CHANGED_AT = Instant.parse("2024-01-01T10:00:00Z");
+
+    @Mock
+    private TokenEpochRepository repository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private TokenEpochs tokenEpochs;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        tokenEpochs = new TokenEpochs(repository, meterRegistry, 300);
+    }
+
+    @Test
+    void isCurrent_shouldRejectTokensIssuedBeforeRevocation() {
+        // given
+        tokenEpochs.apply(42L, 2);
+
+        // when / then
+        assertThat(tokenEpochs.isCurrent(42L, 1)).isFalse();
+        assertThat(tokenEpochs.isCurrent(42L, 2)).isTrue();
+        assertThat(tokenEpochs.isCurrent(7L, 0)).isTrue();
+        assertThat(meterRegistry.get("jwt.token.revoked").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void apply_shouldIgnoreOlderEpochs() {
+        // given
+        tokenEpochs.apply(42L, 3);
+
+        // when
+        tokenEpochs.apply(42L, 2);
+
+        // then
+        assertThat(tokenEpochs.isCurrent(42L, 2)).isFalse();
+        assertThat(tokenEpochs.size()).isEqualTo(1);
+    }
+
+    @Test
+    void load_shouldReadAll_thenRefreshPollsDeltasWithOverlap() {
+        // given
+        when(repository.forEachChangedSince(isNull(), any())).thenAnswer(invocation -> {
+            TokenEpochRepository.EpochConsumer consumer = invocation.getArgument(1);
+            consumer.accept(1L, 1);
+            consumer.accept(2L, 4);
+            return CHANGED_AT;
+        });
+        doAnswer(invocation -> {
+            TokenEpochRepository.EpochConsumer consumer = invocation.getArgument(1);
+            consumer.accept(1L, 2);
+            return null;
+        }).when(repository).forEachChangedSince(eq(CHANGED_AT.minus(Duration.ofSeconds(300))), any());
+
+        // when
+        tokenEpochs.load();
+        tokenEpochs.refresh();
+
+        // then
+        assertThat(tokenEpochs.isCurrent(1L, 1)).isFalse();
+        assertThat(tokenEpochs.isCurrent(1L, 2)).isTrue();
+        assertThat(tokenEpochs.isCurrent(2L, 4)).isTrue();
+    }
+
+    @Test
+    void load_shouldFailStartup_whenEpochsCannotBeRead() {
+        // given
+        when(repository.forEachChangedSince(isNull(), any())).thenThrow(new IllegalStateException("db down"));
+
+        // when / then
+        assertThatThrownBy(() -> tokenEpochs.load()).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void apply_shouldKeepAllUsers_acrossResizes() {
+        // when
+        for (long userId = 1; userId <= 5000; userId++) {
+            tokenEpochs.apply(userId, (int) (userId % 7) + 1);
+        }
+
+        // then
+        assertThat(tokenEpochs.size()).isEqualTo(5000);
+        for (long userId = 1; userId <= 5000; userId++) {
+            int epoch = (int) (userId % 7) + 1;
+            assertThat(tokenEpochs.isCurrent(userId, epoch)).isTrue();
+            assertThat(tokenEpochs.isCurrent(userId, epoch - 1)).isFalse();
+        }
+    }
+}
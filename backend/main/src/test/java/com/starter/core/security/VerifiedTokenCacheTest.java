@@ -0,0 +1,119 @@
+package com.starter.core.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.starter.core.user.User;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/** Unit tests for VerifiedTokenCache. */
+class VerifiedTokenCacheTest {
+
+    private static final Instant START = Instant.parse("2024-01-01T10:00:00Z");
+
+    private SimpleMeterRegistry meterRegistry;
+    private MutableClock clock;
+    private VerifiedTokenCache cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        clock = new MutableClock(START);
+        cache = new VerifiedTokenCache(meterRegistry, 2, 1, clock);
+    }
+
+    @Test
+    void get_shouldReturnPrincipal_untilTokenExpires() {
+        // given
+        UserPrincipal principal = principal(1L);
+        cache.put("token", principal, START.plus(Duration.ofMinutes(15)));
+
+        // when
+        UserPrincipal beforeExpiry = cache.get("token");
+        clock.now = START.plus(Duration.ofMinutes(15));
+        UserPrincipal atExpiry = cache.get("token");
+
+        // then
+        assertThat(beforeExpiry).isSameAs(principal);
+        assertThat(atExpiry).isNull();
+        assertThat(cache.size()).isZero();
+        assertThat(meterRegistry.get("jwt.token.cache.requests").tag("result", "hit").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void put_shouldEvictLeastRecentlyUsed_whenFull() {
+        // given
+        Instant expiresAt = START.plus(Duration.ofHours(1));
+        cache.put("a", principal(1L), expiresAt);
+        cache.put("b", principal(2L), expiresAt);
+        cache.get("a");
+
+        // when
+        cache.put("c", principal(3L), expiresAt);
+
+        // then
+        assertThat(cache.get("a")).isNotNull();
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.get("c")).isNotNull();
+    }
+
+    @Test
+    void put_shouldBoundEachStripe_whenStriped() {
+        // given
+        VerifiedTokenCache striped = new VerifiedTokenCache(meterRegistry, 64, 16, clock);
+        Instant expiresAt = START.plus(Duration.ofHours(1));
+
+        // when
+        for (long id = 1; id <= 1000; id++) {
+            striped.put("token-" + id, principal(id), expiresAt);
+        }
+
+        // then
+        assertThat(striped.size()).isEqualTo(64);
+        assertThat(striped.get("token-1000")).isNotNull();
+    }
+
+    @Test
+    void put_shouldIgnoreExpiredToken() {
+        // when
+        cache.put("token", principal(1L), START);
+
+        // then
+        assertThat(cache.size()).isZero();
+    }
+
+    private static UserPrincipal principal(Long id) {
+        return UserPrincipal.builder().id(id).email(id + "@example.com").role(User.Role.USER).build();
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
@@ -125,4 +125,25 @@ class UserRepositoryIntegrationTest extends BaseIntegrationTest {
         assertThatThrownBy(() -> userRepository.save(user2))
             .isInstanceOf(DuplicateKeyException.class);
     }
+
+    @Test
+    void replacePasswordHash_shouldOnlyReplaceUnchangedHash() {
+        // given
+        User user = userRepository.save(
+            User.builder()
+                .email("rehash@example.com")
+                .password("oldHash")
+                .role(User.Role.USER)
+                .build()
+        );
+
+        // when
+        boolean replaced = userRepository.replacePasswordHash(user.getId(), "oldHash", "newHash");
+        boolean replacedStale = userRepository.replacePasswordHash(user.getId(), "oldHash", "otherHash");
+
+        // then
+        assertThat(replaced).isTrue();
+        assertThat(replacedStale).isFalse();
+        assertThat(userRepository.findById(user.getId()).orElseThrow().getPassword()).isEqualTo("newHash");
+    }
 }
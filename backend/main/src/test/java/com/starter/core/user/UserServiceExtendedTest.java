@@ -12,11 +12,13 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.security.crypto.password.PasswordEncoder;
 
 import com.starter.core.email.EmailService;
 import com.starter.core.exception.EmailAlreadyExistsException;
 import com.starter.core.exception.InvalidCredentialsException;
+import com.starter.core.security.PasswordHasher;
+import com.starter.core.security.PasswordHasher.Lane;
+import com.starter.core.security.TokenEpochRepository;
 import com.starter.shared.util.TokenGenerator;
 
 import java.time.Instant;
@@ -30,7 +32,7 @@ class UserServiceExtendedTest {
     private UserRepository userRepository;
 
     @Mock
-    private PasswordEncoder passwordEncoder;
+    private PasswordHasher passwordHasher;
 
     @Mock
     private TokenGenerator tokenGenerator;
@@ -38,11 +40,15 @@ class UserServiceExtendedTest {
     @Mock
     private EmailService emailService;
 
+    @Mock
+    private TokenEpochRepository tokenEpochRepository;
+
     private UserService userService;
 
     @BeforeEach
     void setUp() {
-        userService = new UserService(userRepository, passwordEncoder, tokenGenerator, emailService);
+        userService = new UserService(
+            userRepository, passwordHasher, tokenGenerator, emailService, tokenEpochRepository);
     }
 
     @Test
@@ -65,7 +71,7 @@ class UserServiceExtendedTest {
             .build();
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(passwordEncoder.matches(currentPassword, hashedPassword)).thenReturn(true);
+        when(passwordHasher.matches(currentPassword, hashedPassword, Lane.PRIORITY)).thenReturn(true);
         when(userRepository.existsByEmailIncludingArchived(newEmail.toLowerCase())).thenReturn(false);
         when(tokenGenerator.generate()).thenReturn("token123");
 
@@ -73,7 +79,7 @@ class UserServiceExtendedTest {
         userService.requestEmailChange(userId, newEmail, currentPassword);
 
         // then
-        verify(passwordEncoder).matches(currentPassword, hashedPassword);
+        verify(passwordHasher).matches(currentPassword, hashedPassword, Lane.PRIORITY);
         verify(userRepository).existsByEmailIncludingArchived(newEmail.toLowerCase());
         verify(userRepository).setEmailChangeToken(eq(userId), eq(newEmail.toLowerCase()), any(), any());
         verify(emailService).sendEmailChangeVerificationEmail(eq(newEmail.toLowerCase()), eq("token123"));
@@ -99,7 +105,7 @@ class UserServiceExtendedTest {
             .build();
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(passwordEncoder.matches(wrongPassword, hashedPassword)).thenReturn(false);
+        when(passwordHasher.matches(wrongPassword, hashedPassword, Lane.PRIORITY)).thenReturn(false);
 
         // when & then
         assertThatThrownBy(() -> userService.requestEmailChange(userId, newEmail, wrongPassword))
@@ -130,7 +136,7 @@ class UserServiceExtendedTest {
             .build();
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(passwordEncoder.matches(currentPassword, hashedPassword)).thenReturn(true);
+        when(passwordHasher.matches(currentPassword, hashedPassword, Lane.PRIORITY)).thenReturn(true);
         when(userRepository.existsByEmailIncludingArchived(newEmail.toLowerCase())).thenReturn(true);
 
         // when & then
@@ -161,14 +167,15 @@ class UserServiceExtendedTest {
             .build();
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(passwordEncoder.matches(password, hashedPassword)).thenReturn(true);
+        when(passwordHasher.matches(password, hashedPassword, Lane.PRIORITY)).thenReturn(true);
 
         // when
         userService.deleteAccount(userId, password);
 
         // then
-        verify(passwordEncoder).matches(password, hashedPassword);
+        verify(passwordHasher).matches(password, hashedPassword, Lane.PRIORITY);
         verify(userRepository).archiveUser(userId);
+        verify(tokenEpochRepository).increment(userId);
     }
 
     @Test
@@ -190,7 +197,7 @@ class UserServiceExtendedTest {
             .build();
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(passwordEncoder.matches(wrongPassword, hashedPassword)).thenReturn(false);
+        when(passwordHasher.matches(wrongPassword, hashedPassword, Lane.PRIORITY)).thenReturn(false);
 
         // when & then
         assertThatThrownBy(() -> userService.deleteAccount(userId, wrongPassword))
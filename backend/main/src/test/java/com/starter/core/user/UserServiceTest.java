@@ -13,10 +13,11 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.dao.DuplicateKeyException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 
 import com.starter.core.email.EmailService;
 import com.starter.core.exception.EmailAlreadyExistsException;
+import com.starter.core.security.PasswordHasher;
+import com.starter.core.security.TokenEpochRepository;
 import com.starter.shared.util.TokenGenerator;
 
 import java.time.Instant;
@@ -30,7 +31,7 @@ class UserServiceTest {
     private UserRepository userRepository;
 
     @Mock
-    private PasswordEncoder passwordEncoder;
+    private PasswordHasher passwordHasher;
 
     @Mock
     private TokenGenerator tokenGenerator;
@@ -38,11 +39,15 @@ class UserServiceTest {
     @Mock
     private EmailService emailService;
 
+    @Mock
+    private TokenEpochRepository tokenEpochRepository;
+
     private UserService userService;
 
     @BeforeEach
     void setUp() {
-        userService = new UserService(userRepository, passwordEncoder, tokenGenerator, emailService);
+        userService = new UserService(
+            userRepository, passwordHasher, tokenGenerator, emailService, tokenEpochRepository);
     }
 
     @Test
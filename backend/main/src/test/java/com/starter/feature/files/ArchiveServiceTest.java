@@ -0,0 +1,229 @@
+package com.starter.feature.files;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+
+import com.starter.core.exception.ResourceNotFoundException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/** Unit tests for ArchiveService. */
+@ExtendWith(MockitoExtension.class)
+class ArchiveServiceTest {
+
+    @Mock
+    private FileRepository fileRepository;
+
+    @Mock
+    private BlobStore blobStore;
+
+    private ArchiveService archiveService;
+
+    @BeforeEach
+    void setUp() {
+        archiveService = new ArchiveService(fileRepository, blobStore, new SimpleMeterRegistry(), 2, 16, 2, 6, 5000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        archiveService.shutdown();
+    }
+
+    @Test
+    void stream_shouldWriteAllFilesOfSelectedIds() throws IOException {
+        // given
+        UserFile notes = file(1L, "notes.txt", "text/plain");
+        UserFile photo = file(2L, "photo.jpg", "image/jpeg");
+        when(fileRepository.findByIdsAndUserId(Set.of(1L, 2L), 7L)).thenReturn(List.of(photo, notes));
+        String text = "hello archive ".repeat(20);
+        when(blobStore.openObject(notes.getS3Key())).thenReturn(stream(text));
+        when(blobStore.openObject(photo.getS3Key())).thenReturn(stream("jpeg-bytes"));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // when
+        archiveService.stream(7L, List.of(1L, 2L), null, null, response);
+
+        // then
+        assertThat(response.getContentType()).isEqualTo("application/zip");
+        assertThat(response.getHeader("Content-Disposition")).startsWith("attachment");
+        assertThat(unzip(response.getContentAsByteArray()))
+            .containsExactly(Map.entry("notes.txt", text), Map.entry("photo.jpg", "jpeg-bytes"));
+    }
+
+    @Test
+    void stream_shouldPageThroughFilter() throws IOException {
+        // given
+        UserFile first = file(1L, "a.txt", "text/plain");
+        when(fileRepository.findPageByKeyset(7L, "text/*", null, FileSort.FILENAME, true, null, 200))
+            .thenReturn(List.of(first));
+        when(blobStore.openObject(first.getS3Key())).thenReturn(stream("a"));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // when
+        archiveService.stream(7L, null, "text/*", " ", response);
+
+        // then
+        assertThat(unzip(response.getContentAsByteArray())).containsExactly(Map.entry("a.txt", "a"));
+    }
+
+    @Test
+    void stream_shouldRejectIdsTogetherWithFilter() {
+        // when & then
+        assertThatThrownBy(() -> archiveService.stream(7L, List.of(1L), "image/*", null, new MockHttpServletResponse()))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void stream_shouldThrowNotFound_whenNothingMatches() {
+        // given
+        when(fileRepository.findPageByKeyset(7L, null, null, FileSort.FILENAME, true, null, 200)).thenReturn(List.of());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // when & then
+        assertThatThrownBy(() -> archiveService.stream(7L, null, null, null, response))
+            .isInstanceOf(ResourceNotFoundException.class);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    void write_shouldListUnreadableObjects_andContinue() throws IOException {
+        // given
+        UserFile gone = file(1L, "gone.txt", "text/plain");
+        UserFile kept = file(2L, "kept.txt", "text/plain");
+        when(blobStore.openObject(gone.getS3Key())).thenThrow(NoSuchKeyException.builder().message("gone").build());
+        when(blobStore.openObject(kept.getS3Key())).thenReturn(stream("kept"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // when
+        int count = archiveService.write(List.of(gone, kept).iterator(), out);
+
+        // then
+        assertThat(count).isEqualTo(1);
+        assertThat(unzip(out.toByteArray())).containsExactly(
+            Map.entry("kept.txt", "kept"),
+            Map.entry(ArchiveService.MISSING_FILES_ENTRY, "gone.txt\n")
+        );
+    }
+
+    @Test
+    void write_shouldSkipStalledObject_afterFetchTimeout() throws IOException {
+        // given
+        ArchiveService impatient =
+            new ArchiveService(fileRepository, blobStore, new SimpleMeterRegistry(), 2, 16, 2, 6, 200);
+        UserFile stalled = file(1L, "stalled.txt", "text/plain");
+        UserFile kept = file(2L, "kept.txt", "text/plain");
+        when(blobStore.openObject(stalled.getS3Key())).thenReturn(new StalledInputStream());
+        when(blobStore.openObject(kept.getS3Key())).thenReturn(stream("kept"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // when
+        int count;
+        try {
+            count = impatient.write(List.of(stalled, kept).iterator(), out);
+        } finally {
+            impatient.shutdown();
+        }
+
+        // then
+        assertThat(count).isEqualTo(1);
+        assertThat(unzip(out.toByteArray())).containsExactly(
+            Map.entry("kept.txt", "kept"),
+            Map.entry(ArchiveService.MISSING_FILES_ENTRY, "stalled.txt\n")
+        );
+    }
+
+    @Test
+    void write_shouldHandleMoreFilesThanReadAhead() throws IOException {
+        // given
+        List<UserFile> files = List.of(
+            file(1L, "1.txt", "text/plain"), file(2L, "2.txt", "text/plain"),
+            file(3L, "3.txt", "text/plain"), file(4L, "4.txt", "text/plain"), file(5L, "5.txt", "text/plain")
+        );
+        for (UserFile file : files) {
+            when(blobStore.openObject(file.getS3Key())).thenReturn(stream(file.getFilename().repeat(10)));
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // when
+        int count = archiveService.write(files.iterator(), out);
+
+        // then
+        assertThat(count).isEqualTo(5);
+        assertThat(unzip(out.toByteArray())).hasSize(5).containsEntry("5.txt", "5.txt".repeat(10));
+    }
+
+    @Test
+    void isCompressed_shouldStoreAlreadyCompressedTypes() {
+        assertThat(ArchiveService.isCompressed("image/jpeg")).isTrue();
+        assertThat(ArchiveService.isCompressed("application/zip")).isTrue();
+        assertThat(ArchiveService.isCompressed("application/pdf")).isTrue();
+        assertThat(ArchiveService.isCompressed("image/svg+xml")).isFalse();
+        assertThat(ArchiveService.isCompressed("text/plain; charset=utf-8")).isFalse();
+        assertThat(ArchiveService.isCompressed(null)).isFalse();
+    }
+
+    /** An S3 stream that never delivers data (until interrupted). */
+    private static final class StalledInputStream extends InputStream {
+        @Override
+        public int read() throws IOException {
+            try {
+                Thread.sleep(60_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            }
+            return -1;
+        }
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Map<String, String> unzip(byte[] archive) throws IOException {
+        Map<String, String> entries = new LinkedHashMap<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(archive), StandardCharsets.UTF_8)) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                entries.put(entry.getName(), new String(zip.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+        return entries;
+    }
+
+    private static UserFile file(Long id, String filename, String contentType) {
+        return UserFile.builder()
+            .id(id)
+            .userId(7L)
+            .filename(filename)
+            .s3Key("users/7/files/" + id + "-" + filename)
+            .sizeBytes(10L)
+            .contentType(contentType)
+            .status(UserFile.Status.ACTIVE)
+            .createdAt(Instant.parse("2026-01-15T10:00:00Z"))
+            .build();
+    }
+}
@@ -0,0 +1,146 @@
+package com.starter.feature.files;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.starter.feature.files.dto.BatchUploadResponse;
+import com.starter.feature.files.dto.FileDto;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/** Unit tests for BatchUploadService. */
+@ExtendWith(MockitoExtension.class)
+class BatchUploadServiceTest {
+
+    @Mock
+    private FileService fileService;
+
+    @Mock
+    private FileRepository fileRepository;
+
+    @Mock
+    private StorageQuotaService quotaService;
+
+    @Mock
+    private UploadStateService uploadStateService;
+
+    @Mock
+    private S3MultipartUploader multipartUploader;
+
+    private BatchUploadService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new BatchUploadService(
+            fileService, fileRepository, quotaService, uploadStateService, multipartUploader, 100L, 10, 2, 30
+        );
+        lenient().when(fileService.resolveContentType(anyString())).thenAnswer(inv -> inv.getArgument(0));
+        lenient().when(fileService.resolveFilename(anyString())).thenAnswer(inv -> inv.getArgument(0));
+        lenient().when(fileService.buildS3Key(eq(1L), anyString()))
+            .thenAnswer(inv -> "users/1/files/" + inv.getArgument(1));
+        lenient().when(fileService.toDto(any(UserFile.class)))
+            .thenAnswer(inv -> FileDto.builder().id(inv.<UserFile>getArgument(0).getId()).build());
+        lenient().when(uploadStateService.beginAll(eq(1L), anyList(), eq(Duration.ofMinutes(30))))
+            .thenAnswer(inv -> withIds(inv.getArgument(1)));
+        lenient().when(uploadStateService.activateAll(eq(1L), anyList())).thenAnswer(inv -> inv.getArgument(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void upload_shouldStoreValidFiles_andReportRejectedOnes() throws IOException {
+        // given
+        List<MultipartFile> files = List.of(
+            file("a.txt", 10), file("a.txt", 10), file("taken.txt", 10), file("big.txt", 60), file("b.txt", 30)
+        );
+        when(fileRepository.findExistingFilenames(eq(1L), any())).thenReturn(Set.of("taken.txt"));
+        when(quotaService.getRemaining(1L)).thenReturn(50L);
+
+        // when
+        BatchUploadResponse response = service.upload(1L, files);
+
+        // then
+        assertThat(response.getUploadedCount()).isEqualTo(2);
+        assertThat(response.getFailedCount()).isEqualTo(3);
+        List<BatchUploadResponse.Result> results = response.getResults();
+        assertThat(results.get(0).getFile()).isNotNull();
+        assertThat(results.get(1).getError()).contains("more than once");
+        assertThat(results.get(2).getError()).contains("already exists");
+        assertThat(results.get(3).getError()).isEqualTo(BatchUploadService.QUOTA_ERROR);
+        assertThat(results.get(4).getFile()).isNotNull();
+        verify(multipartUploader).upload(eq("users/1/files/a.txt"), eq("text/plain"), any(InputStream.class), eq(100L));
+        verify(multipartUploader).upload(eq("users/1/files/b.txt"), eq("text/plain"), any(InputStream.class), eq(100L));
+    }
+
+    @Test
+    void upload_shouldDiscardFailedTransfer_withoutFailingOthers() throws IOException {
+        // given
+        List<MultipartFile> files = List.of(file("a.txt", 10), file("b.txt", 10));
+        when(fileRepository.findExistingFilenames(eq(1L), any())).thenReturn(Set.of());
+        when(quotaService.getRemaining(1L)).thenReturn(100L);
+        when(multipartUploader.upload(eq("users/1/files/a.txt"), anyString(), any(InputStream.class), anyLong()))
+            .thenReturn(10L);
+        when(multipartUploader.upload(eq("users/1/files/b.txt"), anyString(), any(InputStream.class), anyLong()))
+            .thenThrow(new IOException("connection reset"));
+
+        // when
+        BatchUploadResponse response = service.upload(1L, files);
+
+        // then
+        assertThat(response.getUploadedCount()).isEqualTo(1);
+        assertThat(response.getResults().get(1).getError()).isEqualTo("Failed to upload file to storage");
+        verify(fileService).discardUpload(any(UserFile.class));
+        verify(uploadStateService).activateAll(eq(1L), eq(List.of(stored(1L, "a.txt"))));
+    }
+
+    private static MockMultipartFile file(String name, int size) {
+        return new MockMultipartFile("files", name, "text/plain", new byte[size]);
+    }
+
+    private static List<UserFile> withIds(List<UserFile> files) {
+        List<UserFile> inserted = new ArrayList<>();
+        long id = 1;
+        for (UserFile file : files) {
+            file.setId(id++);
+            file.setStatus(UserFile.Status.PENDING);
+            inserted.add(file);
+        }
+        return inserted;
+    }
+
+    private static UserFile stored(long id, String filename) {
+        return UserFile.builder()
+            .id(id)
+            .userId(1L)
+            .filename(filename)
+            .s3Key("users/1/files/" + filename)
+            .sizeBytes(10L)
+            .contentType("text/plain")
+            .status(UserFile.Status.PENDING)
+            .build();
+    }
+}
@@ -0,0 +1,81 @@
+package com.starter.feature.files;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+/** Unit tests for BulkObjectDeleter. */
+@ExtendWith(MockitoExtension.class)
+class BulkObjectDeleterTest {
+
+    @Mock
+    private BlobStore blobStore;
+
+    private BulkObjectDeleter deleter;
+
+    @BeforeEach
+    void setUp() {
+        deleter = new BulkObjectDeleter(blobStore, 2);
+    }
+
+    @Test
+    void delete_shouldSplitIntoBatchesOfAtMost1000Keys() {
+        // given
+        List<String> keys = IntStream.range(0, 2500).mapToObj(i -> "key-" + i).toList();
+        when(blobStore.deleteFilesAsync(anyList())).thenReturn(CompletableFuture.completedFuture(Map.of()));
+
+        // when
+        Map<String, String> failures = deleter.delete(keys);
+
+        // then
+        assertThat(failures).isEmpty();
+        verify(blobStore).deleteFilesAsync(keys.subList(0, 1000));
+        verify(blobStore).deleteFilesAsync(keys.subList(1000, 2000));
+        verify(blobStore).deleteFilesAsync(keys.subList(2000, 2500));
+        verify(blobStore, times(3)).deleteFilesAsync(anyList());
+    }
+
+    @Test
+    void delete_shouldReportWholeBatch_whenCallFails() {
+        // given
+        List<String> keys = IntStream.range(0, 1001).mapToObj(i -> "key-" + i).toList();
+        when(blobStore.deleteFilesAsync(keys.subList(0, 1000)))
+            .thenReturn(CompletableFuture.completedFuture(Map.of("key-5", "InternalError: oops")));
+        when(blobStore.deleteFilesAsync(keys.subList(1000, 1001)))
+            .thenReturn(CompletableFuture.failedFuture(S3Exception.builder().message("down").build()));
+
+        // when
+        Map<String, String> failures = deleter.delete(keys);
+
+        // then
+        assertThat(failures).containsOnlyKeys("key-5", "key-1000");
+        assertThat(failures.get("key-1000")).contains("down");
+    }
+
+    @Test
+    void delete_shouldReportWholeBatch_whenCallThrowsImmediately() {
+        // given
+        List<String> keys = List.of("key-0");
+        when(blobStore.deleteFilesAsync(keys)).thenThrow(S3Exception.builder().message("down").build());
+
+        // when
+        Map<String, String> failures = deleter.delete(keys);
+
+        // then
+        assertThat(failures).containsOnlyKeys("key-0");
+    }
+}
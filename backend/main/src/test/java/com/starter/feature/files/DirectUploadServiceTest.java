@@ -0,0 +1,112 @@
+package com.starter.feature.files;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.starter.core.exception.ResourceNotFoundException;
+import com.starter.feature.files.dto.FileDto;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/** Unit tests for DirectUploadService. */
+@ExtendWith(MockitoExtension.class)
+class DirectUploadServiceTest {
+
+    @Mock
+    private FileRepository fileRepository;
+
+    @Mock
+    private FileService fileService;
+
+    @Mock
+    private UploadStateService uploadStateService;
+
+    @Mock
+    private BlobStore blobStore;
+
+    @InjectMocks
+    private DirectUploadService directUploadService;
+
+    @Test
+    void complete_shouldActivateFile_whenObjectMatchesReservation() {
+        // given
+        UserFile pending = pendingFile();
+        when(fileRepository.findPendingByIdAndUserId(10L, 1L)).thenReturn(Optional.of(pending));
+        when(blobStore.headObject(pending.getS3Key())).thenReturn(
+            Optional.of(new BlobStore.ObjectInfo(100L, "text/plain"))
+        );
+        when(fileService.toDto(pending)).thenReturn(FileDto.builder().id(10L).build());
+
+        // when
+        FileDto result = directUploadService.complete(1L, 10L);
+
+        // then
+        assertThat(result.getId()).isEqualTo(10L);
+        verify(uploadStateService).activate(pending, 100L);
+    }
+
+    @Test
+    void complete_shouldFail_whenObjectNotUploadedYet() {
+        // given
+        UserFile pending = pendingFile();
+        when(fileRepository.findPendingByIdAndUserId(10L, 1L)).thenReturn(Optional.of(pending));
+        when(blobStore.headObject(pending.getS3Key())).thenReturn(Optional.empty());
+
+        // when & then
+        assertThatThrownBy(() -> directUploadService.complete(1L, 10L))
+            .isInstanceOf(IllegalArgumentException.class);
+        verify(uploadStateService, never()).activate(any(UserFile.class), anyLong());
+    }
+
+    @Test
+    void complete_shouldDeleteObject_whenSizeDoesNotMatch() {
+        // given
+        UserFile pending = pendingFile();
+        when(fileRepository.findPendingByIdAndUserId(10L, 1L)).thenReturn(Optional.of(pending));
+        when(blobStore.headObject(pending.getS3Key())).thenReturn(
+            Optional.of(new BlobStore.ObjectInfo(999L, "text/plain"))
+        );
+
+        // when & then
+        assertThatThrownBy(() -> directUploadService.complete(1L, 10L))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("does not match");
+        verify(blobStore).deleteFile(pending.getS3Key());
+        verify(uploadStateService, never()).activate(any(UserFile.class), anyLong());
+    }
+
+    @Test
+    void complete_shouldThrowNotFound_whenNoPendingReservation() {
+        // given
+        when(fileRepository.findPendingByIdAndUserId(10L, 1L)).thenReturn(Optional.empty());
+
+        // when & then
+        assertThatThrownBy(() -> directUploadService.complete(1L, 10L))
+            .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    private UserFile pendingFile() {
+        return UserFile.builder()
+            .id(10L)
+            .userId(1L)
+            .filename("notes.txt")
+            .s3Key("users/1/files/abc-notes.txt")
+            .sizeBytes(100L)
+            .contentType("text/plain")
+            .status(UserFile.Status.PENDING)
+            .uploadExpiresAt(Instant.now().plusSeconds(600))
+            .build();
+    }
+}
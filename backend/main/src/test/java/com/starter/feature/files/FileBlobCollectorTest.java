@@ -0,0 +1,61 @@
+package com.starter.feature.files;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/** Unit tests for FileBlobCollector. */
+@ExtendWith(MockitoExtension.class)
+class FileBlobCollectorTest {
+
+    @Mock
+    private FileBlobRepository blobRepository;
+
+    @Mock
+    private S3OutboxRepository outboxRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private FileBlobCollector collector;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(collector, "batchSize", 100);
+        ReflectionTestUtils.setField(collector, "graceMinutes", 60L);
+        when(transactionTemplate.execute(any())).thenAnswer(
+            inv -> inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null)
+        );
+    }
+
+    @Test
+    void collectBatch_shouldEnqueueObjectsOfUnreferencedBlobs_afterGracePeriod() {
+        // given
+        Instant now = Instant.parse("2024-01-01T12:00:00Z");
+        when(blobRepository.deleteUnreferenced(now.minus(Duration.ofMinutes(60)), 100))
+            .thenReturn(List.of("blobs/a", "blobs/b"));
+
+        // when
+        int collected = collector.collectBatch(now);
+
+        // then
+        assertThat(collected).isEqualTo(2);
+        verify(outboxRepository).enqueue(List.of("blobs/a", "blobs/b"), now);
+    }
+}
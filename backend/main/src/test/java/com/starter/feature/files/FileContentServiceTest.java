@@ -0,0 +1,222 @@
+package com.starter.feature.files;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.starter.core.exception.ResourceNotFoundException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
+
+/** Unit tests for FileContentService. */
+@ExtendWith(MockitoExtension.class)
+class FileContentServiceTest {
+    private static final String S3_KEY = "blobs/abc";
+    private static final byte[] CONTENT = "0123456789".getBytes(StandardCharsets.US_ASCII);
+
+    @Mock
+    private FileRepository fileRepository;
+
+    @Mock
+    private BlobStore blobStore;
+
+    @Mock
+    private LocalContentCache contentCache;
+
+    private FileContentService service;
+    private UserFile file;
+
+    @BeforeEach
+    void setUp() {
+        service = new FileContentService(fileRepository, blobStore, contentCache, new SimpleMeterRegistry(), 4);
+        file = UserFile.builder()
+            .id(10L)
+            .userId(1L)
+            .filename("notes.txt")
+            .s3Key(S3_KEY)
+            .sizeBytes((long) CONTENT.length)
+            .contentType("text/plain")
+            .status(UserFile.Status.ACTIVE)
+            .build();
+    }
+
+    @Test
+    void serve_shouldStreamWholeObject() throws IOException {
+        // given
+        when(fileRepository.findByIdAndUserId(10L, 1L)).thenReturn(Optional.of(file));
+        when(contentCache.open(S3_KEY, 10L)).thenReturn(Optional.empty());
+        when(blobStore.openObject(S3_KEY, 0, 9)).thenReturn(new ByteArrayInputStream(CONTENT));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // when
+        service.serve(1L, 10L, new MockHttpServletRequest("GET", "/"), response);
+
+        // then
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsByteArray()).isEqualTo(CONTENT);
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo(FileContentService.etag(file));
+        assertThat(response.getHeader(HttpHeaders.ACCEPT_RANGES)).isEqualTo("bytes");
+    }
+
+    @Test
+    void serve_shouldStreamRequestedRange() throws IOException {
+        // given
+        when(fileRepository.findByIdAndUserId(10L, 1L)).thenReturn(Optional.of(file));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+        request.addHeader(HttpHeaders.RANGE, "bytes=2-5");
+        when(contentCache.open(S3_KEY, 10L)).thenReturn(Optional.empty());
+        when(blobStore.openObject(S3_KEY, 2, 5)).thenReturn(new ByteArrayInputStream(CONTENT, 2, 4));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // when
+        service.serve(1L, 10L, request, response);
+
+        // then
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 2-5/10");
+        assertThat(response.getContentAsString()).isEqualTo("2345");
+    }
+
+    @Test
+    void serve_shouldReturnNotModified_whenEtagMatches() throws IOException {
+        // given
+        when(fileRepository.findByIdAndUserId(10L, 1L)).thenReturn(Optional.of(file));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"other\", " + FileContentService.etag(file));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // when
+        service.serve(1L, 10L, request, response);
+
+        // then
+        assertThat(response.getStatus()).isEqualTo(304);
+        assertThat(response.getContentLength()).isZero();
+        verify(blobStore, never()).openObject(anyString(), anyLong(), anyLong());
+    }
+
+    @Test
+    void serve_shouldReturnHeadersOnly_forHead() throws IOException {
+        // given
+        when(fileRepository.findByIdAndUserId(10L, 1L)).thenReturn(Optional.of(file));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // when
+        service.serve(1L, 10L, new MockHttpServletRequest("HEAD", "/"), response);
+
+        // then
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_LENGTH)).isEqualTo("10");
+        assertThat(response.getContentAsByteArray()).isEmpty();
+        verify(blobStore, never()).openObject(anyString(), anyLong(), anyLong());
+    }
+
+    @Test
+    void serve_shouldRejectUnsatisfiableRange() throws IOException {
+        // given
+        when(fileRepository.findByIdAndUserId(10L, 1L)).thenReturn(Optional.of(file));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+        request.addHeader(HttpHeaders.RANGE, "bytes=10-");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // when
+        service.serve(1L, 10L, request, response);
+
+        // then
+        assertThat(response.getStatus()).isEqualTo(416);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes */10");
+    }
+
+    @Test
+    void serve_shouldThrowNotFound_forOtherUsersFile() {
+        // given
+        when(fileRepository.findByIdAndUserId(10L, 2L)).thenReturn(Optional.empty());
+
+        // when & then
+        assertThatThrownBy(() -> service.serve(2L, 10L, new MockHttpServletRequest(), new MockHttpServletResponse()))
+            .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    void serve_shouldSendEncodedObject_whenClientAcceptsCoding() throws IOException {
+        // given
+        byte[] stored = gzip(CONTENT);
+        encode(file, stored);
+        when(fileRepository.findByIdAndUserId(10L, 1L)).thenReturn(Optional.of(file));
+        when(contentCache.open(S3_KEY, stored.length)).thenReturn(Optional.empty());
+        when(blobStore.openObject(S3_KEY, 0, stored.length - 1)).thenReturn(new ByteArrayInputStream(stored));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "br, gzip;q=0.8");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // when
+        service.serve(1L, 10L, request, response);
+
+        // then
+        assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(response.getHeader(HttpHeaders.VARY)).isEqualTo(HttpHeaders.ACCEPT_ENCODING);
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo(FileContentService.encodedEtag(file));
+        assertThat(response.getContentLengthLong()).isEqualTo(stored.length);
+        assertThat(response.getContentAsByteArray()).isEqualTo(stored);
+    }
+
+    @Test
+    void serve_shouldDecodeRange_whenClientDoesNotAcceptCoding() throws IOException {
+        // given
+        encode(file, gzip(CONTENT));
+        when(fileRepository.findByIdAndUserId(10L, 1L)).thenReturn(Optional.of(file));
+        when(blobStore.openObject(S3_KEY)).thenReturn(new ByteArrayInputStream(gzip(CONTENT)));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0");
+        request.addHeader(HttpHeaders.RANGE, "bytes=2-5");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // when
+        service.serve(1L, 10L, request, response);
+
+        // then
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 2-5/10");
+        assertThat(response.getContentAsString()).isEqualTo("2345");
+    }
+
+    @Test
+    void parseRange_shouldHandleSuffixAndIgnoreMultipleRanges() {
+        assertThat(FileContentService.parseRange("bytes=-3", 10)).isEqualTo(new FileContentService.ByteRange(7, 9));
+        assertThat(FileContentService.parseRange("bytes=5-100", 10)).isEqualTo(new FileContentService.ByteRange(5, 9));
+        assertThat(FileContentService.parseRange("bytes=0-1,4-5", 10)).isNull();
+        assertThat(FileContentService.parseRange("items=0-1", 10)).isNull();
+    }
+
+    private static void encode(UserFile file, byte[] stored) {
+        file.setCodec(StorageCodec.GZIP);
+        file.setStoredSizeBytes((long) stored.length);
+    }
+
+    private static byte[] gzip(byte[] content) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(content);
+        }
+        return out.toByteArray();
+    }
+}
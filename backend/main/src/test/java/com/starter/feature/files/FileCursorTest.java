@@ -0,0 +1,60 @@
+package com.starter.feature.files;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+/** Unit tests for FileCursor. */
+class FileCursorTest {
+
+    @Test
+    void encode_shouldRoundTrip_whenKeyContainsSeparator() {
+        // given
+        UserFile file = UserFile.builder().id(42L).filename("a|b|c.txt").build();
+        FileCursor cursor = FileCursor.after(file, FileSort.FILENAME, true);
+
+        // when
+        FileCursor decoded = FileCursor.decode(cursor.encode(), FileSort.FILENAME, true);
+
+        // then
+        assertThat(decoded).isEqualTo(cursor);
+        assertThat(decoded.lastKey()).isEqualTo("a|b|c.txt");
+    }
+
+    @Test
+    void decode_shouldRoundTripCreatedAt() {
+        // given
+        Instant createdAt = Instant.parse("2024-01-15T10:30:00.123456Z");
+        UserFile file = UserFile.builder().id(7L).createdAt(createdAt).build();
+
+        // when
+        FileCursor decoded = FileCursor.decode(
+            FileCursor.after(file, FileSort.CREATED_AT, false).encode(), FileSort.CREATED_AT, false
+        );
+
+        // then
+        assertThat(decoded.lastId()).isEqualTo(7L);
+        assertThat(Instant.parse(decoded.lastKey())).isEqualTo(createdAt);
+    }
+
+    @Test
+    void decode_shouldReject_whenSortOrderDiffers() {
+        // given
+        String encoded = FileCursor.after(UserFile.builder().id(1L).sizeBytes(10L).build(), FileSort.SIZE, true).encode();
+
+        // when & then
+        assertThatThrownBy(() -> FileCursor.decode(encoded, FileSort.SIZE, false))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("sort order");
+    }
+
+    @Test
+    void decode_shouldReject_whenCursorIsGarbage() {
+        assertThatThrownBy(() -> FileCursor.decode("not a cursor!", FileSort.CREATED_AT, false))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Invalid cursor");
+    }
+}
@@ -0,0 +1,159 @@
+package com.starter.feature.files;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.starter.feature.files.dto.BulkDeleteRequest;
+import com.starter.feature.files.dto.BulkDeleteResponse;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/** Unit tests for FileDeletionService. */
+@ExtendWith(MockitoExtension.class)
+class FileDeletionServiceTest {
+
+    @Mock
+    private FileRepository fileRepository;
+
+    @Mock
+    private StorageQuotaService quotaService;
+
+    @Mock
+    private ContentFacetRepository facetRepository;
+
+    @Mock
+    private BulkObjectDeleter bulkObjectDeleter;
+
+    @Mock
+    private S3OutboxRepository outboxRepository;
+
+    @Mock
+    private FileBlobRepository blobRepository;
+
+    @Mock
+    private PresignedUrlCache presignedUrlCache;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private FileDeletionService fileDeletionService;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(
+            invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null)
+        );
+    }
+
+    @Test
+    void deleteFiles_shouldDeleteByIds_andKeepFailedKeysInOutbox() {
+        // given
+        UserFile photo = file(1L, "photo.jpg", 100L, UserFile.Status.ACTIVE, "thumb-1");
+        UserFile notes = file(2L, "notes.txt", 50L, UserFile.Status.ACTIVE, null);
+        List<String> keys = List.of(photo.getS3Key(), "thumb-1", notes.getS3Key());
+        when(fileRepository.deleteByIds(7L, List.of(1L, 2L))).thenReturn(List.of(photo, notes));
+        when(outboxRepository.enqueue(eq(keys), any(Instant.class))).thenReturn(List.of(
+            new S3OutboxEntry(11L, photo.getS3Key(), 0),
+            new S3OutboxEntry(12L, "thumb-1", 0),
+            new S3OutboxEntry(13L, notes.getS3Key(), 0)
+        ));
+        when(bulkObjectDeleter.delete(keys)).thenReturn(Map.of("thumb-1", "AccessDenied: denied"));
+
+        // when
+        BulkDeleteResponse response = fileDeletionService.deleteFiles(
+            7L, BulkDeleteRequest.builder().ids(List.of(1L, 2L)).build()
+        );
+
+        // then
+        assertThat(response.getDeletedCount()).isEqualTo(2);
+        assertThat(response.getFreedBytes()).isEqualTo(150L);
+        assertThat(response.getFailures()).singleElement().satisfies(failure -> {
+            assertThat(failure.getFileId()).isEqualTo(1L);
+            assertThat(failure.getError()).contains("AccessDenied");
+        });
+        verify(quotaService).releaseFiles(7L, 150L, 2);
+        verify(facetRepository).remove(7L, List.of(photo, notes));
+        verify(outboxRepository).delete(List.of(11L, 13L));
+    }
+
+    @Test
+    void deleteFiles_shouldDeleteByFilter() {
+        // given
+        when(fileRepository.deleteByFilters(7L, "image/*", null)).thenReturn(List.of());
+
+        // when
+        BulkDeleteResponse response = fileDeletionService.deleteFiles(
+            7L, BulkDeleteRequest.builder().contentType("image/*").search(" ").build()
+        );
+
+        // then
+        assertThat(response.getDeletedCount()).isZero();
+        verify(bulkObjectDeleter, never()).delete(any());
+    }
+
+    @Test
+    void deleteFiles_shouldReject_whenNoSelectionGiven() {
+        assertThatThrownBy(() -> fileDeletionService.deleteFiles(7L, new BulkDeleteRequest()))
+            .isInstanceOf(IllegalArgumentException.class);
+        verify(transactionTemplate, never()).execute(any());
+    }
+
+    @Test
+    void deleteFiles_shouldReject_whenIdsAndFilterGiven() {
+        BulkDeleteRequest request = BulkDeleteRequest.builder().ids(List.of(1L)).search("a").build();
+
+        assertThatThrownBy(() -> fileDeletionService.deleteFiles(7L, request))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void purgeUserFiles_shouldReleaseQuota_andLeaveContentToOutbox() {
+        // given
+        UserFile active = file(1L, "a.txt", 100L, UserFile.Status.ACTIVE, null);
+        UserFile pending = file(2L, "b.txt", 30L, UserFile.Status.PENDING, null);
+        UserFile failed = file(3L, "c.txt", 20L, UserFile.Status.FAILED, null);
+        when(fileRepository.deleteAllByUserId(7L)).thenReturn(List.of(active, pending, failed));
+
+        // when
+        fileDeletionService.purgeUserFiles(7L);
+
+        // then
+        verify(quotaService).releaseFiles(7L, 100L, 1);
+        verify(facetRepository).remove(7L, List.of(active));
+        verify(quotaService).releasePendingUpload(7L, 30L);
+        verify(outboxRepository).enqueue(
+            eq(List.of(active.getS3Key(), pending.getS3Key(), failed.getS3Key())), any(Instant.class)
+        );
+        verify(bulkObjectDeleter, never()).delete(any());
+    }
+
+    private static UserFile file(Long id, String filename, long size, UserFile.Status status, String thumbnailKey) {
+        return UserFile.builder()
+            .id(id)
+            .userId(7L)
+            .filename(filename)
+            .s3Key("users/7/files/" + id + "-" + filename)
+            .thumbnailS3Key(thumbnailKey)
+            .sizeBytes(size)
+            .status(status)
+            .build();
+    }
+}
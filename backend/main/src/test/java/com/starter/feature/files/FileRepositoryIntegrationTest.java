@@ -10,7 +10,8 @@ import com.starter.BaseIntegrationTest;
 import com.starter.core.user.User;
 import com.starter.core.user.UserService;
 
-import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Integration tests for FileRepository.
@@ -20,93 +21,135 @@ class FileRepositoryIntegrationTest extends BaseIntegrationTest {
     @Autowired
     private FileRepository fileRepository;
 
+    @Autowired
+    private ContentFacetRepository facetRepository;
+
     @Autowired
     private UserService userService;
 
     @Test
-    void getTotalSizeWithLock_shouldReturnZero_whenNoFiles() {
+    @Transactional
+    void findPageByKeyset_shouldWalkAllFilesWithoutGapsOrDuplicates_whenSortKeysTie() {
+        // given - equal sizes force the id tie-breaker
+        User user = userService.createUser("keyset@example.com", "hashedPassword", User.Role.USER);
+        Long userId = user.getId();
+        for (int i = 0; i < 5; i++) {
+            fileRepository.save(
+                UserFile.builder()
+                    .userId(userId)
+                    .filename("file" + i + ".txt")
+                    .s3Key("users/" + userId + "/files/file" + i + ".txt")
+                    .sizeBytes(i < 3 ? 100L : 200L)
+                    .contentType("text/plain")
+                    .build()
+            );
+        }
+
+        // when - pages of 2, largest first
+        List<String> seen = new ArrayList<>();
+        FileCursor cursor = null;
+        List<UserFile> page;
+        do {
+            page = fileRepository.findPageByKeyset(userId, null, null, FileSort.SIZE, false, cursor, 2);
+            page.forEach(file -> seen.add(file.getFilename()));
+            if (!page.isEmpty()) {
+                cursor = FileCursor.after(page.get(page.size() - 1), FileSort.SIZE, false);
+            }
+        } while (page.size() == 2);
+
+        // then
+        assertThat(seen).containsExactly("file4.txt", "file3.txt", "file2.txt", "file1.txt", "file0.txt");
+        assertThat(fileRepository.countByFilters(userId, "text/*", "file")).isEqualTo(5);
+    }
+
+    @Test
+    @Transactional
+    void contentTypeFilters_shouldUseNormalizedColumnsAndFacetCounts() {
+        // given - mixed case and parameters are normalized by the generated columns
+        User user = userService.createUser("facets@example.com", "hashedPassword", User.Role.USER);
+        Long userId = user.getId();
+        List<UserFile> files = new ArrayList<>();
+        String[] contentTypes = {"image/png", "Image/JPEG", "text/plain; charset=utf-8"};
+        for (int i = 0; i < contentTypes.length; i++) {
+            files.add(fileRepository.save(
+                UserFile.builder()
+                    .userId(userId)
+                    .filename("file" + i)
+                    .s3Key("users/" + userId + "/files/file" + i)
+                    .sizeBytes(100L * (i + 1))
+                    .contentType(contentTypes[i])
+                    .build()
+            ));
+        }
+        facetRepository.add(userId, files);
+
         // when
-        Long totalSize = fileRepository.getTotalSizeWithLock(1L);
+        List<UserFile> jpegs = fileRepository.findPageByKeyset(
+            userId, "image/jpeg", null, FileSort.CREATED_AT, false, null, 10
+        );
+        List<ContentFacet> facets = facetRepository.findByUserId(userId);
 
         // then
-        assertThat(totalSize).isEqualTo(0L);
+        assertThat(jpegs).extracting(UserFile::getFilename).containsExactly("file1");
+        assertThat(fileRepository.countByFilters(userId, "text/plain", null)).isEqualTo(1);
+        assertThat(fileRepository.countByFilters(userId, "image/*", null)).isEqualTo(2);
+        assertThat(facets).containsExactly(new ContentFacet("image", 2, 300L), new ContentFacet("text", 1, 300L));
+        assertThat(facetRepository.computeFromFiles(userId)).isEqualTo(facets);
+
+        facetRepository.remove(userId, List.of(files.get(0)));
+        assertThat(fileRepository.countByFilters(userId, "image/*", null)).isEqualTo(1);
     }
 
     @Test
     @Transactional
-    void getTotalSizeWithLock_shouldReturnSumOfFileSizes() {
+    void deleteActiveByIdAndUserId_shouldReturnRowOnce() {
         // given
-        User user = userService.createUser("test1@example.com", "hashedPassword", User.Role.USER);
+        User user = userService.createUser("delete@example.com", "hashedPassword", User.Role.USER);
         Long userId = user.getId();
-
-        UserFile file1 = UserFile.builder()
-            .userId(userId)
-            .filename("file1.txt")
-            .s3Key("users/" + userId + "/files/file1.txt")
-            .sizeBytes(100L)
-            .contentType("text/plain")
-            .createdAt(Instant.now())
-            .updatedAt(Instant.now())
-            .build();
-
-        UserFile file2 = UserFile.builder()
-            .userId(userId)
-            .filename("file2.txt")
-            .s3Key("users/" + userId + "/files/file2.txt")
-            .sizeBytes(200L)
-            .contentType("text/plain")
-            .createdAt(Instant.now())
-            .updatedAt(Instant.now())
-            .build();
-
-        fileRepository.save(file1);
-        fileRepository.save(file2);
+        UserFile file = fileRepository.save(
+            UserFile.builder()
+                .userId(userId)
+                .filename("delete.txt")
+                .s3Key("users/" + userId + "/files/delete.txt")
+                .sizeBytes(100L)
+                .contentType("text/plain")
+                .build()
+        );
 
         // when
-        Long totalSize = fileRepository.getTotalSizeWithLock(userId);
+        var first = fileRepository.deleteActiveByIdAndUserId(file.getId(), userId);
+        var second = fileRepository.deleteActiveByIdAndUserId(file.getId(), userId);
 
         // then
-        assertThat(totalSize).isEqualTo(300L);
+        assertThat(first).map(UserFile::getFilename).contains("delete.txt");
+        assertThat(second).isEmpty();
     }
 
     @Test
     @Transactional
-    void getTotalSizeWithLock_shouldOnlyCountFilesForSpecificUser() {
+    void findByUserIdAndFilenameContaining_shouldRankSubstringMatchesFirst() {
         // given
-        User user1 = userService.createUser("test2@example.com", "hashedPassword", User.Role.USER);
-        User user2 = userService.createUser("test3@example.com", "hashedPassword", User.Role.USER);
-        Long userId1 = user1.getId();
-        Long userId2 = user2.getId();
-
-        UserFile file1 = UserFile.builder()
-            .userId(userId1)
-            .filename("file1.txt")
-            .s3Key("users/" + userId1 + "/files/file1.txt")
-            .sizeBytes(100L)
-            .contentType("text/plain")
-            .createdAt(Instant.now())
-            .updatedAt(Instant.now())
-            .build();
-
-        UserFile file2 = UserFile.builder()
-            .userId(userId2)
-            .filename("file2.txt")
-            .s3Key("users/" + userId2 + "/files/file2.txt")
-            .sizeBytes(200L)
-            .contentType("text/plain")
-            .createdAt(Instant.now())
-            .updatedAt(Instant.now())
-            .build();
-
-        fileRepository.save(file1);
-        fileRepository.save(file2);
+        User user = userService.createUser("search@example.com", "hashedPassword", User.Role.USER);
+        Long userId = user.getId();
+        // reporrt.pdf only matches fuzzily (typo), photo.jpg not at all
+        for (String filename : List.of("reporrt.pdf", "q1-report.pdf", "report.pdf", "photo.jpg")) {
+            fileRepository.save(
+                UserFile.builder()
+                    .userId(userId)
+                    .filename(filename)
+                    .s3Key("users/" + userId + "/files/" + filename)
+                    .sizeBytes(100L)
+                    .contentType("application/pdf")
+                    .build()
+            );
+        }
 
         // when
-        Long totalSize1 = fileRepository.getTotalSizeWithLock(userId1);
-        Long totalSize2 = fileRepository.getTotalSizeWithLock(userId2);
+        var page = fileRepository.findByUserIdAndFilenameContaining(userId, "REPORT", 0, 10);
 
-        // then
-        assertThat(totalSize1).isEqualTo(100L);
-        assertThat(totalSize2).isEqualTo(200L);
+        // then - substring hits first (equal similarity and created_at in one transaction: newest id first)
+        assertThat(page.getContent()).extracting(UserFile::getFilename)
+            .containsExactly("report.pdf", "q1-report.pdf", "reporrt.pdf");
+        assertThat(page.getTotalElements()).isEqualTo(3);
     }
 }
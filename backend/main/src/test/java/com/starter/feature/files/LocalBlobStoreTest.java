@@ -0,0 +1,227 @@
+package com.starter.feature.files;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.web.util.UriComponents;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/** Unit tests for LocalBlobStore. */
+class LocalBlobStoreTest {
+
+    @TempDir
+    private Path directory;
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2026-01-15T10:00:00Z"));
+
+    private LocalBlobStore store;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        store = new LocalBlobStore(directory, "http://localhost:8080/", "test-signing-key", clock);
+    }
+
+    @Test
+    void uploadFile_shouldStoreContentAndType() throws IOException {
+        // when
+        store.uploadFile("users/1/files/a.txt", bytes("hello world"), "text/plain");
+
+        // then
+        assertThat(store.headObject("users/1/files/a.txt"))
+            .contains(new BlobStore.ObjectInfo(11, "text/plain"));
+        try (InputStream in = store.openObject("users/1/files/a.txt")) {
+            assertThat(in.readAllBytes()).isEqualTo(bytes("hello world"));
+        }
+        try (InputStream in = store.openObject("users/1/files/a.txt", 6, 9)) {
+            assertThat(in.readAllBytes()).isEqualTo(bytes("worl"));
+        }
+        assertThat(store.localPath("users/1/files/a.txt")).isPresent();
+        assertThat(store.headObject("users/1/files/missing.txt")).isEmpty();
+    }
+
+    @Test
+    void completeMultipartUpload_shouldConcatenatePartsInOrder() throws IOException {
+        // given
+        String uploadId = store.createMultipartUpload("blobs/x", "application/zip");
+        BlobStore.Part second = store.uploadPart("blobs/x", uploadId, 2, bytes("world"), 5);
+        BlobStore.Part first = store.uploadPart("blobs/x", uploadId, 1, bytes("hello "), 6);
+
+        // when
+        store.completeMultipartUpload("blobs/x", uploadId, List.of(first, second));
+
+        // then
+        try (InputStream in = store.openObject("blobs/x")) {
+            assertThat(in.readAllBytes()).isEqualTo(bytes("hello world"));
+        }
+        assertThat(store.headObject("blobs/x")).contains(new BlobStore.ObjectInfo(11, "application/zip"));
+        assertThatThrownBy(() -> store.uploadPart("blobs/x", uploadId, 3, bytes("!"), 1))
+            .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void abortIncompleteUploads_shouldDropParts() {
+        // given
+        String uploadId = store.createMultipartUpload("blobs/y", "text/plain");
+        store.uploadPart("blobs/y", uploadId, 1, bytes("part"), 4);
+
+        // when
+        store.abortIncompleteUploads("blobs/y");
+
+        // then
+        assertThatThrownBy(() -> store.completeMultipartUpload("blobs/y", uploadId, List.of()))
+            .isInstanceOf(IllegalStateException.class);
+        assertThat(store.headObject("blobs/y")).isEmpty();
+    }
+
+    @Test
+    void listObjectsPage_shouldPageInKeyOrder() {
+        // given
+        for (String key : List.of("users/2/b", "users/1/files/c", "users/1/a", "other/d")) {
+            store.uploadFile(key, bytes("x"), "text/plain");
+        }
+
+        // when
+        BlobStore.ObjectPage first = store.listObjectsPage("users/", null, 2);
+        BlobStore.ObjectPage second = store.listObjectsPage("users/", "users/1/files/c", 2);
+
+        // then
+        assertThat(first.objects()).extracting(BlobStore.ObjectSummary::key)
+            .containsExactly("users/1/a", "users/1/files/c");
+        assertThat(first.truncated()).isTrue();
+        assertThat(second.objects()).extracting(BlobStore.ObjectSummary::key).containsExactly("users/2/b");
+        assertThat(second.truncated()).isFalse();
+        assertThat(store.listObjectsPage("users/1/f", null, 10).objects())
+            .extracting(BlobStore.ObjectSummary::key).containsExactly("users/1/files/c");
+    }
+
+    @Test
+    void deleteFiles_shouldRemoveObjects() {
+        // given
+        store.uploadFile("a", bytes("1"), "text/plain");
+        store.uploadFile("b", bytes("2"), "text/plain");
+
+        // when
+        var failures = store.deleteFiles(List.of("a", "b", "never-existed"));
+
+        // then
+        assertThat(failures).isEmpty();
+        assertThat(store.headObject("a")).isEmpty();
+        assertThat(store.headObject("b")).isEmpty();
+    }
+
+    @Test
+    void presignDownload_shouldVerifyUntilExpired() {
+        // given
+        BlobStore.PresignedUrl presigned = store.presignDownload("users/1/a b.txt", "a b.txt", null, Duration.ofMinutes(5));
+        UriComponents url = UriComponentsBuilder.fromUriString(presigned.url()).build(true);
+        String key = decode(url.getQueryParams().getFirst("key"));
+        long expires = Long.parseLong(url.getQueryParams().getFirst("expires"));
+        String signature = url.getQueryParams().getFirst("signature");
+
+        // then
+        assertThat(url.getPath()).isEqualTo(LocalBlobStore.OBJECTS_PATH);
+        assertThat(key).isEqualTo("users/1/a b.txt");
+        assertThat(store.verifyDownload(key, "a b.txt", null, expires, signature)).isTrue();
+        assertThat(store.verifyDownload(key, "other.txt", null, expires, signature)).isFalse();
+        assertThat(store.verifyDownload("users/2/a b.txt", "a b.txt", null, expires, signature)).isFalse();
+
+        clock.advance(Duration.ofMinutes(6));
+        assertThat(store.verifyDownload(key, "a b.txt", null, expires, signature)).isFalse();
+    }
+
+    @Test
+    void write_shouldStoreSignedUpload_andRejectShortBody() throws IOException {
+        // given
+        BlobStore.PresignedUrl presigned =
+            store.generatePresignedUploadUrl("blobs/up", "image/png", 4, Duration.ofMinutes(5));
+        UriComponents url = UriComponentsBuilder.fromUriString(presigned.url()).build(true);
+        long expires = Long.parseLong(url.getQueryParams().getFirst("expires"));
+        String signature = url.getQueryParams().getFirst("signature");
+
+        // when
+        store.write("blobs/up", new ByteArrayInputStream(bytes("abcd")), 4, "image/png");
+
+        // then
+        assertThat(presigned.signedHeaders()).containsEntry("Content-Type", List.of("image/png"));
+        assertThat(store.verifyUpload("blobs/up", "image/png", 4, expires, signature)).isTrue();
+        assertThat(store.verifyUpload("blobs/up", "image/png", 5, expires, signature)).isFalse();
+        assertThat(store.headObject("blobs/up")).contains(new BlobStore.ObjectInfo(4, "image/png"));
+        assertThatThrownBy(() -> store.write("blobs/short", new ByteArrayInputStream(bytes("ab")), 4, "image/png"))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThat(store.headObject("blobs/short")).isEmpty();
+    }
+
+    @Test
+    void operations_shouldRejectKeysOutsideStore() {
+        assertThatThrownBy(() -> store.uploadFile("../escape", bytes("x"), "text/plain"))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> store.openObject("users/../../meta/a"))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> store.headObject("/etc/passwd"))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThat(Files.exists(directory.resolve("escape"))).isFalse();
+    }
+
+    @Test
+    void requireSigningKey_shouldRejectMissingKeyOrJwtSecret() {
+        assertThatThrownBy(() -> LocalBlobStore.requireSigningKey("", "jwt-secret"))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("LOCAL_STORAGE_SIGNING_KEY must be set");
+        assertThatThrownBy(() -> LocalBlobStore.requireSigningKey("jwt-secret", "jwt-secret"))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("must differ");
+        assertThat(LocalBlobStore.requireSigningKey("storage-key", "jwt-secret")).isEqualTo("storage-key");
+    }
+
+    private static byte[] bytes(String content) {
+        return content.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String decode(String value) {
+        return URLDecoder.decode(value, StandardCharsets.UTF_8);
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
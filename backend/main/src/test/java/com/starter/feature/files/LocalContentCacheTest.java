@@ -0,0 +1,116 @@
+package com.starter.feature.files;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/** Unit tests for LocalContentCache. */
+@ExtendWith(MockitoExtension.class)
+class LocalContentCacheTest {
+
+    @Mock
+    private BlobStore blobStore;
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void open_shouldFillInBackgroundOnSecondRequest_andServeLaterRequestsFromDisk() throws IOException {
+        // given
+        LocalContentCache cache = cache(100);
+        when(blobStore.openObject("a")).thenReturn(new ByteArrayInputStream(new byte[] {1, 2, 3}));
+
+        // when
+        Optional<FileChannel> first = cache.open("a", 3);
+        Optional<FileChannel> second = cache.open("a", 3);
+        Optional<FileChannel> third = cache.open("a", 3);
+
+        // then - the admitting request is served from S3, the fill ran behind it
+        assertThat(first).isEmpty();
+        assertThat(second).isEmpty();
+        try (FileChannel channel = third.orElseThrow()) {
+            ByteBuffer buffer = ByteBuffer.allocate(3);
+            channel.read(buffer, 0);
+            assertThat(buffer.array()).containsExactly(1, 2, 3);
+        }
+        verify(blobStore, times(1)).openObject("a");
+    }
+
+    @Test
+    void open_shouldRunOneFillPerKey_whileFillIsInFlight() throws IOException {
+        // given - fills queued, not run yet
+        List<Runnable> fills = new ArrayList<>();
+        LocalContentCache cache = new LocalContentCache(
+            blobStore, new SimpleMeterRegistry(), true, directory, 100, 100, fills::add
+        );
+        cache.init();
+        when(blobStore.openObject("a")).thenReturn(new ByteArrayInputStream(new byte[] {1, 2, 3}));
+
+        // when
+        cache.open("a", 3);
+        for (int i = 0; i < 3; i++) {
+            assertThat(cache.open("a", 3)).isEmpty();
+        }
+        fills.forEach(Runnable::run);
+
+        // then
+        assertThat(fills).hasSize(1);
+        cache.open("a", 3).orElseThrow().close();
+        verify(blobStore, times(1)).openObject("a");
+    }
+
+    @Test
+    void open_shouldEvictLeastRecentlyUsed_whenOverMaxSize() throws IOException {
+        // given
+        LocalContentCache cache = cache(10);
+        when(blobStore.openObject("a")).thenReturn(new ByteArrayInputStream(new byte[6]));
+        when(blobStore.openObject("b")).thenReturn(new ByteArrayInputStream(new byte[6]));
+
+        // when
+        cache.open("a", 6);
+        cache.open("a", 6);
+        cache.open("a", 6).orElseThrow().close();
+        cache.open("b", 6);
+        cache.open("b", 6);
+        cache.open("b", 6).orElseThrow().close();
+
+        // then
+        assertThat(cache.usedBytes()).isEqualTo(6);
+        assertThat(cache.open("a", 6)).isEmpty();
+    }
+
+    @Test
+    void open_shouldBypassCache_forLargeObjects() throws IOException {
+        // given
+        LocalContentCache cache = cache(100);
+
+        // when & then
+        assertThat(cache.open("big", 101)).isEmpty();
+        assertThat(cache.open("big", 101)).isEmpty();
+    }
+
+    private LocalContentCache cache(long maxBytes) throws IOException {
+        LocalContentCache cache = new LocalContentCache(
+            blobStore, new SimpleMeterRegistry(), true, directory, maxBytes, maxBytes, Runnable::run
+        );
+        cache.init();
+        return cache;
+    }
+}
@@ -0,0 +1,176 @@
+package com.starter.feature.files;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/** Unit tests for OrphanReconciliationService. */
+@ExtendWith(MockitoExtension.class)
+class OrphanReconciliationServiceTest {
+
+    private static final int PAGE_SIZE = 1000;
+
+    @Mock
+    private BlobStore blobStore;
+
+    @Mock
+    private FileRepository fileRepository;
+
+    @Mock
+    private S3OutboxRepository outboxRepository;
+
+    @Mock
+    private S3ReconciliationRunRepository runRepository;
+
+    private OrphanReconciliationService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new OrphanReconciliationService(
+            blobStore, fileRepository, outboxRepository, runRepository, PAGE_SIZE, 1000, 24, 15
+        );
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void execute_shouldReportOrphansAndDanglingRows() {
+        // given
+        Instant old = Instant.now().minus(Duration.ofDays(2));
+        givenObjects(
+            object("users/1/files/a", old),
+            object("users/1/files/b-orphan", old),
+            object("users/1/files/c-uploading", Instant.now()),
+            object("users/1/files/d", old)
+        );
+        givenRows(
+            new FileRepository.ContentKey("users/1/files/a", true),
+            new FileRepository.ContentKey("users/1/files/b2-missing", true),
+            new FileRepository.ContentKey("users/1/files/b3-pending", false),
+            new FileRepository.ContentKey("users/1/files/d", true)
+        );
+        S3ReconciliationRun run = run(false);
+
+        // when
+        service.execute(run);
+
+        // then
+        assertThat(run.getObjectsScanned()).isEqualTo(4);
+        assertThat(run.getRowsScanned()).isEqualTo(4);
+        assertThat(run.getOrphanedObjects()).isEqualTo(1);
+        assertThat(run.getOrphanedBytes()).isEqualTo(10);
+        assertThat(run.getSampleOrphans()).containsExactly("users/1/files/b-orphan");
+        assertThat(run.getDanglingRows()).isEqualTo(1);
+        assertThat(run.getSampleDangling()).containsExactly("users/1/files/b2-missing");
+        assertThat(run.getLastKey()).isEqualTo("users/1/files/d");
+        verify(outboxRepository).enqueue(eq(List.of("users/1/files/b-orphan")), any(Instant.class));
+        verify(runRepository).finish(1L, S3ReconciliationRun.Status.COMPLETED, null);
+    }
+
+    @Test
+    void execute_shouldNotEnqueue_whenDryRun() {
+        // given
+        givenObjects(object("users/1/files/orphan", Instant.now().minus(Duration.ofDays(2))));
+        givenRows();
+        S3ReconciliationRun run = run(true);
+
+        // when
+        service.execute(run);
+
+        // then
+        assertThat(run.getOrphanedObjects()).isEqualTo(1);
+        verify(outboxRepository, never()).enqueue(anyCollection(), any(Instant.class));
+        verify(runRepository).finish(1L, S3ReconciliationRun.Status.COMPLETED, null);
+    }
+
+    @Test
+    void execute_shouldMarkFailed_whenListingFails() {
+        // given
+        when(blobStore.listObjectsPage("users/", null, PAGE_SIZE)).thenThrow(new IllegalStateException("throttled"));
+        S3ReconciliationRun run = run(true);
+
+        // when
+        service.execute(run);
+
+        // then
+        verify(runRepository).finish(1L, S3ReconciliationRun.Status.FAILED, "throttled");
+    }
+
+    @Test
+    void compareKeys_shouldFollowUtf8ByteOrder() {
+        // U+FF5E sorts before U+1F600 in UTF-8, but after its surrogate pair in UTF-16
+        String bmp = "users/1/files/～";
+        String supplementary = "users/1/files/😀";
+
+        assertThat(bmp.compareTo(supplementary)).isPositive();
+        assertThat(OrphanReconciliationService.compareKeys(bmp, supplementary)).isNegative();
+        assertThat(OrphanReconciliationService.compareKeys("users/1/a", "users/1/ab")).isNegative();
+        assertThat(OrphanReconciliationService.compareKeys("users/1/a", "users/1/a")).isZero();
+    }
+
+    @Test
+    void start_shouldRejectPrefixOutsideUserContent() {
+        assertThatThrownBy(() -> service.start("", false))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.start("users/../", false))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void start_shouldReject_whenAnotherRunIsActive() {
+        // given
+        S3ReconciliationRun active = run(true);
+        active.setUpdatedAt(Instant.now());
+        when(runRepository.findRunning()).thenReturn(Optional.of(active));
+
+        // when & then
+        assertThatThrownBy(() -> service.start("users/", true))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("already in progress");
+        verify(runRepository, never()).create(any(), eq(true));
+    }
+
+    private void givenObjects(BlobStore.ObjectSummary... objects) {
+        when(blobStore.listObjectsPage(eq("users/"), isNull(), eq(PAGE_SIZE))).thenReturn(
+            new BlobStore.ObjectPage(List.of(objects), false)
+        );
+    }
+
+    private void givenRows(FileRepository.ContentKey... rows) {
+        when(fileRepository.findContentKeysAfter("users/", null, PAGE_SIZE)).thenReturn(List.of(rows));
+    }
+
+    private static BlobStore.ObjectSummary object(String key, Instant lastModified) {
+        return new BlobStore.ObjectSummary(key, 10L, lastModified);
+    }
+
+    private static S3ReconciliationRun run(boolean dryRun) {
+        return S3ReconciliationRun.builder()
+            .id(1L)
+            .prefix("users/")
+            .dryRun(dryRun)
+            .status(S3ReconciliationRun.Status.RUNNING)
+            .build();
+    }
+}
@@ -0,0 +1,148 @@
+package com.starter.feature.files;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+/** Unit tests for PresignedUrlCache. */
+@ExtendWith(MockitoExtension.class)
+class PresignedUrlCacheTest {
+
+    private static final Duration EXPIRATION = Duration.ofMinutes(60);
+    private static final Instant START = Instant.parse("2024-01-01T10:00:00Z");
+
+    @Mock
+    private BlobStore blobStore;
+
+    private SimpleMeterRegistry meterRegistry;
+    private MutableClock clock;
+    private PresignedUrlCache cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        clock = new MutableClock(START);
+        cache = new PresignedUrlCache(blobStore, meterRegistry, EXPIRATION, 2, clock);
+    }
+
+    @Test
+    void getDownloadUrl_shouldReuseUrl_whileHalfOfLifetimeRemains() {
+        // given
+        BlobStore.PresignedUrl presigned = presigned("a", START.plus(EXPIRATION));
+        when(blobStore.presignDownload("a", "f.txt", null, EXPIRATION)).thenReturn(presigned);
+
+        // when
+        String first = cache.getDownloadUrl(file("a"));
+        clock.now = START.plus(Duration.ofMinutes(30));
+        String second = cache.getDownloadUrl(file("a"));
+
+        // then
+        assertThat(second).isEqualTo(first);
+        verify(blobStore, times(1)).presignDownload("a", "f.txt", null, EXPIRATION);
+        assertThat(meterRegistry.get("s3.presigned.cache.hit.ratio").gauge().value()).isEqualTo(0.5);
+    }
+
+    @Test
+    void getDownloadUrl_shouldResign_whenLessThanHalfOfLifetimeRemains() {
+        // given
+        BlobStore.PresignedUrl first = presigned("a", START.plus(EXPIRATION));
+        BlobStore.PresignedUrl second = presigned("a2", START.plus(Duration.ofMinutes(31)).plus(EXPIRATION));
+        when(blobStore.presignDownload("a", "f.txt", null, EXPIRATION)).thenReturn(first, second);
+
+        // when
+        cache.getDownloadUrl(file("a"));
+        clock.now = START.plus(Duration.ofMinutes(31));
+        String url = cache.getDownloadUrl(file("a"));
+
+        // then
+        assertThat(url).endsWith("/a2");
+        assertThat(meterRegistry.get("s3.presigned.cache.requests").tag("result", "miss").counter().count())
+            .isEqualTo(2);
+    }
+
+    @Test
+    void invalidate_shouldForceNewSignature() {
+        // given
+        BlobStore.PresignedUrl presigned = presigned("a", START.plus(EXPIRATION));
+        when(blobStore.presignDownload("a", "f.txt", null, EXPIRATION)).thenReturn(presigned);
+        cache.getDownloadUrl(file("a"));
+
+        // when
+        cache.invalidate(List.of(file("a")));
+        cache.getDownloadUrl(file("a"));
+
+        // then
+        verify(blobStore, times(2)).presignDownload("a", "f.txt", null, EXPIRATION);
+    }
+
+    @Test
+    void getDownloadUrl_shouldEvictLeastRecentlyUsed_whenFull() {
+        // given
+        when(blobStore.presignDownload(anyString(), eq("f.txt"), isNull(), eq(EXPIRATION)))
+            .thenAnswer(inv -> presigned(inv.getArgument(0), START.plus(EXPIRATION)));
+        cache.getDownloadUrl(file("a"));
+        cache.getDownloadUrl(file("b"));
+        cache.getDownloadUrl(file("a"));
+
+        // when
+        cache.getDownloadUrl(file("c"));
+        cache.getDownloadUrl(file("a"));
+        cache.getDownloadUrl(file("b"));
+
+        // then
+        assertThat(cache.size()).isEqualTo(2);
+        verify(blobStore, times(1)).presignDownload("a", "f.txt", null, EXPIRATION);
+        verify(blobStore, times(2)).presignDownload("b", "f.txt", null, EXPIRATION);
+    }
+
+    private static UserFile file(String s3Key) {
+        return UserFile.builder().s3Key(s3Key).filename("f.txt").build();
+    }
+
+    private static BlobStore.PresignedUrl presigned(String name, Instant expiresAt) {
+        return new BlobStore.PresignedUrl("https://bucket.s3.amazonaws.com/" + name, Map.of(), expiresAt);
+    }
+
+    /** Clock the test can move forward. */
+    private static class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
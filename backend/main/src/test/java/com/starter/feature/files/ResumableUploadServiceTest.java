@@ -0,0 +1,154 @@
+package com.starter.feature.files;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.starter.feature.files.dto.FileDto;
+import com.starter.feature.files.exception.UploadOffsetMismatchException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/** Unit tests for ResumableUploadService. */
+@ExtendWith(MockitoExtension.class)
+class ResumableUploadServiceTest {
+    private static final String S3_KEY = "users/1/files/abc-video.mp4";
+
+    @Mock
+    private FileRepository fileRepository;
+
+    @Mock
+    private ResumableUploadRepository uploadRepository;
+
+    @Mock
+    private FileService fileService;
+
+    @Mock
+    private UploadStateService uploadStateService;
+
+    @Mock
+    private BlobStore blobStore;
+
+    @Mock
+    private UploadBufferPool bufferPool;
+
+    private ResumableUploadService service;
+    private UserFile pending;
+
+    @BeforeEach
+    void setUp() {
+        service = new ResumableUploadService(
+            fileRepository, uploadRepository, fileService, uploadStateService, blobStore, bufferPool, 100L, 24
+        );
+        pending = UserFile.builder()
+            .id(10L)
+            .userId(1L)
+            .filename("video.mp4")
+            .s3Key(S3_KEY)
+            .sizeBytes(10L)
+            .contentType("video/mp4")
+            .status(UserFile.Status.PENDING)
+            .uploadExpiresAt(Instant.now().plusSeconds(600))
+            .build();
+        when(fileRepository.findPendingByIdAndUserId(10L, 1L)).thenReturn(Optional.of(pending));
+    }
+
+    @Test
+    void append_shouldUploadChunkAsNextPart_andAdvanceOffset() throws IOException {
+        // given
+        givenUpload(4, List.of("etag-1"));
+        when(bufferPool.getBufferSize()).thenReturn(4);
+        when(bufferPool.acquire()).thenReturn(new byte[4]);
+        BlobStore.Part part = new BlobStore.Part(2, "etag-2");
+        when(blobStore.uploadPart(eq(S3_KEY), eq("upload-1"), eq(2), any(byte[].class), eq(4))).thenReturn(part);
+        when(uploadRepository.advance(eq(10L), eq(4L), eq(8L), eq("etag-2"), any(), any())).thenReturn(true);
+
+        // when
+        long offset = service.append(1L, 10L, 4, 4, new ByteArrayInputStream(new byte[] {4, 5, 6, 7}));
+
+        // then
+        assertThat(offset).isEqualTo(8);
+        verify(bufferPool).release(any(byte[].class));
+    }
+
+    @Test
+    void append_shouldRejectChunk_whenOffsetDoesNotMatch() {
+        // given
+        givenUpload(4, List.of("etag-1"));
+
+        // when & then
+        assertThatThrownBy(() -> service.append(1L, 10L, 0, 4, new ByteArrayInputStream(new byte[4])))
+            .isInstanceOf(UploadOffsetMismatchException.class)
+            .satisfies(e -> assertThat(((UploadOffsetMismatchException) e).getCurrentOffset()).isEqualTo(4));
+        verify(blobStore, never()).uploadPart(anyString(), anyString(), anyInt(), any(byte[].class), anyInt());
+    }
+
+    @Test
+    void append_shouldNotStoreTruncatedChunk() throws IOException {
+        // given
+        givenUpload(0, List.of());
+        when(bufferPool.getBufferSize()).thenReturn(4);
+        when(bufferPool.acquire()).thenReturn(new byte[4]);
+
+        // when & then
+        assertThatThrownBy(() -> service.append(1L, 10L, 0, -1, new ByteArrayInputStream(new byte[3])))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("exactly 4 bytes");
+        verify(blobStore, never()).uploadPart(anyString(), anyString(), anyInt(), any(byte[].class), anyInt());
+        verify(uploadRepository, never()).advance(anyLong(), anyLong(), anyLong(), anyString(), any(), any());
+    }
+
+    @Test
+    void complete_shouldAssembleParts_andActivateFile() {
+        // given
+        givenUpload(10, List.of("etag-1", "etag-2", "etag-3"));
+        when(uploadStateService.activate(pending, 10L)).thenReturn(pending);
+        when(fileService.toDto(pending)).thenReturn(FileDto.builder().id(10L).build());
+
+        // when
+        FileDto result = service.complete(1L, 10L);
+
+        // then
+        assertThat(result.getId()).isEqualTo(10L);
+        verify(blobStore).completeMultipartUpload(S3_KEY, "upload-1", List.of(
+            new BlobStore.Part(1, "etag-1"),
+            new BlobStore.Part(2, "etag-2"),
+            new BlobStore.Part(3, "etag-3")
+        ));
+    }
+
+    @Test
+    void complete_shouldFail_whenContentIsMissing() {
+        // given
+        givenUpload(8, List.of("etag-1", "etag-2"));
+
+        // when & then
+        assertThatThrownBy(() -> service.complete(1L, 10L))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("8 of 10 bytes");
+        verify(uploadStateService, never()).activate(any(UserFile.class), anyLong());
+    }
+
+    private void givenUpload(long offset, List<String> partEtags) {
+        when(uploadRepository.findByFileId(10L)).thenReturn(
+            Optional.of(new ResumableUpload(10L, "upload-1", 10L, 4, offset, partEtags))
+        );
+    }
+}
@@ -0,0 +1,138 @@
+package com.starter.feature.files;
+
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.BucketAlreadyOwnedByYouException;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+
+import com.starter.feature.files.config.S3Config;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+
+/**
+ * Compares S3 client modes against LocalStack: requests per second and p50/p99 latency of PUT + HEAD pairs
+ * at a fixed number of requests in flight.
+ *
+ * Modes: the blocking client on a platform thread pool the size of Tomcat's (what a request thread does today),
+ * the blocking client on virtual threads (sync mode), and S3AsyncClient (async mode). Clients are built by
+ * {@link S3Config} with the application defaults. Not a test; run scripts/s3-benchmark.sh.
+ */
+public final class S3ClientModeBenchmark {
+    private static final int TOMCAT_MAX_THREADS = 200;
+    private static final int PAYLOAD_SIZE = 16 * 1024;
+
+    private S3ClientModeBenchmark() {
+    }
+
+    /**
+     * Arguments: endpoint, bucket, requests per mode, requests in flight.
+     */
+    public static void main(String[] args) throws Exception {
+        String endpoint = args.length > 0 ? args[0] : "http://localhost:4566";
+        String bucket = args.length > 1 ? args[1] : "starter-benchmark";
+        int requests = args.length > 2 ? Integer.parseInt(args[2]) : 5000;
+        int concurrency = args.length > 3 ? Integer.parseInt(args[3]) : 500;
+
+        S3Config config = new S3Config();
+        config.setS3BucketName(bucket);
+        config.setS3Region("us-east-1");
+        config.setS3Endpoint(endpoint);
+        config.setMaxConnections(64);
+        config.setConnectionAcquisitionTimeoutMs(60_000);
+        config.setAsyncMaxConcurrency(256);
+        config.setAsyncMaxPendingAcquires(10_000);
+        config.setRetryMaxAttempts(3);
+        byte[] payload = new byte[PAYLOAD_SIZE];
+
+        try (S3Client sync = config.s3Client(); S3AsyncClient async = config.s3AsyncClient();
+             ExecutorService platform = Executors.newFixedThreadPool(TOMCAT_MAX_THREADS);
+             ExecutorService virtual = Executors.newVirtualThreadPerTaskExecutor()) {
+            try {
+                sync.createBucket(request -> request.bucket(bucket));
+            } catch (BucketAlreadyOwnedByYouException e) {
+                // reused between runs
+            }
+
+            IntConsumer blocking = i -> {
+                String key = "benchmark/" + i;
+                sync.putObject(put(bucket, key), RequestBody.fromBytes(payload));
+                sync.headObject(head(bucket, key));
+            };
+            IntFunction<CompletableFuture<?>> onPlatform =
+                i -> CompletableFuture.runAsync(() -> blocking.accept(i), platform);
+            IntFunction<CompletableFuture<?>> onVirtual =
+                i -> CompletableFuture.runAsync(() -> blocking.accept(i), virtual);
+            IntFunction<CompletableFuture<?>> nonBlocking = i -> {
+                String key = "benchmark/" + i;
+                return async.putObject(put(bucket, key), AsyncRequestBody.fromBytes(payload))
+                    .thenCompose(response -> async.headObject(head(bucket, key)));
+            };
+
+            System.out.printf("%d PUT+HEAD pairs per mode, %d in flight, %s%n", requests, concurrency, endpoint);
+            System.out.printf("%-28s %10s %10s %10s %8s%n", "mode", "req/s", "p50 ms", "p99 ms", "errors");
+            run("sync, " + TOMCAT_MAX_THREADS + " platform threads", onPlatform, requests, concurrency);
+            run("sync, virtual threads", onVirtual, requests, concurrency);
+            run("async (Netty)", nonBlocking, requests, concurrency);
+        }
+    }
+
+    private static void run(String mode, IntFunction<CompletableFuture<?>> operation, int requests, int concurrency)
+        throws InterruptedException {
+        // Warm up connections and JIT before measuring
+        measure(operation, Math.min(requests, concurrency * 2), concurrency);
+        Result result = measure(operation, requests, concurrency);
+        long[] sorted = result.latencies().clone();
+        Arrays.sort(sorted);
+        System.out.printf(
+            "%-28s %10.0f %10.1f %10.1f %8d%n",
+            mode,
+            requests / (result.elapsedNanos() / 1e9),
+            sorted[(int) (sorted.length * 0.50)] / 1e6,
+            sorted[Math.min(sorted.length - 1, (int) (sorted.length * 0.99))] / 1e6,
+            result.errors()
+        );
+    }
+
+    private static Result measure(IntFunction<CompletableFuture<?>> operation, int requests, int concurrency)
+        throws InterruptedException {
+        Semaphore inFlight = new Semaphore(concurrency);
+        long[] latencies = new long[requests];
+        AtomicInteger errors = new AtomicInteger();
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            inFlight.acquire();
+            int index = i;
+            long issued = System.nanoTime();
+            operation.apply(i).whenComplete((response, error) -> {
+                latencies[index] = System.nanoTime() - issued;
+                if (error != null) {
+                    errors.incrementAndGet();
+                }
+                inFlight.release();
+            });
+        }
+        inFlight.acquire(concurrency);
+        return new Result(latencies, System.nanoTime() - start, errors.get());
+    }
+
+    private static PutObjectRequest put(String bucket, String key) {
+        return PutObjectRequest.builder().bucket(bucket).key(key).contentType("application/octet-stream").build();
+    }
+
+    private static HeadObjectRequest head(String bucket, String key) {
+        return HeadObjectRequest.builder().bucket(bucket).key(key).build();
+    }
+
+    private record Result(long[] latencies, long elapsedNanos, int errors) {
+    }
+}
@@ -0,0 +1,162 @@
+package com.starter.feature.files;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+import com.starter.core.exception.FileTooLargeException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+/** Unit tests for S3MultipartUploader. */
+@ExtendWith(MockitoExtension.class)
+class S3MultipartUploaderTest {
+
+    private static final int PART_SIZE = 5 * 1024 * 1024;
+
+    @Mock
+    private BlobStore blobStore;
+
+    private UploadBufferPool bufferPool;
+    private S3MultipartUploader uploader;
+
+    @BeforeEach
+    void setUp() {
+        bufferPool = new UploadBufferPool(PART_SIZE, 4, 1000);
+        uploader = new S3MultipartUploader(blobStore, bufferPool, 2, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        uploader.shutdown();
+    }
+
+    @Test
+    void upload_shouldUseSinglePut_whenContentFitsInOnePart() throws IOException {
+        // when - more small uploads than the pool has buffers (4)
+        for (int i = 0; i < 10; i++) {
+            long size = uploader.upload("key", "text/plain", new ByteArrayInputStream(new byte[1024]), Long.MAX_VALUE);
+            assertThat(size).isEqualTo(1024);
+        }
+
+        // then - every buffer went back to the pool
+        verify(blobStore, times(10)).uploadFile(eq("key"), any(byte[].class), eq(1024), eq("text/plain"));
+        verify(blobStore, never()).createMultipartUpload(anyString(), anyString());
+        for (int i = 0; i < 4; i++) {
+            assertThat(bufferPool.acquire()).hasSize(PART_SIZE);
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void upload_shouldSplitIntoOrderedParts_whenContentIsLarge() throws IOException {
+        // given
+        int length = PART_SIZE * 2 + 100;
+        when(blobStore.createMultipartUpload("key", "application/zip")).thenReturn("upload-1");
+        when(blobStore.uploadPart(eq("key"), eq("upload-1"), anyInt(), any(byte[].class), anyInt()))
+            .thenAnswer(inv -> new BlobStore.Part(inv.getArgument(2), "etag"));
+
+        // when
+        long size = uploader.upload("key", "application/zip", new ByteArrayInputStream(new byte[length]), length);
+
+        // then
+        assertThat(size).isEqualTo(length);
+        verify(blobStore).uploadPart(eq("key"), eq("upload-1"), eq(3), any(byte[].class), eq(100));
+        ArgumentCaptor<List<BlobStore.Part>> parts = ArgumentCaptor.forClass(List.class);
+        verify(blobStore).completeMultipartUpload(eq("key"), eq("upload-1"), parts.capture());
+        assertThat(parts.getValue()).extracting(BlobStore.Part::partNumber).containsExactly(1, 2, 3);
+    }
+
+    @Test
+    void upload_shouldAbort_whenPartUploadFails() {
+        // given
+        int length = PART_SIZE * 2;
+        when(blobStore.createMultipartUpload("key", "application/zip")).thenReturn("upload-1");
+        when(blobStore.uploadPart(eq("key"), eq("upload-1"), anyInt(), any(byte[].class), anyInt()))
+            .thenThrow(S3Exception.builder().message("boom").build());
+
+        // when & then
+        assertThatThrownBy(
+            () -> uploader.upload("key", "application/zip", new ByteArrayInputStream(new byte[length]), length)
+        ).isInstanceOf(S3Exception.class);
+        verify(blobStore).abortMultipartUpload("key", "upload-1");
+        verify(blobStore, never()).completeMultipartUpload(anyString(), anyString(), anyList());
+    }
+
+    @Test
+    void upload_shouldAbort_whenLimitExceeded() {
+        // given
+        int length = PART_SIZE * 3;
+        when(blobStore.createMultipartUpload("key", "application/zip")).thenReturn("upload-1");
+
+        // when & then
+        assertThatThrownBy(
+            () -> uploader.upload("key", "application/zip", new ByteArrayInputStream(new byte[length]), PART_SIZE)
+        ).isInstanceOf(FileTooLargeException.class);
+        verify(blobStore).abortMultipartUpload("key", "upload-1");
+    }
+
+    @Test
+    void upload_shouldAbortAndReleaseBuffers_whenClientDisconnects() throws IOException {
+        // given
+        when(blobStore.createMultipartUpload("key", "application/zip")).thenReturn("upload-1");
+        // first part may be skipped if the abort wins the race
+        lenient().when(blobStore.uploadPart(eq("key"), eq("upload-1"), anyInt(), any(byte[].class), anyInt()))
+            .thenAnswer(inv -> new BlobStore.Part(inv.getArgument(2), "etag"));
+        InputStream disconnecting = new DisconnectingInputStream(PART_SIZE + 10);
+
+        // when & then
+        assertThatThrownBy(() -> uploader.upload("key", "application/zip", disconnecting, Long.MAX_VALUE))
+            .isInstanceOf(IOException.class);
+        verify(blobStore).abortMultipartUpload("key", "upload-1");
+
+        // all buffers returned to the pool
+        for (int i = 0; i < 4; i++) {
+            bufferPool.acquire();
+        }
+    }
+
+    @Test
+    void upload_shouldRejectEmptyStream() {
+        assertThatThrownBy(() -> uploader.upload("key", "text/plain", new ByteArrayInputStream(new byte[0]), 10))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /** Stream that fails after a number of bytes, like a client dropping the connection. */
+    private static class DisconnectingInputStream extends InputStream {
+        private int remaining;
+
+        DisconnectingInputStream(int bytesBeforeFailure) {
+            this.remaining = bytesBeforeFailure;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining-- <= 0) {
+                throw new IOException("Connection reset by peer");
+            }
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.starter.feature.files;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/** Unit tests for S3OutboxWorker. */
+@ExtendWith(MockitoExtension.class)
+class S3OutboxWorkerTest {
+
+    @Mock
+    private S3OutboxRepository outboxRepository;
+
+    @Mock
+    private BulkObjectDeleter bulkObjectDeleter;
+
+    private SimpleMeterRegistry meterRegistry;
+    private S3OutboxWorker worker;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        worker = new S3OutboxWorker(outboxRepository, bulkObjectDeleter, meterRegistry, 100, 300, 10, 3600);
+    }
+
+    @Test
+    void deliverBatch_shouldDeleteDeliveredRows_andRescheduleFailures() {
+        // given
+        Instant now = Instant.parse("2024-01-01T00:00:00Z");
+        when(outboxRepository.claim(now, Duration.ofSeconds(300), 100)).thenReturn(List.of(
+            new S3OutboxEntry(1L, "a", 1),
+            new S3OutboxEntry(2L, "b", 3)
+        ));
+        when(bulkObjectDeleter.delete(List.of("a", "b"))).thenReturn(Map.of("b", "SlowDown: reduce rate"));
+
+        // when
+        int claimed = worker.deliverBatch(now);
+
+        // then
+        assertThat(claimed).isEqualTo(2);
+        verify(outboxRepository).delete(List.of(1L));
+        verify(outboxRepository).reschedule(2L, now.plusSeconds(40), "SlowDown: reduce rate");
+    }
+
+    @Test
+    void deliverBatch_shouldDoNothing_whenQueueEmpty() {
+        when(outboxRepository.claim(any(), any(), eq(100))).thenReturn(List.of());
+
+        assertThat(worker.deliverBatch(Instant.now())).isZero();
+        verify(outboxRepository, never()).reschedule(anyLong(), any(), anyString());
+    }
+
+    @Test
+    void backoff_shouldGrowExponentially_upToMax() {
+        assertThat(worker.backoff(1)).isEqualTo(Duration.ofSeconds(10));
+        assertThat(worker.backoff(2)).isEqualTo(Duration.ofSeconds(20));
+        assertThat(worker.backoff(5)).isEqualTo(Duration.ofSeconds(160));
+        assertThat(worker.backoff(50)).isEqualTo(Duration.ofHours(1));
+    }
+
+    @Test
+    void poll_shouldPublishQueueMetrics() {
+        // given
+        when(outboxRepository.claim(any(), any(), eq(100))).thenReturn(List.of());
+        when(outboxRepository.count()).thenReturn(42L);
+        when(outboxRepository.findOldestCreatedAt()).thenReturn(Optional.of(Instant.now().minusSeconds(120)));
+
+        // when
+        worker.poll();
+
+        // then
+        assertThat(meterRegistry.get("s3.outbox.depth").gauge().value()).isEqualTo(42.0);
+        assertThat(meterRegistry.get("s3.outbox.oldest.age").gauge().value()).isGreaterThanOrEqualTo(120.0);
+    }
+}
@@ -0,0 +1,69 @@
+package com.starter.feature.files;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+
+/** Unit tests for StorageCodec. */
+class StorageCodecTest {
+
+    @Test
+    void encode_shouldProduceGzipThatStandardDecodersRead() throws IOException {
+        // given
+        byte[] content = "{\"name\": \"value\"}\n".repeat(5000).getBytes(StandardCharsets.UTF_8);
+
+        // when
+        byte[] encoded;
+        InputStream source = new ByteArrayInputStream(content);
+        try (InputStream in = StorageCodec.GZIP.encode(source, Deflater.DEFAULT_COMPRESSION)) {
+            encoded = in.readAllBytes();
+        }
+
+        // then
+        assertThat(encoded.length).isLessThan(content.length / 10);
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(encoded))) {
+            assertThat(in.readAllBytes()).isEqualTo(content);
+        }
+        try (InputStream in = StorageCodec.GZIP.decode(new ByteArrayInputStream(encoded))) {
+            assertThat(in.readAllBytes()).isEqualTo(content);
+        }
+    }
+
+    @Test
+    void encode_shouldHandleSingleByteReads() throws IOException {
+        // given
+        byte[] content = "abc".getBytes(StandardCharsets.UTF_8);
+        InputStream in = StorageCodec.GZIP.encode(new ByteArrayInputStream(content), 1);
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+
+        // when
+        for (int b = in.read(); b >= 0; b = in.read()) {
+            encoded.write(b);
+        }
+        in.close();
+
+        // then
+        try (InputStream decoded = new GZIPInputStream(new ByteArrayInputStream(encoded.toByteArray()))) {
+            assertThat(decoded.readAllBytes()).isEqualTo(content);
+        }
+    }
+
+    @Test
+    void isAcceptedBy_shouldHonorQualityAndWildcard() {
+        assertThat(StorageCodec.GZIP.isAcceptedBy("gzip, deflate, br")).isTrue();
+        assertThat(StorageCodec.GZIP.isAcceptedBy("br;q=1.0, GZIP;q=0.5")).isTrue();
+        assertThat(StorageCodec.GZIP.isAcceptedBy("*")).isTrue();
+        assertThat(StorageCodec.GZIP.isAcceptedBy("gzip;q=0, *")).isFalse();
+        assertThat(StorageCodec.GZIP.isAcceptedBy("*;q=0")).isFalse();
+        assertThat(StorageCodec.GZIP.isAcceptedBy("identity")).isFalse();
+        assertThat(StorageCodec.GZIP.isAcceptedBy(null)).isFalse();
+    }
+}
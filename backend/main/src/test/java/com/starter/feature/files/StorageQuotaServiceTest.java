@@ -0,0 +1,151 @@
+package com.starter.feature.files;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.starter.feature.files.exception.StorageQuotaExceededException;
+
+import java.util.List;
+import java.util.Optional;
+
+/** Unit tests for StorageQuotaService. */
+@ExtendWith(MockitoExtension.class)
+class StorageQuotaServiceTest {
+
+    private static final long MAX_QUOTA = 1000L;
+
+    @Mock
+    private StorageUsageRepository usageRepository;
+
+    @Mock
+    private ContentFacetRepository facetRepository;
+
+    @InjectMocks
+    private StorageQuotaService quotaService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(quotaService, "maxTotalSizeBytes", MAX_QUOTA);
+    }
+
+    @Test
+    void reserveForFile_shouldAddFileToCounters() {
+        // given
+        when(usageRepository.tryAdd(1L, 100L, 1, 0, MAX_QUOTA)).thenReturn(true);
+
+        // when
+        quotaService.reserveForFile(1L, 100L);
+
+        // then
+        verify(usageRepository).tryAdd(1L, 100L, 1, 0, MAX_QUOTA);
+    }
+
+    @Test
+    void reserveForFile_shouldThrow_whenConditionalUpdateRejects() {
+        // given
+        when(usageRepository.tryAdd(1L, 300L, 1, 0, MAX_QUOTA)).thenReturn(false);
+        when(usageRepository.findByUserId(1L)).thenReturn(Optional.of(
+            StorageUsage.builder().userId(1L).bytesUsed(600L).reservedBytes(200L).build()
+        ));
+
+        // when & then
+        assertThatThrownBy(() -> quotaService.reserveForFile(1L, 300L))
+            .isInstanceOf(StorageQuotaExceededException.class);
+    }
+
+    @Test
+    void reserveForPendingUpload_shouldThrowWithoutUpdate_whenLargerThanQuota() {
+        // given
+        when(usageRepository.findByUserId(1L)).thenReturn(Optional.empty());
+
+        // when & then
+        assertThatThrownBy(() -> quotaService.reserveForPendingUpload(1L, MAX_QUOTA + 1))
+            .isInstanceOf(StorageQuotaExceededException.class);
+        verify(usageRepository, never()).tryAdd(anyLong(), anyLong(), anyLong(), anyLong(), anyLong());
+    }
+
+    @Test
+    void getUsageInfo_shouldIncludePendingReservations() {
+        // given
+        when(usageRepository.findByUserId(1L)).thenReturn(Optional.of(
+            StorageUsage.builder().userId(1L).bytesUsed(200L).fileCount(2).reservedBytes(50L).build()
+        ));
+
+        // when
+        StorageQuotaService.StorageUsageInfo info = quotaService.getUsageInfo(1L);
+
+        // then
+        assertThat(info.getUsedBytes()).isEqualTo(250L);
+        assertThat(info.getPercentage()).isEqualTo(25.0);
+    }
+
+    @Test
+    void reconcile_shouldOverwriteCounters_whenTheyDrifted() {
+        // given
+        StorageUsage recorded = StorageUsage.builder().userId(1L).bytesUsed(500L).fileCount(3).build();
+        StorageUsage actual = StorageUsage.builder().userId(1L).bytesUsed(400L).fileCount(2).build();
+        when(usageRepository.lockByUserId(1L)).thenReturn(recorded);
+        when(usageRepository.computeFromFiles(1L)).thenReturn(actual);
+
+        // when
+        Optional<StorageUsage> drift = quotaService.reconcile(1L);
+
+        // then
+        assertThat(drift).contains(recorded);
+        verify(usageRepository).overwrite(actual);
+    }
+
+    @Test
+    void reconcile_shouldNotWrite_whenCountersMatch() {
+        // given
+        StorageUsage usage = StorageUsage.builder().userId(1L).bytesUsed(400L).fileCount(2).build();
+        when(usageRepository.lockByUserId(1L)).thenReturn(usage);
+        when(usageRepository.computeFromFiles(1L)).thenReturn(usage);
+
+        // when & then
+        assertThat(quotaService.reconcile(1L)).isEmpty();
+        verify(usageRepository, never()).overwrite(usage);
+    }
+
+    @Test
+    void reconcileFacets_shouldReplaceFacetsUnderCounterLock_whenTheyDrifted() {
+        // given - a delete path missed the facets
+        List<ContentFacet> recorded = List.of(new ContentFacet("image", 3, 300L));
+        List<ContentFacet> actual = List.of(new ContentFacet("image", 2, 200L), new ContentFacet("text", 1, 10L));
+        when(facetRepository.findByUserId(1L)).thenReturn(recorded);
+        when(facetRepository.computeFromFiles(1L)).thenReturn(actual);
+
+        // when
+        Optional<List<ContentFacet>> drift = quotaService.reconcileFacets(1L);
+
+        // then
+        assertThat(drift).contains(recorded);
+        verify(usageRepository).lockByUserId(1L);
+        verify(facetRepository).replace(1L, actual);
+    }
+
+    @Test
+    void reconcileFacets_shouldNotWrite_whenFacetsMatch() {
+        // given
+        List<ContentFacet> facets = List.of(new ContentFacet("image", 2, 200L));
+        when(facetRepository.findByUserId(1L)).thenReturn(facets);
+        when(facetRepository.computeFromFiles(1L)).thenReturn(List.copyOf(facets));
+
+        // when & then
+        assertThat(quotaService.reconcileFacets(1L)).isEmpty();
+        verify(facetRepository, never()).replace(any(), any());
+    }
+}
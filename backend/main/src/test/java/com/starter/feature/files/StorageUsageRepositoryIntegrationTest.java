@@ -0,0 +1,104 @@
+package com.starter.feature.files;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.starter.BaseIntegrationTest;
+import com.starter.core.user.User;
+import com.starter.core.user.UserService;
+
+/**
+ * Integration tests for StorageUsageRepository.
+ */
+class StorageUsageRepositoryIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private StorageUsageRepository usageRepository;
+
+    @Autowired
+    private FileRepository fileRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void computeFromFiles_shouldReturnZero_whenNoFiles() {
+        // when
+        StorageUsage usage = usageRepository.computeFromFiles(1L);
+
+        // then
+        assertThat(usage.getBytesUsed()).isZero();
+        assertThat(usage.getFileCount()).isZero();
+    }
+
+    @Test
+    @Transactional
+    void computeFromFiles_shouldSplitActiveAndPendingFiles_perUser() {
+        // given
+        Long userId1 = userService.createUser("usage1@example.com", "hashedPassword", User.Role.USER).getId();
+        Long userId2 = userService.createUser("usage2@example.com", "hashedPassword", User.Role.USER).getId();
+        fileRepository.save(file(userId1, "file1.txt", 100L, UserFile.Status.ACTIVE));
+        fileRepository.save(file(userId1, "file2.txt", 200L, UserFile.Status.ACTIVE));
+        fileRepository.save(file(userId1, "file3.txt", 50L, UserFile.Status.PENDING));
+        fileRepository.save(file(userId2, "file1.txt", 400L, UserFile.Status.ACTIVE));
+
+        // when
+        StorageUsage usage1 = usageRepository.computeFromFiles(userId1);
+        StorageUsage usage2 = usageRepository.computeFromFiles(userId2);
+
+        // then
+        assertThat(usage1.getBytesUsed()).isEqualTo(300L);
+        assertThat(usage1.getFileCount()).isEqualTo(2L);
+        assertThat(usage1.getReservedBytes()).isEqualTo(50L);
+        assertThat(usage2.getBytesUsed()).isEqualTo(400L);
+    }
+
+    @Test
+    @Transactional
+    void tryAdd_shouldRejectWithoutChanges_whenQuotaWouldBeExceeded() {
+        // given
+        Long userId = userService.createUser("usage3@example.com", "hashedPassword", User.Role.USER).getId();
+        assertThat(usageRepository.tryAdd(userId, 600L, 1, 0, 1000L)).isTrue();
+        assertThat(usageRepository.tryAdd(userId, 0, 0, 300L, 1000L)).isTrue();
+
+        // when
+        boolean added = usageRepository.tryAdd(userId, 200L, 1, 0, 1000L);
+
+        // then
+        assertThat(added).isFalse();
+        StorageUsage usage = usageRepository.findByUserId(userId).orElseThrow();
+        assertThat(usage.getBytesUsed()).isEqualTo(600L);
+        assertThat(usage.getFileCount()).isEqualTo(1L);
+        assertThat(usage.getReservedBytes()).isEqualTo(300L);
+        assertThat(usage.getVersion()).isEqualTo(2L);
+    }
+
+    @Test
+    @Transactional
+    void findDriftCandidates_shouldReturnUser_whenCountersDifferFromFiles() {
+        // given - file inserted without updating counters
+        Long userId = userService.createUser("usage4@example.com", "hashedPassword", User.Role.USER).getId();
+        fileRepository.save(file(userId, "file1.txt", 100L, UserFile.Status.ACTIVE));
+
+        // when & then
+        assertThat(usageRepository.findDriftCandidates()).contains(userId);
+
+        usageRepository.lockByUserId(userId);
+        usageRepository.overwrite(usageRepository.computeFromFiles(userId));
+        assertThat(usageRepository.findDriftCandidates()).doesNotContain(userId);
+    }
+
+    private static UserFile file(Long userId, String filename, long size, UserFile.Status status) {
+        return UserFile.builder()
+            .userId(userId)
+            .filename(filename)
+            .s3Key("users/" + userId + "/files/" + filename)
+            .sizeBytes(size)
+            .contentType("text/plain")
+            .status(status)
+            .build();
+    }
+}
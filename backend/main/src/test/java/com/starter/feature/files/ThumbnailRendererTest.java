@@ -0,0 +1,85 @@
+package com.starter.feature.files;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/** Unit tests for ThumbnailRenderer. */
+class ThumbnailRendererTest {
+
+    private final ThumbnailRenderer renderer = new ThumbnailRenderer(100_000_000L, 0.85f);
+
+    @Test
+    void render_shouldFitEachSizeKeepingAspectRatio() throws IOException {
+        // given
+        byte[] png = png(2000, 1000, BufferedImage.TYPE_INT_ARGB);
+
+        // when
+        List<byte[]> renditions = renderer.render(new ByteArrayInputStream(png), List.of(256, 1024));
+
+        // then
+        BufferedImage thumbnail = ImageIO.read(new ByteArrayInputStream(renditions.get(0)));
+        BufferedImage preview = ImageIO.read(new ByteArrayInputStream(renditions.get(1)));
+        assertThat(thumbnail.getWidth()).isEqualTo(256);
+        assertThat(thumbnail.getHeight()).isEqualTo(128);
+        assertThat(preview.getWidth()).isEqualTo(1024);
+        assertThat(preview.getHeight()).isEqualTo(512);
+    }
+
+    @Test
+    void render_shouldNotUpscaleSmallImages() throws IOException {
+        // given
+        byte[] png = png(100, 50, BufferedImage.TYPE_INT_RGB);
+
+        // when
+        List<byte[]> renditions = renderer.render(new ByteArrayInputStream(png), List.of(256));
+
+        // then
+        BufferedImage thumbnail = ImageIO.read(new ByteArrayInputStream(renditions.get(0)));
+        assertThat(thumbnail.getWidth()).isEqualTo(100);
+        assertThat(thumbnail.getHeight()).isEqualTo(50);
+    }
+
+    @Test
+    void render_shouldRejectUnreadableContent() {
+        // given
+        byte[] content = "<svg xmlns=\"http://www.w3.org/2000/svg\"/>".getBytes(StandardCharsets.UTF_8);
+
+        // when & then
+        assertThatThrownBy(() -> renderer.render(new ByteArrayInputStream(content), List.of(256)))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void render_shouldRejectImagesAboveThePixelLimit() throws IOException {
+        // given
+        ThumbnailRenderer limited = new ThumbnailRenderer(1000L, 0.85f);
+        byte[] png = png(100, 100, BufferedImage.TYPE_INT_RGB);
+
+        // when & then
+        assertThatThrownBy(() -> limited.render(new ByteArrayInputStream(png), List.of(256)))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("too large");
+    }
+
+    @Test
+    void subsampling_shouldKeepTwiceTheLargestSize() {
+        assertThat(ThumbnailRenderer.subsampling(8000, 6000, 1024)).isEqualTo(3);
+        assertThat(ThumbnailRenderer.subsampling(1500, 1000, 1024)).isEqualTo(1);
+    }
+
+    private static byte[] png(int width, int height, int type) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, type), "png", out);
+        return out.toByteArray();
+    }
+}
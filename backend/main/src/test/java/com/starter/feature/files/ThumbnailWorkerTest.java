@@ -0,0 +1,123 @@
+package com.starter.feature.files;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.List;
+
+/** Unit tests for ThumbnailWorker. */
+@ExtendWith(MockitoExtension.class)
+class ThumbnailWorkerTest {
+    private static final String THUMBNAIL_KEY = "users/1/thumbnails/10-256.jpg";
+    private static final String PREVIEW_KEY = "users/1/thumbnails/10-1024.jpg";
+
+    @Mock
+    private ThumbnailJobRepository jobRepository;
+
+    @Mock
+    private BlobStore blobStore;
+
+    @Mock
+    private S3OutboxRepository outboxRepository;
+
+    @Mock
+    private ThumbnailRenderer renderer;
+
+    private ThumbnailWorker worker;
+
+    @BeforeEach
+    void setUp() {
+        worker = new ThumbnailWorker(
+            jobRepository, blobStore, outboxRepository, renderer, new SimpleMeterRegistry(),
+            256, 1024, 1, 1, 600, 3, 60
+        );
+    }
+
+    @AfterEach
+    void tearDown() {
+        worker.shutdown();
+    }
+
+    @Test
+    void process_shouldUploadRenditionsAndCompleteJob() throws IOException {
+        // given
+        ThumbnailJob job = new ThumbnailJob(10L, 1L, "blobs/abc", 1);
+        byte[] thumbnail = {1};
+        byte[] preview = {2};
+        InputStream content = new ByteArrayInputStream(new byte[0]);
+        when(blobStore.openObject("blobs/abc")).thenReturn(content);
+        when(renderer.render(content, List.of(256, 1024))).thenReturn(List.of(thumbnail, preview));
+        when(jobRepository.complete(10L, THUMBNAIL_KEY, PREVIEW_KEY)).thenReturn(true);
+
+        // when
+        worker.process(job);
+
+        // then
+        verify(blobStore).uploadFile(THUMBNAIL_KEY, thumbnail, "image/jpeg");
+        verify(blobStore).uploadFile(PREVIEW_KEY, preview, "image/jpeg");
+        verify(outboxRepository, never()).enqueue(anyList(), any());
+    }
+
+    @Test
+    void process_shouldEnqueueRenditionsForDeletion_whenFileWasDeleted() throws IOException {
+        // given
+        ThumbnailJob job = new ThumbnailJob(10L, 1L, "blobs/abc", 1);
+        InputStream content = new ByteArrayInputStream(new byte[0]);
+        when(blobStore.openObject("blobs/abc")).thenReturn(content);
+        when(renderer.render(content, List.of(256, 1024))).thenReturn(List.of(new byte[1], new byte[1]));
+        when(jobRepository.complete(10L, THUMBNAIL_KEY, PREVIEW_KEY)).thenReturn(false);
+
+        // when
+        worker.process(job);
+
+        // then
+        verify(outboxRepository).enqueue(eq(List.of(THUMBNAIL_KEY, PREVIEW_KEY)), any(Instant.class));
+    }
+
+    @Test
+    void process_shouldMarkFailed_whenImageIsUnreadable() throws IOException {
+        // given
+        ThumbnailJob job = new ThumbnailJob(10L, 1L, "blobs/abc", 1);
+        when(blobStore.openObject("blobs/abc")).thenReturn(new ByteArrayInputStream(new byte[0]));
+        when(renderer.render(any(InputStream.class), anyList())).thenThrow(new IllegalArgumentException("Unsupported image format"));
+
+        // when
+        worker.process(job);
+
+        // then
+        verify(jobRepository).markFailed(10L);
+        verify(jobRepository, never()).reschedule(eq(10L), any());
+    }
+
+    @Test
+    void process_shouldRetryTransientFailures_untilMaxAttempts() {
+        // given
+        when(blobStore.openObject(anyString())).thenThrow(new IllegalStateException("connection reset"));
+
+        // when
+        worker.process(new ThumbnailJob(10L, 1L, "blobs/abc", 1));
+        worker.process(new ThumbnailJob(11L, 1L, "blobs/def", 3));
+
+        // then
+        verify(jobRepository).reschedule(eq(10L), any(Instant.class));
+        verify(jobRepository, never()).markFailed(10L);
+        verify(jobRepository).markFailed(11L);
+    }
+}
@@ -0,0 +1,215 @@
+package com.starter.feature.files;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/** Unit tests for UploadStateService. */
+@ExtendWith(MockitoExtension.class)
+class UploadStateServiceTest {
+
+    private static final String SHA256 = "a".repeat(64);
+
+    @Mock
+    private FileRepository fileRepository;
+
+    @Mock
+    private StorageQuotaService quotaService;
+
+    @Mock
+    private ContentFacetRepository facetRepository;
+
+    @Mock
+    private S3OutboxRepository outboxRepository;
+
+    @Mock
+    private FileBlobRepository blobRepository;
+
+    @InjectMocks
+    private UploadStateService uploadStateService;
+
+    @Test
+    void activate_shouldMoveReservationToActiveFiles() {
+        // given - stream of unknown length reserved nothing up front
+        UserFile pending = pendingFile(1L, 0L);
+        when(fileRepository.activate(eq(10L), eq(500L), isNull(), any(Instant.class))).thenReturn(true);
+
+        // when
+        UserFile activated = uploadStateService.activate(pending, 500L);
+
+        // then
+        assertThat(activated.getStatus()).isEqualTo(UserFile.Status.ACTIVE);
+        assertThat(activated.getSizeBytes()).isEqualTo(500L);
+        verify(quotaService).activatePendingUpload(1L, 0L, 500L);
+        verify(facetRepository).add(1L, pending.getContentType(), 500L);
+    }
+
+    @Test
+    void activate_shouldFail_whenUploadExpired() {
+        // given
+        UserFile pending = pendingFile(1L, 100L);
+        when(fileRepository.activate(eq(10L), eq(100L), isNull(), any(Instant.class))).thenReturn(false);
+
+        // when & then
+        assertThatThrownBy(() -> uploadStateService.activate(pending, 100L))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("expired");
+        verify(quotaService, never()).activatePendingUpload(anyLong(), anyLong(), anyLong());
+    }
+
+    @Test
+    void activate_shouldRegisterNewContentAsBlob() {
+        // given
+        UserFile pending = pendingFile(1L, 0L);
+        pending.setS3Key("blobs/new");
+        when(fileRepository.activate(eq(10L), eq(500L), isNull(), any(Instant.class))).thenReturn(true);
+        FileBlob blob = new FileBlob(7L, SHA256, 500L, "blobs/new", null, null);
+        when(blobRepository.register(SHA256, 500L, "blobs/new", null, null)).thenReturn(blob);
+
+        // when
+        UserFile activated = uploadStateService.activate(pending, 500L, SHA256);
+
+        // then
+        assertThat(activated.getBlobId()).isEqualTo(7L);
+        assertThat(activated.getS3Key()).isEqualTo("blobs/new");
+        verify(fileRepository).attachBlob(10L, blob);
+        verify(outboxRepository, never()).enqueue(any(), any());
+    }
+
+    @Test
+    void activate_shouldReferenceStoredBlobAndDropCopy_whenContentAlreadyStored() {
+        // given - same content was stored by a concurrent upload
+        UserFile pending = pendingFile(1L, 0L);
+        pending.setS3Key("blobs/new");
+        when(fileRepository.activate(eq(10L), eq(500L), isNull(), any(Instant.class))).thenReturn(true);
+        FileBlob stored = new FileBlob(3L, SHA256, 500L, "blobs/old", null, null);
+        when(blobRepository.register(SHA256, 500L, "blobs/new", null, null)).thenReturn(stored);
+
+        // when
+        UserFile activated = uploadStateService.activate(pending, 500L, SHA256);
+
+        // then
+        assertThat(activated.getS3Key()).isEqualTo("blobs/old");
+        assertThat(activated.contentKeys()).isEmpty();
+        verify(fileRepository).attachBlob(10L, stored);
+        verify(outboxRepository).enqueue(eq(List.of("blobs/new")), any(Instant.class));
+    }
+
+    @Test
+    void activate_shouldRecordStoredSize_andTakeCodecOfStoredBlob() {
+        // given - gzip upload of content that is already stored as uploaded
+        UserFile pending = pendingFile(1L, 0L);
+        pending.setS3Key("blobs/new");
+        pending.setCodec(StorageCodec.GZIP);
+        when(fileRepository.activate(eq(10L), eq(500L), eq(120L), any(Instant.class))).thenReturn(true);
+        FileBlob stored = new FileBlob(3L, SHA256, 500L, "blobs/old", null, null);
+        when(blobRepository.register(SHA256, 500L, "blobs/new", StorageCodec.GZIP, 120L)).thenReturn(stored);
+
+        // when
+        UserFile activated = uploadStateService.activate(pending, 500L, 120L, SHA256);
+
+        // then
+        assertThat(activated.getCodec()).isNull();
+        assertThat(activated.storedSize()).isEqualTo(500L);
+        verify(quotaService).activatePendingUpload(1L, 0L, 500L);
+        verify(fileRepository).attachBlob(10L, stored);
+    }
+
+    @Test
+    void createFromBlob_shouldChargeQuotaAndSkipUpload_whenContentStored() {
+        // given
+        FileBlob stored = new FileBlob(3L, SHA256, 500L, "blobs/old", StorageCodec.GZIP, 120L);
+        when(blobRepository.acquire(SHA256, 500L)).thenReturn(Optional.of(stored));
+        when(fileRepository.save(any(UserFile.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        // when
+        Optional<UserFile> file = uploadStateService.createFromBlob(1L, "notes.txt", "text/plain", SHA256, 500L);
+
+        // then
+        assertThat(file).hasValueSatisfying(f -> {
+            assertThat(f.getBlobId()).isEqualTo(3L);
+            assertThat(f.getS3Key()).isEqualTo("blobs/old");
+            assertThat(f.getStatus()).isEqualTo(UserFile.Status.ACTIVE);
+            assertThat(f.getCodec()).isEqualTo(StorageCodec.GZIP);
+            assertThat(f.getStoredSizeBytes()).isEqualTo(120L);
+        });
+        verify(quotaService).reserveForFile(1L, 500L);
+    }
+
+    @Test
+    void createFromBlob_shouldReturnEmpty_whenContentNotStored() {
+        // given
+        when(blobRepository.acquire(SHA256, 500L)).thenReturn(Optional.empty());
+
+        // when
+        Optional<UserFile> file = uploadStateService.createFromBlob(1L, "notes.txt", "text/plain", SHA256, 500L);
+
+        // then
+        assertThat(file).isEmpty();
+        verify(quotaService, never()).reserveForFile(anyLong(), anyLong());
+    }
+
+    @Test
+    void fail_shouldReleaseReservation_onlyOnce() {
+        // given
+        UserFile pending = pendingFile(1L, 100L);
+        when(fileRepository.markFailed(eq(10L), any(Instant.class))).thenReturn(true, false);
+
+        // when
+        uploadStateService.fail(pending);
+        uploadStateService.fail(pending);
+
+        // then
+        assertThat(pending.getStatus()).isEqualTo(UserFile.Status.FAILED);
+        verify(quotaService).releasePendingUpload(1L, 100L);
+    }
+
+    @Test
+    void expire_shouldReleaseQuotaOfPendingUploadsPerUser() {
+        // given - FAILED rows already released their reservation
+        Instant now = Instant.now();
+        UserFile first = pendingFile(1L, 100L);
+        UserFile second = pendingFile(1L, 50L);
+        UserFile failed = pendingFile(2L, 70L);
+        failed.setStatus(UserFile.Status.FAILED);
+        when(fileRepository.deleteExpiredUploads(now, 100)).thenReturn(List.of(first, second, failed));
+
+        // when
+        List<UserFile> expired = uploadStateService.expire(now, 100);
+
+        // then
+        assertThat(expired).hasSize(3);
+        verify(quotaService).releasePendingUpload(1L, 150L);
+        verify(quotaService, never()).releasePendingUpload(eq(2L), anyLong());
+        verify(outboxRepository).enqueue(List.of(first.getS3Key(), second.getS3Key(), failed.getS3Key()), now);
+    }
+
+    private UserFile pendingFile(Long userId, long size) {
+        return UserFile.builder()
+            .id(10L)
+            .userId(userId)
+            .filename("notes.txt")
+            .s3Key("users/" + userId + "/files/abc-notes.txt")
+            .sizeBytes(size)
+            .contentType("text/plain")
+            .status(UserFile.Status.PENDING)
+            .uploadExpiresAt(Instant.now().plusSeconds(600))
+            .build();
+    }
+}
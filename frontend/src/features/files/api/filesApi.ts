@@ -6,6 +6,8 @@ export interface UserFile {
   sizeBytes: number;
   contentType: string;
   createdAt: string;
+  thumbnailUrl: string | null;
+  previewUrl: string | null;
 }
 
 export interface FileStats {
@@ -54,4 +54,16 @@ resource "aws_s3_bucket_lifecycle_configuration" "user_files" {
       noncurrent_days = 30
     }
   }
+
+  # Backstop for multipart uploads the backend never completed or aborted (resumable uploads, crashes)
+  rule {
+    id     = "abort_incomplete_multipart_uploads"
+    status = "Enabled"
+
+    filter {}
+
+    abort_incomplete_multipart_upload {
+      days_after_initiation = 7
+    }
+  }
 }
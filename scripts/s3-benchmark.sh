@@ -0,0 +1,19 @@
+#!/bin/bash
+# Compare sync and async S3 client modes (requests/s, p50/p99 latency) against LocalStack.
+# Usage: scripts/s3-benchmark.sh [requests-per-mode] [requests-in-flight]
+set -e
+cd "$(dirname "$0")/.."
+
+REQUESTS="${1:-5000}"
+CONCURRENCY="${2:-500}"
+S3_ENDPOINT="http://localhost:4566"
+
+echo "☁️  Starting LocalStack..."
+docker compose -f infra/docker-compose.dev.yml up -d localstack
+until curl -s "$S3_ENDPOINT/_localstack/health" >/dev/null 2>&1; do
+    sleep 1
+done
+
+echo "⏱️  Benchmarking S3 client modes..."
+./gradlew :backend:main:s3Benchmark --no-daemon -q \
+    -Ps3Endpoint="$S3_ENDPOINT" -Prequests="$REQUESTS" -Pconcurrency="$CONCURRENCY"
@@ -0,0 +1,20 @@
+#!/bin/bash
+# Compare filename search before and after the trigram index (V21) on a synthetic table (p50/p99 latency).
+# Runs in a scratch schema of the dev database, which is dropped afterwards.
+# Usage: scripts/search-benchmark.sh [rows] [runs-per-query]
+set -e
+cd "$(dirname "$0")/.."
+
+ROWS="${1:-1000000}"
+RUNS="${2:-50}"
+COMPOSE="docker compose -f infra/docker-compose.dev.yml"
+
+echo "🐘 Starting PostgreSQL..."
+$COMPOSE up -d postgres
+until $COMPOSE exec -T postgres pg_isready -U postgres -d starter >/dev/null 2>&1; do
+    sleep 1
+done
+
+echo "⏱️  Benchmarking filename search on $ROWS rows ($RUNS runs per query)..."
+$COMPOSE exec -T postgres psql -U postgres -d starter -q -v ON_ERROR_STOP=1 \
+    -v rows="$ROWS" -v runs="$RUNS" < scripts/search-benchmark.sql
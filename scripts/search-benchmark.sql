@@ -0,0 +1,117 @@
+-- Filename search benchmark, run by scripts/search-benchmark.sh (psql variables :rows and :runs).
+-- One power user owns a quarter of the rows; searches are for that user, as the slowest case.
+
+\set ON_ERROR_STOP on
+DROP SCHEMA IF EXISTS search_benchmark CASCADE;
+CREATE SCHEMA search_benchmark;
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE EXTENSION IF NOT EXISTS btree_gin;
+
+CREATE TABLE search_benchmark.user_files (
+    id BIGSERIAL PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    filename VARCHAR(255) NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'ACTIVE',
+    created_at TIMESTAMP NOT NULL
+);
+
+INSERT INTO search_benchmark.user_files (user_id, filename, created_at)
+SELECT CASE WHEN n % 4 = 0 THEN 1 ELSE 2 + n % 1000 END,
+       (ARRAY['report', 'invoice', 'photo', 'scan', 'notes', 'draft', 'budget', 'contract'])[1 + n % 8]
+           || '-' || (2015 + n % 10) || '-' || substr(md5(n::text), 1, 8)
+           || (ARRAY['.pdf', '.jpg', '.png', '.txt', '.docx'])[1 + n % 5],
+       TIMESTAMP '2024-01-01' + n * INTERVAL '1 second'
+FROM generate_series(1, :rows) AS n;
+
+-- Indexes before V21 (V11 keyset index)
+CREATE INDEX ON search_benchmark.user_files (user_id, created_at, id) WHERE status = 'ACTIVE';
+ANALYZE search_benchmark.user_files;
+
+CREATE FUNCTION search_benchmark.measure(label TEXT, query TEXT, runs INT)
+RETURNS TABLE (benchmark TEXT, p50_ms NUMERIC, p99_ms NUMERIC) AS $$
+DECLARE
+    started TIMESTAMPTZ;
+    samples DOUBLE PRECISION[] := '{}';
+BEGIN
+    FOR i IN 1..runs LOOP
+        started := clock_timestamp();
+        EXECUTE query;
+        samples := samples || extract(EPOCH FROM clock_timestamp() - started) * 1000;
+    END LOOP;
+    RETURN QUERY
+    SELECT label,
+           round(percentile_cont(0.5) WITHIN GROUP (ORDER BY s)::NUMERIC, 2),
+           round(percentile_cont(0.99) WITHIN GROUP (ORDER BY s)::NUMERIC, 2)
+    FROM unnest(samples) AS s;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Common term, rare term, a typo (only the ranked search finds it) and a miss
+CREATE TABLE search_benchmark.terms (term TEXT);
+INSERT INTO search_benchmark.terms VALUES ('invoice'), ('contract-2019'), ('invoce'), ('zzzz');
+
+CREATE TABLE search_benchmark.results (phase TEXT, term TEXT, benchmark TEXT, p50_ms NUMERIC, p99_ms NUMERIC);
+
+-- Before: ILIKE page ordered by date plus an exact ILIKE count
+INSERT INTO search_benchmark.results
+SELECT 'before', t.term, m.*
+FROM search_benchmark.terms t,
+LATERAL search_benchmark.measure('page', format($q$
+    SELECT id, filename FROM search_benchmark.user_files
+    WHERE user_id = 1 AND status = 'ACTIVE' AND filename ILIKE %L
+    ORDER BY created_at DESC LIMIT 20
+$q$, '%' || t.term || '%'), :runs) m
+UNION ALL
+SELECT 'before', t.term, m.*
+FROM search_benchmark.terms t,
+LATERAL search_benchmark.measure('count', format($q$
+    SELECT COUNT(*) FROM search_benchmark.user_files
+    WHERE user_id = 1 AND status = 'ACTIVE' AND filename ILIKE %L
+$q$, '%' || t.term || '%'), :runs) m;
+
+-- After: V21 trigram index, ranked page and capped count (FileRepository.findByUserIdAndFilenameContaining)
+CREATE INDEX ON search_benchmark.user_files USING gin (user_id, filename gin_trgm_ops) WHERE status = 'ACTIVE';
+ANALYZE search_benchmark.user_files;
+
+INSERT INTO search_benchmark.results
+SELECT 'after', t.term, m.*
+FROM search_benchmark.terms t,
+LATERAL search_benchmark.measure('page', format($q$
+    SELECT id, filename FROM (
+        (
+            SELECT * FROM search_benchmark.user_files
+            WHERE user_id = 1 AND status = 'ACTIVE' AND filename ILIKE %1$L
+            ORDER BY created_at DESC, id DESC
+            LIMIT 1001
+        )
+        UNION ALL
+        (
+            SELECT * FROM search_benchmark.user_files
+            WHERE user_id = 1 AND status = 'ACTIVE' AND %2$L <%% filename AND NOT filename ILIKE %1$L
+            ORDER BY created_at DESC, id DESC
+            LIMIT 1001
+        )
+    ) candidates
+    ORDER BY filename ILIKE %1$L DESC, word_similarity(%2$L, filename) DESC, created_at DESC, id DESC
+    LIMIT 20
+$q$, '%' || t.term || '%', t.term), :runs) m
+UNION ALL
+SELECT 'after', t.term, m.*
+FROM search_benchmark.terms t,
+LATERAL search_benchmark.measure('count', format($q$
+    SELECT COUNT(*) FROM (
+        SELECT 1 FROM search_benchmark.user_files
+        WHERE user_id = 1 AND status = 'ACTIVE' AND (filename ILIKE %1$L OR %2$L <%% filename)
+        LIMIT 1001
+    ) matches
+$q$, '%' || t.term || '%', t.term), :runs) m;
+
+SELECT b.term, b.benchmark,
+       b.p50_ms AS before_p50_ms, a.p50_ms AS after_p50_ms,
+       b.p99_ms AS before_p99_ms, a.p99_ms AS after_p99_ms
+FROM search_benchmark.results b
+JOIN search_benchmark.results a ON a.phase = 'after' AND a.term = b.term AND a.benchmark = b.benchmark
+WHERE b.phase = 'before'
+ORDER BY b.term, b.benchmark DESC;
+
+DROP SCHEMA search_benchmark CASCADE;